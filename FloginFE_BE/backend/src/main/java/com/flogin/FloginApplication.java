@@ -2,8 +2,22 @@ package com.flogin;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 
-@SpringBootApplication
+/**
+ * R2DBC chỉ dùng cho stack reactive (profile reactive) và được cấu hình trong R2dbcConfig;
+ * auto-configuration của Spring Boot bị tắt vì nó luôn tạo ConnectionFactory + ReactiveTransactionManager
+ * khi có driver trên classpath, làm @Transactional của JPA không còn 1 TransactionManager duy nhất
+ */
+@SpringBootApplication(exclude = {
+        R2dbcAutoConfiguration.class,
+        R2dbcDataAutoConfiguration.class,
+        R2dbcRepositoriesAutoConfiguration.class,
+        R2dbcTransactionManagerAutoConfiguration.class
+})
 public class FloginApplication {
     public static void main(String[] args) {
         SpringApplication.run(FloginApplication.class, args);
@@ -0,0 +1,601 @@
+package com.flogin.catalog;
+
+import com.flogin.dto.ProductDTO;
+import com.flogin.dto.ProductPage;
+import com.flogin.dto.ProductSearchCriteria;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Snapshot chỉ đọc của toàn bộ danh mục sản phẩm, lưu theo cột (columnar) trong heap
+ *
+ * - Mỗi cột là 1 mảng primitive: id (int[]), giá (double[]), tồn kho (int[]), version (long[]),
+ *   updatedAt (giây + nano); danh mục được mã hóa theo từ điển (int[] mã, mỗi chuỗi danh mục chỉ giữ 1 bản);
+ *   name / description là UTF-8 nối liền trong 1 byte[] kèm mảng offset, không có 1 String cho mỗi dòng
+ * - Dòng được sắp theo id và chia thành các chunk tối đa CHUNK_SIZE dòng: trang theo keyset là tìm nhị phân
+ *   vị trí after rồi quét tiếp; bộ lọc kiểm tra cột số trước, tiền tố name được so trực tiếp trên byte UTF-8
+ * - Copy-on-write: snapshot không bao giờ bị sửa, with(...) trả về snapshot mới dùng lại các chunk không đổi
+ *   và chỉ sao chép chunk có dòng thay đổi; luồng đọc đang giữ snapshot cũ vẫn thấy dữ liệu nhất quán
+ * - version / updatedAt: phiên bản danh mục (CatalogVersion) mà snapshot đã chứa đủ mọi thay đổi tới đó
+ */
+public final class CatalogSnapshot {
+
+    /** Số dòng tối đa của 1 chunk: ghi 1 sản phẩm chỉ sao chép 1 chunk */
+    static final int CHUNK_SIZE = 1024;
+
+    /** Mã danh mục của sản phẩm không có danh mục */
+    private static final int NO_CATEGORY = -1;
+
+    /** Giá trị cột updatedSeconds khi updatedAt null (dữ liệu cũ) */
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private static final byte[] NO_BYTES = new byte[0];
+
+    /**
+     * 1 đoạn dòng liên tiếp theo id, các mảng có đúng size() phần tử (trừ cột byte)
+     */
+    private static final class Chunk {
+        final int[] ids;
+        final double[] prices;
+        final int[] quantities;
+        final int[] categories;
+        final long[] versions;
+        final long[] updatedSeconds;
+        final int[] updatedNanos;
+        /** UTF-8 của các name nối liền, name của dòng i kết thúc ở nameEnds[i] */
+        final byte[] names;
+        final int[] nameEnds;
+        final byte[] descriptions;
+        final int[] descriptionEnds;
+        /** Bit i = 1: description của dòng i là null */
+        final long[] nullDescriptions;
+
+        Chunk(int[] ids, double[] prices, int[] quantities, int[] categories, long[] versions,
+              long[] updatedSeconds, int[] updatedNanos, byte[] names, int[] nameEnds,
+              byte[] descriptions, int[] descriptionEnds, long[] nullDescriptions) {
+            this.ids = ids;
+            this.prices = prices;
+            this.quantities = quantities;
+            this.categories = categories;
+            this.versions = versions;
+            this.updatedSeconds = updatedSeconds;
+            this.updatedNanos = updatedNanos;
+            this.names = names;
+            this.nameEnds = nameEnds;
+            this.descriptions = descriptions;
+            this.descriptionEnds = descriptionEnds;
+            this.nullDescriptions = nullDescriptions;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        int lastId() {
+            return ids[ids.length - 1];
+        }
+
+        int nameStart(int row) {
+            return row == 0 ? 0 : nameEnds[row - 1];
+        }
+
+        int descriptionStart(int row) {
+            return row == 0 ? 0 : descriptionEnds[row - 1];
+        }
+
+        boolean descriptionIsNull(int row) {
+            return (nullDescriptions[row >>> 6] & (1L << row)) != 0;
+        }
+
+        String name(int row) {
+            int start = nameStart(row);
+            return new String(names, start, nameEnds[row] - start, StandardCharsets.UTF_8);
+        }
+
+        String description(int row) {
+            if (descriptionIsNull(row)) {
+                return null;
+            }
+            int start = descriptionStart(row);
+            return new String(descriptions, start, descriptionEnds[row] - start, StandardCharsets.UTF_8);
+        }
+
+        /** 6 mảng int, 3 mảng 8 byte, 2 mảng byte, bitmap null và chính object chunk (12 tham chiếu) */
+        long bytes() {
+            return objectBytes(12 * 4) + arrayBytes(ids.length, 4) * 6 + arrayBytes(ids.length, 8) * 3
+                    + arrayBytes(names.length, 1) + arrayBytes(descriptions.length, 1)
+                    + arrayBytes(nullDescriptions.length, 8);
+        }
+    }
+
+    /**
+     * Từ điển danh mục: mã là vị trí trong mảng, chỉ thêm không xóa nên mã của chunk cũ luôn còn đúng
+     * Mảng được sao chép khi thêm danh mục mới, snapshot cũ vẫn giữ mảng của nó
+     */
+    private static final class Dictionary {
+        private String[] values;
+        private Map<String, Integer> codes;
+
+        Dictionary(String[] values) {
+            this.values = values;
+        }
+
+        int encode(String category) {
+            if (category == null) {
+                return NO_CATEGORY;
+            }
+            if (codes == null) {
+                codes = new HashMap<>();
+                for (int i = 0; i < values.length; i++) {
+                    codes.put(values[i], i);
+                }
+            }
+            Integer code = codes.get(category);
+            if (code == null) {
+                code = values.length;
+                values = Arrays.copyOf(values, code + 1);
+                values[code] = category;
+                codes.put(category, code);
+            }
+            return code;
+        }
+
+        String[] values() {
+            return values;
+        }
+    }
+
+    /**
+     * Ghi lần lượt các dòng (theo id tăng dần) thành chunk, đủ CHUNK_SIZE dòng thì đóng chunk
+     */
+    private static final class ChunkWriter {
+        private final List<Chunk> out;
+        private final int[] ids = new int[CHUNK_SIZE];
+        private final double[] prices = new double[CHUNK_SIZE];
+        private final int[] quantities = new int[CHUNK_SIZE];
+        private final int[] categories = new int[CHUNK_SIZE];
+        private final long[] versions = new long[CHUNK_SIZE];
+        private final long[] updatedSeconds = new long[CHUNK_SIZE];
+        private final int[] updatedNanos = new int[CHUNK_SIZE];
+        private final int[] nameEnds = new int[CHUNK_SIZE];
+        private final int[] descriptionEnds = new int[CHUNK_SIZE];
+        private final long[] nullDescriptions = new long[CHUNK_SIZE / 64];
+        /** Đệm UTF-8, tăng kích thước khi cần */
+        private byte[] names = new byte[CHUNK_SIZE * 16];
+        private byte[] descriptions = new byte[CHUNK_SIZE * 16];
+        private int count;
+        private int nameLength;
+        private int descriptionLength;
+
+        ChunkWriter(List<Chunk> out) {
+            this.out = out;
+        }
+
+        void add(ProductDTO product, int category) {
+            int row = count;
+            ids[row] = product.getId();
+            prices[row] = product.getPrice() != null ? product.getPrice() : Double.NaN;
+            quantities[row] = product.getQuantity() != null ? product.getQuantity() : 0;
+            categories[row] = category;
+            versions[row] = product.getVersion() != null ? product.getVersion() : 0;
+            Instant updatedAt = product.getUpdatedAt();
+            updatedSeconds[row] = updatedAt != null ? updatedAt.getEpochSecond() : NO_TIMESTAMP;
+            updatedNanos[row] = updatedAt != null ? updatedAt.getNano() : 0;
+            byte[] name = product.getName() != null ? product.getName().getBytes(StandardCharsets.UTF_8) : NO_BYTES;
+            appendName(name, 0, name.length);
+            if (product.getDescription() == null) {
+                nullDescriptions[row >>> 6] |= 1L << row;
+                appendDescription(NO_BYTES, 0, 0);
+            } else {
+                byte[] description = product.getDescription().getBytes(StandardCharsets.UTF_8);
+                appendDescription(description, 0, description.length);
+            }
+            next();
+        }
+
+        /** Sao chép nguyên 1 dòng của chunk khác (không giải mã chuỗi) */
+        void copy(Chunk chunk, int source) {
+            int row = count;
+            ids[row] = chunk.ids[source];
+            prices[row] = chunk.prices[source];
+            quantities[row] = chunk.quantities[source];
+            categories[row] = chunk.categories[source];
+            versions[row] = chunk.versions[source];
+            updatedSeconds[row] = chunk.updatedSeconds[source];
+            updatedNanos[row] = chunk.updatedNanos[source];
+            int nameStart = chunk.nameStart(source);
+            appendName(chunk.names, nameStart, chunk.nameEnds[source] - nameStart);
+            if (chunk.descriptionIsNull(source)) {
+                nullDescriptions[row >>> 6] |= 1L << row;
+            }
+            int descriptionStart = chunk.descriptionStart(source);
+            appendDescription(chunk.descriptions, descriptionStart, chunk.descriptionEnds[source] - descriptionStart);
+            next();
+        }
+
+        private void appendName(byte[] source, int offset, int length) {
+            if (nameLength + length > names.length) {
+                names = Arrays.copyOf(names, Math.max(names.length * 2, nameLength + length));
+            }
+            System.arraycopy(source, offset, names, nameLength, length);
+            nameLength += length;
+            nameEnds[count] = nameLength;
+        }
+
+        private void appendDescription(byte[] source, int offset, int length) {
+            if (descriptionLength + length > descriptions.length) {
+                descriptions = Arrays.copyOf(descriptions, Math.max(descriptions.length * 2, descriptionLength + length));
+            }
+            System.arraycopy(source, offset, descriptions, descriptionLength, length);
+            descriptionLength += length;
+            descriptionEnds[count] = descriptionLength;
+        }
+
+        private void next() {
+            if (++count == CHUNK_SIZE) {
+                finish();
+            }
+        }
+
+        /** Đóng chunk đang ghi (nếu có dòng), các mảng được cắt đúng kích thước */
+        void finish() {
+            if (count == 0) {
+                return;
+            }
+            out.add(new Chunk(Arrays.copyOf(ids, count), Arrays.copyOf(prices, count),
+                    Arrays.copyOf(quantities, count), Arrays.copyOf(categories, count),
+                    Arrays.copyOf(versions, count), Arrays.copyOf(updatedSeconds, count),
+                    Arrays.copyOf(updatedNanos, count), Arrays.copyOf(names, nameLength),
+                    Arrays.copyOf(nameEnds, count), Arrays.copyOf(descriptions, descriptionLength),
+                    Arrays.copyOf(descriptionEnds, count), Arrays.copyOf(nullDescriptions, (count + 63) >>> 6)));
+            // Các mảng đệm được dùng lại cho chunk sau
+            Arrays.fill(nullDescriptions, 0);
+            count = 0;
+            nameLength = 0;
+            descriptionLength = 0;
+        }
+    }
+
+    /**
+     * Dựng snapshot từ các sản phẩm theo id tăng dần (ví dụ stream toàn bảng ORDER BY id)
+     * Mỗi dòng chỉ tồn tại dưới dạng cột: ProductDTO truyền vào không bị giữ lại
+     */
+    public static final class Builder {
+        private final Dictionary dictionary = new Dictionary(new String[0]);
+        private final List<Chunk> chunks = new ArrayList<>();
+        private final ChunkWriter writer = new ChunkWriter(chunks);
+        private int lastId = Integer.MIN_VALUE;
+
+        public Builder add(ProductDTO product) {
+            if (product.getId() <= lastId) {
+                throw new IllegalArgumentException("Products must be added in ascending id order: "
+                        + product.getId() + " after " + lastId);
+            }
+            lastId = product.getId();
+            writer.add(product, dictionary.encode(product.getCategory()));
+            return this;
+        }
+
+        public CatalogSnapshot build(long version, Instant updatedAt) {
+            writer.finish();
+            return new CatalogSnapshot(chunks.toArray(new Chunk[0]), dictionary.values(), version, updatedAt);
+        }
+    }
+
+    /**
+     * Bộ lọc của searchProducts, cùng ngữ nghĩa với ProductSpecifications.matching
+     * name / category so sánh không phân biệt hoa thường như collation mặc định (_ci) của MySQL
+     */
+    private static final class Filter {
+        static final Filter ALL = new Filter(null, null, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, null);
+
+        final String namePrefix;
+        /** UTF-8 của namePrefix, so trực tiếp với cột names */
+        final byte[] namePrefixBytes;
+        /** categoryMask[mã] = true nếu danh mục khớp, null = không lọc theo danh mục */
+        final boolean[] categoryMask;
+        final double minPrice;
+        final double maxPrice;
+        final Boolean inStock;
+
+        Filter(String namePrefix, boolean[] categoryMask, double minPrice, double maxPrice, Boolean inStock) {
+            this.namePrefix = namePrefix;
+            this.namePrefixBytes = namePrefix != null ? namePrefix.getBytes(StandardCharsets.UTF_8) : null;
+            this.categoryMask = categoryMask;
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+            this.inStock = inStock;
+        }
+
+        boolean matches(Chunk chunk, int row) {
+            double price = chunk.prices[row];
+            if (!(price >= minPrice && price <= maxPrice)) {
+                return false;
+            }
+            if (inStock != null && (chunk.quantities[row] > 0) != inStock) {
+                return false;
+            }
+            if (categoryMask != null) {
+                int category = chunk.categories[row];
+                if (category == NO_CATEGORY || !categoryMask[category]) {
+                    return false;
+                }
+            }
+            return namePrefix == null || nameStartsWith(chunk, row);
+        }
+
+        /**
+         * name của dòng bắt đầu bằng namePrefix (không phân biệt hoa thường), so trên byte UTF-8 không tạo String:
+         * byte giống nhau (kể cả ký tự non-ASCII cùng cách viết) hoặc chữ ASCII khác hoa thường thì so tiếp;
+         * chỉ khi 2 byte khác nhau có 1 byte non-ASCII (ví dụ "ả" / "Ả") mới giải mã name để so như String
+         */
+        private boolean nameStartsWith(Chunk chunk, int row) {
+            byte[] names = chunk.names;
+            int start = chunk.nameStart(row);
+            int end = chunk.nameEnds[row];
+            for (int i = 0; i < namePrefixBytes.length; i++) {
+                if (start + i == end) {
+                    // Các byte trước đều khớp theo từng ký tự: name ngắn hơn tiền tố
+                    return false;
+                }
+                byte a = names[start + i];
+                byte b = namePrefixBytes[i];
+                if (a == b) {
+                    continue;
+                }
+                if ((a | b) < 0) {
+                    return chunk.name(row).regionMatches(true, 0, namePrefix, 0, namePrefix.length());
+                }
+                if (toLowerAscii(a) != toLowerAscii(b)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static int toLowerAscii(byte b) {
+            return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+        }
+    }
+
+    private static final CatalogSnapshot EMPTY = new CatalogSnapshot(new Chunk[0], new String[0], 0, null);
+
+    private final Chunk[] chunks;
+    private final String[] categories;
+    private final int size;
+    private final long version;
+    private final Instant updatedAt;
+
+    private CatalogSnapshot(Chunk[] chunks, String[] categories, long version, Instant updatedAt) {
+        this.chunks = chunks;
+        this.categories = categories;
+        this.version = version;
+        this.updatedAt = updatedAt;
+        int rows = 0;
+        for (Chunk chunk : chunks) {
+            rows += chunk.size();
+        }
+        this.size = rows;
+    }
+
+    public static CatalogSnapshot empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Số sản phẩm trong snapshot */
+    public int size() {
+        return size;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /**
+     * Snapshot mới sau khi áp dụng các thay đổi; snapshot hiện tại không đổi
+     * Id vừa có trong deletedIds vừa có trong upserts thì giữ bản upsert
+     *
+     * @param upserts trạng thái mới nhất của các sản phẩm được tạo / sửa
+     * @param deletedIds id các sản phẩm đã xóa (id không có trong snapshot bị bỏ qua)
+     * @param version phiên bản danh mục của snapshot mới
+     * @param updatedAt thời điểm thay đổi danh mục của version
+     */
+    public CatalogSnapshot with(Collection<ProductDTO> upserts, Collection<Integer> deletedIds,
+                                long version, Instant updatedAt) {
+        TreeMap<Integer, ProductDTO> changes = new TreeMap<>();
+        for (Integer id : deletedIds) {
+            changes.put(id, null);
+        }
+        for (ProductDTO product : upserts) {
+            changes.put(product.getId(), product);
+        }
+        if (changes.isEmpty()) {
+            return new CatalogSnapshot(chunks, categories, version, updatedAt);
+        }
+        int n = changes.size();
+        int[] ids = new int[n];
+        ProductDTO[] rows = new ProductDTO[n];
+        int k = 0;
+        for (Map.Entry<Integer, ProductDTO> change : changes.entrySet()) {
+            ids[k] = change.getKey();
+            rows[k++] = change.getValue();
+        }
+
+        Dictionary dictionary = new Dictionary(categories);
+        List<Chunk> result = new ArrayList<>(chunks.length + 1);
+        int c = 0;
+        for (int i = 0; i < chunks.length; i++) {
+            Chunk chunk = chunks[i];
+            // Thay đổi có id nhỏ hơn id đầu của chunk sau thuộc chunk này (chunk cuối nhận mọi id còn lại)
+            long upper = i + 1 < chunks.length ? chunks[i + 1].ids[0] : Long.MAX_VALUE;
+            if (c == n || ids[c] >= upper) {
+                result.add(chunk);
+                continue;
+            }
+            ChunkWriter writer = new ChunkWriter(result);
+            int r = 0;
+            while (r < chunk.size() || (c < n && ids[c] < upper)) {
+                if (c < n && ids[c] < upper && (r == chunk.size() || ids[c] <= chunk.ids[r])) {
+                    if (r < chunk.size() && ids[c] == chunk.ids[r]) {
+                        r++;
+                    }
+                    if (rows[c] != null) {
+                        writer.add(rows[c], dictionary.encode(rows[c].getCategory()));
+                    }
+                    c++;
+                } else {
+                    writer.copy(chunk, r++);
+                }
+            }
+            writer.finish();
+        }
+        if (c < n) {
+            // Snapshot rỗng
+            ChunkWriter writer = new ChunkWriter(result);
+            for (; c < n; c++) {
+                if (rows[c] != null) {
+                    writer.add(rows[c], dictionary.encode(rows[c].getCategory()));
+                }
+            }
+            writer.finish();
+        }
+        return new CatalogSnapshot(result.toArray(new Chunk[0]), dictionary.values(), version, updatedAt);
+    }
+
+    /**
+     * 1 trang sản phẩm có id > afterId theo id tăng dần, giống ProductService.getProducts
+     */
+    public ProductPage getProducts(int afterId, int size) {
+        return find(afterId, size, Filter.ALL);
+    }
+
+    /**
+     * 1 trang sản phẩm khớp điều kiện tìm kiếm theo id tăng dần, giống ProductService.searchProducts
+     */
+    public ProductPage searchProducts(ProductSearchCriteria criteria, int size) {
+        boolean[] categoryMask = null;
+        if (criteria.getCategory() != null && !criteria.getCategory().isBlank()) {
+            String category = criteria.getCategory().trim();
+            categoryMask = new boolean[categories.length];
+            boolean any = false;
+            for (int i = 0; i < categories.length; i++) {
+                categoryMask[i] = categories[i].equalsIgnoreCase(category);
+                any |= categoryMask[i];
+            }
+            if (!any) {
+                return new ProductPage(List.of(), null);
+            }
+        }
+        String name = criteria.getName() != null && !criteria.getName().isBlank() ? criteria.getName().trim() : null;
+        Filter filter = new Filter(name, categoryMask,
+                criteria.getMinPrice() != null ? criteria.getMinPrice() : Double.NEGATIVE_INFINITY,
+                criteria.getMaxPrice() != null ? criteria.getMaxPrice() : Double.POSITIVE_INFINITY,
+                criteria.getInStock());
+        return find(criteria.getAfter(), size, filter);
+    }
+
+    /**
+     * Ước lượng số byte heap của snapshot (các mảng cột và từ điển, header theo JVM 64-bit có compressed oops)
+     */
+    public long estimatedBytes() {
+        long bytes = objectBytes(24) + arrayBytes(chunks.length, 4) + arrayBytes(categories.length, 4);
+        for (Chunk chunk : chunks) {
+            bytes += chunk.bytes();
+        }
+        for (String category : categories) {
+            bytes += objectBytes(12) + arrayBytes(category.length(), 2);
+        }
+        return bytes;
+    }
+
+    /**
+     * Quét từ dòng đầu tiên có id > afterId, lấy tối đa size dòng khớp filter
+     * Còn dòng khớp sau đó thì trang có nextCursor
+     */
+    private ProductPage find(int afterId, int size, Filter filter) {
+        List<ProductDTO> items = new ArrayList<>(Math.min(size, 64));
+        boolean hasNext = false;
+        int i = firstChunkAfter(afterId);
+        int r = i < chunks.length ? firstRowAfter(chunks[i], afterId) : 0;
+        scan:
+        for (; i < chunks.length; i++, r = 0) {
+            Chunk chunk = chunks[i];
+            for (; r < chunk.size(); r++) {
+                if (filter.matches(chunk, r)) {
+                    if (items.size() == size) {
+                        hasNext = true;
+                        break scan;
+                    }
+                    items.add(toDTO(chunk, r));
+                }
+            }
+        }
+        return new ProductPage(items, hasNext ? items.get(items.size() - 1).getId() : null);
+    }
+
+    /** Chunk đầu tiên có id cuối > afterId (chunks.length nếu không có) */
+    private int firstChunkAfter(int afterId) {
+        int low = 0;
+        int high = chunks.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (chunks[mid].lastId() > afterId) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static int firstRowAfter(Chunk chunk, int afterId) {
+        int index = Arrays.binarySearch(chunk.ids, afterId);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private ProductDTO toDTO(Chunk chunk, int row) {
+        int category = chunk.categories[row];
+        long seconds = chunk.updatedSeconds[row];
+        double price = chunk.prices[row];
+        return ProductDTO.builder()
+            .id(chunk.ids[row])
+            .name(chunk.name(row))
+            .description(chunk.description(row))
+            .price(Double.isNaN(price) ? null : price)
+            .quantity(chunk.quantities[row])
+            .category(category == NO_CATEGORY ? null : categories[category])
+            .version(chunk.versions[row])
+            .updatedAt(seconds == NO_TIMESTAMP ? null : Instant.ofEpochSecond(seconds, chunk.updatedNanos[row]))
+            .build();
+    }
+
+    /** Kích thước 1 object có fieldBytes byte field (header 12 byte, làm tròn 8) */
+    private static long objectBytes(int fieldBytes) {
+        return align(12 + fieldBytes);
+    }
+
+    /** Kích thước 1 mảng length phần tử (header 16 byte, làm tròn 8) */
+    private static long arrayBytes(int length, int elementBytes) {
+        return align(16 + (long) length * elementBytes);
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,17 @@
+package com.flogin.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * Bật xử lý @Async
+ * Executor là applicationTaskExecutor do Spring Boot tạo: thread pool (spring.task.execution.*)
+ * ở chế độ mặc định, virtual thread cho mỗi tác vụ khi spring.threads.virtual.enabled=true (profile vthreads)
+ *
+ * proxyTargetClass: các bean có @Async (ví dụ listener @EventListener không khai báo trong interface)
+ * được proxy theo class
+ */
+@Configuration
+@EnableAsync(proxyTargetClass = true)
+public class AsyncConfig {
+}
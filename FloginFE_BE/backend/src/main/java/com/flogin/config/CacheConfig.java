@@ -0,0 +1,55 @@
+package com.flogin.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cấu hình cache in-process (Caffeine) cho các thao tác đọc nhiều
+ * - Giới hạn số phần tử (maximumSize) và thời gian sống (expireAfterWrite)
+ * - recordStats để theo dõi hit / miss / eviction
+ * - Bọc bằng TransactionAwareCacheManagerProxy: put / evict chỉ được áp dụng sau khi transaction commit,
+ *   tránh cache giữ dữ liệu của transaction bị rollback
+ * - Cache đọc đồng bộ (@Cacheable(sync = true)) dùng AsyncCache của Caffeine: hàm load chạy ngoài lock
+ *   của ConcurrentHashMap (synchronized), virtual thread không bị pin khi load chờ database
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Cache ProductDTO theo id sản phẩm */
+    public static final String PRODUCTS = "products";
+
+    /** Cache UserDetails theo username (dùng cho xác thực) */
+    public static final String USER_DETAILS = "userDetails";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.cache.products.maximum-size:10000}") long maximumSize,
+            @Value("${app.cache.products.ttl:10m}") Duration ttl,
+            @Value("${app.cache.user-details.maximum-size:10000}") long userDetailsMaximumSize,
+            @Value("${app.cache.user-details.ttl:5m}") Duration userDetailsTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats());
+        cacheManager.setAllowNullValues(false);
+        cacheManager.setCacheNames(List.of(PRODUCTS));
+        // Thông tin đăng nhập đổi ít nhưng cần hết hạn sớm hơn, nên dùng cấu hình riêng
+        cacheManager.registerCustomCache(USER_DETAILS, Caffeine.newBuilder()
+                .maximumSize(userDetailsMaximumSize)
+                .expireAfterWrite(userDetailsTtl)
+                .recordStats()
+                .buildAsync());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
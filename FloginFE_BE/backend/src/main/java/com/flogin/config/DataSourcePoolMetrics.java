@@ -0,0 +1,107 @@
+package com.flogin.config;
+
+import com.flogin.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Metric độ bão hòa của connection pool (HikariCP)
+ *
+ * flogin.db.pool.saturation = (connection đang dùng + thread đang chờ connection) / kích thước pool tối đa
+ * - &lt; 1: pool còn connection rảnh
+ * - = 1: pool dùng hết, chưa có thread phải chờ
+ * - &gt; 1: có thread đang xếp hàng chờ connection (tối đa connection-timeout rồi lỗi)
+ *
+ * Đọc kèm hikaricp.connections.pending / hikaricp.connections.acquire (thời gian chờ lấy connection)
+ * và log leak detection của Hikari (stack trace nơi giữ connection quá lâu) để biết vì sao request phải chờ.
+ *
+ * Khi bật read replica (ReplicaRoutingDataSource):
+ * - mỗi pool replica có hikaricp.* và độ bão hòa riêng (tag pool = flogin-replica-N)
+ * - flogin.db.routing.connections{target=primary|replica}: số connection đã định tuyến tới từng phía
+ * - flogin.db.replica.healthy{replica}: 1 nếu replica đang nhận truy vấn đọc
+ */
+@Component
+public class DataSourcePoolMetrics implements MeterBinder {
+
+    public static final String SATURATION = "flogin.db.pool.saturation";
+    public static final String ROUTING = "flogin.db.routing.connections";
+    public static final String REPLICA_HEALTHY = "flogin.db.replica.healthy";
+
+    private final DataSource dataSource;
+
+    public DataSourcePoolMetrics(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        HikariDataSource hikari = unwrap(dataSource, HikariDataSource.class);
+        if (hikari != null) {
+            bindSaturation(registry, hikari);
+        }
+        ReplicaRoutingDataSource routing = unwrap(dataSource, ReplicaRoutingDataSource.class);
+        if (routing != null) {
+            bindRouting(registry, routing);
+        }
+    }
+
+    private static void bindRouting(MeterRegistry registry, ReplicaRoutingDataSource routing) {
+        FunctionCounter.builder(ROUTING, routing, ReplicaRoutingDataSource::primaryConnectionCount)
+                .description("Physical connections routed to the primary or to a read replica")
+                .tag("target", "primary")
+                .register(registry);
+        FunctionCounter.builder(ROUTING, routing, ReplicaRoutingDataSource::replicaConnectionCount)
+                .description("Physical connections routed to the primary or to a read replica")
+                .tag("target", "replica")
+                .register(registry);
+        routing.replicaDataSources().forEach((name, replicaDataSource) -> {
+            Gauge.builder(REPLICA_HEALTHY, routing, r -> Boolean.TRUE.equals(r.replicaStatus().get(name)) ? 1 : 0)
+                    .description("1 while the read replica is in rotation")
+                    .tag("replica", name)
+                    .register(registry);
+            HikariDataSource replica = unwrap(replicaDataSource, HikariDataSource.class);
+            if (replica != null) {
+                // Pool replica không phải bean nên Spring Boot không tự gắn hikaricp.* metrics
+                if (replica.getMetricRegistry() == null && replica.getMetricsTrackerFactory() == null) {
+                    replica.setMetricRegistry(registry);
+                }
+                bindSaturation(registry, replica);
+            }
+        });
+    }
+
+    private static void bindSaturation(MeterRegistry registry, HikariDataSource hikari) {
+        Gauge.builder(SATURATION, hikari, DataSourcePoolMetrics::saturation)
+                .description("(active + pending) connections divided by the maximum pool size")
+                .tag("pool", hikari.getPoolName() != null ? hikari.getPoolName() : "default")
+                .register(registry);
+    }
+
+    /**
+     * Pool chỉ được khởi tạo khi có connection đầu tiên, trước đó độ bão hòa là 0
+     */
+    static double saturation(HikariDataSource hikari) {
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        int max = hikari.getMaximumPoolSize();
+        if (pool == null || max <= 0) {
+            return 0;
+        }
+        return (double) (pool.getActiveConnections() + pool.getThreadsAwaitingConnection()) / max;
+    }
+
+    private static <T> T unwrap(DataSource dataSource, Class<T> type) {
+        try {
+            return dataSource.isWrapperFor(type) ? dataSource.unwrap(type) : null;
+        } catch (SQLException ex) {
+            return null;
+        }
+    }
+}
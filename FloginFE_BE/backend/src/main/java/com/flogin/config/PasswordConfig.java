@@ -0,0 +1,23 @@
+package com.flogin.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * PasswordEncoder dùng chung cho toàn ứng dụng
+ * Tách khỏi SecurityConfig để mọi service (và test) dùng cùng 1 bean
+ *
+ * app.security.bcrypt.strength: log2 số vòng BCrypt (4..31, mặc định 10).
+ * Tăng 1 đơn vị làm thời gian hash tăng gấp đôi; hash cũ vẫn verify được vì cost nằm trong chuỗi hash.
+ */
+@Configuration
+public class PasswordConfig {
+
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+}
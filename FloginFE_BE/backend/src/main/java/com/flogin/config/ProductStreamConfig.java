@@ -0,0 +1,62 @@
+package com.flogin.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.flogin.event.ProductChangeFeed;
+import com.flogin.event.ProductChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+
+/**
+ * Bus thay đổi sản phẩm cho API SSE GET /api/products/stream (app.products.stream.*)
+ *
+ * Metrics:
+ * - flogin.products.stream.subscribers: số kết nối đang mở
+ * - flogin.products.stream.events: số thay đổi đã phát
+ * - flogin.products.stream.evictions{reason=overflow|stalled|error}: subscriber bị loại
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ProductStreamConfig {
+
+    @Bean
+    public ProductChangeFeed productChangeFeed(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.products.stream.replay-size:1024}") int replaySize,
+            @Value("${app.products.stream.buffer-size:256}") int bufferSize,
+            @Value("${app.products.stream.max-subscribers:10000}") int maxSubscribers,
+            @Value("${app.products.stream.heartbeat:15s}") Duration heartbeat) {
+        ObjectWriter writer = objectMapper.writerFor(ProductChangedEvent.class);
+        ProductChangeFeed feed = new ProductChangeFeed(replaySize, bufferSize, maxSubscribers, heartbeat, event -> {
+            try {
+                return writer.writeValueAsString(event);
+            } catch (JsonProcessingException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+
+        Gauge.builder("flogin.products.stream.subscribers", feed, ProductChangeFeed::subscriberCount)
+                .description("Open product change stream connections")
+                .register(meterRegistry);
+        FunctionCounter.builder("flogin.products.stream.events", feed, ProductChangeFeed::publishedCount)
+                .description("Product changes published to the stream")
+                .register(meterRegistry);
+        for (ProductChangeFeed.Eviction reason : ProductChangeFeed.Eviction.values()) {
+            FunctionCounter.builder("flogin.products.stream.evictions", feed, f -> f.evictionCount(reason))
+                    .description("Subscribers dropped for falling behind or failing writes")
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        return feed;
+    }
+}
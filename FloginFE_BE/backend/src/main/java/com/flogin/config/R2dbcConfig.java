@@ -0,0 +1,105 @@
+package com.flogin.config;
+
+import com.flogin.repository.ReactiveProductRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Kết nối R2DBC cho stack reactive (profile reactive)
+ *
+ * - URL: app.r2dbc.url (r2dbc:mysql://... hoặc r2dbc:h2:mem:///... khi test), user / password mặc định
+ *   lấy theo spring.datasource.*; pool connection là r2dbc-pool (app.r2dbc.pool.*)
+ * - JPA / Hikari vẫn chạy như stack MVC: Hibernate quản lý schema, CatalogVersionTracker tạo dòng
+ *   catalog_version, data.sql của profile loadtest vẫn chạy qua JDBC. Spring Boot bỏ DataSource tự động
+ *   khi có bean ConnectionFactory nên DataSource (spring.datasource.*) được khai báo lại ở đây
+ * - R2dbcTransactionManager không đăng ký làm bean (chỉ dùng qua TransactionalOperator), để @Transactional
+ *   của JPA vẫn chỉ thấy 1 TransactionManager
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableR2dbcRepositories(basePackageClasses = ReactiveProductRepository.class)
+public class R2dbcConfig extends AbstractR2dbcConfiguration {
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxSize;
+    private final Duration maxAcquireTime;
+
+    public R2dbcConfig(@Value("${app.r2dbc.url}") String url,
+                       @Value("${app.r2dbc.username:${spring.datasource.username:}}") String username,
+                       @Value("${app.r2dbc.password:${spring.datasource.password:}}") String password,
+                       @Value("${app.r2dbc.pool.max-size:20}") int maxSize,
+                       @Value("${app.r2dbc.pool.max-acquire-time:5s}") Duration maxAcquireTime) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.maxAcquireTime = maxAcquireTime;
+    }
+
+    @Bean(destroyMethod = "dispose")
+    @Override
+    public ConnectionPool connectionFactory() {
+        ConnectionFactoryBuilder builder = ConnectionFactoryBuilder.withUrl(url);
+        if (!username.isBlank()) {
+            builder.username(username).password(password);
+        }
+        ConnectionFactory connectionFactory = builder.build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name("flogin-r2dbc")
+                .maxSize(maxSize)
+                .initialSize(Math.min(10, maxSize))
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+    }
+
+    /**
+     * Pool Hikari như DataSource tự động của Spring Boot; có read replica thì ReplicaRoutingConfig tạo DataSource
+     */
+    @Bean
+    @ConditionalOnExpression("'${app.datasource.replicas.urls:}'.isBlank()")
+    public HikariDataSource dataSource(DataSourceProperties properties, Environment environment) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        return dataSource;
+    }
+
+    @Bean
+    public TransactionalOperator transactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    /**
+     * Khi có bean ConnectionFactory, Spring Boot chạy schema.sql / data.sql qua R2DBC thay vì JDBC;
+     * khai báo initializer JDBC ở đây giữ nguyên hành vi của stack MVC (spring.sql.init.*)
+     */
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptInitializer(DataSource dataSource, Environment environment) {
+        SqlInitializationProperties properties = Binder.get(environment)
+                .bind("spring.sql.init", SqlInitializationProperties.class)
+                .orElseGet(SqlInitializationProperties::new);
+        return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties);
+    }
+}
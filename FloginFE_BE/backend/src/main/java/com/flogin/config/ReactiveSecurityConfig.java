@@ -0,0 +1,45 @@
+package com.flogin.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Security của stack reactive, cùng quy tắc với SecurityConfig: stateless, /api/** và health / prometheus
+ * mở, còn lại phải xác thực (stack reactive chỉ có product API nên không cần filter token)
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    /**
+     * Không có cơ chế đăng nhập trên stack reactive; bean này thay user mặc định
+     * (mật khẩu sinh ngẫu nhiên) mà Spring Boot tự tạo khi thiếu ReactiveAuthenticationManager
+     */
+    @Bean
+    public ReactiveAuthenticationManager reactiveAuthenticationManager() {
+        return authentication -> Mono.empty();
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http
+            .csrf(csrf -> csrf.disable())
+            .httpBasic(basic -> basic.disable())
+            .formLogin(form -> form.disable())
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .authorizeExchange(exchange -> exchange
+                .pathMatchers("/api/**").permitAll()
+                .pathMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                .anyExchange().authenticated()
+            )
+            .build();
+    }
+}
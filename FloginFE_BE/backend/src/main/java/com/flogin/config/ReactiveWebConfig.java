@@ -0,0 +1,31 @@
+package com.flogin.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cấu hình web server của stack reactive (profile reactive)
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfig {
+
+    /**
+     * Spring Boot 3.2.0 chỉ stop (không destroy) Tomcat khi đóng context reactive: thread await của Tomcat
+     * không phải daemon nên JVM không thoát sau khi đóng context (spring-boot:stop của module load-tests).
+     * Bean này destroy web server sau khi context đã dừng nhận request
+     */
+    @Bean
+    public DisposableBean webServerDestroyer(ApplicationContext context) {
+        return () -> {
+            if (context instanceof ReactiveWebServerApplicationContext serverContext
+                    && serverContext.getWebServer() != null) {
+                serverContext.getWebServer().destroy();
+            }
+        };
+    }
+}
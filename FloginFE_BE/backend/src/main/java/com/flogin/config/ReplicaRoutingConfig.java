@@ -0,0 +1,87 @@
+package com.flogin.config;
+
+import com.flogin.datasource.ReplicaRoutingDataSource;
+import com.flogin.security.ClientKey;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Định tuyến đọc / ghi tới MySQL read replica (bật khi app.datasource.replicas.urls khác rỗng)
+ *
+ * - Primary: spring.datasource.* như khi không có replica
+ * - Replica: mỗi URL trong app.datasource.replicas.urls là 1 pool Hikari riêng (flogin-replica-N),
+ *   dùng chung spring.datasource.hikari.* với primary; không kết nối được lúc khởi động vẫn chạy bình thường
+ * - Read-your-writes theo client (ClientKey): user đã đăng nhập, nếu không thì địa chỉ IP của request,
+ *   ngoài request (tác vụ nền) thì dùng chung 1 khóa
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replicas.urls:}'.isBlank()")
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource dataSource(
+            DataSourceProperties properties,
+            Environment environment,
+            @Value("${app.datasource.replicas.urls}") List<String> replicaUrls,
+            @Value("${app.datasource.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${app.datasource.replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${app.datasource.replicas.connection-timeout:2s}") Duration connectionTimeout,
+            @Value("${app.datasource.replicas.health-check-interval:5s}") Duration healthCheckInterval,
+            @Value("${app.datasource.replicas.lag-query:}") String lagQuery,
+            @Value("${app.datasource.replicas.max-lag:10s}") Duration maxLag,
+            @Value("${app.datasource.read-your-writes-window:2s}") Duration readYourWritesWindow) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        bindHikariProperties(environment, primary);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            String name = "replica-" + (i + 1);
+            HikariDataSource replica = new HikariDataSource();
+            bindHikariProperties(environment, replica);
+            replica.setPoolName("flogin-" + name);
+            replica.setJdbcUrl(replicaUrls.get(i).trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            if (properties.getDriverClassName() != null) {
+                replica.setDriverClassName(properties.getDriverClassName());
+            }
+            replica.setConnectionTimeout(connectionTimeout.toMillis());
+            replica.setInitializationFailTimeout(-1);
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, ClientKey::current,
+                readYourWritesWindow, healthCheckInterval, lagQuery, maxLag);
+    }
+
+    /**
+     * Trạng thái replica trong /actuator/health; replica chết không làm ứng dụng DOWN (primary vẫn phục vụ)
+     */
+    @Bean
+    public HealthIndicator replicasHealthIndicator(ReplicaRoutingDataSource dataSource) {
+        return () -> {
+            Health.Builder health = Health.up();
+            dataSource.replicaStatus().forEach((name, healthy) -> health.withDetail(name, healthy ? "UP" : "DOWN"));
+            return health.build();
+        };
+    }
+
+    private static void bindHikariProperties(Environment environment, HikariDataSource dataSource) {
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+    }
+}
@@ -0,0 +1,33 @@
+package com.flogin.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Định dạng nhị phân cho API, chọn theo content negotiation (header Accept / Content-Type):
+ * - application/cbor (RFC 8949)
+ * - application/x-jackson-smile
+ * JSON vẫn là mặc định khi client không yêu cầu gì
+ *
+ * ObjectMapper được tạo từ Jackson2ObjectMapperBuilder của Spring Boot nên dùng chung cấu hình với JSON
+ * (spring.jackson.*, JavaTimeModule, ...): cùng 1 DTO cho ra cùng tập field ở mọi định dạng.
+ * Bean HttpMessageConverter được Spring Boot đưa vào trước converter mặc định cùng loại
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
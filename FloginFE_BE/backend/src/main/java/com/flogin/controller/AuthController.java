@@ -1,29 +1,63 @@
 package com.flogin.controller;
 
+import com.flogin.dto.TokenResponse;
 import com.flogin.dto.UserDTO;
+import com.flogin.exception.ServiceBusyException;
+import com.flogin.exception.TooManyRequestsException;
+import com.flogin.security.AuthenticatedUser;
+import com.flogin.security.IssuedToken;
+import com.flogin.security.LoginRateLimiter;
+import com.flogin.security.TokenService;
 import com.flogin.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*")
 public class AuthController {
 
     private final UserService userService;
+    private final TokenService tokenService;
+    private final LoginRateLimiter loginRateLimiter;
 
+    /**
+     * Đăng nhập; vượt giới hạn tần suất thì trả 429 ngay, không tra database và không chạy BCrypt
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody UserDTO dto) {
+    public ResponseEntity<?> login(@Valid @RequestBody UserDTO dto, HttpServletRequest request) {
+        String clientIp = request.getRemoteAddr();
         try {
+            loginRateLimiter.acquire(dto.getUsername(), clientIp);
             UserDTO user = userService.login(dto.getUsername(), dto.getPassword());
-            return ResponseEntity.ok(user);
+            loginRateLimiter.recordSuccess(dto.getUsername(), clientIp);
+            IssuedToken token = tokenService.issue(user.getId());
+            return ResponseEntity.ok(TokenResponse.builder()
+                .token(token.getToken())
+                .expiresAt(token.getExpiresAt())
+                .user(user)
+                .build());
+        } catch (TooManyRequestsException ex) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, ex.getRetryAfterSeconds())
+                .body(new ErrorResponse(ex.getMessage()));
+        } catch (ServiceBusyException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse("Server is busy, please retry"));
         } catch (RuntimeException ex) {
             String msg = ex.getMessage();
             if (msg != null && (msg.contains("User không tồn tại") || msg.contains("Sai mật khẩu"))) {
+                loginRateLimiter.recordFailure(dto.getUsername(), clientIp);
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ErrorResponse("Invalid credentials"));
             }
@@ -32,6 +66,30 @@ public class AuthController {
         }
     }
 
+    /**
+     * Đổi token còn hạn lấy token mới (gia hạn phiên) mà không cần đăng nhập lại
+     * Token được xác thực bởi TokenAuthenticationFilter; trước khi phát hành token mới thì kiểm tra user
+     * còn tồn tại, chưa đổi mật khẩu từ lúc đăng nhập và phiên chưa quá app.security.token.max-session
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@AuthenticationPrincipal AuthenticatedUser principal) {
+        if (principal == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponse("Missing bearer token"));
+        }
+        IssuedToken token = userService.isSessionValid(principal.getId(), principal.getIssuedAt())
+            ? tokenService.refresh(principal)
+            : null;
+        if (token == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponse("Session expired, please log in again"));
+        }
+        return ResponseEntity.ok(TokenResponse.builder()
+            .token(token.getToken())
+            .expiresAt(token.getExpiresAt())
+            .build());
+    }
+
     private static class ErrorResponse {
         public String message;
         public ErrorResponse(String message) {
@@ -0,0 +1,75 @@
+package com.flogin.controller;
+
+import com.flogin.dto.CacheStatsDTO;
+import com.flogin.exception.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * REST Controller xem thống kê các cache in-process
+ * Base URL: /api/cache
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/cache")
+@CrossOrigin(origins = "*")
+public class CacheController {
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<?> handleResourceNotFound(ResourceNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    private final CacheManager cacheManager;
+
+    public CacheController(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * API lấy thống kê của tất cả cache
+     * GET /api/cache/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStatsDTO>> getAllStats() {
+        List<CacheStatsDTO> stats = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            stats.add(toStats(name));
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * API lấy thống kê của 1 cache
+     * GET /api/cache/{name}/stats
+     */
+    @GetMapping("/{name}/stats")
+    public ResponseEntity<CacheStatsDTO> getStats(@PathVariable String name) {
+        return ResponseEntity.ok(toStats(name));
+    }
+
+    private CacheStatsDTO toStats(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache instanceof TransactionAwareCacheDecorator decorator) {
+            cache = decorator.getTargetCache();
+        }
+        if (!(cache instanceof CaffeineCache caffeineCache)) {
+            throw new ResourceNotFoundException("Cache not found: " + name);
+        }
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+        CacheStats stats = nativeCache.stats();
+        return new CacheStatsDTO(name, stats.hitCount(), stats.missCount(), stats.hitRate(),
+                stats.evictionCount(), nativeCache.estimatedSize(),
+                stats.loadCount(), stats.averageLoadPenalty() / 1_000_000.0);
+    }
+}
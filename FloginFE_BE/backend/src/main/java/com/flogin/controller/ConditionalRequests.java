@@ -0,0 +1,96 @@
+package com.flogin.controller;
+
+import com.flogin.dto.ResourceVersion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Helper cho conditional GET (RFC 9110): ETag / Last-Modified trên response,
+ * If-None-Match / If-Modified-Since trên request
+ *
+ * - ETag là weak ETag sinh từ version của tài nguyên: W/"{prefix}.{version}". Cùng 1 version có nhiều
+ *   biểu diễn (JSON / CBOR / Smile, có hoặc không gzip) tương đương về nội dung; Tomcat cũng bỏ qua nén
+ *   với response mang strong ETag
+ * - Response kèm Vary: Accept để cache trung gian không trả nhầm định dạng
+ * - If-None-Match được ưu tiên; chỉ khi request không có If-None-Match mới xét If-Modified-Since
+ * - Response luôn kèm Cache-Control: no-cache để client / CDN được lưu nhưng phải hỏi lại server trước khi dùng
+ */
+final class ConditionalRequests {
+
+    private ConditionalRequests() {}
+
+    /**
+     * Weak ETag cho tài nguyên có version
+     */
+    static String eTag(String prefix, long version) {
+        return "W/\"" + prefix + "." + version + "\"";
+    }
+
+    /**
+     * Request có header điều kiện hay không (không có thì bỏ qua bước tra version)
+     */
+    static boolean isConditional(HttpHeaders request) {
+        return request.containsKey(HttpHeaders.IF_NONE_MATCH) || request.containsKey(HttpHeaders.IF_MODIFIED_SINCE);
+    }
+
+    /**
+     * Kiểm tra bản client đang giữ còn dùng được không
+     * If-None-Match so sánh kiểu weak (bỏ tiền tố W/), header sai định dạng được coi như không có
+     */
+    static boolean notModified(HttpHeaders request, String eTag, Instant lastModified) {
+        if (request.containsKey(HttpHeaders.IF_NONE_MATCH)) {
+            List<String> candidates;
+            try {
+                candidates = request.getIfNoneMatch();
+            } catch (IllegalArgumentException ex) {
+                return false;
+            }
+            String opaque = eTag.substring(2);
+            for (String candidate : candidates) {
+                String tag = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+                if ("*".equals(tag) || tag.equals(opaque)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (lastModified == null) {
+            return false;
+        }
+        long since;
+        try {
+            since = request.getIfModifiedSince();
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+        // Last-Modified chỉ có độ chính xác tới giây
+        return since >= 0 && lastModified.getEpochSecond() * 1000 <= since;
+    }
+
+    /**
+     * Response 200 kèm ETag / Last-Modified
+     */
+    static ResponseEntity.BodyBuilder ok(String eTag, Instant lastModified) {
+        return validators(ResponseEntity.ok(), eTag, lastModified);
+    }
+
+    /**
+     * Response 304 (không có body) kèm ETag / Last-Modified hiện tại
+     */
+    static <T> ResponseEntity<T> notModifiedResponse(String eTag, ResourceVersion current) {
+        return validators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), eTag, current.getUpdatedAt()).build();
+    }
+
+    private static ResponseEntity.BodyBuilder validators(ResponseEntity.BodyBuilder response, String eTag, Instant lastModified) {
+        response.eTag(eTag).cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT);
+        if (lastModified != null) {
+            response.lastModified(lastModified);
+        }
+        return response;
+    }
+}
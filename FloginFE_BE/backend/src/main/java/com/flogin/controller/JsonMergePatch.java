@@ -0,0 +1,103 @@
+package com.flogin.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.flogin.dto.MergePatchChecks;
+import com.flogin.exception.InvalidPatchException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.groups.Default;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Áp dụng JSON Merge Patch (RFC 7386) lên DTO
+ * - Field có trong patch: ghi đè giá trị (null = xóa giá trị)
+ * - Field không có trong patch: giữ nguyên
+ * - Chỉ validate (Bean Validation) các field có trong patch, vì DTO hiện tại có thể thiếu field
+ *   chỉ dùng khi ghi (ví dụ password của user); ngoài nhóm mặc định còn validate nhóm MergePatchChecks
+ *   (ví dụ field không được xóa bằng null)
+ * - Field không tồn tại trong DTO hoặc nằm trong danh sách không được sửa (id, ...) bị từ chối
+ *
+ * DTO chỉ có field phẳng nên merge đệ quy của RFC 7386 tương đương với ghi đè từng field.
+ */
+@Component
+public class JsonMergePatch {
+
+    /** Content type chuẩn của JSON Merge Patch */
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    /** Tên các property JSON của từng loại DTO */
+    private final Map<Class<?>, Set<String>> properties = new ConcurrentHashMap<>();
+
+    public JsonMergePatch(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    /**
+     * Tạo hàm áp dụng patch, dùng được ngay trong transaction của service (đọc DTO hiện tại -> DTO mới)
+     * @param patch nội dung request (phải là JSON object)
+     * @param type loại DTO
+     * @param readOnly các field client không được sửa
+     * @throws InvalidPatchException nếu patch không phải object hoặc có field không hợp lệ
+     */
+    public <T> UnaryOperator<T> of(JsonNode patch, Class<T> type, String... readOnly) {
+        if (patch == null || !patch.isObject()) {
+            throw new InvalidPatchException("Merge patch must be a JSON object");
+        }
+        Set<String> known = properties.computeIfAbsent(type, this::propertyNames);
+        List<String> fields = new ArrayList<>();
+        for (Iterator<String> it = patch.fieldNames(); it.hasNext(); ) {
+            String field = it.next();
+            if (!known.contains(field) || List.of(readOnly).contains(field)) {
+                throw new InvalidPatchException(field + ": field cannot be patched");
+            }
+            fields.add(field);
+        }
+        return current -> apply(patch, current, type, fields);
+    }
+
+    private <T> T apply(JsonNode patch, T current, Class<T> type, List<String> fields) {
+        T patched;
+        try {
+            patched = objectMapper.readerForUpdating(current).forType(type).readValue(patch);
+        } catch (IOException ex) {
+            throw new InvalidPatchException(ex instanceof JsonProcessingException jpe ? jpe.getOriginalMessage() : ex.getMessage());
+        }
+        List<String> errors = new ArrayList<>();
+        for (String field : fields) {
+            for (ConstraintViolation<T> violation : validator.validateProperty(patched, field, Default.class, MergePatchChecks.class)) {
+                errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new InvalidPatchException(String.join("; ", errors));
+        }
+        return patched;
+    }
+
+    private Set<String> propertyNames(Class<?> type) {
+        BeanDescription description = objectMapper.getDeserializationConfig()
+                .introspect(objectMapper.constructType(type));
+        return description.findProperties().stream()
+                .filter(BeanPropertyDefinition::hasSetter)
+                .map(BeanPropertyDefinition::getName)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -1,12 +1,44 @@
 package com.flogin.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.flogin.dto.BatchResult;
+import com.flogin.dto.CategoryStatsDTO;
+import com.flogin.dto.ProductChanges;
 import com.flogin.dto.ProductDTO;
+import com.flogin.dto.ProductPage;
+import com.flogin.dto.ProductSearchCriteria;
+import com.flogin.dto.ProductSearchHits;
+import com.flogin.dto.ResourceVersion;
+import com.flogin.dto.StockAdjustmentDTO;
+import com.flogin.exception.BatchLimitExceededException;
+import com.flogin.exception.ConflictException;
+import com.flogin.exception.InvalidPatchException;
+import com.flogin.exception.ServiceBusyException;
+import com.flogin.event.ProductChangeFeed;
+import com.flogin.service.ProductBatchService;
+import com.flogin.service.ProductChangeStreamService;
+import com.flogin.service.ProductSearchService;
+import com.flogin.service.ProductStatsService;
 import com.flogin.service.ProductService;
 import com.flogin.exception.ResourceNotFoundException;
 import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 /**
@@ -19,26 +51,84 @@ import java.util.List;
  * - @CrossOrigin: Cho phép CORS từ mọi origin (để frontend có thể gọi API)
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/products")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {ProductController.NEXT_CURSOR_HEADER, ProductController.TOTAL_COUNT_HEADER,
+        ProductController.TOTAL_COUNT_TRUNCATED_HEADER, HttpHeaders.LINK, HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED})
 public class ProductController {
+
+    /** Header chứa cursor (id) của trang kế tiếp */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /** Header chứa tổng số kết quả của full-text search */
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    /** Header "true" khi full-text search bỏ bớt term của 1 tiền tố quá ngắn: X-Total-Count có thể thiếu */
+    public static final String TOTAL_COUNT_TRUNCATED_HEADER = "X-Total-Count-Truncated";
+
+    /** Content type của endpoint export (mỗi dòng là 1 JSON object) */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /** Số dòng export giữa 2 lần flush xuống client */
+    private static final int EXPORT_FLUSH_EVERY = 1000;
     
     /**
      * Inject ProductService để xử lý business logic
      * Sử dụng constructor injection (recommended practice)
      */
-        @ExceptionHandler(com.flogin.exception.ResourceNotFoundException.class)
-        public ResponseEntity<?> handleResourceNotFound(ResourceNotFoundException ex) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
-        }
     private final ProductService productService;
 
     /**
-     * Constructor injection cho ProductService
+     * Service xử lý các API batch (tạo / cập nhật / xóa hàng loạt)
+     */
+    private final ProductBatchService productBatchService;
+
+    /**
+     * Service full-text search trên inverted index in-memory
+     */
+    private final ProductSearchService productSearchService;
+
+    /**
+     * Service phát thay đổi sản phẩm cho API stream (SSE)
+     */
+    private final ProductChangeStreamService productChangeStreamService;
+
+    /**
+     * Service thống kê theo danh mục (in-memory)
+     */
+    private final ProductStatsService productStatsService;
+
+    /**
+     * Writer dùng lại cho mọi dòng export (ObjectWriter là immutable, thread-safe)
+     * Tắt flush sau mỗi object, việc flush do endpoint export tự quyết định
+     */
+    private final ObjectWriter productWriter;
+
+    /**
+     * Áp dụng JSON Merge Patch cho API PATCH /{id}
+     */
+    private final JsonMergePatch mergePatch;
+
+    /**
+     * Constructor injection cho ProductService, ProductBatchService, ProductSearchService,
+     * ProductChangeStreamService, ProductStatsService, JsonMergePatch và ObjectMapper
      * Spring tự động inject bean ProductService vào đây
      */
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService,
+                             ProductBatchService productBatchService,
+                             ProductSearchService productSearchService,
+                             ProductChangeStreamService productChangeStreamService,
+                             ProductStatsService productStatsService,
+                             JsonMergePatch mergePatch,
+                             ObjectMapper objectMapper) {
         this.productService = productService;
+        this.productBatchService = productBatchService;
+        this.productSearchService = productSearchService;
+        this.productChangeStreamService = productChangeStreamService;
+        this.productStatsService = productStatsService;
+        this.mergePatch = mergePatch;
+        this.productWriter = objectMapper.writerFor(ProductDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
     
     /**
@@ -55,29 +145,212 @@ public class ProductController {
     }
     
     /**
-     * API lấy danh sách tất cả sản phẩm
-     * GET /api/products
+     * API lấy danh sách sản phẩm theo từng trang (keyset pagination trên id)
+     * GET /api/products?after={id}&limit={n}
      * 
-     * @return ResponseEntity với List<ProductDTO> và HTTP status 200 (OK)
+     * Body vẫn là mảng ProductDTO; cursor của trang kế tiếp được trả qua header
+     * X-Next-Cursor và Link (rel="next"). Khi hết dữ liệu thì không có 2 header này.
+     * 
+     * ETag / Last-Modified lấy từ phiên bản chung của danh mục (CatalogVersion): khi danh mục không đổi,
+     * request có If-None-Match nhận 304 chỉ sau 1 lần tra PK, không query trang sản phẩm.
+     * Version được đọc trước trang dữ liệu, nên nếu có ghi xen giữa thì body mới hơn ETag
+     * và lần hỏi lại sau sẽ nhận 200 (không bao giờ giữ bản cũ với ETag mới).
+     * 
+     * @param after Chỉ lấy các sản phẩm có id > after (mặc định 0 = trang đầu)
+     * @param limit Kích thước trang (mặc định 50, tối đa 500)
+     * @return ResponseEntity với List<ProductDTO> và HTTP status 200 (OK), hoặc 304 (NOT_MODIFIED)
      */
     @GetMapping
-    public ResponseEntity<List<ProductDTO>> getAllProducts() {
-        List<ProductDTO> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<List<ProductDTO>> getAllProducts(
+            @RequestParam(defaultValue = "0") int after,
+            @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestHeader HttpHeaders headers) {
+        ResourceVersion catalog = productService.getCatalogVersion();
+        String eTag = ConditionalRequests.eTag("catalog", catalog.getVersion());
+        if (ConditionalRequests.notModified(headers, eTag, catalog.getUpdatedAt())) {
+            return ConditionalRequests.notModifiedResponse(eTag, catalog);
+        }
+        ProductPage page = productService.getProducts(after, limit);
+        return pageResponse(ConditionalRequests.ok(eTag, catalog.getUpdatedAt()), page);
+    }
+
+    /**
+     * API tìm kiếm / lọc sản phẩm phía server
+     * GET /api/products/search?name=&category=&minPrice=&maxPrice=&inStock=&after=&limit=
+     * GET /api/products/search?q=&offset=&limit=
+     * 
+     * Không có q: tất cả tham số lọc đều không bắt buộc và được kết hợp bằng AND,
+     * phân trang và header cursor giống GET /api/products.
+     * 
+     * Có q: full-text search trên name, description, category (inverted index in-memory),
+     * kết quả sắp xếp theo mức độ liên quan, phân trang bằng offset và tổng số kết quả
+     * trả qua header X-Total-Count (kèm X-Total-Count-Truncated: true nếu 1 tiền tố khớp quá nhiều term
+     * và chỉ các term phổ biến nhất được tìm). Các tham số lọc khác bị bỏ qua.
+     * 
+     * @return ResponseEntity với List<ProductDTO> và HTTP status 200 (OK)
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductDTO>> searchProducts(
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Boolean inStock,
+            @RequestParam(defaultValue = "0") int after,
+            @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int limit) {
+        if (q != null && !q.isBlank()) {
+            ProductSearchHits hits = productSearchService.search(q, offset, limit);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .header(TOTAL_COUNT_HEADER, String.valueOf(hits.getTotal()));
+            if (hits.isTruncated()) {
+                response.header(TOTAL_COUNT_TRUNCATED_HEADER, "true");
+            }
+            return response.body(hits.getItems());
+        }
+        ProductSearchCriteria criteria = new ProductSearchCriteria(
+                name, category, minPrice, maxPrice, inStock, after, limit);
+        return pageResponse(ResponseEntity.ok(), productService.searchProducts(criteria));
+    }
+
+    /**
+     * Helper: Trả về items của trang làm body, kèm header X-Next-Cursor và Link nếu còn trang sau
+     */
+    private ResponseEntity<List<ProductDTO>> pageResponse(ResponseEntity.BodyBuilder response, ProductPage page) {
+        if (page.hasNext()) {
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .replaceQueryParam("after", page.getNextCursor())
+                    .replaceQueryParam("limit", page.getItems().size())
+                    .build().toUriString();
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()))
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.getItems());
+    }
+    
+    /**
+     * API thống kê theo danh mục cho dashboard
+     * GET /api/products/stats
+     * 
+     * Mỗi phần tử: category, productCount, totalStock, inventoryValue (tổng price * quantity).
+     * Số liệu được duy trì in-memory theo từng lần tạo / sửa / xóa và đối chiếu định kỳ với database,
+     * nên request không truy vấn database và chi phí chỉ phụ thuộc số danh mục.
+     * 
+     * @return ResponseEntity với List<CategoryStatsDTO> sắp xếp theo tên danh mục và HTTP status 200 (OK)
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<CategoryStatsDTO>> getCategoryStats() {
+        return ResponseEntity.ok(productStatsService.getCategoryStats());
+    }
+    
+    /**
+     * API đồng bộ thay đổi cho client giữ bản sao danh mục
+     * GET /api/products/changes?since={sequence}&limit={n}
+     * 
+     * Trả về các sản phẩm được tạo / sửa (trạng thái mới nhất) và id các sản phẩm bị xóa sau sequence since,
+     * kèm since mới cho lần gọi sau; hasMore = true thì gọi tiếp ngay. Lần đầu gọi với since=0 để nhận
+     * toàn bộ danh mục. Chỉ đọc các dòng thay đổi qua index change_seq, không quét toàn bảng.
+     * 
+     * @param since Sequence đã đồng bộ tới (giá trị since của response trước)
+     * @param limit Số thay đổi tối đa (mặc định và tối đa 500)
+     * @return ResponseEntity với ProductChanges và HTTP status 200 (OK)
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChanges> getChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "" + ProductService.MAX_PAGE_SIZE) int limit) {
+        return ResponseEntity.ok(productService.getChanges(since, limit));
+    }
+    
+    /**
+     * API export toàn bộ danh mục sản phẩm dạng NDJSON
+     * GET /api/products/export
+     * 
+     * Dữ liệu được đọc bằng stream từ database và ghi lần lượt từng dòng ra response
+     * (StreamingResponseBody chạy trên async thread), nên heap không tăng theo kích thước bảng
+     * và client nhận được byte đầu tiên ngay khi các dòng đầu tiên được đọc xong.
+     * 
+     * @return ResponseEntity với StreamingResponseBody, content type application/x-ndjson
+     */
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = productWriter.createGenerator(out)) {
+                // Mỗi object kết thúc bằng '\n', không dùng dấu cách phân tách mặc định của Jackson
+                generator.setRootValueSeparator(null);
+                int[] written = {0};
+                productService.exportProducts(dto -> {
+                    try {
+                        productWriter.writeValue(generator, dto);
+                        generator.writeRaw('\n');
+                        if (++written[0] % EXPORT_FLUSH_EVERY == 1) {
+                            generator.flush();
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON))
+                .body(body);
     }
     
+    /**
+     * API theo dõi thay đổi sản phẩm bằng Server-Sent Events
+     * GET /api/products/stream
+     *
+     * Mỗi lần tạo / cập nhật / xóa sản phẩm (sau khi commit) là 1 event:
+     *   id: {epoch}-{sequence}, event: created | updated | deleted,
+     *   data: {"type": ..., "productId": ..., "product": {...} | null}
+     * Comment heartbeat được gửi định kỳ (app.products.stream.heartbeat). Client kết nối lại với header
+     * Last-Event-ID nhận tiếp các event bị lỡ; nếu không thể (id quá cũ, server đã restart) thì nhận
+     * 1 event "resync" và nên tải lại danh sách. Client đọc quá chậm bị ngắt kết nối.
+     *
+     * @param lastEventId id của event cuối cùng client đã nhận (EventSource tự gửi khi kết nối lại)
+     * @return SseEmitter, hoặc 503 (Retry-After) khi node đã đủ số kết nối tối đa
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamProductChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        // Không truyền timeout: dùng spring.mvc.async.request-timeout, hết hạn thì client tự kết nối lại
+        SseEmitter emitter = new SseEmitter();
+        ProductChangeFeed.Subscription subscription =
+                productChangeStreamService.subscribe(new SseProductChangeSink(emitter), lastEventId);
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(ex -> subscription.cancel());
+        return emitter;
+    }
+
     /**
      * API lấy thông tin chi tiết 1 sản phẩm theo ID
      * GET /api/products/{id}
      * 
      * @param id ID của sản phẩm cần lấy (từ URL path)
-     * @return ResponseEntity với ProductDTO và HTTP status 200 (OK)
+     * Response có weak ETag (theo version) và Last-Modified (updatedAt). Request có If-None-Match /
+     * If-Modified-Since được trả lời bằng 1 lần tra version theo PK: không đổi thì 304,
+     * không build ProductDTO và không serialize gì
+     * 
+     * @return ResponseEntity với ProductDTO và HTTP status 200 (OK), hoặc 304 (NOT_MODIFIED)
      * @throws ResourceNotFoundException nếu không tìm thấy product
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDTO> getProductById(@PathVariable int id) {
+    public ResponseEntity<ProductDTO> getProductById(@PathVariable int id, @RequestHeader HttpHeaders headers) {
+        if (ConditionalRequests.isConditional(headers)) {
+            ResourceVersion current = productService.getProductVersion(id);
+            String eTag = ConditionalRequests.eTag(String.valueOf(id), current.getVersion());
+            if (ConditionalRequests.notModified(headers, eTag, current.getUpdatedAt())) {
+                return ConditionalRequests.notModifiedResponse(eTag, current);
+            }
+        }
+        // Header lấy từ chính DTO trả về, để ETag luôn khớp với body
         ProductDTO product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+        long version = product.getVersion() != null ? product.getVersion() : 0;
+        return ConditionalRequests.ok(ConditionalRequests.eTag(String.valueOf(id), version), product.getUpdatedAt())
+                .body(product);
     }
     
     /**
@@ -97,6 +370,44 @@ public class ProductController {
         return ResponseEntity.ok(updated);
     }
     
+    /**
+     * API cập nhật 1 phần sản phẩm (JSON Merge Patch, RFC 7386)
+     * PATCH /api/products/{id}, Content-Type: application/merge-patch+json
+     * Ví dụ: {"price": 120} chỉ đổi giá; {"description": null} xóa mô tả; có thể gửi kèm "version"
+     * để từ chối cập nhật nếu sản phẩm đã bị sửa sau khi đọc
+     * {"quantity": null} bị từ chối (400): đặt tồn kho về 0 phải gửi {"quantity": 0}
+     * 
+     * @param id ID của sản phẩm (từ URL path)
+     * @param patch Các field cần đổi (id, updatedAt không được sửa)
+     * @return ResponseEntity với ProductDTO sau khi cập nhật và HTTP status 200 (OK)
+     * @throws ResourceNotFoundException nếu không tìm thấy product (404)
+     * @throws InvalidPatchException nếu patch không hợp lệ (400)
+     * @throws ConflictException nếu version đã cũ (409)
+     */
+    @PatchMapping(value = "/{id}", consumes = {JsonMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ProductDTO> patchProduct(@PathVariable int id, @RequestBody JsonNode patch) {
+        return ResponseEntity.ok(productService.patchProduct(id, mergePatch.of(patch, ProductDTO.class, "id", "updatedAt")));
+    }
+
+    /**
+     * API điều chỉnh tồn kho
+     * PATCH /api/products/{id}/stock, body: {"delta": -3}
+     * Cộng delta vào quantity bằng 1 câu UPDATE nguyên tử, dùng cho các worker xử lý đơn hàng
+     * thay cho PUT toàn bộ sản phẩm
+     * 
+     * @param id ID của sản phẩm (từ URL path)
+     * @param request Số lượng cần cộng thêm (âm để trừ)
+     * @return ResponseEntity với ProductDTO sau khi điều chỉnh và HTTP status 200 (OK)
+     * @throws ResourceNotFoundException nếu không tìm thấy product (404)
+     * @throws ConflictException nếu tồn kho không đủ (409)
+     */
+    @PatchMapping("/{id}/stock")
+    public ResponseEntity<ProductDTO> adjustStock(
+            @PathVariable int id,
+            @Valid @RequestBody StockAdjustmentDTO request) {
+        return ResponseEntity.ok(productService.adjustStock(id, request.getDelta()));
+    }
+
     /**
      * API xóa sản phẩm
      * DELETE /api/products/{id}
@@ -110,4 +421,76 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * API tạo sản phẩm hàng loạt
+     * POST /api/products/batch
+     * 
+     * Mỗi phần tử được validate riêng; phần tử hợp lệ được ghi theo từng chunk JDBC batch.
+     * 
+     * @param dtos Danh sách ProductDTO cần tạo
+     * @return ResponseEntity với BatchResult (kết quả theo từng phần tử) và HTTP status 200 (OK)
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResult> createProducts(@RequestBody List<ProductDTO> dtos) {
+        return ResponseEntity.ok(productBatchService.createProducts(dtos));
+    }
+
+    /**
+     * API cập nhật sản phẩm hàng loạt
+     * PUT /api/products/batch
+     * 
+     * @param dtos Danh sách ProductDTO cần cập nhật (mỗi phần tử phải có id)
+     * @return ResponseEntity với BatchResult và HTTP status 200 (OK)
+     */
+    @PutMapping("/batch")
+    public ResponseEntity<BatchResult> updateProducts(@RequestBody List<ProductDTO> dtos) {
+        return ResponseEntity.ok(productBatchService.updateProducts(dtos));
+    }
+
+    /**
+     * API xóa sản phẩm hàng loạt
+     * DELETE /api/products/batch
+     * 
+     * @param ids Danh sách id cần xóa (trong body)
+     * @return ResponseEntity với BatchResult và HTTP status 200 (OK)
+     */
+    @DeleteMapping("/batch")
+    public ResponseEntity<BatchResult> deleteProducts(@RequestBody List<Integer> ids) {
+        return ResponseEntity.ok(productBatchService.deleteProducts(ids));
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<?> handleResourceNotFound(ResourceNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    /**
+     * Xung đột ghi: version client gửi đã cũ, không đủ tồn kho,
+     * hoặc 2 transaction cập nhật cùng 1 sản phẩm (optimistic lock)
+     */
+    @ExceptionHandler({ConflictException.class, ObjectOptimisticLockingFailureException.class})
+    public ResponseEntity<?> handleConflict(RuntimeException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidPatchException.class)
+    public ResponseEntity<?> handleInvalidPatch(InvalidPatchException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(BatchLimitExceededException.class)
+    public ResponseEntity<?> handleBatchLimitExceeded(BatchLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(ex.getMessage());
+    }
+
+    /**
+     * Đã đủ số kết nối stream tối đa của node, client thử lại sau
+     */
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<?> handleServiceBusy(ServiceBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(ex.getMessage());
+    }
 }
@@ -0,0 +1,167 @@
+package com.flogin.controller;
+
+import com.flogin.dto.ProductDTO;
+import com.flogin.dto.ProductPage;
+import com.flogin.dto.ResourceVersion;
+import com.flogin.dto.StockAdjustmentDTO;
+import com.flogin.exception.ConflictException;
+import com.flogin.exception.ResourceNotFoundException;
+import com.flogin.service.ProductService;
+import com.flogin.service.ReactiveProductService;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * REST Controller của product API trên stack reactive (WebFlux + R2DBC, profile reactive)
+ * Base URL: /api/products, thay thế ProductController khi ứng dụng chạy ở chế độ reactive
+ *
+ * Cùng request / response với ProductController cho các API: danh sách theo trang (ETag theo catalog version,
+ * X-Next-Cursor / Link), chi tiết (ETag theo version), export NDJSON, tạo / sửa / điều chỉnh tồn kho / xóa.
+ * Search, batch và JSON Merge Patch chỉ có trên stack MVC.
+ *
+ * Không method nào block: request chờ database không giữ thread nào,
+ * số request đồng thời chỉ bị giới hạn bởi pool connection R2DBC.
+ */
+@RestController
+@RequestMapping("/api/products")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@CrossOrigin(origins = "*", exposedHeaders = {ProductController.NEXT_CURSOR_HEADER, HttpHeaders.LINK,
+        HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED})
+public class ReactiveProductController {
+
+    private final ReactiveProductService productService;
+
+    public ReactiveProductController(ReactiveProductService productService) {
+        this.productService = productService;
+    }
+
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<?> handleResourceNotFound(ResourceNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    /**
+     * Xung đột ghi: version client gửi đã cũ, không đủ tồn kho, hoặc 2 request cập nhật cùng lúc (optimistic lock)
+     */
+    @ExceptionHandler({ConflictException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<?> handleConflict(RuntimeException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    /**
+     * API tạo sản phẩm mới
+     * POST /api/products
+     */
+    @PostMapping
+    public Mono<ResponseEntity<ProductDTO>> createProduct(@Valid @RequestBody ProductDTO dto) {
+        return productService.createProduct(dto)
+                .map(created -> ResponseEntity.status(HttpStatus.CREATED).body(created));
+    }
+
+    /**
+     * API lấy danh sách sản phẩm theo từng trang (keyset pagination trên id)
+     * GET /api/products?after={id}&limit={n}
+     * Version của danh mục được đọc trước trang dữ liệu, giống ProductController
+     */
+    @GetMapping
+    public Mono<ResponseEntity<List<ProductDTO>>> getAllProducts(
+            @RequestParam(defaultValue = "0") int after,
+            @RequestParam(defaultValue = "" + ProductService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestHeader HttpHeaders headers,
+            ServerHttpRequest request) {
+        return productService.getCatalogVersion().flatMap(catalog -> {
+            String eTag = ConditionalRequests.eTag("catalog", catalog.getVersion());
+            if (ConditionalRequests.notModified(headers, eTag, catalog.getUpdatedAt())) {
+                return Mono.just(ConditionalRequests.<List<ProductDTO>>notModifiedResponse(eTag, catalog));
+            }
+            return productService.getProducts(after, limit)
+                    .map(page -> pageResponse(ConditionalRequests.ok(eTag, catalog.getUpdatedAt()), page, request));
+        });
+    }
+
+    /**
+     * Helper: Trả về items của trang làm body, kèm header X-Next-Cursor và Link nếu còn trang sau
+     * Link dựng từ URI của request; sau reverse proxy thì bật server.forward-headers-strategy=framework
+     * (ForwardedHeaderTransformer áp dụng X-Forwarded-* vào URI trước khi đến controller)
+     */
+    private static ResponseEntity<List<ProductDTO>> pageResponse(ResponseEntity.BodyBuilder response, ProductPage page,
+                                                                 ServerHttpRequest request) {
+        if (page.hasNext()) {
+            String next = UriComponentsBuilder.fromUri(request.getURI())
+                    .replaceQueryParam("after", page.getNextCursor())
+                    .replaceQueryParam("limit", page.getItems().size())
+                    .build().toUriString();
+            response.header(ProductController.NEXT_CURSOR_HEADER, String.valueOf(page.getNextCursor()))
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(page.getItems());
+    }
+
+    /**
+     * API export toàn bộ danh mục sản phẩm dạng NDJSON
+     * GET /api/products/export
+     *
+     * Flux được ghi ra response theo backpressure: dòng tiếp theo chỉ được đọc từ database khi
+     * các dòng trước đã được ghi xuống socket, client chậm không làm heap phình theo kích thước bảng
+     */
+    @GetMapping(value = "/export", produces = ProductController.APPLICATION_NDJSON)
+    public Flux<ProductDTO> exportProducts() {
+        return productService.exportProducts();
+    }
+
+    /**
+     * API lấy thông tin chi tiết 1 sản phẩm theo ID
+     * GET /api/products/{id}
+     * Response có weak ETag (theo version) và Last-Modified; If-None-Match / If-Modified-Since còn khớp thì 304
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ProductDTO>> getProductById(@PathVariable int id, @RequestHeader HttpHeaders headers) {
+        return productService.getProductById(id).map(product -> {
+            long version = product.getVersion() != null ? product.getVersion() : 0;
+            String eTag = ConditionalRequests.eTag(String.valueOf(id), version);
+            if (ConditionalRequests.notModified(headers, eTag, product.getUpdatedAt())) {
+                return ConditionalRequests.<ProductDTO>notModifiedResponse(eTag, new ResourceVersion(version, product.getUpdatedAt()));
+            }
+            return ConditionalRequests.ok(eTag, product.getUpdatedAt()).body(product);
+        });
+    }
+
+    /**
+     * API cập nhật thông tin sản phẩm
+     * PUT /api/products/{id}
+     */
+    @PutMapping("/{id}")
+    public Mono<ProductDTO> updateProduct(@PathVariable int id, @Valid @RequestBody ProductDTO dto) {
+        return productService.updateProduct(id, dto);
+    }
+
+    /**
+     * API điều chỉnh tồn kho
+     * PATCH /api/products/{id}/stock, body: {"delta": -3}
+     */
+    @PatchMapping(value = "/{id}/stock", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ProductDTO> adjustStock(@PathVariable int id, @Valid @RequestBody StockAdjustmentDTO request) {
+        return productService.adjustStock(id, request.getDelta());
+    }
+
+    /**
+     * API xóa sản phẩm
+     * DELETE /api/products/{id}
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteProduct(@PathVariable int id) {
+        return productService.deleteProduct(id).thenReturn(ResponseEntity.noContent().<Void>build());
+    }
+}
@@ -0,0 +1,35 @@
+package com.flogin.controller;
+
+import com.flogin.event.ProductChangeFeed;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * Ghi thay đổi sản phẩm ra 1 kết nối SSE
+ * data là JSON đã render sẵn: {"type": ..., "productId": ..., "product": {...} | null}
+ */
+class SseProductChangeSink implements ProductChangeFeed.Sink {
+
+    private final SseEmitter emitter;
+
+    SseProductChangeSink(SseEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    @Override
+    public void send(String id, String name, String data) throws IOException {
+        emitter.send(SseEmitter.event().id(id).name(name).data(data, MediaType.APPLICATION_JSON));
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+        emitter.send(SseEmitter.event().comment("heartbeat"));
+    }
+
+    @Override
+    public void close() {
+        emitter.complete();
+    }
+}
@@ -1,18 +1,47 @@
 package com.flogin.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.flogin.dto.UserDTO;
+import com.flogin.exception.InvalidPatchException;
+import com.flogin.exception.ServiceBusyException;
+import com.flogin.exception.TooManyRequestsException;
+import com.flogin.security.LoginRateLimiter;
 import com.flogin.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 @CrossOrigin(origins = "*")
 public class UserController {
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<?> handleServiceBusy(ServiceBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<?> handleTooManyRequests(TooManyRequestsException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, ex.getRetryAfterSeconds())
+            .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidPatchException.class)
+    public ResponseEntity<?> handleInvalidPatch(InvalidPatchException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<?> handleRuntimeException(RuntimeException ex) {
         String msg = ex.getMessage();
@@ -23,6 +52,8 @@ public class UserController {
     }
 
     private final UserService userService;
+    private final JsonMergePatch mergePatch;
+    private final LoginRateLimiter loginRateLimiter;
 
     @PostMapping
     public ResponseEntity<UserDTO> createUser(@Valid @RequestBody UserDTO dto) {
@@ -31,13 +62,19 @@ public class UserController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<UserDTO> login(@Valid @RequestBody UserDTO dto) {
+    public ResponseEntity<UserDTO> login(@Valid @RequestBody UserDTO dto, HttpServletRequest request) {
+        String clientIp = request.getRemoteAddr();
+        loginRateLimiter.acquire(dto.getUsername(), clientIp);
         try {
             UserDTO user = userService.login(dto.getUsername(), dto.getPassword());
+            loginRateLimiter.recordSuccess(dto.getUsername(), clientIp);
             return ResponseEntity.ok(user);
+        } catch (ServiceBusyException ex) {
+            throw ex;
         } catch (RuntimeException ex) {
             String msg = ex.getMessage();
             if (msg != null && (msg.contains("User không tồn tại") || msg.contains("Sai mật khẩu"))) {
+                loginRateLimiter.recordFailure(dto.getUsername(), clientIp);
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
             }
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
@@ -69,6 +106,15 @@ public class UserController {
         }
     }
 
+    /**
+     * Cập nhật 1 phần user (JSON Merge Patch, RFC 7386), ví dụ {"email": "a@b.c"}
+     * id không được sửa; password chỉ đổi khi có trong patch
+     */
+    @PatchMapping(value = "/{id}", consumes = {JsonMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<UserDTO> patchUser(@PathVariable int id, @RequestBody JsonNode patch) {
+        return ResponseEntity.ok(userService.patchUser(id, mergePatch.of(patch, UserDTO.class, "id")));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable int id) {
         userService.deleteUser(id);
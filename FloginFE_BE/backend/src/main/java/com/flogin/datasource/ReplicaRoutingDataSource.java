@@ -0,0 +1,289 @@
+package com.flogin.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * DataSource định tuyến đọc / ghi: transaction @Transactional(readOnly = true) đọc từ read replica,
+ * mọi thứ khác (transaction ghi, truy cập ngoài transaction, DDL) dùng primary
+ *
+ * - Là LazyConnectionDataSourceProxy: connection thật chỉ được lấy ở câu SQL đầu tiên, lúc đó
+ *   TransactionSynchronizationManager đã biết transaction có readOnly hay không
+ *   (JpaTransactionManager lấy connection trước khi đánh dấu readOnly)
+ * - Health check định kỳ: replica không lấy được connection, không hợp lệ hoặc trễ quá max-lag bị loại
+ *   khỏi vòng round-robin cho tới lần kiểm tra kế tiếp thành công. Lấy connection từ replica lỗi giữa
+ *   2 lần kiểm tra thì replica bị loại ngay và câu đọc chạy trên primary
+ * - Read-your-writes: sau khi 1 client commit transaction ghi, các transaction đọc của client đó dùng
+ *   primary trong khoảng read-your-writes-window (bù độ trễ replication)
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    /** Tên cột độ trễ trong kết quả SHOW REPLICA STATUS (MySQL 8.0.22+) */
+    private static final String MYSQL_LAG_COLUMN = "Seconds_Behind_Source";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Supplier<String> clientKey;
+    private final String lagQuery;
+    private final Duration maxLag;
+
+    /** Client đã ghi gần đây, hết hạn sau read-your-writes-window */
+    private final Cache<String, Boolean> recentWriters;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final ScheduledExecutorService healthChecker;
+
+    /**
+     * @param primary DataSource của primary (ghi và đọc khi không có replica khỏe)
+     * @param replicas Các read replica theo tên (tên dùng trong log, health và metrics)
+     * @param clientKey Khóa của client hiện tại cho read-your-writes (user, địa chỉ, ...)
+     * @param readYourWritesWindow Thời gian client vừa ghi được đọc từ primary
+     * @param healthCheckInterval Chu kỳ kiểm tra replica
+     * @param lagQuery Câu lấy độ trễ replication (giây), rỗng = không kiểm tra độ trễ
+     * @param maxLag Độ trễ tối đa chấp nhận được
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Supplier<String> clientKey,
+                                    Duration readYourWritesWindow, Duration healthCheckInterval,
+                                    String lagQuery, Duration maxLag) {
+        this.primary = primary;
+        List<Replica> list = new ArrayList<>();
+        replicas.forEach((name, dataSource) -> list.add(new Replica(name, dataSource)));
+        this.replicas = List.copyOf(list);
+        this.clientKey = clientKey;
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+        this.maxLag = maxLag;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .maximumSize(100_000)
+                .build();
+        setTargetDataSource(new Router());
+        // Kiểm tra ngay lúc khởi động để không gửi truy vấn tới replica đang chết
+        checkReplicas();
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = healthCheckInterval.toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Trạng thái hiện tại của từng replica (true = đang nhận truy vấn đọc)
+     */
+    public Map<String, Boolean> replicaStatus() {
+        Map<String, Boolean> status = new LinkedHashMap<>();
+        replicas.forEach(replica -> status.put(replica.name, replica.healthy));
+        return Collections.unmodifiableMap(status);
+    }
+
+    /**
+     * DataSource của các replica theo tên (dùng cho metrics của connection pool)
+     */
+    public Map<String, DataSource> replicaDataSources() {
+        Map<String, DataSource> result = new LinkedHashMap<>();
+        replicas.forEach(replica -> result.put(replica.name, replica.dataSource));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /** Số connection thật đã lấy từ primary */
+    public long primaryConnectionCount() {
+        return primaryConnections.sum();
+    }
+
+    /** Số connection thật đã lấy từ replica */
+    public long replicaConnectionCount() {
+        return replicaConnections.sum();
+    }
+
+    /**
+     * Kiểm tra toàn bộ replica 1 lượt, chỉ log khi trạng thái thay đổi
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            String problem = probe(replica);
+            boolean healthy = problem == null;
+            if (healthy != replica.healthy) {
+                if (healthy) {
+                    log.info("Read replica {} is back in rotation", replica.name);
+                } else {
+                    log.warn("Read replica {} removed from rotation: {}", replica.name, problem);
+                }
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    @Override
+    public void close() {
+        healthChecker.shutdownNow();
+        for (DataSource dataSource : replicaDataSources().values()) {
+            closeQuietly(dataSource);
+        }
+        closeQuietly(primary);
+    }
+
+    /**
+     * @return null nếu replica dùng được, ngược lại là lý do
+     */
+    private String probe(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (!connection.isValid(2)) {
+                return "connection is not valid";
+            }
+            if (lagQuery == null) {
+                return null;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+                if (!rs.next()) {
+                    return "replication is not configured";
+                }
+                long lag = lagColumn(rs) ? rs.getLong(MYSQL_LAG_COLUMN) : rs.getLong(1);
+                if (rs.wasNull()) {
+                    return "replication is stopped";
+                }
+                return lag > maxLag.toSeconds() ? "replication lag " + lag + "s" : null;
+            }
+        } catch (SQLException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    private static boolean lagColumn(ResultSet rs) throws SQLException {
+        int columns = rs.getMetaData().getColumnCount();
+        for (int i = 1; i <= columns; i++) {
+            if (MYSQL_LAG_COLUMN.equalsIgnoreCase(rs.getMetaData().getColumnLabel(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception ex) {
+                log.debug("Failed to close data source", ex);
+            }
+        }
+    }
+
+    private Connection primaryConnection() throws SQLException {
+        Connection connection = primary.getConnection();
+        primaryConnections.increment();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Key lấy ngay bây giờ: afterCommit có thể chạy khi request đã đổi context (async)
+            String key = clientKey.get();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWriters.put(key, Boolean.TRUE);
+                }
+            });
+        }
+        return connection;
+    }
+
+    /**
+     * Chọn replica khỏe kế tiếp theo round-robin, null nếu không còn replica nào
+     */
+    private Replica nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Chọn DataSource thật cho từng connection (bên dưới LazyConnectionDataSourceProxy)
+     */
+    private class Router extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    || recentWriters.getIfPresent(clientKey.get()) != null) {
+                return primaryConnection();
+            }
+            Replica replica = nextHealthyReplica();
+            while (replica != null) {
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replicaConnections.increment();
+                    return connection;
+                } catch (SQLException ex) {
+                    replica.healthy = false;
+                    log.warn("Read replica {} removed from rotation: {}", replica.name, ex.getMessage());
+                    replica = nextHealthyReplica();
+                }
+            }
+            return primaryConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new UnsupportedOperationException("Routing data source uses the credentials of each pool");
+        }
+
+        /**
+         * Unwrap tới primary: metrics / health của Spring Boot xem primary như DataSource của ứng dụng
+         */
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || primary.isWrapperFor(iface);
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
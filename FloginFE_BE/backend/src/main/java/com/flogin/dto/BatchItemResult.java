@@ -0,0 +1,55 @@
+package com.flogin.dto;
+
+import java.util.List;
+
+/**
+ * Kết quả xử lý của 1 phần tử trong request batch
+ * - index: vị trí của phần tử trong request (bắt đầu từ 0)
+ * - id: id của sản phẩm (id mới sinh ra khi tạo, null nếu không xác định được)
+ * - status: trạng thái xử lý
+ * - errors: danh sách lỗi (rỗng nếu thành công)
+ */
+public class BatchItemResult {
+
+    /**
+     * Trạng thái xử lý của 1 phần tử
+     */
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        INVALID,
+        NOT_FOUND,
+        CONFLICT,
+        FAILED
+    }
+
+    private final int index;
+    private final Integer id;
+    private final Status status;
+    private final List<String> errors;
+
+    public BatchItemResult(int index, Integer id, Status status, List<String> errors) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.errors = errors;
+    }
+
+    public static BatchItemResult success(int index, int id, Status status) {
+        return new BatchItemResult(index, id, status, List.of());
+    }
+
+    public static BatchItemResult failure(int index, Integer id, Status status, List<String> errors) {
+        return new BatchItemResult(index, id, status, errors);
+    }
+
+    public boolean isSuccess() {
+        return errors.isEmpty();
+    }
+
+    public int getIndex() { return index; }
+    public Integer getId() { return id; }
+    public Status getStatus() { return status; }
+    public List<String> getErrors() { return errors; }
+}
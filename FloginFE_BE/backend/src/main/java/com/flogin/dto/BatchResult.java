@@ -0,0 +1,30 @@
+package com.flogin.dto;
+
+import java.util.List;
+
+/**
+ * Kết quả tổng hợp của 1 request batch
+ * Gồm số phần tử thành công / thất bại và kết quả chi tiết theo từng phần tử (cùng thứ tự với request)
+ */
+public class BatchResult {
+
+    private final int succeeded;
+    private final int failed;
+    private final List<BatchItemResult> items;
+
+    public BatchResult(List<BatchItemResult> items) {
+        int ok = 0;
+        for (BatchItemResult item : items) {
+            if (item.isSuccess()) {
+                ok++;
+            }
+        }
+        this.items = items;
+        this.succeeded = ok;
+        this.failed = items.size() - ok;
+    }
+
+    public int getSucceeded() { return succeeded; }
+    public int getFailed() { return failed; }
+    public List<BatchItemResult> getItems() { return items; }
+}
@@ -0,0 +1,43 @@
+package com.flogin.dto;
+
+/**
+ * Thống kê của 1 cache in-process
+ * - hits / misses: số lần đọc trúng / trượt cache
+ * - hitRate: tỉ lệ trúng (0..1)
+ * - evictions: số phần tử bị loại do vượt kích thước hoặc hết hạn
+ * - size: số phần tử hiện có (ước lượng)
+ * - loads / averageLoadMillis: số lần nạp giá trị khi miss và thời gian nạp trung bình
+ *   (chỉ có với cache đọc đồng bộ, ví dụ @Cacheable(sync = true))
+ */
+public class CacheStatsDTO {
+
+    private final String name;
+    private final long hits;
+    private final long misses;
+    private final double hitRate;
+    private final long evictions;
+    private final long size;
+    private final long loads;
+    private final double averageLoadMillis;
+
+    public CacheStatsDTO(String name, long hits, long misses, double hitRate, long evictions, long size,
+                         long loads, double averageLoadMillis) {
+        this.name = name;
+        this.hits = hits;
+        this.misses = misses;
+        this.hitRate = hitRate;
+        this.evictions = evictions;
+        this.size = size;
+        this.loads = loads;
+        this.averageLoadMillis = averageLoadMillis;
+    }
+
+    public String getName() { return name; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public double getHitRate() { return hitRate; }
+    public long getEvictions() { return evictions; }
+    public long getSize() { return size; }
+    public long getLoads() { return loads; }
+    public double getAverageLoadMillis() { return averageLoadMillis; }
+}
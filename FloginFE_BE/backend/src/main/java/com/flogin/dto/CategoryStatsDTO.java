@@ -0,0 +1,28 @@
+package com.flogin.dto;
+
+/**
+ * Thống kê của 1 danh mục sản phẩm (API GET /api/products/stats)
+ * - category: tên danh mục, null với sản phẩm không có danh mục
+ * - productCount: số sản phẩm
+ * - totalStock: tổng số lượng tồn kho
+ * - inventoryValue: tổng giá trị tồn kho (price * quantity)
+ */
+public class CategoryStatsDTO {
+
+    private final String category;
+    private final long productCount;
+    private final long totalStock;
+    private final double inventoryValue;
+
+    public CategoryStatsDTO(String category, long productCount, long totalStock, double inventoryValue) {
+        this.category = category;
+        this.productCount = productCount;
+        this.totalStock = totalStock;
+        this.inventoryValue = inventoryValue;
+    }
+
+    public String getCategory() { return category; }
+    public long getProductCount() { return productCount; }
+    public long getTotalStock() { return totalStock; }
+    public double getInventoryValue() { return inventoryValue; }
+}
@@ -0,0 +1,8 @@
+package com.flogin.dto;
+
+/**
+ * Nhóm Bean Validation chỉ áp dụng cho các field có trong JSON Merge Patch (JsonMergePatch)
+ * Dùng cho field không bắt buộc khi tạo / cập nhật toàn bộ nhưng không được xóa bằng patch (gửi null)
+ */
+public interface MergePatchChecks {
+}
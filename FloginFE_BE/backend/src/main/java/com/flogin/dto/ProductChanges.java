@@ -0,0 +1,30 @@
+package com.flogin.dto;
+
+import java.util.List;
+
+/**
+ * Các thay đổi của danh mục sau 1 change sequence (API GET /api/products/changes?since=)
+ * - items: sản phẩm được tạo / sửa (trạng thái hiện tại), theo thứ tự ghi
+ * - deleted: id các sản phẩm đã bị xóa
+ * - since: giá trị truyền vào ?since= ở lần đồng bộ sau
+ * - hasMore: còn thay đổi chưa trả về, client gọi tiếp ngay với since mới
+ */
+public class ProductChanges {
+
+    private final List<ProductDTO> items;
+    private final List<Integer> deleted;
+    private final long since;
+    private final boolean hasMore;
+
+    public ProductChanges(List<ProductDTO> items, List<Integer> deleted, long since, boolean hasMore) {
+        this.items = items;
+        this.deleted = deleted;
+        this.since = since;
+        this.hasMore = hasMore;
+    }
+
+    public List<ProductDTO> getItems() { return items; }
+    public List<Integer> getDeleted() { return deleted; }
+    public long getSince() { return since; }
+    public boolean isHasMore() { return hasMore; }
+}
@@ -2,6 +2,8 @@ package com.flogin.dto;
 
 import jakarta.validation.constraints.*;
 
+import java.time.Instant;
+
 /**
  * Data Transfer Object (DTO) cho Product
  * Sử dụng để transfer data giữa các layer (Controller <-> Service)
@@ -42,7 +44,9 @@ public class ProductDTO {
     /**
      * Số lượng sản phẩm
      * - Phải >= 0 (@Min)
+     * - Không được xóa bằng merge patch ({"quantity": null}): đặt tồn kho về 0 phải gửi rõ 0
      */
+    @NotNull(groups = MergePatchChecks.class, message = "Quantity cannot be removed, send 0 to clear stock")
     @Min(value = 0, message = "Quantity cannot be negative")
     private Integer quantity;
 
@@ -51,6 +55,19 @@ public class ProductDTO {
      */
     private String category;
 
+    /**
+     * Phiên bản của sản phẩm (optimistic locking)
+     * - Luôn có trong response
+     * - Không bắt buộc khi cập nhật; nếu client gửi kèm version đã đọc trước đó mà sản phẩm
+     *   đã bị sửa bởi request khác thì cập nhật bị từ chối (409) thay vì ghi đè
+     */
+    private Long version;
+
+    /**
+     * Thời điểm cập nhật gần nhất (chỉ có trong response, client gửi lên bị bỏ qua)
+     */
+    private Instant updatedAt;
+
     public ProductDTO() {}
 
     public ProductDTO(int id, String name, String description, Double price, Integer quantity, String category) {
@@ -90,6 +107,8 @@ public class ProductDTO {
         private Double price;
         private Integer quantity;
         private String category;
+        private Long version;
+        private Instant updatedAt;
 
         public Builder id(int id) { this.id = id; return this; }
         public Builder name(String name) { this.name = name; return this; }
@@ -97,7 +116,14 @@ public class ProductDTO {
         public Builder price(Double price) { this.price = price; return this; }
         public Builder quantity(Integer quantity) { this.quantity = quantity; return this; }
         public Builder category(String category) { this.category = category; return this; }
-        public ProductDTO build() { return new ProductDTO(id, name, description, price, quantity, category); }
+        public Builder version(Long version) { this.version = version; return this; }
+        public Builder updatedAt(Instant updatedAt) { this.updatedAt = updatedAt; return this; }
+        public ProductDTO build() {
+            ProductDTO dto = new ProductDTO(id, name, description, price, quantity, category);
+            dto.setVersion(version);
+            dto.setUpdatedAt(updatedAt);
+            return dto;
+        }
     }
 
     // Get/ set
@@ -111,4 +137,8 @@ public class ProductDTO {
     public void setPrice(Double price) { this.price = price; }
     public Integer getQuantity() { return quantity; }
     public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
 }
@@ -0,0 +1,23 @@
+package com.flogin.dto;
+
+import java.util.List;
+
+/**
+ * Một trang sản phẩm theo keyset pagination
+ * - items: các sản phẩm trong trang, sắp xếp theo id tăng dần
+ * - nextCursor: id dùng cho tham số ?after= của trang kế tiếp (null nếu đã hết dữ liệu)
+ */
+public class ProductPage {
+
+    private final List<ProductDTO> items;
+    private final Integer nextCursor;
+
+    public ProductPage(List<ProductDTO> items, Integer nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ProductDTO> getItems() { return items; }
+    public Integer getNextCursor() { return nextCursor; }
+    public boolean hasNext() { return nextCursor != null; }
+}
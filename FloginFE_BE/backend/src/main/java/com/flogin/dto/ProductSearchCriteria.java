@@ -0,0 +1,50 @@
+package com.flogin.dto;
+
+/**
+ * Điều kiện tìm kiếm sản phẩm cho API /api/products/search
+ * Tất cả điều kiện đều không bắt buộc, các điều kiện được kết hợp bằng AND
+ * - name: tiền tố tên sản phẩm (LIKE 'name%', dùng được index trên cột name)
+ * - category: danh mục (so sánh bằng)
+ * - minPrice / maxPrice: khoảng giá (bao gồm 2 đầu)
+ * - inStock: true = chỉ lấy sản phẩm còn hàng, false = chỉ lấy sản phẩm hết hàng
+ * - after / limit: keyset pagination theo id (giống GET /api/products)
+ */
+public class ProductSearchCriteria {
+
+    private String name;
+    private String category;
+    private Double minPrice;
+    private Double maxPrice;
+    private Boolean inStock;
+    private int after;
+    private int limit;
+
+    public ProductSearchCriteria() {}
+
+    public ProductSearchCriteria(String name, String category, Double minPrice, Double maxPrice,
+                                 Boolean inStock, int after, int limit) {
+        this.name = name;
+        this.category = category;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.inStock = inStock;
+        this.after = after;
+        this.limit = limit;
+    }
+
+    // Get/ set
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    public Double getMinPrice() { return minPrice; }
+    public void setMinPrice(Double minPrice) { this.minPrice = minPrice; }
+    public Double getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(Double maxPrice) { this.maxPrice = maxPrice; }
+    public Boolean getInStock() { return inStock; }
+    public void setInStock(Boolean inStock) { this.inStock = inStock; }
+    public int getAfter() { return after; }
+    public void setAfter(int after) { this.after = after; }
+    public int getLimit() { return limit; }
+    public void setLimit(int limit) { this.limit = limit; }
+}
@@ -0,0 +1,26 @@
+package com.flogin.dto;
+
+import java.util.List;
+
+/**
+ * Một trang kết quả full-text search
+ * - items: các sản phẩm trong trang, sắp xếp theo mức độ liên quan giảm dần
+ * - total: tổng số sản phẩm khớp với query (dùng cho header X-Total-Count)
+ * - truncated: total có thể thiếu vì 1 tiền tố khớp quá nhiều term (header X-Total-Count-Truncated)
+ */
+public class ProductSearchHits {
+
+    private final List<ProductDTO> items;
+    private final int total;
+    private final boolean truncated;
+
+    public ProductSearchHits(List<ProductDTO> items, int total, boolean truncated) {
+        this.items = items;
+        this.total = total;
+        this.truncated = truncated;
+    }
+
+    public List<ProductDTO> getItems() { return items; }
+    public int getTotal() { return total; }
+    public boolean isTruncated() { return truncated; }
+}
@@ -0,0 +1,22 @@
+package com.flogin.dto;
+
+import java.time.Instant;
+
+/**
+ * Phiên bản của 1 tài nguyên, dùng để trả lời conditional GET mà không cần load / serialize dữ liệu
+ * - version: tăng mỗi lần tài nguyên thay đổi (ETag)
+ * - updatedAt: thời điểm thay đổi gần nhất (Last-Modified), null nếu không rõ
+ */
+public class ResourceVersion {
+
+    private final long version;
+    private final Instant updatedAt;
+
+    public ResourceVersion(long version, Instant updatedAt) {
+        this.version = version;
+        this.updatedAt = updatedAt;
+    }
+
+    public long getVersion() { return version; }
+    public Instant getUpdatedAt() { return updatedAt; }
+}
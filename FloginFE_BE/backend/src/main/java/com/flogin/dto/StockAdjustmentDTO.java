@@ -0,0 +1,23 @@
+package com.flogin.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Request điều chỉnh tồn kho: PATCH /api/products/{id}/stock
+ * - delta &gt; 0: nhập thêm hàng
+ * - delta &lt; 0: xuất hàng (bị từ chối nếu tồn kho không đủ)
+ */
+public class StockAdjustmentDTO {
+
+    @NotNull(message = "Delta is required")
+    private Integer delta;
+
+    public StockAdjustmentDTO() {}
+
+    public StockAdjustmentDTO(Integer delta) {
+        this.delta = delta;
+    }
+
+    public Integer getDelta() { return delta; }
+    public void setDelta(Integer delta) { this.delta = delta; }
+}
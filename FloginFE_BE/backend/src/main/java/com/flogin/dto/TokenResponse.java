@@ -0,0 +1,25 @@
+package com.flogin.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenResponse {
+    private String token;
+
+    @Builder.Default
+    private String tokenType = "Bearer";
+
+    /** Thời điểm token hết hạn (epoch seconds) */
+    private long expiresAt;
+
+    /** Thông tin user (chỉ có khi đăng nhập, không có khi refresh) */
+    private UserDTO user;
+}
@@ -0,0 +1,315 @@
+package com.flogin.event;
+
+import com.flogin.exception.ServiceBusyException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bus phát thay đổi sản phẩm tới các subscriber đang mở kết nối (SSE), trong 1 node
+ *
+ * - Mỗi thay đổi nhận 1 id tăng dần dạng {epoch}-{sequence} (epoch = thời điểm khởi động, đổi sau mỗi lần restart)
+ *   và được giữ trong vòng đệm replaySize thay đổi gần nhất để subscriber kết nối lại tiếp tục từ Last-Event-ID;
+ *   id quá cũ, của lần chạy trước hoặc không hợp lệ thì subscriber nhận 1 event "resync" (tải lại danh sách)
+ * - Thread phát (dispatcher, 1 thread) gán id, render JSON 1 lần rồi đưa vào hàng đợi có giới hạn (bufferSize)
+ *   của từng subscriber; thread ghi transaction không bao giờ chờ subscriber
+ * - Mỗi subscriber được ghi bởi tối đa 1 tác vụ tại 1 thời điểm (virtual thread), client chậm chỉ làm đầy hàng đợi
+ *   của chính nó: hàng đợi đầy, hoặc heartbeat trước chưa ghi xong khi tới heartbeat sau, thì subscriber bị loại
+ *   (client kết nối lại với Last-Event-ID)
+ */
+public class ProductChangeFeed implements Closeable {
+
+    /** Tên event gửi khi subscriber không thể tiếp tục từ Last-Event-ID */
+    public static final String RESYNC = "resync";
+
+    /**
+     * Kết nối của 1 subscriber (ví dụ SseEmitter); các method chỉ được gọi tuần tự, không bao giờ đồng thời
+     */
+    public interface Sink {
+        void send(String id, String name, String data) throws IOException;
+        void heartbeat() throws IOException;
+        void close();
+    }
+
+    /**
+     * Lý do 1 subscriber bị loại
+     */
+    public enum Eviction {
+        /** Hàng đợi đầy */
+        OVERFLOW,
+        /** Heartbeat trước chưa ghi xong */
+        STALLED,
+        /** Lỗi ghi (client đã đóng kết nối) */
+        ERROR
+    }
+
+    /** 1 thay đổi đã gán id, data là JSON đã render */
+    private record Change(long sequence, String id, String name, String data) {}
+
+    /** Phần tử đặc biệt trong hàng đợi của subscriber */
+    private static final Change HEARTBEAT = new Change(-1, null, null, null);
+
+    private final long epoch = System.currentTimeMillis();
+    private final String idPrefix = Long.toString(epoch, 36) + "-";
+    private final int replaySize;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Function<ProductChangedEvent, String> renderer;
+    private final Executor dispatcher;
+    private final Executor writers;
+    private final ScheduledExecutorService scheduler;
+
+    /** Chỉ truy cập trong synchronized (this) */
+    private final ArrayDeque<Change> recent = new ArrayDeque<>();
+    private long sequence;
+
+    private final Set<Subscription> subscribers = ConcurrentHashMap.newKeySet();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder[] evictions = new LongAdder[Eviction.values().length];
+
+    /**
+     * @param replaySize số thay đổi gần nhất được giữ để tiếp tục từ Last-Event-ID
+     * @param bufferSize số thay đổi tối đa chờ ghi của 1 subscriber
+     * @param maxSubscribers số subscriber tối đa, vượt quá thì subscribe ném ServiceBusyException
+     * @param heartbeatInterval chu kỳ gửi heartbeat (giữ kết nối qua proxy và phát hiện client chậm)
+     * @param renderer render payload (JSON) của 1 event, chạy 1 lần cho mọi subscriber
+     */
+    public ProductChangeFeed(int replaySize, int bufferSize, int maxSubscribers, Duration heartbeatInterval,
+                             Function<ProductChangedEvent, String> renderer) {
+        this(replaySize, bufferSize, maxSubscribers, renderer, null, Executors.newVirtualThreadPerTaskExecutor());
+        long interval = heartbeatInterval.toMillis();
+        scheduler.scheduleAtFixedRate(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Dùng cho test: dispatcher và writers do test cung cấp (ví dụ chạy ngay trên thread gọi), không tự gửi heartbeat
+     */
+    ProductChangeFeed(int replaySize, int bufferSize, int maxSubscribers,
+                      Function<ProductChangedEvent, String> renderer, Executor dispatcher, Executor writers) {
+        this.replaySize = replaySize;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.renderer = renderer;
+        this.writers = writers;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = dispatcher != null ? dispatcher : scheduler;
+        for (int i = 0; i < evictions.length; i++) {
+            evictions[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Đưa 1 thay đổi vào hàng phát; trả về ngay, không chờ subscriber
+     */
+    public void publish(ProductChangedEvent event) {
+        dispatcher.execute(() -> dispatch(event));
+    }
+
+    /**
+     * Đăng ký 1 subscriber
+     * @param lastEventId id của event cuối cùng client đã nhận (header Last-Event-ID), null nếu kết nối mới
+     * @throws ServiceBusyException khi đã đủ maxSubscribers
+     */
+    public Subscription subscribe(Sink sink, String lastEventId) {
+        Subscription subscription = new Subscription(sink);
+        synchronized (this) {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new ServiceBusyException("Too many product change subscribers");
+            }
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                replay(subscription, lastEventId.trim());
+            }
+            subscribers.add(subscription);
+        }
+        subscription.schedule();
+        return subscription;
+    }
+
+    /**
+     * Gửi heartbeat tới mọi subscriber; subscriber còn heartbeat trước chưa ghi xong bị loại
+     */
+    public void heartbeat() {
+        for (Subscription subscription : subscribers) {
+            if (!subscription.heartbeatPending.compareAndSet(false, true)) {
+                subscription.evict(Eviction.STALLED);
+            } else {
+                subscription.offer(HEARTBEAT);
+            }
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /** Số thay đổi đã phát từ lúc khởi động */
+    public long publishedCount() {
+        return published.sum();
+    }
+
+    public long evictionCount(Eviction reason) {
+        return evictions[reason.ordinal()].sum();
+    }
+
+    /**
+     * Dừng heartbeat và đóng mọi kết nối đang mở
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        for (Subscription subscription : subscribers) {
+            subscription.cancel();
+        }
+        if (writers instanceof ExecutorService executor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Chạy trên dispatcher: gán id, lưu vào vòng đệm rồi chia cho từng subscriber
+     * Chung lock với subscribe nên subscriber mới không bị sót hay nhận trùng thay đổi nào
+     */
+    private void dispatch(ProductChangedEvent event) {
+        String data = renderer.apply(event);
+        String name = event.getType().name().toLowerCase();
+        synchronized (this) {
+            long next = ++sequence;
+            Change change = new Change(next, idPrefix + next, name, data);
+            recent.addLast(change);
+            if (recent.size() > replaySize) {
+                recent.removeFirst();
+            }
+            for (Subscription subscription : subscribers) {
+                subscription.offer(change);
+            }
+        }
+        published.increment();
+    }
+
+    /**
+     * Xếp các thay đổi sau lastEventId vào hàng đợi của subscriber; không thể tiếp tục thì xếp 1 event resync
+     * Gọi trong synchronized (this)
+     */
+    private void replay(Subscription subscription, String lastEventId) {
+        long last = parseSequence(lastEventId);
+        long oldest = recent.isEmpty() ? sequence + 1 : recent.peekFirst().sequence();
+        // Các thay đổi từ last + 1 phải còn trong vòng đệm và vừa hàng đợi của subscriber
+        if (last < 0 || last > sequence || last + 1 < oldest || sequence - last > bufferSize) {
+            subscription.offer(new Change(sequence, idPrefix + sequence, RESYNC, "{}"));
+            return;
+        }
+        for (Change change : recent) {
+            if (change.sequence() > last) {
+                subscription.offer(change);
+            }
+        }
+    }
+
+    /** Sequence trong id của lần chạy này, -1 nếu id không hợp lệ hoặc của lần chạy trước */
+    private long parseSequence(String id) {
+        if (!id.startsWith(idPrefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(id.substring(idPrefix.length()));
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * 1 subscriber đang kết nối
+     */
+    public final class Subscription {
+
+        private final Sink sink;
+        private final Queue<Change> queue = new ArrayBlockingQueue<>(bufferSize + 1);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean heartbeatPending = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscription(Sink sink) {
+            this.sink = sink;
+        }
+
+        /**
+         * Hủy đăng ký (client đã ngắt, timeout); kết nối được đóng bởi tác vụ ghi
+         */
+        public void cancel() {
+            closed = true;
+            subscribers.remove(this);
+            schedule();
+        }
+
+        private void evict(Eviction reason) {
+            if (subscribers.remove(this)) {
+                evictions[reason.ordinal()].increment();
+            }
+            closed = true;
+            schedule();
+        }
+
+        private void offer(Change change) {
+            if (closed) {
+                return;
+            }
+            // Chừa 1 chỗ cho heartbeat để hàng đợi đầy luôn là do thay đổi, không phải do heartbeat
+            if ((change != HEARTBEAT && queue.size() >= bufferSize) || !queue.offer(change)) {
+                evict(Eviction.OVERFLOW);
+                return;
+            }
+            schedule();
+        }
+
+        /**
+         * Bảo đảm có đúng 1 tác vụ ghi đang xử lý hàng đợi
+         */
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                writers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                try {
+                    Change change;
+                    while (!closed && (change = queue.poll()) != null) {
+                        if (change == HEARTBEAT) {
+                            sink.heartbeat();
+                            heartbeatPending.set(false);
+                        } else {
+                            sink.send(change.id(), change.name(), change.data());
+                        }
+                    }
+                } catch (IOException | RuntimeException ex) {
+                    evict(Eviction.ERROR);
+                }
+                if (closed) {
+                    queue.clear();
+                    sink.close();
+                    return;
+                }
+                scheduled.set(false);
+            } while (!queue.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.flogin.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.flogin.dto.ProductDTO;
+
+/**
+ * Domain event phát ra mỗi khi 1 sản phẩm được tạo / cập nhật / xóa
+ * Được publish bên trong transaction ghi; các listener dùng @TransactionalEventListener
+ * để chỉ xử lý sau khi transaction commit thành công
+ */
+public class ProductChangedEvent {
+
+    /**
+     * Loại thay đổi
+     */
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final int productId;
+
+    /** Trạng thái mới của sản phẩm (null khi DELETED) */
+    private final ProductDTO product;
+
+    /**
+     * Trạng thái trước khi ghi (null khi CREATED), để listener tính chênh lệch (ví dụ thống kê theo danh mục)
+     * Không gửi cho client của luồng thay đổi (SSE)
+     */
+    private final ProductDTO previous;
+
+    /**
+     * Change sequence của transaction ghi, do CatalogVersionTracker gán ngay trước commit
+     * 0 khi chưa gán (listener chạy trước khi transaction commit, hoặc event publish ngoài transaction)
+     */
+    private long changeSeq;
+
+    public ProductChangedEvent(Type type, int productId, ProductDTO product, ProductDTO previous) {
+        this.type = type;
+        this.productId = productId;
+        this.product = product;
+        this.previous = previous;
+    }
+
+    public static ProductChangedEvent created(ProductDTO product) {
+        return new ProductChangedEvent(Type.CREATED, product.getId(), product, null);
+    }
+
+    public static ProductChangedEvent updated(ProductDTO previous, ProductDTO product) {
+        return new ProductChangedEvent(Type.UPDATED, product.getId(), product, previous);
+    }
+
+    public static ProductChangedEvent deleted(ProductDTO previous) {
+        return new ProductChangedEvent(Type.DELETED, previous.getId(), null, previous);
+    }
+
+    public Type getType() { return type; }
+    public int getProductId() { return productId; }
+    public ProductDTO getProduct() { return product; }
+    @JsonIgnore
+    public ProductDTO getPrevious() { return previous; }
+    @JsonIgnore
+    public long getChangeSeq() { return changeSeq; }
+    public void setChangeSeq(long changeSeq) { this.changeSeq = changeSeq; }
+}
@@ -0,0 +1,11 @@
+package com.flogin.exception;
+
+/**
+ * Thao tác ghi xung đột với trạng thái hiện tại của dữ liệu (version đã cũ, không đủ tồn kho, ...)
+ * Được trả về cho client với HTTP 409 (Conflict)
+ */
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.flogin.exception;
+
+/**
+ * Nội dung PATCH không hợp lệ (không phải JSON object, field không được sửa, vi phạm validation)
+ * Được trả về cho client với HTTP 400 (Bad Request)
+ */
+public class InvalidPatchException extends RuntimeException {
+    public InvalidPatchException(String message) {
+        super(message);
+    }
+}
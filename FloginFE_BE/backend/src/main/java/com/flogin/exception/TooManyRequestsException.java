@@ -0,0 +1,25 @@
+package com.flogin.exception;
+
+/**
+ * Vượt giới hạn tần suất (429), kèm thời gian nên chờ trước khi thử lại
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterMillis;
+
+    public TooManyRequestsException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /**
+     * Giá trị header Retry-After (giây, làm tròn lên, tối thiểu 1)
+     */
+    public String getRetryAfterSeconds() {
+        return String.valueOf(Math.max(1, (retryAfterMillis + 999) / 1000));
+    }
+}
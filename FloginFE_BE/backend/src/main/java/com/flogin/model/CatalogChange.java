@@ -0,0 +1,40 @@
+package com.flogin.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * 1 dòng cho mỗi transaction có tạo / sửa / xóa sản phẩm: seq (AUTO_INCREMENT) là change sequence của transaction
+ * Chèn ngay trước khi commit, trong chính transaction ghi. Khóa AUTO_INCREMENT chỉ giữ trong câu INSERT
+ * nên các transaction ghi không chờ nhau; đổi lại sequence có thể commit không theo thứ tự và có lỗ
+ * (transaction rollback sau khi lấy sequence).
+ * Phiên bản danh mục là sequence lớn nhất mà mọi sequence nhỏ hơn đã commit (CatalogVersionTracker).
+ * Các dòng đã nằm dưới phiên bản đó được xóa định kỳ.
+ */
+@Entity
+@Table(name = "catalog_changes")
+public class CatalogChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Constructor mặc định (required by JPA)
+     */
+    public CatalogChange() {}
+
+    public CatalogChange(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    // Get/ set
+    public Long getSeq() { return seq; }
+    public void setSeq(Long seq) { this.seq = seq; }
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,48 @@
+package com.flogin.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Phiên bản đã lưu của toàn bộ danh mục sản phẩm (bảng 1 dòng, id = 1)
+ * Mọi change sequence (CatalogChange) tới version đã commit hoặc đã bị bỏ (rollback).
+ * Transaction ghi không cập nhật dòng này: CatalogVersionTracker nâng version định kỳ trong transaction
+ * ngắn riêng, phiên bản hiện tại = version + các sequence đã commit liền sau nó.
+ * Dùng làm ETag cho API danh sách.
+ */
+@Entity
+@Table(name = "catalog_version")
+public class CatalogVersion {
+
+    /** Id của dòng duy nhất */
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    private int id;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    /**
+     * Constructor mặc định (required by JPA)
+     */
+    public CatalogVersion() {}
+
+    public CatalogVersion(int id, long version, Instant updatedAt) {
+        this.id = id;
+        this.version = version;
+        this.updatedAt = updatedAt;
+    }
+
+    // Get/ set
+    public int getId() { return id; }
+    public void setId(int id) { this.id = id; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -2,13 +2,34 @@ package com.flogin.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 /**
  * Entity class đại diện cho Product trong hệ thống quản lý sản phẩm
  * Mapping với bảng "products" trong database
+ * 
+ * Index phục vụ API tìm kiếm (/api/products/search):
+ * - category: lọc theo danh mục; InnoDB tự thêm PK vào secondary index nên (category, id)
+ *   phục vụ luôn keyset pagination "WHERE category = ? AND id > ? ORDER BY id"
+ * - price: lọc theo khoảng giá (range scan)
+ * - name: tìm theo tiền tố tên (LIKE 'abc%')
+ * - change_seq: API đồng bộ thay đổi (/api/products/changes), range scan "WHERE change_seq > ?"
+ *
+ * @DynamicUpdate: câu UPDATE chỉ chứa các cột thực sự thay đổi (ví dụ chỉ price khi PATCH giá),
+ * giảm dữ liệu ghi và dung lượng binlog gửi sang replica
  */
 @Entity
-@Table(name = "products")
+@DynamicUpdate
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_category", columnList = "category"),
+    @Index(name = "idx_products_price", columnList = "price"),
+    @Index(name = "idx_products_name", columnList = "name"),
+    @Index(name = "idx_products_change_seq", columnList = "change_seq")
+})
 public class Product {
 
     /**
@@ -65,6 +86,35 @@ public class Product {
     @Column(length = 100)
     private String category;
 
+    /**
+     * Phiên bản của dòng dữ liệu (optimistic locking)
+     * - Hibernate tăng version mỗi lần UPDATE và thêm "AND version = ?" vào câu UPDATE,
+     *   2 transaction cập nhật cùng lúc thì transaction sau bị lỗi thay vì ghi đè mất dữ liệu
+     * - Câu UPDATE viết tay (ví dụ adjustQuantity) phải tự tăng version
+     */
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    /**
+     * Thời điểm ghi gần nhất (tạo hoặc cập nhật), dùng cho header Last-Modified
+     * - Hibernate tự gán khi INSERT / UPDATE (@UpdateTimestamp)
+     * - Câu INSERT / UPDATE viết tay (insertAll, adjustQuantity) phải tự gán
+     * - Có thể null với dữ liệu cũ tạo trước khi có cột này
+     */
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    /**
+     * Sequence của lần ghi gần nhất (seq của dòng catalog_changes của transaction ghi)
+     * - Do CatalogVersionTracker gán ngay trước khi commit, không gán trong code nghiệp vụ
+     * - 0: dòng mới chèn chưa được gán (INSERT viết tay, dữ liệu cũ), được gán lúc khởi động
+     */
+    @ColumnDefault("0")
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+
     public String getCategory() {
         return category;
     }
@@ -149,4 +199,10 @@ public class Product {
     public void setPrice(Double price) { this.price = price; }
     public Integer getQuantity() { return quantity; }
     public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+    public long getChangeSeq() { return changeSeq; }
+    public void setChangeSeq(long changeSeq) { this.changeSeq = changeSeq; }
 }
@@ -0,0 +1,64 @@
+package com.flogin.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+
+/**
+ * Dòng của bảng "products" cho stack reactive (Spring Data R2DBC)
+ * Cùng bảng với entity JPA Product (schema do Hibernate quản lý), chỉ khác cách mapping:
+ * R2DBC không có persistence context, dirty checking hay @UpdateTimestamp
+ *
+ * - id null: dòng mới, INSERT và lấy id tự tăng từ database
+ * - version: Spring Data tăng khi UPDATE và thêm "AND version = ?" (optimistic locking như @Version của JPA);
+ *   dòng mới bắt đầu từ 0 giống Hibernate
+ * - updatedAt: service tự gán mỗi lần ghi
+ */
+@Table("products")
+public class ProductRow {
+
+    @Id
+    private Integer id;
+
+    private String name;
+
+    private String description;
+
+    private Double price;
+
+    private Integer quantity;
+
+    private String category;
+
+    @Version
+    private Long version;
+
+    @Column("updated_at")
+    private Instant updatedAt;
+
+    /**
+     * Constructor mặc định (required by Spring Data)
+     */
+    public ProductRow() {}
+
+    // Get/ set
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+    public Integer getQuantity() { return quantity; }
+    public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,56 @@
+package com.flogin.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * Dấu vết của 1 sản phẩm đã bị xóa, để API đồng bộ thay đổi (/api/products/changes)
+ * báo cho client xóa sản phẩm khỏi bản sao của nó
+ * - productId: id của sản phẩm đã xóa (id tự tăng không bao giờ được dùng lại nên mỗi id chỉ có 1 dòng)
+ * - changeSeq: sequence của transaction xóa, cùng dãy với Product.changeSeq
+ *
+ * Persistable.isNew luôn true: dòng chỉ được chèn, save không cần SELECT trước như với id tự gán
+ */
+@Entity
+@Table(name = "product_tombstones", indexes = {
+    @Index(name = "idx_product_tombstones_change_seq", columnList = "change_seq")
+})
+public class ProductTombstone implements Persistable<Integer> {
+
+    @Id
+    @Column(name = "product_id")
+    private int productId;
+
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
+    /**
+     * Constructor mặc định (required by JPA)
+     */
+    public ProductTombstone() {}
+
+    public ProductTombstone(int productId, long changeSeq, Instant deletedAt) {
+        this.productId = productId;
+        this.changeSeq = changeSeq;
+        this.deletedAt = deletedAt;
+    }
+
+    @Override
+    public Integer getId() { return productId; }
+
+    @Override
+    public boolean isNew() { return true; }
+
+    // Get/ set
+    public int getProductId() { return productId; }
+    public void setProductId(int productId) { this.productId = productId; }
+    public long getChangeSeq() { return changeSeq; }
+    public void setChangeSeq(long changeSeq) { this.changeSeq = changeSeq; }
+    public Instant getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(Instant deletedAt) { this.deletedAt = deletedAt; }
+}
@@ -2,8 +2,16 @@ package com.flogin.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
+import java.time.Instant;
+
+/**
+ * @DynamicUpdate: câu UPDATE chỉ chứa các cột thực sự thay đổi
+ * (đổi email không ghi lại username / password)
+ */
 @Entity
+@DynamicUpdate
 @Table(name = "users")
 @Data
 @NoArgsConstructor
@@ -24,4 +32,7 @@ public class User {
     private String fullName;
 
     private String email;
+
+    /** Lần đổi mật khẩu gần nhất (null nếu chưa đổi từ lúc tạo), token đăng nhập trước thời điểm này không được refresh */
+    private Instant passwordChangedAt;
 }
@@ -0,0 +1,37 @@
+package com.flogin.repository;
+
+import com.flogin.model.CatalogChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+
+    /**
+     * Các transaction ghi đã commit sau sequence since, theo thứ tự sequence (tra PK theo khoảng)
+     */
+    List<CatalogChange> findBySeqGreaterThanOrderBySeqAsc(long since, Limit limit);
+
+    boolean existsBySeqGreaterThanEqual(long seq);
+
+    /**
+     * Chèn 1 dòng với sequence cho trước (không qua AUTO_INCREMENT)
+     * MySQL đẩy AUTO_INCREMENT lên sau giá trị này: các sequence cấp sau luôn lớn hơn
+     */
+    @Modifying
+    @Query(value = "insert into catalog_changes (seq, created_at) values (:seq, :createdAt)", nativeQuery = true)
+    int insertAt(long seq, Instant createdAt);
+
+    /**
+     * Xóa các dòng đã nằm dưới phiên bản danh mục
+     */
+    @Modifying
+    @Query("delete from CatalogChange c where c.seq < :seq")
+    int deleteBySeqLessThan(long seq);
+}
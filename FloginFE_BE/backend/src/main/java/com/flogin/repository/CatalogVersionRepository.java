@@ -0,0 +1,31 @@
+package com.flogin.repository;
+
+import com.flogin.dto.ResourceVersion;
+import com.flogin.model.CatalogVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, Integer> {
+
+    /**
+     * Nâng phiên bản đã lưu lên version (chỉ tăng, không bao giờ lùi), trong transaction ngắn riêng
+     * @return số dòng được cập nhật (0 nếu version không lớn hơn phiên bản đã lưu)
+     */
+    @Modifying
+    @Query("update CatalogVersion c set c.version = :version, c.updatedAt = :updatedAt where c.id = "
+            + CatalogVersion.SINGLETON_ID + " and c.version < :version")
+    int advance(long version, Instant updatedAt);
+
+    /**
+     * Đọc phiên bản danh mục đã lưu (tra PK)
+     */
+    @Query("select new com.flogin.dto.ResourceVersion(c.version, c.updatedAt) from CatalogVersion c where c.id = "
+            + CatalogVersion.SINGLETON_ID)
+    Optional<ResourceVersion> findCurrent();
+}
@@ -0,0 +1,21 @@
+package com.flogin.repository;
+
+import com.flogin.model.Product;
+
+import java.util.List;
+
+/**
+ * Custom fragment của ProductRepository cho các thao tác ghi hàng loạt
+ * Hibernate không batch được INSERT khi id dùng GenerationType.IDENTITY,
+ * nên phần insert được thực hiện trực tiếp bằng JDBC batch
+ */
+public interface ProductBatchRepository {
+
+    /**
+     * Insert danh sách sản phẩm trong 1 JDBC batch và gán id được database sinh ra vào từng entity
+     * Phải gọi trong transaction đang mở
+     * 
+     * @param products Danh sách sản phẩm chưa có id
+     */
+    void insertAll(List<Product> products);
+}
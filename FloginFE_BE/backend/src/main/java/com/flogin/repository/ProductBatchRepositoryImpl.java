@@ -0,0 +1,83 @@
+package com.flogin.repository;
+
+import com.flogin.model.Product;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Implementation JDBC của ProductBatchRepository
+ * Spring Data tự động gắn class này vào ProductRepository (quy ước tên: fragment + "Impl")
+ * Với MySQL, rewriteBatchedStatements=true sẽ gộp batch thành 1 câu INSERT nhiều dòng
+ */
+public class ProductBatchRepositoryImpl implements ProductBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (name, description, price, quantity, category, version, updated_at) VALUES (?, ?, ?, ?, ?, 0, ?)";
+
+    /** updated_at lưu theo UTC, giống cách Hibernate bind Instant vào cột DATETIME của MySQL */
+    private static final Calendar UTC = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        Timestamp updatedAt = Timestamp.from(now);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_SQL, new String[] {"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Product p = products.get(i);
+                        ps.setString(1, p.getName());
+                        if (p.getDescription() != null) {
+                            ps.setString(2, p.getDescription());
+                        } else {
+                            ps.setNull(2, Types.VARCHAR);
+                        }
+                        ps.setDouble(3, p.getPrice());
+                        ps.setInt(4, p.getQuantity());
+                        if (p.getCategory() != null) {
+                            ps.setString(5, p.getCategory());
+                        } else {
+                            ps.setNull(5, Types.VARCHAR);
+                        }
+                        ps.setTimestamp(6, updatedAt, (Calendar) UTC.clone());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return products.size();
+                    }
+                },
+                keyHolder);
+
+        // Thứ tự generated keys trùng với thứ tự các dòng trong batch
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < products.size(); i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            products.get(i).setId(id.intValue());
+            products.get(i).setUpdatedAt(now);
+        }
+    }
+}
@@ -1,12 +1,111 @@
 package com.flogin.repository;
 
+import com.flogin.dto.CategoryStatsDTO;
+import com.flogin.dto.ResourceVersion;
 import com.flogin.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Integer> {
-    List<Product> findByNameContainingIgnoreCase(String name);
-    List<Product> findByPriceBetween(Double minPrice, Double maxPrice);
+public interface ProductRepository extends JpaRepository<Product, Integer>,
+        JpaSpecificationExecutor<Product>, ProductBatchRepository {
+
+    /** Số dòng mỗi lần fetch khi stream dữ liệu export */
+    int EXPORT_FETCH_SIZE = 500;
+
+    /**
+     * Keyset pagination theo khóa chính: WHERE id > :id ORDER BY id LIMIT :limit
+     * Chi phí mỗi trang chỉ phụ thuộc vào limit (index range scan trên PK), không phụ thuộc độ sâu trang
+     */
+    List<Product> findByIdGreaterThanOrderByIdAsc(int id, Limit limit);
+
+    /**
+     * Đọc toàn bộ bảng products dưới dạng Stream (forward-only ResultSet)
+     * - Fetch size giới hạn số dòng driver giữ trong bộ nhớ mỗi lần (MySQL cần useCursorFetch=true)
+     * - Read-only: Hibernate không giữ snapshot để dirty-check
+     * Phải gọi trong transaction và đóng Stream sau khi dùng
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAllOrderById();
+
+    /**
+     * Xóa nhiều sản phẩm bằng 1 câu DELETE ... WHERE id IN (...)
+     * Flush trước và clear persistence context sau khi xóa để không còn entity cũ trong bộ nhớ
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Product p where p.id in :ids")
+    int deleteAllByIds(Collection<Integer> ids);
+
+    /**
+     * Cộng delta vào tồn kho bằng 1 câu UPDATE có điều kiện:
+     * UPDATE products SET quantity = quantity + :delta, version = version + 1
+     * WHERE id = :id AND quantity + :delta >= 0
+     * Database tự khóa dòng trong lúc UPDATE nên các request đồng thời trên cùng sản phẩm
+     * không ghi đè lẫn nhau và tồn kho không bao giờ âm; không cần đọc dòng trước khi ghi
+     * @return số dòng được cập nhật (0 nếu không tồn tại sản phẩm hoặc không đủ hàng)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.quantity = p.quantity + :delta, p.version = p.version + 1, p.updatedAt = :now "
+            + "where p.id = :id and p.quantity + :delta >= 0")
+    int adjustQuantity(int id, int delta, Instant now);
+
+    /**
+     * Đọc version và thời điểm cập nhật của 1 sản phẩm (tra PK, không load entity)
+     * Dùng để trả lời conditional GET (If-None-Match / If-Modified-Since)
+     */
+    @Query("select new com.flogin.dto.ResourceVersion(p.version, p.updatedAt) from Product p where p.id = :id")
+    Optional<ResourceVersion> findVersionById(int id);
+
+    /**
+     * Các sản phẩm được tạo / sửa có sequence trong (since, upTo], theo thứ tự ghi
+     * upTo là phiên bản danh mục: dòng có sequence lớn hơn có thể đã commit trước 1 sequence nhỏ hơn chưa commit
+     * Index change_seq (kèm PK) phục vụ cả điều kiện lẫn ORDER BY, không cần sort
+     */
+    List<Product> findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAscIdAsc(long since, long upTo, Limit limit);
+
+    /**
+     * Toàn bộ sản phẩm được ghi trong 1 transaction
+     */
+    List<Product> findByChangeSeqOrderByIdAsc(long changeSeq);
+
+    boolean existsByChangeSeq(long changeSeq);
+
+    /**
+     * Gán sequence cho các sản phẩm được ghi trong transaction hiện tại (CatalogVersionTracker)
+     * Flush trước để INSERT / UPDATE đang chờ chạy trước câu này; không tăng version, không đổi updatedAt
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("update Product p set p.changeSeq = :seq where p.id in :ids")
+    int stampChangeSeq(Collection<Integer> ids, long seq);
+
+    /**
+     * Gán sequence cho các dòng chưa có (changeSeq = 0): dữ liệu tạo trước khi có cột, INSERT viết tay
+     */
+    @Modifying
+    @Query("update Product p set p.changeSeq = :seq where p.changeSeq = 0")
+    int stampUnsequenced(long seq);
+
+    /**
+     * Thống kê theo danh mục tính lại từ đầu bằng 1 câu GROUP BY (quét toàn bảng)
+     * Chỉ dùng để đối chiếu định kỳ với thống kê in-memory (ProductStatsService)
+     */
+    @Query("select new com.flogin.dto.CategoryStatsDTO(p.category, count(p), coalesce(sum(p.quantity), 0), "
+            + "coalesce(sum(p.price * p.quantity), 0.0)) from Product p group by p.category")
+    List<CategoryStatsDTO> summarizeByCategory();
 }
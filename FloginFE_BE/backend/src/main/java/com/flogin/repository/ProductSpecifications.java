@@ -0,0 +1,81 @@
+package com.flogin.repository;
+
+import com.flogin.dto.ProductSearchCriteria;
+import com.flogin.model.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Các Specification dùng để build câu query tìm kiếm sản phẩm
+ * Mỗi điều kiện chỉ được thêm khi client truyền giá trị, và đều viết ở dạng
+ * dùng được index (so sánh bằng, so sánh khoảng, LIKE tiền tố) thay vì LIKE '%x%'
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {}
+
+    /**
+     * Build Specification từ điều kiện tìm kiếm
+     * @param criteria điều kiện tìm kiếm
+     * @return Specification kết hợp các điều kiện bằng AND
+     */
+    public static Specification<Product> matching(ProductSearchCriteria criteria) {
+        Specification<Product> spec = idGreaterThan(criteria.getAfter());
+        if (criteria.getName() != null && !criteria.getName().isBlank()) {
+            spec = spec.and(nameStartsWith(criteria.getName().trim()));
+        }
+        if (criteria.getCategory() != null && !criteria.getCategory().isBlank()) {
+            spec = spec.and(categoryEquals(criteria.getCategory().trim()));
+        }
+        if (criteria.getMinPrice() != null) {
+            spec = spec.and(priceAtLeast(criteria.getMinPrice()));
+        }
+        if (criteria.getMaxPrice() != null) {
+            spec = spec.and(priceAtMost(criteria.getMaxPrice()));
+        }
+        if (criteria.getInStock() != null) {
+            spec = spec.and(inStock(criteria.getInStock()));
+        }
+        return spec;
+    }
+
+    /** id > after (keyset pagination) */
+    public static Specification<Product> idGreaterThan(int after) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), after);
+    }
+
+    /**
+     * name LIKE 'prefix%'
+     * Không dùng lower(name) để giữ được index; với MySQL collation mặc định (_ci) so sánh đã không phân biệt hoa thường
+     */
+    public static Specification<Product> nameStartsWith(String prefix) {
+        String pattern = escapeLike(prefix) + "%";
+        return (root, query, cb) -> cb.like(root.get("name"), pattern, '\\');
+    }
+
+    /** category = ? */
+    public static Specification<Product> categoryEquals(String category) {
+        return (root, query, cb) -> cb.equal(root.get("category"), category);
+    }
+
+    /** price >= ? */
+    public static Specification<Product> priceAtLeast(double minPrice) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    /** price <= ? */
+    public static Specification<Product> priceAtMost(double maxPrice) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    /** quantity > 0 (còn hàng) hoặc quantity = 0 (hết hàng) */
+    public static Specification<Product> inStock(boolean inStock) {
+        return (root, query, cb) -> inStock
+                ? cb.greaterThan(root.get("quantity"), 0)
+                : cb.equal(root.get("quantity"), 0);
+    }
+
+    /** Escape các ký tự đặc biệt của LIKE để tiền tố được so khớp nguyên văn */
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
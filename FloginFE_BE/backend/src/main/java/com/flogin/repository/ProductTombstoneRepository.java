@@ -0,0 +1,23 @@
+package com.flogin.repository;
+
+import com.flogin.model.ProductTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Integer> {
+
+    /**
+     * Các sản phẩm bị xóa có sequence trong (since, upTo], theo thứ tự xóa (index trên change_seq)
+     */
+    List<ProductTombstone> findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAscProductIdAsc(
+            long since, long upTo, Limit limit);
+
+    /**
+     * Toàn bộ sản phẩm bị xóa trong 1 transaction
+     */
+    List<ProductTombstone> findByChangeSeqOrderByProductIdAsc(long changeSeq);
+}
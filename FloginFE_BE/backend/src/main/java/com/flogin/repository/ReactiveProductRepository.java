@@ -0,0 +1,48 @@
+package com.flogin.repository;
+
+import com.flogin.model.ProductRow;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * Repository R2DBC của bảng products (chỉ có khi chạy stack reactive, xem R2dbcConfig)
+ * Các câu truy vấn tương ứng với ProductRepository của JPA
+ */
+@Repository
+public interface ReactiveProductRepository extends R2dbcRepository<ProductRow, Integer> {
+
+    /**
+     * Keyset pagination: các sản phẩm có id > afterId theo id tăng dần, tối đa limit dòng
+     */
+    Flux<ProductRow> findByIdGreaterThanOrderByIdAsc(int afterId, Limit limit);
+
+    /**
+     * Toàn bộ bảng theo id; driver đọc dòng theo demand của subscriber (backpressure)
+     */
+    @Query("SELECT * FROM products ORDER BY id")
+    Flux<ProductRow> streamAllOrderById();
+
+    /**
+     * Cộng delta vào tồn kho nếu kết quả không âm, tăng version giống ProductRepository.adjustQuantity
+     * @return số dòng được cập nhật (0 nếu không tồn tại hoặc không đủ hàng)
+     */
+    @Modifying
+    @Query("UPDATE products SET quantity = quantity + :delta, version = version + 1, updated_at = :now "
+            + "WHERE id = :id AND quantity + :delta >= 0")
+    Mono<Integer> adjustQuantity(int id, int delta, Instant now);
+
+    /**
+     * Xóa 1 sản phẩm
+     * @return số dòng bị xóa (0 nếu không tồn tại)
+     */
+    @Modifying
+    @Query("DELETE FROM products WHERE id = :id")
+    Mono<Integer> deleteRow(int id);
+}
@@ -0,0 +1,530 @@
+package com.flogin.search;
+
+import com.flogin.dto.ProductDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Inverted index in-memory cho full-text search trên name, description và category của sản phẩm
+ *
+ * Cấu trúc:
+ * - Dictionary: TreeMap term -> PostingList, sắp xếp theo thứ tự từ điển để tra tiền tố (prefix) bằng subMap
+ * - PostingList: 2 mảng song song int[] docId (tăng dần) và float[] trọng số, không boxing
+ * - docTerms: docId -> các term của document, dùng để gỡ document cũ khi cập nhật / xóa
+ *
+ * Xếp hạng: điểm = tổng theo từng từ của query (trọng số field * tần suất) * idf,
+ * trong đó name nặng nhất, rồi category, rồi description; khớp tiền tố bị giảm điểm so với khớp nguyên từ.
+ * Mọi từ trong query đều phải khớp (AND).
+ * Truy vấn: giao các posting list int[] đã sắp xếp (từ hiếm trước) và cộng điểm trong mảng float[] song song,
+ * chọn top-k bằng heap chỉ số; không tạo object theo từng document.
+ * 1 tiền tố khớp quá MAX_PREFIX_EXPANSIONS term thì chỉ giữ các term có document frequency cao nhất
+ * và kết quả được đánh dấu truncated (total có thể thiếu).
+ *
+ * Đồng thời: nhiều luồng đọc song song qua read lock, ghi (cập nhật incremental) giữ write lock trong thời gian ngắn.
+ * Rebuild dựng 1 segment mới ngoài lock rồi mới tráo (swap); các thay đổi đến trong lúc rebuild được
+ * ghi lại và áp dụng lại lên segment mới, nên không mất cập nhật.
+ */
+public class ProductSearchIndex {
+
+    static final float NAME_WEIGHT = 3f;
+    static final float CATEGORY_WEIGHT = 2f;
+    static final float DESCRIPTION_WEIGHT = 1f;
+
+    /** Hệ số điểm khi từ trong query chỉ khớp tiền tố của term */
+    static final float PREFIX_MATCH_FACTOR = 0.5f;
+
+    /** Số term tối đa được mở rộng cho 1 tiền tố (chặn chi phí với tiền tố quá ngắn), ưu tiên term phổ biến */
+    static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    /** Tiền tố ngắn hơn độ dài này chỉ khớp nguyên từ */
+    static final int MIN_PREFIX_LENGTH = 2;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Segment đang phục vụ đọc / ghi (guarded by lock) */
+    private Segment current = new Segment();
+
+    /** Đang rebuild hay không, và các thay đổi đến trong lúc rebuild (guarded by lock) */
+    private boolean rebuilding;
+    private final List<Consumer<Segment>> pending = new ArrayList<>();
+
+    /**
+     * Thêm mới hoặc thay thế document của 1 sản phẩm
+     */
+    public void upsert(ProductDTO product) {
+        apply(segment -> segment.upsert(product));
+    }
+
+    /**
+     * Gỡ document của 1 sản phẩm khỏi index (không làm gì nếu chưa có)
+     */
+    public void remove(int productId) {
+        apply(segment -> segment.remove(productId));
+    }
+
+    private void apply(Consumer<Segment> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(current);
+            if (rebuilding) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Dựng lại toàn bộ index từ 1 lần quét dữ liệu
+     * @param scan hàm quét: nhận 1 consumer và đẩy lần lượt từng sản phẩm vào đó
+     */
+    public void rebuild(Consumer<Consumer<ProductDTO>> scan) {
+        lock.writeLock().lock();
+        try {
+            rebuilding = true;
+            pending.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Segment fresh = new Segment();
+        try {
+            scan.accept(fresh::upsert);
+        } catch (RuntimeException ex) {
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                pending.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Consumer<Segment> change : pending) {
+                change.accept(fresh);
+            }
+            pending.clear();
+            current = fresh;
+            rebuilding = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Tìm kiếm full-text
+     * @param query chuỗi tìm kiếm của người dùng
+     * @param offset số kết quả bỏ qua (phân trang)
+     * @param limit số kết quả tối đa trả về
+     * @return id sản phẩm theo điểm giảm dần và tổng số kết quả khớp
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> tokens = ProductTextAnalyzer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new SearchResult(List.of(), 0, false);
+        }
+        lock.readLock().lock();
+        try {
+            return current.search(tokens, Math.max(offset, 0), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Số document đang có trong index
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return current.docTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Dữ liệu của 1 phiên bản index (dictionary + danh sách term theo document)
+     * Không tự đồng bộ; ProductSearchIndex chịu trách nhiệm khóa
+     */
+    static final class Segment {
+
+        private final TreeMap<String, PostingList> terms = new TreeMap<>();
+        private final Map<Integer, String[]> docTerms = new HashMap<>();
+
+        void upsert(ProductDTO product) {
+            remove(product.getId());
+            Map<String, Float> weights = new LinkedHashMap<>();
+            addField(weights, product.getName(), NAME_WEIGHT);
+            addField(weights, product.getCategory(), CATEGORY_WEIGHT);
+            addField(weights, product.getDescription(), DESCRIPTION_WEIGHT);
+            if (weights.isEmpty()) {
+                return;
+            }
+            String[] docTermArray = new String[weights.size()];
+            int i = 0;
+            for (Map.Entry<String, Float> entry : weights.entrySet()) {
+                // Dùng lại instance String của dictionary để các document chia sẻ cùng 1 chuỗi
+                Map.Entry<String, PostingList> existing = terms.ceilingEntry(entry.getKey());
+                String term;
+                PostingList postings;
+                if (existing != null && existing.getKey().equals(entry.getKey())) {
+                    term = existing.getKey();
+                    postings = existing.getValue();
+                } else {
+                    term = entry.getKey();
+                    postings = new PostingList();
+                    terms.put(term, postings);
+                }
+                postings.put(product.getId(), entry.getValue());
+                docTermArray[i++] = term;
+            }
+            docTerms.put(product.getId(), docTermArray);
+        }
+
+        void remove(int productId) {
+            String[] old = docTerms.remove(productId);
+            if (old == null) {
+                return;
+            }
+            for (String term : old) {
+                PostingList postings = terms.get(term);
+                if (postings != null) {
+                    postings.remove(productId);
+                    if (postings.size == 0) {
+                        terms.remove(term);
+                    }
+                }
+            }
+        }
+
+        private static void addField(Map<String, Float> weights, String text, float fieldWeight) {
+            for (String token : ProductTextAnalyzer.tokenize(text)) {
+                weights.merge(token, fieldWeight, Float::sum);
+            }
+        }
+
+        SearchResult search(List<String> tokens, int offset, int limit) {
+            int docCount = docTerms.size();
+            if (docCount == 0) {
+                return new SearchResult(List.of(), 0, false);
+            }
+
+            // Mở rộng từng từ của query thành các term khớp (nguyên từ hoặc tiền tố)
+            List<Expansion[]> expansions = new ArrayList<>();
+            boolean truncated = false;
+            for (String token : new LinkedHashSet<>(tokens)) {
+                Expansion[] termMatches = expand(token, docCount);
+                if (termMatches.length == 0) {
+                    return new SearchResult(List.of(), 0, false);
+                }
+                if (termMatches.length > MAX_PREFIX_EXPANSIONS) {
+                    termMatches = Arrays.copyOf(termMatches, MAX_PREFIX_EXPANSIONS);
+                    truncated = true;
+                }
+                expansions.add(termMatches);
+            }
+            // Xử lý từ hiếm trước để tập ứng viên nhỏ nhất có thể
+            expansions.sort(Comparator.comparingInt(ProductSearchIndex::postingCount));
+
+            Candidates candidates = null;
+            for (Expansion[] termMatches : expansions) {
+                candidates = candidates == null ? Candidates.union(termMatches) : candidates.intersect(termMatches);
+                if (candidates.size == 0) {
+                    return new SearchResult(List.of(), 0, truncated);
+                }
+            }
+            return new SearchResult(candidates.top(offset, limit), candidates.size, truncated);
+        }
+
+        /**
+         * Các term khớp với 1 từ của query: nguyên từ trước, rồi các term có tiền tố này theo document frequency giảm dần
+         * Nhiều hơn MAX_PREFIX_EXPANSIONS term thì chỉ giữ MAX_PREFIX_EXPANSIONS + 1 term đầu
+         * (phần tử dư chỉ để search biết kết quả bị cắt bớt)
+         */
+        private Expansion[] expand(String token, int docCount) {
+            List<Expansion> matches = new ArrayList<>();
+            PostingList exact = terms.get(token);
+            if (exact != null) {
+                matches.add(new Expansion(exact, idf(docCount, exact.size)));
+            }
+            if (token.length() >= MIN_PREFIX_LENGTH) {
+                // Min-heap theo document frequency: giữ các term phổ biến nhất, không sắp xếp toàn bộ các term khớp
+                int keep = MAX_PREFIX_EXPANSIONS + 1 - matches.size();
+                PriorityQueue<PostingList> frequent = new PriorityQueue<>(keep + 1, Comparator.comparingInt(p -> p.size));
+                for (PostingList postings : terms.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                    if (frequent.size() < keep) {
+                        frequent.offer(postings);
+                    } else if (postings.size > frequent.peek().size) {
+                        frequent.poll();
+                        frequent.offer(postings);
+                    }
+                }
+                int first = matches.size();
+                while (!frequent.isEmpty()) {
+                    PostingList postings = frequent.poll();
+                    matches.add(first, new Expansion(postings, idf(docCount, postings.size) * PREFIX_MATCH_FACTOR));
+                }
+            }
+            return matches.toArray(new Expansion[0]);
+        }
+
+        private static float idf(int docCount, int docFrequency) {
+            return (float) Math.log(1.0 + (double) docCount / docFrequency);
+        }
+    }
+
+    private static int postingCount(Expansion[] matches) {
+        int count = 0;
+        for (Expansion match : matches) {
+            count += match.postings.size;
+        }
+        return count;
+    }
+
+    /**
+     * 1 term khớp với 1 từ của query, kèm hệ số điểm (idf, có thể đã giảm do chỉ khớp tiền tố)
+     */
+    private static final class Expansion {
+        final PostingList postings;
+        final float factor;
+
+        Expansion(PostingList postings, float factor) {
+            this.postings = postings;
+            this.factor = factor;
+        }
+    }
+
+    /**
+     * Tập document ứng viên của query: docs tăng dần và điểm tương ứng trong 2 mảng song song, không boxing
+     */
+    static final class Candidates {
+        int[] docs;
+        float[] scores;
+        int size;
+
+        Candidates(int[] docs, float[] scores, int size) {
+            this.docs = docs;
+            this.scores = scores;
+            this.size = size;
+        }
+
+        /**
+         * Các document chứa ít nhất 1 term khớp với từ đầu tiên của query
+         * 1 document khớp nhiều term thì lấy điểm cao nhất; các danh sách được trộn từng cặp, nhỏ trước
+         */
+        static Candidates union(Expansion[] matches) {
+            PriorityQueue<Candidates> queue = new PriorityQueue<>(matches.length, Comparator.comparingInt(c -> c.size));
+            for (Expansion match : matches) {
+                PostingList postings = match.postings;
+                float[] scores = new float[postings.size];
+                for (int k = 0; k < postings.size; k++) {
+                    scores[k] = postings.weights[k] * match.factor;
+                }
+                queue.offer(new Candidates(Arrays.copyOf(postings.docs, postings.size), scores, postings.size));
+            }
+            while (queue.size() > 1) {
+                queue.offer(merge(queue.poll(), queue.poll()));
+            }
+            return queue.poll();
+        }
+
+        private static Candidates merge(Candidates a, Candidates b) {
+            int[] docs = new int[a.size + b.size];
+            float[] scores = new float[a.size + b.size];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < a.size && j < b.size) {
+                int docA = a.docs[i];
+                int docB = b.docs[j];
+                if (docA < docB) {
+                    docs[n] = docA;
+                    scores[n++] = a.scores[i++];
+                } else if (docA > docB) {
+                    docs[n] = docB;
+                    scores[n++] = b.scores[j++];
+                } else {
+                    docs[n] = docA;
+                    scores[n++] = Math.max(a.scores[i++], b.scores[j++]);
+                }
+            }
+            while (i < a.size) {
+                docs[n] = a.docs[i];
+                scores[n++] = a.scores[i++];
+            }
+            while (j < b.size) {
+                docs[n] = b.docs[j];
+                scores[n++] = b.scores[j++];
+            }
+            return new Candidates(docs, scores, n);
+        }
+
+        /**
+         * Giữ lại các ứng viên chứa ít nhất 1 term khớp với từ tiếp theo của query và cộng điểm của từ đó
+         * Mỗi posting list được duyệt song song với ứng viên, nhảy theo galloping search (ứng viên thường ít hơn nhiều)
+         */
+        Candidates intersect(Expansion[] matches) {
+            float[] tokenScores = new float[size];
+            for (Expansion match : matches) {
+                PostingList postings = match.postings;
+                int k = 0;
+                for (int c = 0; c < size && k < postings.size; c++) {
+                    k = advance(postings.docs, k, postings.size, docs[c]);
+                    if (k < postings.size && postings.docs[k] == docs[c]) {
+                        tokenScores[c] = Math.max(tokenScores[c], postings.weights[k] * match.factor);
+                    }
+                }
+            }
+            // Điểm luôn dương: 0 nghĩa là ứng viên không khớp từ này
+            int n = 0;
+            for (int c = 0; c < size; c++) {
+                if (tokenScores[c] > 0) {
+                    docs[n] = docs[c];
+                    scores[n++] = scores[c] + tokenScores[c];
+                }
+            }
+            size = n;
+            return this;
+        }
+
+        /**
+         * Vị trí đầu tiên từ from có docs[k] >= target: nhảy 1, 2, 4, ... phần tử rồi tìm nhị phân trong đoạn cuối
+         */
+        private static int advance(int[] docs, int from, int to, int target) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < to && docs[high] < target) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int i = Arrays.binarySearch(docs, low, Math.min(high, to), target);
+            return i >= 0 ? i : -i - 1;
+        }
+
+        /**
+         * Id của trang [offset, offset + limit) theo điểm giảm dần, hòa điểm thì id nhỏ đứng trước
+         * Chọn top (offset + limit) bằng min-heap chỉ số trên mảng int, không sắp xếp toàn bộ ứng viên
+         */
+        List<Integer> top(int offset, int limit) {
+            int window = (int) Math.min((long) offset + limit, size);
+            if (offset >= window) {
+                return List.of();
+            }
+            int[] heap = new int[window];
+            int heapSize = 0;
+            for (int c = 0; c < size; c++) {
+                if (heapSize < window) {
+                    heap[heapSize] = c;
+                    siftUp(heap, heapSize++);
+                } else if (ranksBefore(c, heap[0])) {
+                    heap[0] = c;
+                    siftDown(heap, heapSize);
+                }
+            }
+            // Lấy dần phần tử kém nhất ra cuối: heap[0..window) thành thứ tự tốt nhất trước
+            for (int end = heapSize - 1; end > 0; end--) {
+                int worst = heap[0];
+                heap[0] = heap[end];
+                heap[end] = worst;
+                siftDown(heap, end);
+            }
+            List<Integer> page = new ArrayList<>(window - offset);
+            for (int i = offset; i < window; i++) {
+                page.add(docs[heap[i]]);
+            }
+            return page;
+        }
+
+        /** Ứng viên a xếp trước ứng viên b */
+        private boolean ranksBefore(int a, int b) {
+            return scores[a] > scores[b] || (scores[a] == scores[b] && docs[a] < docs[b]);
+        }
+
+        /** Min-heap: gốc là ứng viên xếp sau cùng trong heap */
+        private void siftUp(int[] heap, int i) {
+            int item = heap[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!ranksBefore(heap[parent], item)) {
+                    break;
+                }
+                heap[i] = heap[parent];
+                i = parent;
+            }
+            heap[i] = item;
+        }
+
+        private void siftDown(int[] heap, int heapSize) {
+            int item = heap[0];
+            int i = 0;
+            int half = heapSize >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < heapSize && ranksBefore(heap[child], heap[child + 1])) {
+                    child++;
+                }
+                if (!ranksBefore(item, heap[child])) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = item;
+        }
+    }
+
+    /**
+     * Danh sách document chứa 1 term: 2 mảng song song, docs tăng dần để tra cứu bằng binary search
+     */
+    static final class PostingList {
+        int[] docs = new int[4];
+        float[] weights = new float[4];
+        int size;
+
+        void put(int doc, float weight) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i >= 0) {
+                weights[i] = weight;
+                return;
+            }
+            i = -i - 1;
+            if (size == docs.length) {
+                int capacity = size + (size >> 1) + 1;
+                docs = Arrays.copyOf(docs, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            System.arraycopy(docs, i, docs, i + 1, size - i);
+            System.arraycopy(weights, i, weights, i + 1, size - i);
+            docs[i] = doc;
+            weights[i] = weight;
+            size++;
+        }
+
+        void remove(int doc) {
+            int i = Arrays.binarySearch(docs, 0, size, doc);
+            if (i < 0) {
+                return;
+            }
+            System.arraycopy(docs, i + 1, docs, i, size - i - 1);
+            System.arraycopy(weights, i + 1, weights, i, size - i - 1);
+            size--;
+        }
+    }
+}
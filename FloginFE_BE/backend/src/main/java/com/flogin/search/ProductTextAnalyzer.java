@@ -0,0 +1,54 @@
+package com.flogin.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tách từ (tokenize) cho full-text search sản phẩm
+ * - Chuẩn hóa Unicode NFD và bỏ dấu tiếng Việt ("Điện thoại" -> "dien", "thoai")
+ * - Chuyển về chữ thường
+ * - Tách theo mọi ký tự không phải chữ / số
+ * Query và dữ liệu được index đều đi qua cùng 1 analyzer nên "dien thoai" khớp với "Điện thoại"
+ */
+public final class ProductTextAnalyzer {
+
+    /** Token dài hơn giới hạn này bị cắt bớt (tránh chuỗi rác làm phình dictionary) */
+    static final int MAX_TOKEN_LENGTH = 40;
+
+    private ProductTextAnalyzer() {}
+
+    /**
+     * Tách văn bản thành danh sách token đã chuẩn hóa (giữ nguyên thứ tự, có thể trùng lặp)
+     * @param text văn bản cần tách (null trả về danh sách rỗng)
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (c == 'đ' || c == 'Đ') {
+                c = 'd';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (token.length() < MAX_TOKEN_LENGTH) {
+                    token.append(Character.toLowerCase(c));
+                }
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (token.length() > 0) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,26 @@
+package com.flogin.search;
+
+import java.util.List;
+
+/**
+ * Kết quả tìm kiếm trên inverted index
+ * - productIds: id sản phẩm của trang hiện tại, đã sắp xếp theo điểm giảm dần
+ * - total: tổng số sản phẩm khớp với query
+ * - truncated: 1 tiền tố khớp quá nhiều term, chỉ các term phổ biến nhất được tìm nên total có thể thiếu
+ */
+public class SearchResult {
+
+    private final List<Integer> productIds;
+    private final int total;
+    private final boolean truncated;
+
+    public SearchResult(List<Integer> productIds, int total, boolean truncated) {
+        this.productIds = productIds;
+        this.total = total;
+        this.truncated = truncated;
+    }
+
+    public List<Integer> getProductIds() { return productIds; }
+    public int getTotal() { return total; }
+    public boolean isTruncated() { return truncated; }
+}
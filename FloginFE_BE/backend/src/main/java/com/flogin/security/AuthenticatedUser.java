@@ -0,0 +1,31 @@
+package com.flogin.security;
+
+/**
+ * Principal của request đã xác thực bằng token
+ * Chỉ chứa thông tin có trong token (id, thời điểm đăng nhập, thời điểm hết hạn), không cần đọc database
+ */
+public final class AuthenticatedUser {
+
+    private final int id;
+
+    /** Thời điểm đăng nhập mở phiên (epoch millis), giữ nguyên qua các lần refresh */
+    private final long issuedAt;
+
+    /** Thời điểm hết hạn của token (epoch seconds) */
+    private final long expiresAt;
+
+    public AuthenticatedUser(int id, long issuedAt, long expiresAt) {
+        this.id = id;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public int getId() { return id; }
+    public long getIssuedAt() { return issuedAt; }
+    public long getExpiresAt() { return expiresAt; }
+
+    @Override
+    public String toString() {
+        return String.valueOf(id);
+    }
+}
@@ -0,0 +1,31 @@
+package com.flogin.security;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Khóa của client hiện tại cho read-your-writes (định tuyến replica, snapshot danh mục)
+ * User đã đăng nhập, nếu không thì địa chỉ IP của request, ngoài request (tác vụ nền) thì dùng chung 1 khóa
+ */
+public final class ClientKey {
+
+    /** Khóa cho truy cập ngoài request */
+    public static final String BACKGROUND = "background";
+
+    private ClientKey() {}
+
+    public static String current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes request) {
+            return "address:" + request.getRequest().getRemoteAddr();
+        }
+        return BACKGROUND;
+    }
+}
@@ -0,0 +1,228 @@
+package com.flogin.security;
+
+import com.flogin.exception.ServiceBusyException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Kiểm tra / hash mật khẩu qua PasswordEncoder dùng chung, với 2 lớp bảo vệ CPU:
+ *
+ * 1. Cache các lần verify THÀNH CÔNG trong thời gian ngắn, nên đăng nhập lặp lại không phải chạy BCrypt.
+ *    Key là HMAC-SHA256(username, mật khẩu, hash đang lưu) với khóa ngẫu nhiên sinh lúc khởi động:
+ *    - không giữ mật khẩu dạng rõ trong bộ nhớ, và không thể dò ngược từ key nếu không có khóa
+ *    - hash đang lưu nằm trong key nên đổi mật khẩu làm các entry cũ tự hết hiệu lực
+ *    Lần verify thất bại không được cache (không cho phép dò mật khẩu nhanh hơn BCrypt).
+ * 2. Giới hạn số thao tác BCrypt chạy đồng thời bằng Semaphore; khi quá tải quá acquire-timeout
+ *    thì ném ServiceBusyException (503) thay vì để login chiếm hết CPU của các API khác.
+ *
+ * Username không tồn tại vẫn chạy đúng 1 lần BCrypt với hash giả (matchesUnknownUser), nên thời gian trả lời
+ * không tiết lộ username nào có thật; lần này cũng đi qua giới hạn đồng thời như các lần verify khác.
+ *
+ * Metrics:
+ * - flogin.auth.password.verify: thời gian verify, tag source (cache / bcrypt / legacy / dummy) và result (match / mismatch)
+ * - flogin.auth.hashing.wait: thời gian chờ lượt hash; flogin.auth.hashing.permits.available: số lượt còn trống
+ * - cache.* với tag cache=credentials: hit / miss / eviction của cache verify
+ */
+@Component
+public class CredentialVerifier {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String VERIFY_TIMER = "flogin.auth.password.verify";
+
+    private final PasswordEncoder passwordEncoder;
+    private final Cache<String, Boolean> verified;
+    private final SecretKeySpec digestKey;
+    private final Semaphore hashingPermits;
+    private final long acquireTimeoutMillis;
+
+    /** Hash BCrypt của 1 mật khẩu ngẫu nhiên, cùng cost với hash thật, tạo ở lần dùng đầu tiên */
+    private volatile String dummyHash;
+
+    private final Timer cacheMatch;
+    private final Timer bcryptMatch;
+    private final Timer bcryptMismatch;
+    private final Timer legacyMatch;
+    private final Timer legacyMismatch;
+    private final Timer dummyMismatch;
+    private final Timer hashingWait;
+
+    public CredentialVerifier(PasswordEncoder passwordEncoder,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.security.credential-cache.maximum-size:10000}") long maximumSize,
+                              @Value("${app.security.credential-cache.ttl:5m}") Duration ttl,
+                              @Value("${app.security.hashing.max-concurrent:0}") int maxConcurrent,
+                              @Value("${app.security.hashing.acquire-timeout:2s}") Duration acquireTimeout) {
+        this.passwordEncoder = passwordEncoder;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.digestKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+        // 0 = mặc định theo số core, chừa CPU cho các request khác
+        int permits = maxConcurrent > 0 ? maxConcurrent : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.hashingPermits = new Semaphore(permits, true);
+        this.acquireTimeoutMillis = acquireTimeout.toMillis();
+
+        this.cacheMatch = verifyTimer(meterRegistry, "cache", "match");
+        this.bcryptMatch = verifyTimer(meterRegistry, "bcrypt", "match");
+        this.bcryptMismatch = verifyTimer(meterRegistry, "bcrypt", "mismatch");
+        this.legacyMatch = verifyTimer(meterRegistry, "legacy", "match");
+        this.legacyMismatch = verifyTimer(meterRegistry, "legacy", "mismatch");
+        this.dummyMismatch = verifyTimer(meterRegistry, "dummy", "mismatch");
+        this.hashingWait = Timer.builder("flogin.auth.hashing.wait")
+                .description("Time spent waiting for a password hashing permit")
+                .register(meterRegistry);
+        Gauge.builder("flogin.auth.hashing.permits.available", hashingPermits, Semaphore::availablePermits)
+                .description("Password hashing permits currently free")
+                .register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "credentials");
+    }
+
+    private static Timer verifyTimer(MeterRegistry registry, String source, String result) {
+        return Timer.builder(VERIFY_TIMER)
+                .description("Password verification latency")
+                .tag("source", source)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Kiểm tra mật khẩu người dùng nhập với hash đang lưu
+     * Hash không phải BCrypt (dữ liệu cũ lưu mật khẩu dạng rõ) được so sánh thời gian hằng và không cache
+     *
+     * @throws ServiceBusyException nếu không lấy được lượt hash trong acquire-timeout
+     */
+    public boolean matches(String username, String rawPassword, String storedHash) {
+        if (rawPassword == null || storedHash == null) {
+            return false;
+        }
+        long start = System.nanoTime();
+        if (!isBcrypt(storedHash)) {
+            boolean ok = MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedHash.getBytes(StandardCharsets.UTF_8));
+            (ok ? legacyMatch : legacyMismatch).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return ok;
+        }
+        String key = digest(username, rawPassword, storedHash);
+        if (verified.getIfPresent(key) != null) {
+            cacheMatch.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return true;
+        }
+        boolean ok = withHashingPermit(() -> passwordEncoder.matches(rawPassword, storedHash));
+        if (ok) {
+            verified.put(key, Boolean.TRUE);
+        }
+        (ok ? bcryptMatch : bcryptMismatch).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return ok;
+    }
+
+    /**
+     * Verify cho username không tồn tại: tốn đúng 1 lần BCrypt như user có thật rồi luôn trả về false
+     * Không cache, không tra database
+     *
+     * @throws ServiceBusyException nếu không lấy được lượt hash trong acquire-timeout
+     */
+    public boolean matchesUnknownUser(String rawPassword) {
+        long start = System.nanoTime();
+        String hash = dummyHash();
+        withHashingPermit(() -> passwordEncoder.matches(String.valueOf(rawPassword), hash));
+        dummyMismatch.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return false;
+    }
+
+    /**
+     * Hash mật khẩu mới (đăng ký / đổi mật khẩu), cũng đi qua giới hạn đồng thời
+     */
+    public String encode(String rawPassword) {
+        return withHashingPermit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Thống kê cache verify (hit / miss / số entry)
+     */
+    public CacheStats cacheStats() {
+        return verified.stats();
+    }
+
+    /**
+     * Số entry hiện có trong cache verify (ước lượng)
+     */
+    public long cacheSize() {
+        return verified.estimatedSize();
+    }
+
+    private String dummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            byte[] random = new byte[16];
+            new SecureRandom().nextBytes(random);
+            // Tạo 2 lần khi có request đồng thời cũng không sao, kết quả tương đương
+            hash = encode(Base64.getEncoder().encodeToString(random));
+            dummyHash = hash;
+        }
+        return hash;
+    }
+
+    private <T> T withHashingPermit(Supplier<T> hashing) {
+        boolean acquired;
+        long waitStart = System.nanoTime();
+        try {
+            acquired = hashingPermits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Interrupted while waiting for password hashing");
+        } finally {
+            hashingWait.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            throw new ServiceBusyException("Too many concurrent password hashing requests, please retry");
+        }
+        try {
+            return hashing.get();
+        } finally {
+            hashingPermits.release();
+        }
+    }
+
+    private String digest(String username, String rawPassword, String storedHash) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(digestKey);
+            // Phân tách bằng byte 0 để ("ab","c") và ("a","bc") cho ra digest khác nhau
+            mac.update(String.valueOf(username).getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(rawPassword.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return Base64.getEncoder().encodeToString(mac.doFinal(storedHash.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(HMAC_ALGORITHM + " is not available", ex);
+        }
+    }
+
+    private static boolean isBcrypt(String storedHash) {
+        return storedHash.startsWith("$2a$") || storedHash.startsWith("$2b$") || storedHash.startsWith("$2y$");
+    }
+}
@@ -0,0 +1,64 @@
+package com.flogin.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * UserDetails bất biến, an toàn để cache và dùng chung giữa các request
+ * - Không implement CredentialsContainer nên AuthenticationManager không xóa password
+ *   của instance đang nằm trong cache sau khi xác thực
+ * - Danh sách quyền là hằng số dùng chung, không tạo lại mỗi lần load
+ * - Có thêm fullName, email để đăng nhập trả về thông tin user mà không cần đọc lại database
+ */
+public final class FloginUserDetails implements UserDetails {
+
+    private static final List<GrantedAuthority> USER_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final int id;
+    private final String username;
+    private final String password;
+    private final String fullName;
+    private final String email;
+
+    public FloginUserDetails(int id, String username, String password, String fullName, String email) {
+        this.id = id;
+        this.username = username;
+        this.password = password;
+        this.fullName = fullName;
+        this.email = email;
+    }
+
+    public int getId() { return id; }
+    public String getFullName() { return fullName; }
+    public String getEmail() { return email; }
+
+    @Override
+    public String getUsername() { return username; }
+
+    @Override
+    public String getPassword() { return password; }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() { return USER_AUTHORITIES; }
+
+    @Override
+    public boolean isAccountNonExpired() { return true; }
+
+    @Override
+    public boolean isAccountNonLocked() { return true; }
+
+    @Override
+    public boolean isCredentialsNonExpired() { return true; }
+
+    @Override
+    public boolean isEnabled() { return true; }
+
+    @Override
+    public String toString() {
+        return "FloginUserDetails[" + username + "]";
+    }
+}
@@ -0,0 +1,18 @@
+package com.flogin.security;
+
+/**
+ * Token vừa được phát hành và thời điểm hết hạn của nó (epoch seconds)
+ */
+public final class IssuedToken {
+
+    private final String token;
+    private final long expiresAt;
+
+    public IssuedToken(String token, long expiresAt) {
+        this.token = token;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getToken() { return token; }
+    public long getExpiresAt() { return expiresAt; }
+}
@@ -0,0 +1,262 @@
+package com.flogin.security;
+
+import com.flogin.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Giới hạn số lần đăng nhập, chạy TRƯỚC khi tra database và trước BCrypt:
+ *
+ * 1. Token bucket theo username và theo IP của client: mỗi lần thử tốn 1 token, token hồi lại
+ *    1 cái sau mỗi refill-period, tối đa capacity. Hết token thì từ chối ngay (429 + Retry-After)
+ * 2. Khóa tạm theo cặp (username, IP) khi sai mật khẩu liên tiếp: từ lần sai thứ threshold,
+ *    thời gian khóa = base x 2^(số lần sai - threshold), tối đa max. Đăng nhập đúng thì xóa bộ đếm.
+ *    Khóa theo cặp để kẻ tấn công ở IP khác không khóa được tài khoản của người dùng thật;
+ *    thử từ nhiều IP thì vẫn bị bucket theo username chặn
+ *
+ * - Trạng thái nằm trong Caffeine cache có giới hạn số key; bucket bị xóa khi đã đầy lại hoàn toàn
+ *   (không mất thông tin). Mỗi bucket được sửa dưới 1 trong STRIPES khóa (lock striping theo hash của key),
+ *   các key khác stripe không chặn nhau. Dùng ReentrantLock để virtual thread không bị pin
+ * - IP lấy từ request.getRemoteAddr(); chạy sau reverse proxy thì cần bật server.forward-headers-strategy
+ *
+ * Metrics:
+ * - flogin.auth.login.attempts: tag outcome (allowed / rejected) và reason (none / ip / username / lockout)
+ * - flogin.auth.login.lockouts: số lần khóa tạm
+ * - flogin.auth.login.tracked: số key đang theo dõi, tag type (ip / username / lockout)
+ */
+@Component
+public class LoginRateLimiter {
+
+    private static final int STRIPES = 64;
+
+    /**
+     * Cấu hình 1 loại bucket: dung lượng và thời gian hồi 1 token
+     */
+    record Limit(int capacity, Duration refillPeriod) {
+
+        long refillMillis() {
+            return Math.max(1, refillPeriod.toMillis());
+        }
+
+        /** Thời gian bucket rỗng hồi đầy lại */
+        Duration fullRefill() {
+            return Duration.ofMillis(refillMillis() * capacity);
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updatedAt;
+
+        private Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+    }
+
+    private static final class Failures {
+        private int count;
+        private long lockedUntil;
+    }
+
+    private final Limit usernameLimit;
+    private final Limit ipLimit;
+    private final int lockoutThreshold;
+    private final long lockoutBaseMillis;
+    private final long lockoutMaxMillis;
+    private final Clock clock;
+
+    private final Cache<String, Bucket> usernameBuckets;
+    private final Cache<String, Bucket> ipBuckets;
+    private final Cache<String, Failures> failures;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    private final Counter allowed;
+    private final Counter rejectedByIp;
+    private final Counter rejectedByUsername;
+    private final Counter rejectedByLockout;
+    private final Counter lockouts;
+
+    @Autowired
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${app.security.login-limit.username.capacity:5}") int usernameCapacity,
+                            @Value("${app.security.login-limit.username.refill-period:12s}") Duration usernameRefill,
+                            @Value("${app.security.login-limit.ip.capacity:20}") int ipCapacity,
+                            @Value("${app.security.login-limit.ip.refill-period:1s}") Duration ipRefill,
+                            @Value("${app.security.login-limit.lockout.threshold:5}") int lockoutThreshold,
+                            @Value("${app.security.login-limit.lockout.base:30s}") Duration lockoutBase,
+                            @Value("${app.security.login-limit.lockout.max:15m}") Duration lockoutMax,
+                            @Value("${app.security.login-limit.maximum-keys:100000}") long maximumKeys) {
+        this(meterRegistry, new Limit(usernameCapacity, usernameRefill), new Limit(ipCapacity, ipRefill),
+                lockoutThreshold, lockoutBase, lockoutMax, maximumKeys, Clock.systemUTC());
+    }
+
+    LoginRateLimiter(MeterRegistry meterRegistry, Limit usernameLimit, Limit ipLimit,
+                     int lockoutThreshold, Duration lockoutBase, Duration lockoutMax, long maximumKeys, Clock clock) {
+        this.usernameLimit = usernameLimit;
+        this.ipLimit = ipLimit;
+        this.lockoutThreshold = Math.max(1, lockoutThreshold);
+        this.lockoutBaseMillis = lockoutBase.toMillis();
+        this.lockoutMaxMillis = lockoutMax.toMillis();
+        this.clock = clock;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.usernameBuckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(usernameLimit.fullRefill())
+                .build();
+        this.ipBuckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(ipLimit.fullRefill())
+                .build();
+        // Bộ đếm sai được quên sau 1 khoảng không có lần thử nào dài bằng thời gian khóa tối đa
+        this.failures = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(lockoutMax)
+                .build();
+
+        this.allowed = attempts(meterRegistry, "allowed", "none");
+        this.rejectedByIp = attempts(meterRegistry, "rejected", "ip");
+        this.rejectedByUsername = attempts(meterRegistry, "rejected", "username");
+        this.rejectedByLockout = attempts(meterRegistry, "rejected", "lockout");
+        this.lockouts = Counter.builder("flogin.auth.login.lockouts")
+                .description("Temporary lockouts after repeated failed logins")
+                .register(meterRegistry);
+        tracked(meterRegistry, "ip", ipBuckets);
+        tracked(meterRegistry, "username", usernameBuckets);
+        tracked(meterRegistry, "lockout", failures);
+    }
+
+    private static Counter attempts(MeterRegistry registry, String outcome, String reason) {
+        return Counter.builder("flogin.auth.login.attempts")
+                .description("Login attempts seen by the rate limiter")
+                .tag("outcome", outcome)
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private static void tracked(MeterRegistry registry, String type, Cache<String, ?> cache) {
+        Gauge.builder("flogin.auth.login.tracked", cache, Cache::estimatedSize)
+                .description("Keys currently tracked by the login rate limiter")
+                .tag("type", type)
+                .register(registry);
+    }
+
+    /**
+     * Xin 1 lượt đăng nhập cho (username, IP)
+     *
+     * @throws TooManyRequestsException nếu cặp đang bị khóa tạm hoặc bucket của IP / username đã hết token
+     */
+    public void acquire(String username, String clientIp) {
+        long now = clock.millis();
+        String user = normalize(username);
+        String ip = String.valueOf(clientIp);
+
+        long locked = lockedFor(pairKey(user, ip), now);
+        if (locked > 0) {
+            rejectedByLockout.increment();
+            throw new TooManyRequestsException("Too many failed login attempts, please retry later", locked);
+        }
+        long wait = take(ipBuckets, ipLimit, ip, now);
+        if (wait > 0) {
+            rejectedByIp.increment();
+            throw new TooManyRequestsException("Too many login attempts from this address, please retry later", wait);
+        }
+        wait = take(usernameBuckets, usernameLimit, user, now);
+        if (wait > 0) {
+            rejectedByUsername.increment();
+            throw new TooManyRequestsException("Too many login attempts for this account, please retry later", wait);
+        }
+        allowed.increment();
+    }
+
+    /**
+     * Đăng nhập thành công: xóa bộ đếm sai của cặp (username, IP)
+     */
+    public void recordSuccess(String username, String clientIp) {
+        failures.invalidate(pairKey(normalize(username), String.valueOf(clientIp)));
+    }
+
+    /**
+     * Sai username / mật khẩu: tăng bộ đếm, từ lần thứ threshold thì khóa tạm với thời gian tăng gấp đôi
+     */
+    public void recordFailure(String username, String clientIp) {
+        String key = pairKey(normalize(username), String.valueOf(clientIp));
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            Failures entry = failures.get(key, k -> new Failures());
+            entry.count++;
+            if (entry.count >= lockoutThreshold) {
+                int exponent = Math.min(entry.count - lockoutThreshold, 30);
+                long duration = Math.min(lockoutBaseMillis << exponent, lockoutMaxMillis);
+                entry.lockedUntil = clock.millis() + duration;
+                lockouts.increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long lockedFor(String key, long now) {
+        Failures entry = failures.getIfPresent(key);
+        if (entry == null) {
+            return 0;
+        }
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            return Math.max(0, entry.lockedUntil - now);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lấy 1 token của bucket
+     *
+     * @return 0 nếu lấy được, ngược lại là số ms cần chờ tới khi có token
+     */
+    private long take(Cache<String, Bucket> buckets, Limit limit, String key, long now) {
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            Bucket bucket = buckets.get(key, k -> new Bucket(limit.capacity(), now));
+            long elapsed = Math.max(0, now - bucket.updatedAt);
+            bucket.tokens = Math.min(limit.capacity(), bucket.tokens + (double) elapsed / limit.refillMillis());
+            bucket.updatedAt = now;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) * limit.refillMillis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(String key) {
+        int hash = key.hashCode();
+        return locks[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private static String pairKey(String username, String ip) {
+        return username + '\u0000' + ip;
+    }
+
+    private static String normalize(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+}
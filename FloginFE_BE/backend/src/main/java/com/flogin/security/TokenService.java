@@ -0,0 +1,254 @@
+package com.flogin.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Phát hành và xác thực token đăng nhập dạng compact, ký bằng HMAC-SHA256
+ *
+ * Định dạng: {userId}.{issuedAt}.{expiresAt}.{signature}
+ * - userId, issuedAt (epoch millis, lúc đăng nhập), expiresAt (epoch seconds): số thập phân ASCII
+ * - signature: base64url (không padding, 43 ký tự) của HMAC-SHA256(secret, "{userId}.{issuedAt}.{expiresAt}")
+ *
+ * Refresh giữ nguyên issuedAt của lần đăng nhập đầu, nên 1 phiên không thể kéo dài quá
+ * app.security.token.max-session dù được refresh liên tục
+ *
+ * Xác thực không cần database hay session: chỉ parse 2 số, tính lại HMAC và so sánh chữ ký
+ * trong thời gian hằng. Đường verify không tạo String / mảng mới: Mac và buffer được mượn từ 1 pool nhỏ,
+ * chữ ký được so sánh trực tiếp trên ký tự base64url của token.
+ *
+ * Pool dùng chung thay cho ThreadLocal: với virtual thread mỗi request là 1 thread mới,
+ * ThreadLocal sẽ tạo lại Mac cho từng request và không bao giờ được dùng lại.
+ */
+@Component
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_BYTES = 32;
+    private static final int SIGNATURE_CHARS = 43;
+    private static final int MAX_ID_DIGITS = 10;
+    private static final int MAX_ISSUED_DIGITS = 19;
+    private static final int MAX_EXPIRY_DIGITS = 19;
+    private static final char[] BASE64URL =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final Duration maxSession;
+    private final Clock clock;
+
+    /** Mac + buffer rảnh để dùng lại (Mac không thread-safe nên mỗi lần chỉ 1 thread mượn) */
+    private final BlockingQueue<Scratch> scratchPool =
+            new ArrayBlockingQueue<>(Math.max(2, Runtime.getRuntime().availableProcessors() * 2));
+
+    @Autowired
+    public TokenService(@Value("${app.security.token.secret:}") String secret,
+                        @Value("${app.security.token.ttl:1h}") Duration ttl,
+                        @Value("${app.security.token.max-session:12h}") Duration maxSession) {
+        this(secret, ttl, maxSession, Clock.systemUTC());
+    }
+
+    TokenService(String secret, Duration ttl, Duration maxSession, Clock clock) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[SIGNATURE_BYTES];
+            new SecureRandom().nextBytes(keyBytes);
+            log.warn("app.security.token.secret is not set; using a random key, tokens will not survive a restart "
+                    + "and are not accepted by other instances");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+        this.ttl = ttl;
+        this.maxSession = maxSession;
+        this.clock = clock;
+    }
+
+    /**
+     * Phát hành token cho phiên đăng nhập mới của user, hết hạn sau app.security.token.ttl
+     */
+    public IssuedToken issue(int userId) {
+        Instant now = clock.instant();
+        return sign(userId, now.toEpochMilli(), expiryFor(now, now.toEpochMilli()));
+    }
+
+    /**
+     * Phát hành token mới thay cho token còn hạn, cùng phiên (giữ issuedAt)
+     * Hạn của token mới không vượt quá issuedAt + app.security.token.max-session
+     * @return null nếu phiên đã hết thời gian tối đa
+     */
+    public IssuedToken refresh(AuthenticatedUser user) {
+        Instant now = clock.instant();
+        long expiresAt = expiryFor(now, user.getIssuedAt());
+        if (expiresAt <= now.getEpochSecond()) {
+            return null;
+        }
+        return sign(user.getId(), user.getIssuedAt(), expiresAt);
+    }
+
+    private long expiryFor(Instant now, long issuedAt) {
+        long sessionEnd = Instant.ofEpochMilli(issuedAt).plus(maxSession).getEpochSecond();
+        return Math.min(now.plus(ttl).getEpochSecond(), sessionEnd);
+    }
+
+    private IssuedToken sign(int userId, long issuedAt, long expiresAt) {
+        String payload = userId + "." + issuedAt + "." + expiresAt;
+        Scratch s = borrowScratch();
+        String signature;
+        try {
+            s.mac.update(payload.getBytes(StandardCharsets.US_ASCII));
+            signature = Base64.getUrlEncoder().withoutPadding().encodeToString(s.mac.doFinal());
+        } finally {
+            scratchPool.offer(s);
+        }
+        return new IssuedToken(payload + "." + signature, expiresAt);
+    }
+
+    /**
+     * Xác thực token
+     * @param value chuỗi chứa token (ví dụ nguyên header Authorization)
+     * @param offset vị trí bắt đầu của token trong value (ví dụ 7 để bỏ qua "Bearer ")
+     * @return principal nếu token hợp lệ và chưa hết hạn, null nếu ngược lại
+     */
+    public AuthenticatedUser verify(CharSequence value, int offset) {
+        int length = value.length();
+        int firstDot = -1;
+        int secondDot = -1;
+        int thirdDot = -1;
+        for (int i = offset; i < length; i++) {
+            char c = value.charAt(i);
+            if (c == '.') {
+                if (firstDot < 0) {
+                    firstDot = i;
+                } else if (secondDot < 0) {
+                    secondDot = i;
+                } else {
+                    thirdDot = i;
+                    break;
+                }
+            }
+        }
+        if (firstDot < 0 || secondDot < 0 || thirdDot < 0
+                || firstDot - offset < 1 || firstDot - offset > MAX_ID_DIGITS
+                || secondDot - firstDot - 1 < 1 || secondDot - firstDot - 1 > MAX_ISSUED_DIGITS
+                || thirdDot - secondDot - 1 < 1 || thirdDot - secondDot - 1 > MAX_EXPIRY_DIGITS
+                || length - thirdDot - 1 != SIGNATURE_CHARS) {
+            return null;
+        }
+        long id = parseDigits(value, offset, firstDot);
+        long issuedAt = parseDigits(value, firstDot + 1, secondDot);
+        long expiresAt = parseDigits(value, secondDot + 1, thirdDot);
+        if (id < 0 || id > Integer.MAX_VALUE || issuedAt < 0 || expiresAt < 0) {
+            return null;
+        }
+
+        Scratch s = borrowScratch();
+        boolean signatureOk;
+        try {
+            int payloadLength = thirdDot - offset;
+            for (int i = 0; i < payloadLength; i++) {
+                s.payload[i] = (byte) value.charAt(offset + i);
+            }
+            s.mac.update(s.payload, 0, payloadLength);
+            s.mac.doFinal(s.signature, 0);
+            // So sánh chữ ký thời gian hằng, trước khi kiểm tra hạn để thời gian xử lý không lộ thông tin
+            signatureOk = signatureMatches(s.signature, value, thirdDot + 1);
+        } catch (ShortBufferException ex) {
+            throw new IllegalStateException(ex);
+        } finally {
+            scratchPool.offer(s);
+        }
+        if (!signatureOk || expiresAt <= clock.instant().getEpochSecond()) {
+            return null;
+        }
+        return new AuthenticatedUser((int) id, issuedAt, expiresAt);
+    }
+
+    /**
+     * Parse chuỗi chữ số thập phân trong [from, to), trả về -1 nếu có ký tự không phải chữ số
+     */
+    private static long parseDigits(CharSequence value, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+            if (result < 0) {
+                return -1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * So sánh chữ ký dự kiến (bytes) với phần base64url trong token, không dừng sớm khi khác
+     */
+    private static boolean signatureMatches(byte[] expected, CharSequence value, int from) {
+        int diff = 0;
+        int pos = from;
+        int i = 0;
+        while (i + 3 <= SIGNATURE_BYTES) {
+            int bits = (expected[i] & 0xff) << 16 | (expected[i + 1] & 0xff) << 8 | (expected[i + 2] & 0xff);
+            diff |= BASE64URL[(bits >>> 18) & 0x3f] ^ value.charAt(pos++);
+            diff |= BASE64URL[(bits >>> 12) & 0x3f] ^ value.charAt(pos++);
+            diff |= BASE64URL[(bits >>> 6) & 0x3f] ^ value.charAt(pos++);
+            diff |= BASE64URL[bits & 0x3f] ^ value.charAt(pos++);
+            i += 3;
+        }
+        // 32 = 10 * 3 + 2: 2 byte cuối tạo 3 ký tự
+        int bits = (expected[i] & 0xff) << 16 | (expected[i + 1] & 0xff) << 8;
+        diff |= BASE64URL[(bits >>> 18) & 0x3f] ^ value.charAt(pos++);
+        diff |= BASE64URL[(bits >>> 12) & 0x3f] ^ value.charAt(pos++);
+        diff |= BASE64URL[(bits >>> 6) & 0x3f] ^ value.charAt(pos);
+        return diff == 0;
+    }
+
+    /**
+     * Lấy Scratch rảnh từ pool, tạo mới nếu pool đang trống
+     * Trả về pool bằng offer: khi pool đầy (tải đột biến) Scratch thừa bị bỏ đi
+     */
+    private Scratch borrowScratch() {
+        Scratch s = scratchPool.poll();
+        return s != null ? s : newScratch();
+    }
+
+    private Scratch newScratch() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return new Scratch(mac);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(HMAC_ALGORITHM + " is not available", ex);
+        }
+    }
+
+    private static final class Scratch {
+        final Mac mac;
+        final byte[] payload = new byte[MAX_ID_DIGITS + 1 + MAX_ISSUED_DIGITS + 1 + MAX_EXPIRY_DIGITS];
+        final byte[] signature = new byte[SIGNATURE_BYTES];
+
+        Scratch(Mac mac) {
+            this.mac = mac;
+        }
+    }
+}
@@ -4,29 +4,28 @@ import com.flogin.config.AppConfig;
 import com.flogin.dto.UserDTO;
 import com.flogin.model.UserRequest;
 import com.flogin.model.UserResponse;
+import com.flogin.security.CredentialVerifier;
+import com.flogin.security.TokenService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
-import java.util.Base64;
-
 @Service
 @RequiredArgsConstructor
 public class AuthService {
 
     private final AppConfig appConfig;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final CredentialVerifier credentialVerifier;
+    private final TokenService tokenService;
 
     private String generateToken(UserDTO user) {
-        String data = user.getId() + ":" + (System.currentTimeMillis() + 3600000);
-        return Base64.getEncoder().encodeToString((data + ":SECRET_KEY").getBytes());
+        return tokenService.issue(user.getId()).getToken();
     }
 
     public UserResponse login(UserRequest request) {
         UserDTO user = appConfig.getDefaultUser();
 
         if (!user.getUsername().equals(request.getUsername()) ||
-                !passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+                !credentialVerifier.matches(user.getUsername(), request.getPassword(), user.getPassword())) {
             throw new RuntimeException("Tên đăng nhập hoặc mật khẩu không đúng!");
         }
 
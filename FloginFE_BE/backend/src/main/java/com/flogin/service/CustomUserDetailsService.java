@@ -1,28 +1,45 @@
 package com.flogin.service;
 
+import com.flogin.config.CacheConfig;
 import com.flogin.model.User;
 import com.flogin.repository.UserRepository;
+import com.flogin.security.FloginUserDetails;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.*;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
-
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    /**
+     * Load UserDetails theo username, có cache (CacheConfig.USER_DETAILS: giới hạn kích thước, hết hạn theo TTL)
+     * sync = true: nhiều request cùng miss 1 username chỉ query database 1 lần,
+     * và thời gian load được ghi nhận trong thống kê cache (GET /api/cache/userDetails/stats)
+     * Username không tồn tại không được cache (exception không được lưu)
+     * Dùng cho đăng nhập (UserServiceImpl.login), nên mỗi lần đăng nhập không phải query bảng users
+     * Gọi trong transaction thì bỏ qua cache và đọc trên thread hiện tại: hàm load của AsyncCache chạy trên
+     * thread khác, không thấy dữ liệu chưa commit, và dữ liệu đó cũng không nên vào cache
+     */
     @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+    @Cacheable(cacheNames = CacheConfig.USER_DETAILS, key = "#username", sync = true,
+            condition = "!T(org.springframework.transaction.support.TransactionSynchronizationManager).isActualTransactionActive()")
+    public FloginUserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
             .orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        return new org.springframework.security.core.userdetails.User(
-            user.getUsername(),
-            user.getPassword(),
-            Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
-        );
+        return new FloginUserDetails(user.getId(), user.getUsername(), user.getPassword(),
+            user.getFullName(), user.getEmail());
+    }
+
+    /**
+     * Xóa UserDetails của 1 username khỏi cache (gọi khi user bị sửa / xóa)
+     * Nếu đang trong transaction, việc xóa được thực hiện sau khi commit
+     */
+    @CacheEvict(cacheNames = CacheConfig.USER_DETAILS, key = "#username")
+    public void evict(String username) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,34 @@
+package com.flogin.service;
+
+import com.flogin.dto.BatchResult;
+import com.flogin.dto.ProductDTO;
+
+import java.util.List;
+
+/**
+ * Interface cho các thao tác tạo / cập nhật / xóa sản phẩm hàng loạt
+ * Mỗi phần tử được validate riêng và có kết quả riêng trong BatchResult
+ */
+public interface ProductBatchService {
+
+    /**
+     * Tạo nhiều sản phẩm trong 1 request
+     * @param dtos danh sách sản phẩm cần tạo
+     * @return kết quả theo từng phần tử (kèm id mới sinh ra)
+     */
+    BatchResult createProducts(List<ProductDTO> dtos);
+
+    /**
+     * Cập nhật nhiều sản phẩm trong 1 request (mỗi phần tử phải có id)
+     * @param dtos danh sách sản phẩm cần cập nhật
+     * @return kết quả theo từng phần tử
+     */
+    BatchResult updateProducts(List<ProductDTO> dtos);
+
+    /**
+     * Xóa nhiều sản phẩm theo id
+     * @param ids danh sách id cần xóa
+     * @return kết quả theo từng phần tử
+     */
+    BatchResult deleteProducts(List<Integer> ids);
+}
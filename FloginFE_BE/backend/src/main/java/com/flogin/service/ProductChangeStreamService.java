@@ -0,0 +1,15 @@
+package com.flogin.service;
+
+import com.flogin.event.ProductChangeFeed;
+
+/**
+ * Luồng thay đổi sản phẩm (tạo / cập nhật / xóa) cho client theo dõi thay vì poll danh sách
+ */
+public interface ProductChangeStreamService {
+
+    /**
+     * Đăng ký nhận thay đổi, tiếp tục sau lastEventId nếu có
+     * @throws com.flogin.exception.ServiceBusyException khi đã đủ số subscriber tối đa
+     */
+    ProductChangeFeed.Subscription subscribe(ProductChangeFeed.Sink sink, String lastEventId);
+}
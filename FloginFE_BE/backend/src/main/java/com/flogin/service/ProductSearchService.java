@@ -0,0 +1,26 @@
+package com.flogin.service;
+
+import com.flogin.dto.ProductSearchHits;
+
+/**
+ * Interface cho full-text search sản phẩm trên inverted index in-memory
+ */
+public interface ProductSearchService {
+
+    /** Offset tối đa của 1 query, chặn client duyệt sâu làm tăng chi phí chọn top-k */
+    int MAX_OFFSET = 10_000;
+
+    /**
+     * Tìm sản phẩm theo từ khóa trên name, description và category
+     * @param query chuỗi tìm kiếm (các từ được kết hợp bằng AND, từ cuối có thể là tiền tố)
+     * @param offset số kết quả bỏ qua
+     * @param limit kích thước trang
+     * @return trang kết quả theo mức độ liên quan và tổng số kết quả
+     */
+    ProductSearchHits search(String query, int offset, int limit);
+
+    /**
+     * Dựng lại toàn bộ index từ database
+     */
+    void rebuildIndex();
+}
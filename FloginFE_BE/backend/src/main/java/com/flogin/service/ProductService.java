@@ -1,12 +1,34 @@
 package com.flogin.service;
 
+import com.flogin.dto.ProductChanges;
 import com.flogin.dto.ProductDTO;
+import com.flogin.dto.ProductPage;
+import com.flogin.dto.ProductSearchCriteria;
+import com.flogin.dto.ResourceVersion;
+
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 public interface ProductService {
+
+    /** Kích thước trang mặc định khi client không truyền limit */
+    int DEFAULT_PAGE_SIZE = 50;
+
+    /** Kích thước trang tối đa, tránh client kéo toàn bộ bảng trong 1 request */
+    int MAX_PAGE_SIZE = 500;
+
     ProductDTO createProduct(ProductDTO dto);
-    List<ProductDTO> getAllProducts();
+    ProductPage getProducts(int afterId, int limit);
+    ProductPage searchProducts(ProductSearchCriteria criteria);
     ProductDTO getProductById(int id);
+    List<ProductDTO> getProductsByIds(List<Integer> ids);
+    ResourceVersion getProductVersion(int id);
+    ResourceVersion getCatalogVersion();
+    ProductChanges getChanges(long since, int limit);
     ProductDTO updateProduct(int id, ProductDTO dto);
+    ProductDTO patchProduct(int id, UnaryOperator<ProductDTO> patch);
+    ProductDTO adjustStock(int id, int delta);
     void deleteProduct(int id);
+    void exportProducts(Consumer<ProductDTO> sink);
 }
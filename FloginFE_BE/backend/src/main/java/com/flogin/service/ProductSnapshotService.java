@@ -0,0 +1,31 @@
+package com.flogin.service;
+
+import com.flogin.catalog.CatalogSnapshot;
+
+/**
+ * Interface cho snapshot in-memory (lưu theo cột) của toàn bộ danh mục sản phẩm,
+ * dùng để trả lời API danh sách / lọc mà không truy vấn database
+ */
+public interface ProductSnapshotService {
+
+    /**
+     * Snapshot hiện tại, null khi chưa dựng xong (lúc đó đọc phải đi database)
+     */
+    CatalogSnapshot current();
+
+    /**
+     * Snapshot dùng để trả lời client hiện tại: null khi chưa dựng xong hoặc client vừa ghi thay đổi
+     * mà snapshot chưa chứa (đọc phải đi database để thấy chính thay đổi đó)
+     */
+    CatalogSnapshot readable();
+
+    /**
+     * Áp dụng các thay đổi đã commit sau version của snapshot (theo change sequence)
+     */
+    void refresh();
+
+    /**
+     * Dựng lại toàn bộ snapshot từ database
+     */
+    void reload();
+}
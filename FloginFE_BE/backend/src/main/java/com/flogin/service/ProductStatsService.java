@@ -0,0 +1,22 @@
+package com.flogin.service;
+
+import com.flogin.dto.CategoryStatsDTO;
+
+import java.util.List;
+
+/**
+ * Interface cho thống kê sản phẩm theo danh mục, duy trì incremental in-memory
+ */
+public interface ProductStatsService {
+
+    /**
+     * Số sản phẩm, tổng tồn kho và tổng giá trị tồn kho của từng danh mục
+     * Chi phí theo số danh mục, không truy vấn database
+     */
+    List<CategoryStatsDTO> getCategoryStats();
+
+    /**
+     * Tính lại thống kê từ database (GROUP BY) và thay thống kê in-memory
+     */
+    void reconcile();
+}
@@ -0,0 +1,24 @@
+package com.flogin.service;
+
+import com.flogin.dto.ProductDTO;
+import com.flogin.dto.ProductPage;
+import com.flogin.dto.ResourceVersion;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Biến thể non-blocking của ProductService cho stack reactive (WebFlux + R2DBC)
+ * Cùng nghiệp vụ và cùng lỗi (ResourceNotFoundException, ConflictException) nhưng trả về Mono / Flux,
+ * không method nào block thread gọi
+ */
+public interface ReactiveProductService {
+
+    Mono<ProductDTO> createProduct(ProductDTO dto);
+    Mono<ProductPage> getProducts(int afterId, int limit);
+    Mono<ProductDTO> getProductById(int id);
+    Mono<ResourceVersion> getCatalogVersion();
+    Mono<ProductDTO> updateProduct(int id, ProductDTO dto);
+    Mono<ProductDTO> adjustStock(int id, int delta);
+    Mono<Void> deleteProduct(int id);
+    Flux<ProductDTO> exportProducts();
+}
@@ -2,6 +2,7 @@ package com.flogin.service;
 
 import com.flogin.dto.UserDTO;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 /**
  * Interface cho User Service
@@ -37,6 +38,15 @@ public interface UserService {
      */
     UserDTO updateUser(int id, UserDTO dto);
 
+    /**
+     * Cập nhật 1 phần thông tin user (PATCH), chỉ các field thay đổi được ghi xuống database
+     * @param id ID của user
+     * @param patch hàm nhận thông tin hiện tại (không có password) và trả về thông tin mới;
+     *              password khác null nghĩa là đổi mật khẩu
+     * @return UserDTO đã cập nhật
+     */
+    UserDTO patchUser(int id, UnaryOperator<UserDTO> patch);
+
     /**
      * Xóa user theo ID
      * @param id ID của user
@@ -50,4 +60,12 @@ public interface UserService {
      * @return UserDTO nếu đăng nhập thành công, throw exception nếu thất bại
      */
     UserDTO login(String username, String password);
+
+    /**
+     * Phiên đăng nhập bắt đầu lúc issuedAt còn được gia hạn không:
+     * user còn tồn tại và chưa đổi mật khẩu kể từ lúc đăng nhập
+     * @param id ID của user
+     * @param issuedAt thời điểm đăng nhập (epoch millis)
+     */
+    boolean isSessionValid(int id, long issuedAt);
 }
\ No newline at end of file
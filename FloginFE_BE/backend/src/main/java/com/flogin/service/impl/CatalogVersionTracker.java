@@ -0,0 +1,313 @@
+package com.flogin.service.impl;
+
+import com.flogin.dto.ResourceVersion;
+import com.flogin.event.ProductChangedEvent;
+import com.flogin.model.CatalogChange;
+import com.flogin.model.CatalogVersion;
+import com.flogin.model.ProductTombstone;
+import com.flogin.repository.CatalogChangeRepository;
+import com.flogin.repository.CatalogVersionRepository;
+import com.flogin.repository.ProductRepository;
+import com.flogin.repository.ProductTombstoneRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cấp change sequence cho mỗi transaction có thay đổi sản phẩm và tính phiên bản danh mục
+ *
+ * Nhận ProductChangedEvent ngay khi được publish (trong transaction ghi), gom id các sản phẩm được ghi / xóa
+ * và đăng ký 1 TransactionSynchronization cho transaction đó; ở beforeCommit:
+ * 1. chèn 1 dòng catalog_changes, lấy sequence S (AUTO_INCREMENT)
+ * 2. gán changeSeq = S cho các sản phẩm được tạo / sửa, chèn tombstone (changeSeq = S) cho các sản phẩm bị xóa
+ * 3. gán S vào các ProductChangedEvent của transaction (listener sau commit biết thay đổi thuộc version nào)
+ *
+ * Không có dòng nào bị khóa chung giữa các transaction ghi (trước đây là UPDATE dòng catalog_version giữ khóa
+ * tới lúc commit, làm mọi transaction ghi chạy tuần tự), nên sequence có thể commit không theo thứ tự.
+ * Phiên bản danh mục (currentVersion) vì vậy là sequence lớn nhất V mà mọi sequence <= V đã commit:
+ * client đọc được thay đổi tới V thì không còn thay đổi nào <= V commit sau đó,
+ * API /api/products/changes?since= và snapshot chỉ đọc thay đổi <= V nên không bao giờ bỏ sót thay đổi.
+ * - sequence bị bỏ (transaction rollback sau bước 1) để lại lỗ: coi như đã bỏ khi dòng commit ngay sau lỗ
+ *   đã cũ hơn app.products.change-seq.commit-grace (thời gian từ bước 1 tới commit luôn ngắn hơn nhiều)
+ * - batch nhiều sản phẩm trong 1 transaction chỉ lấy 1 sequence (các sản phẩm dùng chung sequence)
+ * - persistence context được flush trước bước 1: xung đột (optimistic lock) báo lỗi trước khi lấy sequence
+ * - mỗi app.products.change-seq.compact-interval lưu phiên bản vào catalog_version và xóa các dòng
+ *   catalog_changes bên dưới, để phép tính phiên bản chỉ đọc vài dòng
+ */
+@Component
+public class CatalogVersionTracker implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogVersionTracker.class);
+
+    /** Key của các thay đổi đang chờ gán sequence trong transaction hiện tại */
+    private static final Object TX_KEY = CatalogVersionTracker.class.getName() + ".pending";
+
+    /** Số dòng catalog_changes tối đa đọc khi tính phiên bản (phiên bản tiến tiếp ở lần đọc sau) */
+    static final int MAX_SCAN = 10_000;
+
+    /**
+     * Id các sản phẩm thay đổi trong 1 transaction; sản phẩm bị xóa sau khi ghi chỉ còn trong deleted
+     * Các event được giữ lại để gán change sequence cho listener chạy sau commit
+     */
+    private static final class PendingChanges {
+        final Set<Integer> upserted = new LinkedHashSet<>();
+        final Set<Integer> deleted = new LinkedHashSet<>();
+        final List<ProductChangedEvent> events = new ArrayList<>();
+
+        void add(ProductChangedEvent event) {
+            events.add(event);
+            if (event.getType() == ProductChangedEvent.Type.DELETED) {
+                upserted.remove(event.getProductId());
+                deleted.add(event.getProductId());
+            } else {
+                upserted.add(event.getProductId());
+            }
+        }
+    }
+
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final ProductRepository productRepository;
+    private final ProductTombstoneRepository tombstoneRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration commitGrace;
+    private final Duration compactInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-version-compact");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CatalogVersionTracker(CatalogVersionRepository catalogVersionRepository,
+                                 CatalogChangeRepository catalogChangeRepository,
+                                 ProductRepository productRepository,
+                                 ProductTombstoneRepository tombstoneRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.products.change-seq.commit-grace:10s}") Duration commitGrace,
+                                 @Value("${app.products.change-seq.compact-interval:1s}") Duration compactInterval) {
+        this.catalogVersionRepository = catalogVersionRepository;
+        this.catalogChangeRepository = catalogChangeRepository;
+        this.productRepository = productRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.commitGrace = commitGrace;
+        this.compactInterval = compactInterval;
+    }
+
+    /**
+     * Tạo dòng catalog_version nếu chưa có (database mới)
+     * Nhiều instance cùng khởi động thì instance chèn sau bị lỗi trùng khóa, bỏ qua
+     * Database có từ trước bảng catalog_changes: chèn dòng seq = version đã lưu để sequence mới tiếp tục sau nó
+     * Sau đó gán sequence cho các sản phẩm chưa có (dữ liệu cũ, INSERT ngoài ứng dụng) trong 1 transaction
+     * và lên lịch lưu phiên bản định kỳ
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureRow() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!catalogVersionRepository.existsById(CatalogVersion.SINGLETON_ID)) {
+                    catalogVersionRepository.save(new CatalogVersion(CatalogVersion.SINGLETON_ID, 0, Instant.now()));
+                }
+            });
+        } catch (DataIntegrityViolationException ex) {
+            // Instance khác đã tạo
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                long stored = storedVersion().getVersion();
+                if (stored > 0 && !catalogChangeRepository.existsBySeqGreaterThanEqual(stored)) {
+                    catalogChangeRepository.insertAt(stored, Instant.now());
+                }
+            });
+        } catch (DataIntegrityViolationException ex) {
+            // Instance khác đã chèn
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (productRepository.existsByChangeSeq(0)) {
+                productRepository.stampUnsequenced(nextSeq());
+            }
+        });
+        long interval = compactInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+            } catch (RuntimeException ex) {
+                log.warn("Catalog version compaction failed", ex);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Phiên bản hiện tại của danh mục: version đã lưu cộng các sequence đã commit liền sau nó
+     * Chỉ đọc (tra PK + quét khoảng PK vài dòng), không khóa; gọi trong transaction của người đọc để phiên bản
+     * và các thay đổi đọc sau đó cùng 1 snapshot MVCC
+     */
+    public ResourceVersion currentVersion() {
+        return versionAfter(storedVersion());
+    }
+
+    /**
+     * Tiến từ phiên bản đã lưu qua các sequence đã commit, dừng ở lỗ đầu tiên còn có thể đang chờ commit
+     * Lỗ trước 1 sequence S: các sequence nhỏ hơn S được cấp trước S, nên S đã commit từ trước abandonedBefore
+     * thì transaction giữ lỗ đã quá commit-grace kể từ lúc lấy sequence, coi như đã rollback
+     * Dùng chung với stack reactive (ReactiveProductServiceImpl)
+     *
+     * @param stored phiên bản đã lưu trong catalog_version
+     * @param committed các dòng catalog_changes có seq > stored.version, theo thứ tự seq
+     * @param abandonedBefore lỗ trước 1 dòng tạo trước thời điểm này được coi là đã bỏ
+     */
+    public static ResourceVersion watermark(ResourceVersion stored, List<CatalogChange> committed, Instant abandonedBefore) {
+        long version = stored.getVersion();
+        Instant updatedAt = stored.getUpdatedAt();
+        for (CatalogChange change : committed) {
+            if (change.getSeq() != version + 1 && change.getCreatedAt().isAfter(abandonedBefore)) {
+                break;
+            }
+            version = change.getSeq();
+            updatedAt = change.getCreatedAt();
+        }
+        return new ResourceVersion(version, updatedAt);
+    }
+
+    /**
+     * Lưu phiên bản hiện tại vào catalog_version và xóa các dòng catalog_changes bên dưới phiên bản đã lưu trước đó
+     * Transaction ngắn trên primary, không chặn transaction ghi; nhiều instance cùng chạy thì UPDATE có điều kiện
+     * chỉ làm phiên bản tăng
+     * Xóa chậm 1 lần: người đọc ngoài transaction vừa đọc phiên bản đã lưu cũ vẫn thấy các dòng liền sau nó
+     */
+    public void compact() {
+        transactionTemplate.executeWithoutResult(status -> {
+            ResourceVersion stored = storedVersion();
+            ResourceVersion current = versionAfter(stored);
+            if (current.getVersion() > stored.getVersion()
+                    && catalogVersionRepository.advance(current.getVersion(), current.getUpdatedAt()) > 0) {
+                catalogChangeRepository.deleteBySeqLessThan(stored.getVersion());
+            }
+        });
+    }
+
+    private ResourceVersion storedVersion() {
+        return catalogVersionRepository.findCurrent().orElseGet(() -> new ResourceVersion(0, null));
+    }
+
+    private ResourceVersion versionAfter(ResourceVersion stored) {
+        List<CatalogChange> committed = catalogChangeRepository.findBySeqGreaterThanOrderBySeqAsc(
+                stored.getVersion(), Limit.of(MAX_SCAN));
+        return watermark(stored, committed, Instant.now().minus(commitGrace));
+    }
+
+    /**
+     * Transaction hiện tại đã ghi sản phẩm nhưng chưa commit
+     * Đọc trong transaction đó phải đi qua database để thấy chính thay đổi của nó (ví dụ không dùng snapshot)
+     */
+    public static boolean hasPendingChanges() {
+        return TransactionSynchronizationManager.hasResource(TX_KEY);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            PendingChanges changes = new PendingChanges();
+            changes.add(event);
+            transactionTemplate.executeWithoutResult(status -> apply(changes));
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(TX_KEY);
+        if (pending != null) {
+            pending.add(event);
+            return;
+        }
+        PendingChanges changes = new PendingChanges();
+        changes.add(event);
+        TransactionSynchronizationManager.bindResource(TX_KEY, changes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                apply(changes);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TX_KEY);
+            }
+        });
+    }
+
+    /**
+     * Lấy 1 change sequence rồi gán cho các thay đổi của transaction
+     */
+    private void apply(PendingChanges changes) {
+        flush();
+        long seq = nextSeq();
+        if (!changes.upserted.isEmpty()) {
+            productRepository.stampChangeSeq(changes.upserted, seq);
+        }
+        if (!changes.deleted.isEmpty()) {
+            Instant now = Instant.now();
+            List<ProductTombstone> tombstones = new ArrayList<>(changes.deleted.size());
+            for (int id : changes.deleted) {
+                tombstones.add(new ProductTombstone(id, seq, now));
+            }
+            tombstoneRepository.saveAll(tombstones);
+        }
+        for (ProductChangedEvent event : changes.events) {
+            event.setChangeSeq(seq);
+        }
+    }
+
+    /**
+     * Ghi các thay đổi sản phẩm còn chờ (khóa dòng sản phẩm) trước khi lấy sequence
+     * Lỗi được chuyển thành DataAccessException như khi flush lúc commit
+     * (ví dụ xóa sản phẩm vừa bị sửa: ObjectOptimisticLockingFailureException, trả 409)
+     */
+    private void flush() {
+        try {
+            entityManager.flush();
+        } catch (RuntimeException ex) {
+            DataAccessException translated = EntityManagerFactoryUtils.convertJpaAccessExceptionIfPossible(ex);
+            throw translated != null ? translated : ex;
+        }
+    }
+
+    /**
+     * Chèn 1 dòng catalog_changes (INSERT chạy ngay với id IDENTITY)
+     * @return change sequence mới
+     */
+    private long nextSeq() {
+        return catalogChangeRepository.save(new CatalogChange(Instant.now())).getSeq();
+    }
+
+    /**
+     * Dừng lưu phiên bản định kỳ khi đóng ứng dụng
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,340 @@
+package com.flogin.service.impl;
+
+import com.flogin.config.CacheConfig;
+import com.flogin.dto.BatchItemResult;
+import com.flogin.dto.BatchItemResult.Status;
+import com.flogin.dto.BatchResult;
+import com.flogin.dto.ProductDTO;
+import com.flogin.event.ProductChangedEvent;
+import com.flogin.exception.BatchLimitExceededException;
+import com.flogin.model.Product;
+import com.flogin.repository.ProductRepository;
+import com.flogin.service.ProductBatchService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Implementation của ProductBatchService
+ *
+ * Luồng xử lý chung:
+ * 1. Validate từng phần tử, phần tử không hợp lệ được đánh dấu INVALID và bỏ qua
+ * 2. Chia các phần tử hợp lệ thành từng chunk (mặc định 500 phần tử)
+ * 3. Mỗi chunk chạy trong 1 transaction riêng và ghi bằng 1 JDBC batch,
+ *    nên 1 chunk lỗi không làm rollback các chunk khác (các phần tử của chunk lỗi được đánh dấu FAILED)
+ * 4. Mỗi phần tử thành công publish 1 ProductChangedEvent trong transaction của chunk,
+ *    listener chỉ nhận được sau khi chunk commit
+ * 5. Khi cập nhật, phần tử gửi kèm version khác version hiện tại bị đánh dấu CONFLICT (optimistic locking)
+ */
+@Service
+public class ProductBatchServiceImpl implements ProductBatchService {
+
+    private final ProductRepository productRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /** Cache ProductDTO theo id, cần evict sau khi cập nhật / xóa hàng loạt */
+    private final Cache productCache;
+
+    /** Số phần tử mỗi chunk (nên bằng hibernate.jdbc.batch_size) */
+    private final int chunkSize;
+
+    /** Số phần tử tối đa trong 1 request batch */
+    private final int maxItems;
+
+    public ProductBatchServiceImpl(ProductRepository productRepository,
+                                   Validator validator,
+                                   PlatformTransactionManager transactionManager,
+                                   CacheManager cacheManager,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${app.products.batch.chunk-size:500}") int chunkSize,
+                                   @Value("${app.products.batch.max-items:50000}") int maxItems) {
+        this.productRepository = productRepository;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productCache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Tạo sản phẩm hàng loạt
+     * INSERT được thực hiện bằng JDBC batch (ProductBatchRepository.insertAll) vì Hibernate
+     * không batch được INSERT với id IDENTITY
+     */
+    @Override
+    public BatchResult createProducts(List<ProductDTO> dtos) {
+        checkSize(dtos.size());
+        BatchItemResult[] results = new BatchItemResult[dtos.size()];
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            List<String> errors = validate(dtos.get(i));
+            if (errors.isEmpty()) {
+                valid.add(i);
+            } else {
+                results[i] = BatchItemResult.failure(i, null, Status.INVALID, errors);
+            }
+        }
+
+        for (List<Integer> chunk : chunks(valid)) {
+            List<Product> entities = new ArrayList<>(chunk.size());
+            for (int index : chunk) {
+                entities.add(toEntity(dtos.get(index)));
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    productRepository.insertAll(entities);
+                    for (Product p : entities) {
+                        eventPublisher.publishEvent(ProductChangedEvent.created(toDTO(p)));
+                    }
+                });
+                for (int k = 0; k < chunk.size(); k++) {
+                    results[chunk.get(k)] = BatchItemResult.success(chunk.get(k), entities.get(k).getId(), Status.CREATED);
+                }
+            } catch (DataAccessException | TransactionException ex) {
+                markFailed(results, chunk, index -> null, ex);
+            }
+        }
+        return new BatchResult(Arrays.asList(results));
+    }
+
+    /**
+     * Cập nhật sản phẩm hàng loạt
+     * Mỗi chunk load các entity bằng 1 câu SELECT ... IN, cập nhật field rồi để Hibernate
+     * flush các câu UPDATE theo JDBC batch (hibernate.jdbc.batch_size) khi commit
+     */
+    @Override
+    public BatchResult updateProducts(List<ProductDTO> dtos) {
+        checkSize(dtos.size());
+        BatchItemResult[] results = new BatchItemResult[dtos.size()];
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            ProductDTO dto = dtos.get(i);
+            List<String> errors = validate(dto);
+            if (dto != null && dto.getId() <= 0) {
+                errors.add("id: Product id is required");
+            }
+            if (errors.isEmpty()) {
+                valid.add(i);
+            } else {
+                results[i] = BatchItemResult.failure(i, dto == null ? null : dto.getId(), Status.INVALID, errors);
+            }
+        }
+
+        for (List<Integer> chunk : chunks(valid)) {
+            try {
+                BatchItemResult[] chunkResults = transactionTemplate.execute(status -> {
+                    Set<Integer> ids = new HashSet<>();
+                    for (int index : chunk) {
+                        ids.add(dtos.get(index).getId());
+                    }
+                    Map<Integer, Product> existing = new HashMap<>();
+                    for (Product p : productRepository.findAllById(ids)) {
+                        existing.put(p.getId(), p);
+                    }
+                    BatchItemResult[] out = new BatchItemResult[chunk.size()];
+                    List<Product> updated = new ArrayList<>(chunk.size());
+                    List<ProductDTO> previous = new ArrayList<>(chunk.size());
+                    for (int k = 0; k < chunk.size(); k++) {
+                        int index = chunk.get(k);
+                        ProductDTO dto = dtos.get(index);
+                        Product p = existing.get(dto.getId());
+                        if (p == null) {
+                            out[k] = BatchItemResult.failure(index, dto.getId(), Status.NOT_FOUND,
+                                    List.of("Product not found with id: " + dto.getId()));
+                            continue;
+                        }
+                        if (dto.getVersion() != null && dto.getVersion() != p.getVersion()) {
+                            out[k] = BatchItemResult.failure(index, dto.getId(), Status.CONFLICT,
+                                    List.of(staleVersionMessage(p)));
+                            continue;
+                        }
+                        previous.add(toDTO(p));
+                        p.setName(dto.getName());
+                        p.setDescription(dto.getDescription());
+                        p.setPrice(dto.getPrice());
+                        p.setQuantity(dto.getQuantity() != null ? dto.getQuantity() : 0);
+                        p.setCategory(dto.getCategory());
+                        updated.add(p);
+                        out[k] = BatchItemResult.success(index, p.getId(), Status.UPDATED);
+                    }
+                    // Flush trước khi publish event để payload mang version mới
+                    productRepository.flush();
+                    for (int k = 0; k < updated.size(); k++) {
+                        eventPublisher.publishEvent(ProductChangedEvent.updated(previous.get(k), toDTO(updated.get(k))));
+                    }
+                    return out;
+                });
+                for (int k = 0; k < chunk.size(); k++) {
+                    results[chunk.get(k)] = chunkResults[k];
+                    if (chunkResults[k].isSuccess()) {
+                        productCache.evict(chunkResults[k].getId());
+                    }
+                }
+            } catch (DataAccessException | TransactionException ex) {
+                markFailed(results, chunk, index -> dtos.get(index).getId(), ex);
+            }
+        }
+        return new BatchResult(Arrays.asList(results));
+    }
+
+    /**
+     * Xóa sản phẩm hàng loạt
+     * Mỗi chunk chỉ tốn 2 câu SQL: SELECT ... IN để biết id nào tồn tại (kèm trạng thái cũ cho event xóa),
+     * DELETE ... WHERE id IN
+     */
+    @Override
+    public BatchResult deleteProducts(List<Integer> ids) {
+        checkSize(ids.size());
+        BatchItemResult[] results = new BatchItemResult[ids.size()];
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) == null || ids.get(i) <= 0) {
+                results[i] = BatchItemResult.failure(i, ids.get(i), Status.INVALID, List.of("id: Product id is required"));
+            } else {
+                valid.add(i);
+            }
+        }
+
+        for (List<Integer> chunk : chunks(valid)) {
+            List<Integer> chunkIds = new ArrayList<>(chunk.size());
+            for (int index : chunk) {
+                chunkIds.add(ids.get(index));
+            }
+            try {
+                Set<Integer> deleted = transactionTemplate.execute(status -> {
+                    List<ProductDTO> existing = new ArrayList<>(chunkIds.size());
+                    for (Product p : productRepository.findAllById(chunkIds)) {
+                        existing.add(toDTO(p));
+                    }
+                    Set<Integer> existingIds = new HashSet<>();
+                    for (ProductDTO p : existing) {
+                        existingIds.add(p.getId());
+                    }
+                    if (!existingIds.isEmpty()) {
+                        productRepository.deleteAllByIds(existingIds);
+                    }
+                    for (ProductDTO p : existing) {
+                        eventPublisher.publishEvent(ProductChangedEvent.deleted(p));
+                    }
+                    return existingIds;
+                });
+                for (int id : deleted) {
+                    productCache.evict(id);
+                }
+                for (int index : chunk) {
+                    int id = ids.get(index);
+                    results[index] = deleted.contains(id)
+                            ? BatchItemResult.success(index, id, Status.DELETED)
+                            : BatchItemResult.failure(index, id, Status.NOT_FOUND, List.of("Product not found with id: " + id));
+                }
+            } catch (DataAccessException | TransactionException ex) {
+                markFailed(results, chunk, ids::get, ex);
+            }
+        }
+        return new BatchResult(Arrays.asList(results));
+    }
+
+    /**
+     * Kiểm tra số phần tử của request không vượt quá giới hạn
+     * @throws BatchLimitExceededException nếu vượt quá maxItems
+     */
+    private void checkSize(int size) {
+        if (size > maxItems) {
+            throw new BatchLimitExceededException("Batch size " + size + " exceeds the limit of " + maxItems + " items");
+        }
+    }
+
+    /**
+     * Validate 1 ProductDTO bằng Bean Validation
+     * @return danh sách lỗi dạng "field: message" (rỗng nếu hợp lệ)
+     */
+    private List<String> validate(ProductDTO dto) {
+        List<String> errors = new ArrayList<>();
+        if (dto == null) {
+            errors.add("Product is required");
+            return errors;
+        }
+        for (ConstraintViolation<ProductDTO> violation : validator.validate(dto)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        return errors;
+    }
+
+    /**
+     * Thông báo lỗi khi client gửi version đã cũ
+     */
+    private static String staleVersionMessage(Product p) {
+        return "Product " + p.getId() + " was modified concurrently (current version " + p.getVersion() + ")";
+    }
+
+    /**
+     * Chia danh sách index thành các chunk có kích thước tối đa chunkSize
+     */
+    private List<List<Integer>> chunks(List<Integer> indexes) {
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < indexes.size(); from += chunkSize) {
+            chunks.add(indexes.subList(from, Math.min(from + chunkSize, indexes.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Đánh dấu FAILED cho toàn bộ phần tử của 1 chunk bị rollback
+     */
+    private void markFailed(BatchItemResult[] results, List<Integer> chunk, IntFunction<Integer> idOf, NestedRuntimeException ex) {
+        String message = ex.getMostSpecificCause().getMessage();
+        for (int index : chunk) {
+            results[index] = BatchItemResult.failure(index, idOf.apply(index), Status.FAILED, List.of(message));
+        }
+    }
+
+    /**
+     * Helper method: Convert ProductDTO thành Product entity (quantity mặc định là 0)
+     */
+    private Product toEntity(ProductDTO dto) {
+        return Product.builder()
+            .name(dto.getName())
+            .description(dto.getDescription())
+            .price(dto.getPrice())
+            .quantity(dto.getQuantity() != null ? dto.getQuantity() : 0)
+            .category(dto.getCategory())
+            .build();
+    }
+
+    /**
+     * Helper method: Convert Product entity thành ProductDTO (payload của ProductChangedEvent)
+     */
+    private ProductDTO toDTO(Product p) {
+        return ProductDTO.builder()
+            .id(p.getId())
+            .name(p.getName())
+            .description(p.getDescription())
+            .price(p.getPrice())
+            .quantity(p.getQuantity())
+            .category(p.getCategory())
+            .version(p.getVersion())
+            .updatedAt(p.getUpdatedAt())
+            .build();
+    }
+}
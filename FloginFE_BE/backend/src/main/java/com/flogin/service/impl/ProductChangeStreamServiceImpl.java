@@ -0,0 +1,37 @@
+package com.flogin.service.impl;
+
+import com.flogin.event.ProductChangeFeed;
+import com.flogin.event.ProductChangedEvent;
+import com.flogin.service.ProductChangeStreamService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Implementation của ProductChangeStreamService
+ * Nhận ProductChangedEvent (ProductServiceImpl, ProductBatchServiceImpl) sau khi transaction ghi commit
+ * và phát qua ProductChangeFeed; subscriber không bao giờ thấy thay đổi của transaction bị rollback
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ProductChangeStreamServiceImpl implements ProductChangeStreamService {
+
+    private final ProductChangeFeed feed;
+
+    public ProductChangeStreamServiceImpl(ProductChangeFeed feed) {
+        this.feed = feed;
+    }
+
+    @Override
+    public ProductChangeFeed.Subscription subscribe(ProductChangeFeed.Sink sink, String lastEventId) {
+        return feed.subscribe(sink, lastEventId);
+    }
+
+    /**
+     * fallbackExecution: vẫn phát nếu event được publish ngoài transaction
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        feed.publish(event);
+    }
+}
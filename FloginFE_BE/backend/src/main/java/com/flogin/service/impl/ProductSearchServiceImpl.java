@@ -0,0 +1,79 @@
+package com.flogin.service.impl;
+
+import com.flogin.dto.ProductDTO;
+import com.flogin.dto.ProductSearchHits;
+import com.flogin.event.ProductChangedEvent;
+import com.flogin.search.ProductSearchIndex;
+import com.flogin.search.SearchResult;
+import com.flogin.service.ProductSearchService;
+import com.flogin.service.ProductService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Implementation của ProductSearchService
+ *
+ * - Index được dựng lúc khởi động (ApplicationReadyEvent) bằng 1 lần quét stream toàn bảng (exportProducts)
+ * - Sau đó cập nhật incremental từ ProductChangedEvent, chỉ sau khi transaction ghi commit
+ * - Index chỉ trả về id; dữ liệu của cả trang lấy bằng 1 câu truy vấn (ProductService.getProductsByIds)
+ */
+@Service
+public class ProductSearchServiceImpl implements ProductSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchServiceImpl.class);
+
+    private final ProductService productService;
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    public ProductSearchServiceImpl(ProductService productService) {
+        this.productService = productService;
+    }
+
+    @Override
+    public ProductSearchHits search(String query, int offset, int limit) {
+        int size = Math.max(1, Math.min(limit, ProductService.MAX_PAGE_SIZE));
+        int from = Math.max(0, Math.min(offset, MAX_OFFSET));
+        SearchResult result = index.search(query, from, size);
+        // Sản phẩm vừa bị xóa mà event xóa chưa kịp áp dụng vào index thì không có trong kết quả
+        List<ProductDTO> items = productService.getProductsByIds(result.getProductIds());
+        return new ProductSearchHits(items, result.getTotal(), result.isTruncated());
+    }
+
+    @Override
+    public void rebuildIndex() {
+        long start = System.nanoTime();
+        index.rebuild(productService::exportProducts);
+        log.info("Product search index rebuilt: {} products in {} ms",
+                index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Dựng index lần đầu khi ứng dụng đã sẵn sàng
+     * Chạy bất đồng bộ để không giữ main thread; thay đổi xảy ra trong lúc dựng được index áp dụng lại
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildIndex();
+    }
+
+    /**
+     * Áp dụng thay đổi của 1 sản phẩm vào index sau khi transaction commit
+     * fallbackExecution: vẫn xử lý nếu event được publish ngoài transaction
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            index.remove(event.getProductId());
+        } else {
+            index.upsert(event.getProduct());
+        }
+    }
+}
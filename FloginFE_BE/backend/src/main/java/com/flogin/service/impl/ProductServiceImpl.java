@@ -1,14 +1,43 @@
 package com.flogin.service.impl;
 
+import com.flogin.catalog.CatalogSnapshot;
+import com.flogin.config.CacheConfig;
+import com.flogin.dto.ProductChanges;
 import com.flogin.dto.ProductDTO;
+import com.flogin.dto.ProductPage;
+import com.flogin.dto.ProductSearchCriteria;
+import com.flogin.dto.ResourceVersion;
+import com.flogin.event.ProductChangedEvent;
+import com.flogin.exception.ConflictException;
 import com.flogin.model.Product;
+import com.flogin.model.ProductTombstone;
 import com.flogin.repository.ProductRepository;
+import com.flogin.repository.ProductSpecifications;
+import com.flogin.repository.ProductTombstoneRepository;
 import com.flogin.service.ProductService;
+import com.flogin.service.ProductSnapshotService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation của ProductService interface
@@ -26,22 +55,60 @@ public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
 
     /**
-     * Constructor injection cho ProductRepository
-     * Spring tự động inject ProductRepository bean
+     * Publish ProductChangedEvent cho các thành phần cần theo dõi thay đổi (search index, ...)
      */
-    public ProductServiceImpl(ProductRepository productRepository) {
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Đọc phiên bản chung của danh mục (ETag của API danh sách, API đồng bộ thay đổi)
+     */
+    private final CatalogVersionTracker catalogVersionTracker;
+
+    /**
+     * Đọc tombstone của sản phẩm đã xóa (API đồng bộ thay đổi)
+     */
+    private final ProductTombstoneRepository tombstoneRepository;
+
+    /**
+     * Snapshot in-memory của danh mục, trả lời API danh sách / lọc không qua database
+     * null khi tắt (app.products.snapshot.enabled=false) hoặc chạy stack reactive
+     */
+    private final ProductSnapshotService snapshotService;
+
+    /**
+     * EntityManager dùng để detach entity khi stream export,
+     * tránh persistence context phình to theo số dòng của bảng
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Constructor injection cho ProductRepository, ApplicationEventPublisher, CatalogVersionTracker,
+     * ProductTombstoneRepository và ProductSnapshotService (không bắt buộc)
+     * Spring tự động inject các bean này
+     */
+    public ProductServiceImpl(ProductRepository productRepository, ApplicationEventPublisher eventPublisher,
+                              CatalogVersionTracker catalogVersionTracker,
+                              ProductTombstoneRepository tombstoneRepository,
+                              @Nullable ProductSnapshotService snapshotService) {
         this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersionTracker = catalogVersionTracker;
+        this.tombstoneRepository = tombstoneRepository;
+        this.snapshotService = snapshotService;
     }
 
     /**
      * Tạo sản phẩm mới
      * @Transactional: Đảm bảo operation này chạy trong transaction
+     * @CachePut: Đưa sản phẩm vừa tạo vào cache (sau khi commit)
      * 
      * @param dto ProductDTO chứa thông tin sản phẩm
      * @return ProductDTO của sản phẩm vừa tạo (có ID)
      */
     @Override
     @Transactional
+    @CachePut(cacheNames = CacheConfig.PRODUCTS, key = "#result.id")
     public ProductDTO createProduct(ProductDTO dto) {
         // Chuyển DTO thành Entity
         Product product = Product.builder()
@@ -52,30 +119,71 @@ public class ProductServiceImpl implements ProductService {
             .category(dto.getCategory())
             .build();
         // Save vào database và chuyển kết quả thành DTO
-        return toDTO(productRepository.save(product));
+        ProductDTO created = toDTO(productRepository.save(product));
+        eventPublisher.publishEvent(ProductChangedEvent.created(created));
+        return created;
     }
 
     /**
-     * Lấy danh sách tất cả sản phẩm
+     * Lấy 1 trang sản phẩm theo keyset pagination trên id
+     * Có snapshot thì đọc từ snapshot (tìm nhị phân vị trí afterId), không truy vấn database;
+     * không có thì chỉ đọc tối đa limit + 1 dòng (dòng dư dùng để biết còn trang sau hay không),
+     * nên chi phí không tăng khi client đọc các trang sâu hơn
+     * @Transactional(readOnly = true, SUPPORTS): không mở transaction (không lấy connection) khi đọc snapshot,
+     *   câu đọc database vẫn chạy trên read replica khi bật định tuyến đọc / ghi
      * 
-     * @return List<ProductDTO> chứa tất cả products
+     * @param afterId Chỉ lấy các sản phẩm có id > afterId (0 = trang đầu tiên)
+     * @param limit Kích thước trang, được giới hạn trong khoảng [1, MAX_PAGE_SIZE]
+     * @return ProductPage chứa danh sách sản phẩm và cursor cho trang kế tiếp
      */
     @Override
-    public List<ProductDTO> getAllProducts() {
-        // Lấy tất cả products từ DB, convert mỗi Product thành ProductDTO
-        return productRepository.findAll()
-                .stream().map(this::toDTO)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public ProductPage getProducts(int afterId, int limit) {
+        int size = pageSize(limit);
+        CatalogSnapshot snapshot = snapshot();
+        if (snapshot != null) {
+            return snapshot.getProducts(Math.max(afterId, 0), size);
+        }
+        List<Product> rows = productRepository.findByIdGreaterThanOrderByIdAsc(
+                Math.max(afterId, 0), Limit.of(size + 1));
+        return toPage(rows, size);
+    }
+
+    /**
+     * Tìm kiếm sản phẩm theo tên (tiền tố), danh mục, khoảng giá và tình trạng tồn kho
+     * Các điều kiện được build thành WHERE dùng được index (xem ProductSpecifications),
+     * kết quả phân trang theo keyset trên id giống getProducts
+     * Có snapshot thì lọc trên các cột của snapshot, không truy vấn database
+     * 
+     * @param criteria Điều kiện tìm kiếm và thông tin phân trang
+     * @return ProductPage chứa danh sách sản phẩm và cursor cho trang kế tiếp
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public ProductPage searchProducts(ProductSearchCriteria criteria) {
+        int size = pageSize(criteria.getLimit());
+        CatalogSnapshot snapshot = snapshot();
+        if (snapshot != null) {
+            return snapshot.searchProducts(criteria, size);
+        }
+        List<Product> rows = productRepository.findBy(
+                ProductSpecifications.matching(criteria),
+                query -> query.sortBy(Sort.by("id")).limit(size + 1).all());
+        return toPage(rows, size);
     }
 
     /**
      * Lấy thông tin chi tiết 1 sản phẩm theo ID
+     * @Cacheable: Read-through cache theo id, chỉ query database khi cache miss
+     * @Transactional(readOnly = true): cache miss được đọc từ read replica khi bật định tuyến đọc / ghi
      * 
      * @param id ID của sản phẩm cần lấy
      * @return ProductDTO của sản phẩm
      * @throws RuntimeException nếu không tìm thấy product
      */
     @Override
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    @Transactional(readOnly = true)
     public ProductDTO getProductById(int id) {
         // findById trả về Optional<Product>
         // orElseThrow: throw exception nếu không tìm thấy
@@ -84,47 +192,323 @@ public class ProductServiceImpl implements ProductService {
         return toDTO(p);
     }
 
+    /**
+     * Lấy nhiều sản phẩm theo ID bằng 1 câu truy vấn (WHERE id IN (...)), giữ thứ tự của ids
+     * Id không còn tồn tại (vừa bị xóa) bị bỏ qua
+     * @Transactional(readOnly = true): đọc từ read replica khi bật định tuyến đọc / ghi
+     * 
+     * @param ids Danh sách ID cần lấy (tối đa 1 trang)
+     * @return Danh sách ProductDTO theo thứ tự của ids
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductDTO> getProductsByIds(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, ProductDTO> found = new HashMap<>();
+        for (Product p : productRepository.findAllById(ids)) {
+            found.put(p.getId(), toDTO(p));
+        }
+        List<ProductDTO> items = new ArrayList<>(found.size());
+        for (int id : ids) {
+            ProductDTO dto = found.get(id);
+            if (dto != null) {
+                items.add(dto);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Lấy version và thời điểm cập nhật của 1 sản phẩm bằng 1 lần tra PK (không load entity, không qua cache)
+     * Dùng để trả lời If-None-Match / If-Modified-Since mà không cần build ProductDTO
+     * 
+     * @param id ID của sản phẩm
+     * @return ResourceVersion của sản phẩm
+     * @throws ResourceNotFoundException nếu không tìm thấy product
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ResourceVersion getProductVersion(int id) {
+        return productRepository.findVersionById(id)
+            .orElseThrow(() -> new com.flogin.exception.ResourceNotFoundException("Product not found with id: " + id));
+    }
+
+    /**
+     * Lấy phiên bản chung của danh mục sản phẩm (tăng mỗi khi có sản phẩm được tạo / sửa / xóa)
+     * Có snapshot thì trả về version của snapshot: getProducts đọc cùng snapshot (hoặc snapshot mới hơn)
+     * nên body không bao giờ cũ hơn ETag
+     * Database mới chưa có dòng catalog_version thì coi như version 0
+     */
+    @Override
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public ResourceVersion getCatalogVersion() {
+        CatalogSnapshot snapshot = snapshot();
+        if (snapshot != null) {
+            return new ResourceVersion(snapshot.getVersion(), snapshot.getUpdatedAt());
+        }
+        return databaseCatalogVersion();
+    }
+
+    /**
+     * Lấy các thay đổi (tạo / sửa / xóa) sau change sequence since, tối đa limit thay đổi
+     * Chỉ đọc thay đổi tới phiên bản danh mục V: mọi sequence <= V đã commit, nên since trả về không bao giờ
+     * vượt qua 1 thay đổi commit muộn; mỗi sản phẩm chỉ xuất hiện 1 lần với trạng thái mới nhất.
+     * Các thay đổi cùng 1 transaction (cùng sequence) không bị chia ra 2 trang, vì since của trang sau
+     * phải bỏ qua trọn sequence đó.
+     * @Transactional(readOnly = true): version và 2 câu đọc thay đổi chạy trên cùng 1 connection
+     *
+     * @param since sequence client đã đồng bộ tới (0 = lần đầu, nhận toàn bộ danh mục)
+     * @param limit số thay đổi tối đa, được giới hạn trong khoảng [1, MAX_PAGE_SIZE]
+     * @return ProductChanges kèm since cho lần gọi sau
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public ProductChanges getChanges(long since, int limit) {
+        int size = pageSize(limit);
+        long from = Math.max(since, 0);
+        // Đọc version trước: mọi thay đổi có sequence <= version đã commit và sẽ có trong 2 câu đọc sau
+        long current = databaseCatalogVersion().getVersion();
+        List<Product> rows = productRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAscIdAsc(
+                from, current, Limit.of(size + 1));
+        List<ProductTombstone> tombstones = tombstoneRepository
+                .findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAscProductIdAsc(from, current, Limit.of(size + 1));
+
+        // Trộn 2 danh sách theo sequence, lấy tối đa size + 1 thay đổi đầu tiên
+        int r = 0;
+        int t = 0;
+        int taken = 0;
+        while (taken < size + 1 && (r < rows.size() || t < tombstones.size())) {
+            if (t >= tombstones.size()
+                    || (r < rows.size() && rows.get(r).getChangeSeq() <= tombstones.get(t).getChangeSeq())) {
+                r++;
+            } else {
+                t++;
+            }
+            taken++;
+        }
+        if (taken <= size) {
+            long last = Math.max(r > 0 ? rows.get(r - 1).getChangeSeq() : 0,
+                    t > 0 ? tombstones.get(t - 1).getChangeSeq() : 0);
+            return changes(rows.subList(0, r), tombstones.subList(0, t), Math.max(from, Math.max(current, last)), false);
+        }
+
+        // Thay đổi thứ size + 1 có sequence boundary: bỏ mọi thay đổi cùng sequence khỏi trang này
+        long boundary = r > 0 && (t == 0 || rows.get(r - 1).getChangeSeq() >= tombstones.get(t - 1).getChangeSeq())
+                ? rows.get(r - 1).getChangeSeq()
+                : tombstones.get(t - 1).getChangeSeq();
+        while (r > 0 && rows.get(r - 1).getChangeSeq() == boundary) {
+            r--;
+        }
+        while (t > 0 && tombstones.get(t - 1).getChangeSeq() == boundary) {
+            t--;
+        }
+        if (r == 0 && t == 0) {
+            // 1 transaction ghi nhiều hơn limit sản phẩm: trả trọn transaction đó
+            return changes(productRepository.findByChangeSeqOrderByIdAsc(boundary),
+                    tombstoneRepository.findByChangeSeqOrderByProductIdAsc(boundary), boundary, true);
+        }
+        long last = Math.max(r > 0 ? rows.get(r - 1).getChangeSeq() : 0,
+                t > 0 ? tombstones.get(t - 1).getChangeSeq() : 0);
+        return changes(rows.subList(0, r), tombstones.subList(0, t), last, true);
+    }
+
     /**
      * Cập nhật thông tin sản phẩm
      * @Transactional: Đảm bảo update chạy trong transaction
+     * @CacheEvict: Xóa phần tử khỏi cache (sau khi commit), lần đọc sau nạp lại từ database; không dùng @CachePut
+     *             vì put sau commit có thể chạy sau evict của adjustStock commit sau nó và giữ lại tồn kho cũ
      * 
      * @param id ID của sản phẩm cần update
+     * Nếu dto có version mà khác version hiện tại (sản phẩm đã bị sửa sau khi client đọc) thì từ chối;
+     * 2 request cập nhật cùng lúc thì request commit sau bị lỗi optimistic lock (@Version)
+     * 
      * @param dto ProductDTO chứa thông tin mới
-     * @return ProductDTO đã được update
+     * @return ProductDTO đã được update (version mới)
      * @throws RuntimeException nếu không tìm thấy product
+     * @throws ConflictException nếu version của client đã cũ
      */
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
     public ProductDTO updateProduct(int id, ProductDTO dto) {
         // Tìm product theo ID
         Product p = productRepository.findById(id)
             .orElseThrow(() -> new com.flogin.exception.ResourceNotFoundException("Product not found with id: " + id));
+        if (dto.getVersion() != null && dto.getVersion() != p.getVersion()) {
+            throw new ConflictException("Product " + id + " was modified concurrently (current version " + p.getVersion() + ")");
+        }
+        ProductDTO previous = toDTO(p);
         // Update các fields
         p.setName(dto.getName());
         p.setDescription(dto.getDescription());
         p.setPrice(dto.getPrice());
         p.setQuantity(dto.getQuantity());
         p.setCategory(dto.getCategory());
-        // Save và return DTO
-        return toDTO(productRepository.save(p));
+        // Flush ngay để có version mới trong response
+        ProductDTO updated = toDTO(productRepository.saveAndFlush(p));
+        eventPublisher.publishEvent(ProductChangedEvent.updated(previous, updated));
+        return updated;
+    }
+
+    /**
+     * Cập nhật 1 phần sản phẩm (JSON Merge Patch)
+     * Patch được áp dụng lên trạng thái hiện tại; nhờ @DynamicUpdate câu UPDATE chỉ chứa các cột đổi giá trị,
+     * không có cột nào đổi thì không có câu UPDATE
+     * @Transactional: đọc, áp dụng patch và ghi trong cùng transaction
+     * @CacheEvict: Xóa phần tử khỏi cache (sau khi commit), cùng lý do với updateProduct
+     * 
+     * @param id ID của sản phẩm
+     * @param patch Hàm nhận ProductDTO hiện tại và trả về ProductDTO mới (id luôn giữ nguyên)
+     * @return ProductDTO sau khi cập nhật
+     * @throws ResourceNotFoundException nếu không tìm thấy product
+     * @throws ConflictException nếu patch có version khác version hiện tại
+     */
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    public ProductDTO patchProduct(int id, UnaryOperator<ProductDTO> patch) {
+        Product p = productRepository.findById(id)
+            .orElseThrow(() -> new com.flogin.exception.ResourceNotFoundException("Product not found with id: " + id));
+        ProductDTO previous = toDTO(p);
+        ProductDTO dto = patch.apply(toDTO(p));
+        if (dto.getVersion() != null && dto.getVersion() != p.getVersion()) {
+            throw new ConflictException("Product " + id + " was modified concurrently (current version " + p.getVersion() + ")");
+        }
+        p.setName(dto.getName());
+        p.setDescription(dto.getDescription());
+        p.setPrice(dto.getPrice());
+        p.setQuantity(dto.getQuantity());
+        p.setCategory(dto.getCategory());
+        ProductDTO updated = toDTO(productRepository.saveAndFlush(p));
+        eventPublisher.publishEvent(ProductChangedEvent.updated(previous, updated));
+        return updated;
+    }
+
+    /**
+     * Điều chỉnh tồn kho theo delta bằng 1 câu UPDATE có điều kiện (ProductRepository.adjustQuantity)
+     * Không đọc - sửa - ghi entity, nên nhiều request đồng thời trên cùng sản phẩm không ghi đè nhau;
+     * sau khi cập nhật đọc lại dòng để trả về số lượng và version mới
+     * @Transactional: UPDATE và câu đọc lại chạy trong cùng transaction
+     * @CacheEvict: Xóa phần tử khỏi cache (sau khi commit); không dùng @CachePut vì với nhiều request
+     *             đồng thời trên cùng sản phẩm, thứ tự put sau commit không đảm bảo và cache có thể giữ số lượng cũ
+     * 
+     * @param id ID của sản phẩm
+     * @param delta Số lượng cộng thêm (âm để trừ)
+     * @return ProductDTO sau khi điều chỉnh
+     * @throws ResourceNotFoundException nếu không tìm thấy product
+     * @throws ConflictException nếu tồn kho không đủ để trừ
+     */
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+    public ProductDTO adjustStock(int id, int delta) {
+        int updatedRows = productRepository.adjustQuantity(id, delta, Instant.now());
+        Product p = productRepository.findById(id)
+            .orElseThrow(() -> new com.flogin.exception.ResourceNotFoundException("Product not found with id: " + id));
+        if (updatedRows == 0) {
+            throw new ConflictException("Insufficient stock for product " + id
+                    + ": available " + p.getQuantity() + ", requested " + (-delta));
+        }
+        ProductDTO updated = toDTO(p);
+        // Trạng thái trước chỉ khác ở số lượng
+        ProductDTO previous = toDTO(p);
+        previous.setQuantity(p.getQuantity() - delta);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(previous, updated));
+        return updated;
     }
 
     /**
      * Xóa sản phẩm theo ID
      * @Transactional: Đảm bảo delete chạy trong transaction
+     * @CacheEvict: Xóa phần tử khỏi cache (sau khi commit)
      * 
      * @param id ID của sản phẩm cần xóa
      * @throws RuntimeException nếu không tìm thấy product
      */
     @Override
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id")
     public void deleteProduct(int id) {
-        // Kiểm tra product có tồn tại không
-        if (!productRepository.existsById(id)) {
-            throw new com.flogin.exception.ResourceNotFoundException("Product not found with id: " + id);
-        }
+        // Tìm product (deleteById cũng load entity trước khi xóa), trạng thái cũ đi kèm event xóa
+        Product p = productRepository.findById(id)
+            .orElseThrow(() -> new com.flogin.exception.ResourceNotFoundException("Product not found with id: " + id));
         // Xóa product
-        productRepository.deleteById(id);
+        productRepository.delete(p);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(toDTO(p)));
+    }
+
+    /**
+     * Duyệt toàn bộ sản phẩm theo id tăng dần và đẩy từng ProductDTO cho sink
+     * Dữ liệu được đọc dạng stream (forward-only, fetch size giới hạn) và mỗi entity
+     * được detach ngay sau khi convert, nên bộ nhớ sử dụng không phụ thuộc kích thước bảng
+     * @Transactional(readOnly = true): Stream cần transaction mở trong suốt quá trình duyệt
+     * 
+     * @param sink Consumer nhận lần lượt từng ProductDTO
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void exportProducts(Consumer<ProductDTO> sink) {
+        try (Stream<Product> rows = productRepository.streamAllOrderById()) {
+            rows.forEach(p -> {
+                ProductDTO dto = toDTO(p);
+                entityManager.detach(p);
+                sink.accept(dto);
+            });
+        }
+    }
+
+    /**
+     * Helper method: Snapshot dùng để đọc, null nếu không có snapshot, transaction hiện tại
+     * đã ghi sản phẩm chưa commit, hoặc client vừa ghi thay đổi snapshot chưa chứa
+     * (phải đọc database để thấy chính thay đổi đó)
+     */
+    private CatalogSnapshot snapshot() {
+        if (snapshotService == null || CatalogVersionTracker.hasPendingChanges()) {
+            return null;
+        }
+        return snapshotService.readable();
+    }
+
+    /**
+     * Helper method: Phiên bản danh mục đọc từ database
+     */
+    private ResourceVersion databaseCatalogVersion() {
+        return catalogVersionTracker.currentVersion();
+    }
+
+    /**
+     * Helper method: Giới hạn kích thước trang trong khoảng [1, MAX_PAGE_SIZE]
+     */
+    private int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Helper method: Build ProductChanges từ các dòng thay đổi và tombstone
+     */
+    private ProductChanges changes(List<Product> rows, List<ProductTombstone> tombstones, long since, boolean hasMore) {
+        List<ProductDTO> items = rows.stream().map(this::toDTO).collect(Collectors.toList());
+        List<Integer> deleted = new ArrayList<>(tombstones.size());
+        for (ProductTombstone tombstone : tombstones) {
+            deleted.add(tombstone.getProductId());
+        }
+        return new ProductChanges(items, deleted, since, hasMore);
+    }
+
+    /**
+     * Helper method: Build ProductPage từ tối đa size + 1 dòng đã đọc
+     * Dòng dư (nếu có) chỉ dùng để biết còn trang sau, không trả về cho client
+     */
+    private ProductPage toPage(List<Product> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<ProductDTO> items = rows.stream()
+                .limit(size)
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+        Integer nextCursor = hasNext ? items.get(items.size() - 1).getId() : null;
+        return new ProductPage(items, nextCursor);
     }
 
     /**
@@ -142,6 +526,8 @@ public class ProductServiceImpl implements ProductService {
             .price(p.getPrice())
             .quantity(p.getQuantity())
             .category(p.getCategory())
+            .version(p.getVersion())
+            .updatedAt(p.getUpdatedAt())
             .build();
     }
 }
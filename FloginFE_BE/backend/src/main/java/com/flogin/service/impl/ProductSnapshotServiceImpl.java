@@ -0,0 +1,313 @@
+package com.flogin.service.impl;
+
+import com.flogin.catalog.CatalogSnapshot;
+import com.flogin.dto.ProductDTO;
+import com.flogin.dto.ResourceVersion;
+import com.flogin.event.ProductChangedEvent;
+import com.flogin.model.Product;
+import com.flogin.model.ProductTombstone;
+import com.flogin.repository.ProductRepository;
+import com.flogin.repository.ProductTombstoneRepository;
+import com.flogin.security.ClientKey;
+import com.flogin.service.ProductSnapshotService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Implementation của ProductSnapshotService
+ *
+ * - Dựng toàn bộ snapshot lúc khởi động (ApplicationReadyEvent): đọc CatalogVersion V rồi stream bảng theo id,
+ *   trong cùng 1 transaction read-only (chạy được trên replica); snapshot chứa mọi thay đổi tới V
+ * - Refresh: đọc phiên bản danh mục V trên primary rồi áp dụng các dòng / tombstone có change_seq trong
+ *   (version của snapshot, V] (index change_seq), sinh snapshot mới copy-on-write. Chỉ chạy trên thread refresh riêng:
+ *   mỗi app.products.snapshot.refresh-interval (thay đổi từ instance khác, stack reactive) và khi được đánh thức
+ *   sau commit của transaction ghi sản phẩm (nhiều lần đánh thức liên tiếp gộp thành 1 lần refresh)
+ * - Request ghi không tự refresh và không chờ: sau commit chỉ đánh thức thread refresh và ghi nhớ change sequence
+ *   của client (ClientKey). Tới khi snapshot đạt sequence đó, readable() trả null cho client này nên các lần đọc
+ *   của nó đi database (đọc lại được ngay thay đổi của mình); nhớ tối đa app.products.snapshot.read-your-writes-window
+ *   (đang dựng lại toàn bộ lâu hơn thì sau đó đọc snapshot, thay đổi xuất hiện ở lần refresh kế tiếp)
+ * - Refresh / dựng lại giữ ReentrantLock thay vì synchronized: I/O JDBC bên trong không pin carrier thread
+ *   của virtual thread (profile vthreads)
+ * - Quá MAX_CATCH_UP thay đổi hoặc version của database lùi lại (khôi phục dữ liệu) thì dựng lại toàn bộ
+ * - Dòng INSERT ngoài ứng dụng (change_seq = 0) chỉ được thấy sau khi CatalogVersionTracker gán sequence
+ *   lúc khởi động hoặc sau lần dựng lại kế tiếp
+ * - Metrics: flogin.products.snapshot.rows, flogin.products.snapshot.bytes (ước lượng heap của snapshot)
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "app.products.snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductSnapshotServiceImpl implements ProductSnapshotService, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSnapshotServiceImpl.class);
+
+    /** Số thay đổi tối đa áp dụng incremental trong 1 lần refresh, nhiều hơn thì dựng lại toàn bộ */
+    static final int MAX_CATCH_UP = 10_000;
+
+    private final ProductRepository productRepository;
+    private final ProductTombstoneRepository tombstoneRepository;
+    private final CatalogVersionTracker catalogVersionTracker;
+    private final TransactionTemplate loadTemplate;
+    private final TransactionTemplate refreshTemplate;
+    private final Duration refreshInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-snapshot-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * EntityManager dùng để detach entity khi stream toàn bảng
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile CatalogSnapshot snapshot;
+
+    /** Giữ trong suốt refresh / dựng lại: chỉ 1 lần áp dụng thay đổi tại 1 thời điểm */
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    /** Đã có 1 lần refresh được đánh thức đang chờ thread refresh: các lần đánh thức sau không xếp thêm tác vụ */
+    private final AtomicBoolean refreshRequested = new AtomicBoolean();
+
+    /** Change sequence lớn nhất mỗi client vừa ghi, hết hạn sau read-your-writes-window */
+    private final Cache<String, Long> pendingWrites;
+
+    public ProductSnapshotServiceImpl(ProductRepository productRepository,
+                                      ProductTombstoneRepository tombstoneRepository,
+                                      CatalogVersionTracker catalogVersionTracker,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${app.products.snapshot.refresh-interval:1s}") Duration refreshInterval,
+                                      @Value("${app.products.snapshot.read-your-writes-window:5s}") Duration readYourWritesWindow) {
+        this.productRepository = productRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.catalogVersionTracker = catalogVersionTracker;
+        this.loadTemplate = new TransactionTemplate(transactionManager);
+        this.loadTemplate.setReadOnly(true);
+        // Refresh đọc version mới nhất: transaction riêng trên primary, kể cả khi refresh() được gọi trong transaction khác
+        this.refreshTemplate = new TransactionTemplate(transactionManager);
+        this.refreshTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refreshInterval = refreshInterval;
+        this.pendingWrites = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .maximumSize(100_000)
+                .build();
+
+        Gauge.builder("flogin.products.snapshot.rows", this, s -> s.snapshot != null ? s.snapshot.size() : 0)
+                .description("Products held in the in-memory catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("flogin.products.snapshot.bytes", this, s -> s.snapshot != null ? s.snapshot.estimatedBytes() : 0)
+                .description("Estimated heap used by the in-memory catalog snapshot")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public CatalogSnapshot current() {
+        return snapshot;
+    }
+
+    @Override
+    public CatalogSnapshot readable() {
+        CatalogSnapshot current = snapshot;
+        if (current == null) {
+            return null;
+        }
+        Long pending = pendingWrites.getIfPresent(ClientKey.current());
+        return pending != null && pending > current.getVersion() ? null : current;
+    }
+
+    @Override
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            CatalogSnapshot current = snapshot;
+            if (current == null) {
+                // Chưa dựng xong: lần dựng sẽ chứa thay đổi này
+                return;
+            }
+            if (!applyChanges(current)) {
+                doReload();
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Áp dụng thay đổi sau version của current và công bố snapshot mới
+     * @return false nếu cần dựng lại toàn bộ (quá MAX_CATCH_UP thay đổi, version của database lùi lại)
+     */
+    private boolean applyChanges(CatalogSnapshot current) {
+        Boolean applied = refreshTemplate.execute(status -> {
+            ResourceVersion catalog = catalogVersionTracker.currentVersion();
+            if (catalog.getVersion() == current.getVersion()) {
+                return true;
+            }
+            if (catalog.getVersion() < current.getVersion()) {
+                return false;
+            }
+            long since = current.getVersion();
+            List<Product> rows = productRepository.findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAscIdAsc(
+                    since, catalog.getVersion(), Limit.of(MAX_CATCH_UP + 1));
+            List<ProductTombstone> tombstones = tombstoneRepository
+                    .findByChangeSeqGreaterThanAndChangeSeqLessThanEqualOrderByChangeSeqAscProductIdAsc(
+                            since, catalog.getVersion(), Limit.of(MAX_CATCH_UP + 1));
+            if (rows.size() > MAX_CATCH_UP || tombstones.size() > MAX_CATCH_UP) {
+                return false;
+            }
+            List<ProductDTO> upserts = new ArrayList<>(rows.size());
+            for (Product row : rows) {
+                upserts.add(toDTO(row));
+            }
+            List<Integer> deleted = new ArrayList<>(tombstones.size());
+            for (ProductTombstone tombstone : tombstones) {
+                deleted.add(tombstone.getProductId());
+            }
+            // Version được đọc trước các thay đổi: snapshot mới chứa ít nhất mọi thay đổi tới version đó
+            publish(current.with(upserts, deleted, catalog.getVersion(), catalog.getUpdatedAt()));
+            return true;
+        });
+        return Boolean.TRUE.equals(applied);
+    }
+
+    @Override
+    public void reload() {
+        refreshLock.lock();
+        try {
+            doReload();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private void doReload() {
+        long start = System.nanoTime();
+        CatalogSnapshot loaded = loadTemplate.execute(status -> {
+            ResourceVersion catalog = catalogVersionTracker.currentVersion();
+            CatalogSnapshot.Builder builder = CatalogSnapshot.builder();
+            try (Stream<Product> rows = productRepository.streamAllOrderById()) {
+                rows.forEach(p -> {
+                    builder.add(toDTO(p));
+                    entityManager.detach(p);
+                });
+            }
+            return builder.build(catalog.getVersion(), catalog.getUpdatedAt());
+        });
+        publish(loaded);
+        log.info("Product catalog snapshot loaded: {} products at version {}, ~{} KB, {} ms",
+                loaded.size(), loaded.getVersion(), loaded.estimatedBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Khi ứng dụng đã sẵn sàng: dựng snapshot lần đầu trên thread refresh (không giữ main thread) rồi refresh định kỳ
+     * Trong lúc dựng, API đọc đi database; dựng lỗi (database chưa sẵn sàng) thì lần chạy sau dựng lại
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                if (snapshot == null) {
+                    reload();
+                } else {
+                    refresh();
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Product catalog snapshot refresh failed", ex);
+            }
+        }, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Sau khi transaction ghi sản phẩm commit: ghi nhớ change sequence của client rồi đánh thức thread refresh
+     * Không chờ snapshot: request ghi đang giữ connection của nó tới hết afterCommit, trong khi refresh cần
+     * 1 connection khác từ cùng pool; các listener sau (SSE, thống kê, search index) cũng không bị giữ lại
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        CatalogSnapshot current = snapshot;
+        if (current != null && event.getChangeSeq() != 0 && event.getChangeSeq() <= current.getVersion()) {
+            return;
+        }
+        if (event.getChangeSeq() != 0) {
+            pendingWrites.asMap().merge(ClientKey.current(), event.getChangeSeq(), Math::max);
+        }
+        requestRefresh();
+    }
+
+    /**
+     * Xếp 1 lần refresh lên thread refresh, trừ khi đã có 1 lần đang chờ chạy
+     * Cờ được xóa ngay trước khi refresh đọc database, nên thay đổi commit sau thời điểm đó luôn có lần refresh sau
+     */
+    private void requestRefresh() {
+        if (!refreshRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.execute(() -> {
+                refreshRequested.set(false);
+                try {
+                    refresh();
+                } catch (RuntimeException ex) {
+                    log.warn("Product catalog snapshot refresh failed", ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            // Đang đóng ứng dụng
+            refreshRequested.set(false);
+        }
+    }
+
+    private void publish(CatalogSnapshot next) {
+        snapshot = next;
+    }
+
+    /**
+     * Dừng refresh định kỳ khi đóng ứng dụng
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private ProductDTO toDTO(Product p) {
+        return ProductDTO.builder()
+            .id(p.getId())
+            .name(p.getName())
+            .description(p.getDescription())
+            .price(p.getPrice())
+            .quantity(p.getQuantity())
+            .category(p.getCategory())
+            .version(p.getVersion())
+            .updatedAt(p.getUpdatedAt())
+            .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.flogin.service.impl;
+
+import com.flogin.dto.CategoryStatsDTO;
+import com.flogin.event.ProductChangedEvent;
+import com.flogin.repository.ProductRepository;
+import com.flogin.service.ProductStatsService;
+import com.flogin.stats.CategoryAggregates;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementation của ProductStatsService
+ *
+ * - Thống kê được dựng lúc khởi động (ApplicationReadyEvent) bằng 1 câu GROUP BY
+ * - Sau đó cập nhật incremental từ ProductChangedEvent (trạng thái cũ / mới), chỉ sau khi transaction ghi commit
+ * - Đối chiếu lại với database mỗi app.products.stats.reconcile-interval, để sửa sai lệch do ghi ngoài
+ *   ProductService (stack reactive, SQL trực tiếp) hoặc thay đổi rơi đúng lúc reconcile
+ * - Câu GROUP BY chạy trên primary (transaction không read-only): replica có độ trễ sẽ làm mất các thay đổi
+ *   đã commit nhưng chưa sang replica
+ * - Chỉ có trên stack MVC (API /api/products/stats), stack reactive không publish ProductChangedEvent
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ProductStatsServiceImpl implements ProductStatsService, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductStatsServiceImpl.class);
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryAggregates aggregates = new CategoryAggregates();
+    private final Duration reconcileInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-stats-reconcile");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ProductStatsServiceImpl(ProductRepository productRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.products.stats.reconcile-interval:5m}") Duration reconcileInterval) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    @Override
+    public List<CategoryStatsDTO> getCategoryStats() {
+        return aggregates.snapshot();
+    }
+
+    @Override
+    public void reconcile() {
+        long start = System.nanoTime();
+        int drift = aggregates.reconcile(() -> transactionTemplate.execute(status -> productRepository.summarizeByCategory()));
+        log.info("Product category stats reconciled: {} categories drifted, {} ms",
+                drift, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Dựng thống kê lần đầu khi ứng dụng đã sẵn sàng rồi lên lịch đối chiếu định kỳ
+     * Chạy bất đồng bộ để không giữ main thread; thay đổi xảy ra trong lúc dựng được áp dụng lại
+     */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+        long interval = reconcileInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                reconcile();
+            } catch (RuntimeException ex) {
+                log.warn("Product category stats reconcile failed", ex);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Áp dụng chênh lệch của 1 sản phẩm sau khi transaction commit
+     * fallbackExecution: vẫn xử lý nếu event được publish ngoài transaction
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        aggregates.apply(event.getPrevious(), event.getProduct());
+    }
+
+    /**
+     * Dừng đối chiếu định kỳ khi đóng ứng dụng
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,231 @@
+package com.flogin.service.impl;
+
+import com.flogin.dto.ProductDTO;
+import com.flogin.dto.ProductPage;
+import com.flogin.dto.ResourceVersion;
+import com.flogin.exception.ConflictException;
+import com.flogin.exception.ResourceNotFoundException;
+import com.flogin.model.CatalogChange;
+import com.flogin.model.CatalogVersion;
+import com.flogin.model.ProductRow;
+import com.flogin.repository.ReactiveProductRepository;
+import com.flogin.service.ProductService;
+import com.flogin.service.ReactiveProductService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Limit;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Implementation của ReactiveProductService trên R2DBC (chỉ có khi chạy stack reactive)
+ *
+ * - Mỗi thao tác ghi chạy trong 1 transaction R2DBC (TransactionalOperator), lấy change sequence từ
+ *   catalog_changes và gán cho products.change_seq / tombstone khi xóa trong cùng transaction như
+ *   CatalogVersionTracker, nên ETag và API /api/products/changes nhất quán với stack MVC
+ * - Không có cache sản phẩm và không publish ProductChangedEvent: các listener hiện có (CatalogVersionTracker,
+ *   search index) dùng JDBC blocking, không được chạy trên thread của event loop
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductServiceImpl implements ReactiveProductService {
+
+    /** Số dòng xin mỗi lần từ driver khi export (thay vì từng dòng một) */
+    private static final int EXPORT_PREFETCH = 256;
+
+    private final ReactiveProductRepository productRepository;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final Duration commitGrace;
+
+    public ReactiveProductServiceImpl(ReactiveProductRepository productRepository,
+                                      DatabaseClient databaseClient,
+                                      TransactionalOperator transactionalOperator,
+                                      @Value("${app.products.change-seq.commit-grace:10s}") Duration commitGrace) {
+        this.productRepository = productRepository;
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = transactionalOperator;
+        this.commitGrace = commitGrace;
+    }
+
+    @Override
+    public Mono<ProductDTO> createProduct(ProductDTO dto) {
+        ProductRow row = new ProductRow();
+        apply(row, dto);
+        return productRepository.save(row)
+                .flatMap(saved -> stampChange(saved.getId()).thenReturn(toDTO(saved)))
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Keyset pagination giống ProductServiceImpl.getProducts: đọc limit + 1 dòng, dòng dư chỉ để biết còn trang sau
+     */
+    @Override
+    public Mono<ProductPage> getProducts(int afterId, int limit) {
+        int size = Math.max(1, Math.min(limit, ProductService.MAX_PAGE_SIZE));
+        return productRepository.findByIdGreaterThanOrderByIdAsc(Math.max(afterId, 0), Limit.of(size + 1))
+                .map(this::toDTO)
+                .collectList()
+                .map(rows -> toPage(rows, size));
+    }
+
+    @Override
+    public Mono<ProductDTO> getProductById(int id) {
+        return findExisting(id).map(this::toDTO);
+    }
+
+    /**
+     * Phiên bản chung của danh mục: phiên bản đã lưu cộng các sequence đã commit liền sau nó,
+     * tính như CatalogVersionTracker.currentVersion; chưa có dòng catalog_version thì coi như version 0
+     */
+    @Override
+    public Mono<ResourceVersion> getCatalogVersion() {
+        return databaseClient.sql("SELECT version, updated_at FROM catalog_version WHERE id = :id")
+                .bind("id", CatalogVersion.SINGLETON_ID)
+                .map(row -> new ResourceVersion(row.get("version", Long.class), row.get("updated_at", Instant.class)))
+                .one()
+                .defaultIfEmpty(new ResourceVersion(0, null))
+                .flatMap(stored -> databaseClient
+                        .sql("SELECT seq, created_at FROM catalog_changes WHERE seq > :seq ORDER BY seq LIMIT "
+                                + CatalogVersionTracker.MAX_SCAN)
+                        .bind("seq", stored.getVersion())
+                        .map(row -> {
+                            CatalogChange change = new CatalogChange(row.get("created_at", Instant.class));
+                            change.setSeq(row.get("seq", Long.class));
+                            return change;
+                        })
+                        .all()
+                        .collectList()
+                        .map(committed -> CatalogVersionTracker.watermark(stored, committed, Instant.now().minus(commitGrace))));
+    }
+
+    /**
+     * Cập nhật sản phẩm; dto có version khác version hiện tại thì ConflictException,
+     * 2 request ghi cùng lúc thì request sau lỗi optimistic lock (@Version của ProductRow)
+     */
+    @Override
+    public Mono<ProductDTO> updateProduct(int id, ProductDTO dto) {
+        return findExisting(id)
+                .flatMap(row -> {
+                    if (dto.getVersion() != null && !dto.getVersion().equals(row.getVersion())) {
+                        return Mono.error(new ConflictException("Product " + id
+                                + " was modified concurrently (current version " + row.getVersion() + ")"));
+                    }
+                    apply(row, dto);
+                    return productRepository.save(row);
+                })
+                .flatMap(saved -> stampChange(saved.getId()).thenReturn(toDTO(saved)))
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Điều chỉnh tồn kho bằng 1 câu UPDATE có điều kiện rồi đọc lại dòng trong cùng transaction
+     */
+    @Override
+    public Mono<ProductDTO> adjustStock(int id, int delta) {
+        return productRepository.adjustQuantity(id, delta, Instant.now())
+                .flatMap(updated -> findExisting(id).flatMap(row -> {
+                    if (updated == 0) {
+                        return Mono.error(new ConflictException("Insufficient stock for product " + id
+                                + ": available " + row.getQuantity() + ", requested " + (-delta)));
+                    }
+                    return stampChange(id).thenReturn(toDTO(row));
+                }))
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<Void> deleteProduct(int id) {
+        return productRepository.deleteRow(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.<Void>error(notFound(id))
+                        : nextChangeSeq().flatMap(seq -> insertTombstone(id, seq)))
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Toàn bộ danh mục theo id tăng dần; dòng chỉ được đọc khi subscriber (response) sẵn sàng nhận
+     */
+    @Override
+    public Flux<ProductDTO> exportProducts() {
+        return productRepository.streamAllOrderById()
+                .limitRate(EXPORT_PREFETCH)
+                .map(this::toDTO);
+    }
+
+    private Mono<ProductRow> findExisting(int id) {
+        return productRepository.findById(id).switchIfEmpty(Mono.error(() -> notFound(id)));
+    }
+
+    private static ResourceNotFoundException notFound(int id) {
+        return new ResourceNotFoundException("Product not found with id: " + id);
+    }
+
+    /**
+     * Lấy change sequence mới (chèn 1 dòng catalog_changes), phải chạy trong transaction ghi sản phẩm
+     * Không khóa dòng chung nào tới lúc commit: các transaction ghi không chờ nhau
+     * @return sequence AUTO_INCREMENT của dòng vừa chèn
+     */
+    private Mono<Long> nextChangeSeq() {
+        return databaseClient.sql("INSERT INTO catalog_changes (created_at) VALUES (:now)")
+                .bind("now", Instant.now())
+                .filter(statement -> statement.returnGeneratedValues("seq"))
+                .map(row -> row.get("seq", Long.class))
+                .one();
+    }
+
+    /**
+     * Lấy change sequence mới và gán cho products.change_seq của sản phẩm vừa tạo / sửa
+     */
+    private Mono<Void> stampChange(int id) {
+        return nextChangeSeq()
+                .flatMap(seq -> databaseClient.sql("UPDATE products SET change_seq = :seq WHERE id = :id")
+                        .bind("seq", seq)
+                        .bind("id", id)
+                        .then());
+    }
+
+    private Mono<Void> insertTombstone(int id, long seq) {
+        return databaseClient.sql("INSERT INTO product_tombstones (product_id, change_seq, deleted_at) VALUES (:id, :seq, :now)")
+                .bind("id", id)
+                .bind("seq", seq)
+                .bind("now", Instant.now())
+                .then();
+    }
+
+    private static void apply(ProductRow row, ProductDTO dto) {
+        row.setName(dto.getName());
+        row.setDescription(dto.getDescription());
+        row.setPrice(dto.getPrice());
+        row.setQuantity(dto.getQuantity() != null ? dto.getQuantity() : 0);
+        row.setCategory(dto.getCategory());
+        row.setUpdatedAt(Instant.now());
+    }
+
+    private static ProductPage toPage(List<ProductDTO> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<ProductDTO> items = hasNext ? rows.subList(0, size) : rows;
+        Integer nextCursor = hasNext ? items.get(items.size() - 1).getId() : null;
+        return new ProductPage(items, nextCursor);
+    }
+
+    private ProductDTO toDTO(ProductRow row) {
+        return ProductDTO.builder()
+            .id(row.getId())
+            .name(row.getName())
+            .description(row.getDescription())
+            .price(row.getPrice())
+            .quantity(row.getQuantity())
+            .category(row.getCategory())
+            .version(row.getVersion())
+            .updatedAt(row.getUpdatedAt())
+            .build();
+    }
+}
@@ -3,18 +3,25 @@ package com.flogin.service.impl;
 import com.flogin.dto.UserDTO;
 import com.flogin.model.User;
 import com.flogin.repository.UserRepository;
+import com.flogin.security.CredentialVerifier;
+import com.flogin.security.FloginUserDetails;
+import com.flogin.service.CustomUserDetailsService;
 import com.flogin.service.UserService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.function.UnaryOperator;
+
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final CredentialVerifier credentialVerifier;
+    private final CustomUserDetailsService userDetailsService;
 
     @Override
     @Transactional
@@ -31,7 +38,7 @@ public class UserServiceImpl implements UserService {
         });
 
         // Hash password
-        String hashed = passwordEncoder.encode(dto.getPassword());
+        String hashed = credentialVerifier.encode(dto.getPassword());
 
         User user = User.builder()
                 .username(dto.getUsername())
@@ -46,6 +53,10 @@ public class UserServiceImpl implements UserService {
         return dto;
     }
 
+    /**
+     * User được đọc qua cache UserDetails (CustomUserDetailsService), không query database mỗi lần đăng nhập;
+     * sửa / xóa user xóa entry cache sau khi commit
+     */
     @Override
     public UserDTO login(String username, String password) {
         if (username == null || username.isBlank()) {
@@ -55,11 +66,17 @@ public class UserServiceImpl implements UserService {
             throw new RuntimeException("Password cannot be empty");
         }
 
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User không tồn tại"));
+        FloginUserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException ex) {
+            // Vẫn tốn 1 lần BCrypt để thời gian trả lời không lộ username có tồn tại hay không
+            credentialVerifier.matchesUnknownUser(password);
+            throw new RuntimeException("User không tồn tại");
+        }
 
-        // Temporary: Plain text password check for existing DB users
-        if (!user.getPassword().equals(password) && !passwordEncoder.matches(password, user.getPassword())) {
+        // BCrypt được verify qua cache, dữ liệu cũ lưu plain text vẫn đăng nhập được (xem CredentialVerifier)
+        if (!credentialVerifier.matches(user.getUsername(), password, user.getPassword())) {
             throw new RuntimeException("Sai mật khẩu");
         }
 
@@ -73,6 +90,7 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+@Transactional(readOnly = true)
 public java.util.List<UserDTO> getAllUsers() {
     java.util.List<User> users = userRepository.findAll();
     java.util.List<UserDTO> dtos = new java.util.ArrayList<>();
@@ -88,6 +106,7 @@ public java.util.List<UserDTO> getAllUsers() {
 }
 
 @Override
+@Transactional(readOnly = true)
 public UserDTO getUserById(int id) {
     User user = userRepository.findById(id)
         .orElseThrow(() -> new RuntimeException("User không tồn tại"));
@@ -100,12 +119,17 @@ public UserDTO getUserById(int id) {
 }
 
 @Override
+@Transactional
 public UserDTO updateUser(int id, UserDTO dto) {
     User user = userRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("User không tồn tại"));
+    // Xóa cache UserDetails của cả username cũ và mới (sau khi commit)
+    userDetailsService.evict(user.getUsername());
+    userDetailsService.evict(dto.getUsername());
     user.setUsername(dto.getUsername());
     if (dto.getPassword() != null && !dto.getPassword().isBlank()) {
-        user.setPassword(passwordEncoder.encode(dto.getPassword()));
+        user.setPassword(credentialVerifier.encode(dto.getPassword()));
+        user.setPasswordChangedAt(Instant.now());
     }
     user.setFullName(dto.getFullName());
     user.setEmail(dto.getEmail());
@@ -118,8 +142,63 @@ public UserDTO updateUser(int id, UserDTO dto) {
             .build();
 }
 
+/**
+ * Cập nhật 1 phần thông tin user (JSON Merge Patch)
+ * Chỉ các field đổi giá trị được ghi (@DynamicUpdate); password chỉ được hash lại khi patch có password
+ */
+@Override
+@Transactional
+public UserDTO patchUser(int id, UnaryOperator<UserDTO> patch) {
+    User user = userRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("User không tồn tại"));
+    UserDTO current = UserDTO.builder()
+            .id(user.getId())
+            .username(user.getUsername())
+            .fullName(user.getFullName())
+            .email(user.getEmail())
+            .build();
+    UserDTO dto = patch.apply(current);
+    if (!user.getUsername().equals(dto.getUsername())) {
+        userRepository.findByUsername(dto.getUsername()).ifPresent(u -> {
+            throw new RuntimeException("Username already exists");
+        });
+        userDetailsService.evict(dto.getUsername());
+    }
+    if (dto.getPassword() != null) {
+        user.setPassword(credentialVerifier.encode(dto.getPassword()));
+        user.setPasswordChangedAt(Instant.now());
+    }
+    // Xóa cache UserDetails của username cũ (sau khi commit)
+    userDetailsService.evict(user.getUsername());
+    user.setUsername(dto.getUsername());
+    user.setFullName(dto.getFullName());
+    user.setEmail(dto.getEmail());
+    return UserDTO.builder()
+            .id(user.getId())
+            .username(user.getUsername())
+            .fullName(user.getFullName())
+            .email(user.getEmail())
+            .build();
+}
+
+/**
+ * Đổi mật khẩu cùng millisecond với lúc đăng nhập cũng làm phiên hết hiệu lực
+ */
+@Override
+@Transactional(readOnly = true)
+public boolean isSessionValid(int id, long issuedAt) {
+    return userRepository.findById(id)
+            .map(user -> user.getPasswordChangedAt() == null
+                    || user.getPasswordChangedAt().toEpochMilli() < issuedAt)
+            .orElse(false);
+}
+
 @Override
+@Transactional
 public void deleteUser(int id) {
-    userRepository.deleteById(id);
+    userRepository.findById(id).ifPresent(user -> {
+        userRepository.delete(user);
+        userDetailsService.evict(user.getUsername());
+    });
 }
 }
\ No newline at end of file
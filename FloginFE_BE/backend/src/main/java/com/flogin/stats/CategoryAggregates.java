@@ -0,0 +1,160 @@
+package com.flogin.stats;
+
+import com.flogin.dto.CategoryStatsDTO;
+import com.flogin.dto.ProductDTO;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Thống kê in-memory theo danh mục: số sản phẩm, tổng tồn kho, tổng giá trị tồn kho
+ *
+ * - Mỗi danh mục là 1 bộ LongAdder / DoubleAdder (striped): nhiều luồng ghi cùng danh mục không tranh 1 biến,
+ *   không lock; mỗi thay đổi sản phẩm chỉ là trừ trạng thái cũ và cộng trạng thái mới
+ * - Đọc: cộng dồn các stripe của từng danh mục, chi phí theo số danh mục, không theo số sản phẩm
+ * - Reconcile: dựng bộ đếm mới từ kết quả GROUP BY của database rồi tráo (swap); các thay đổi đến trong lúc
+ *   chạy GROUP BY được ghi lại và áp dụng lại lên bộ đếm mới. Thay đổi rơi đúng vào khoảnh khắc tráo
+ *   có thể bị tính thiếu / thừa, lần reconcile sau sẽ sửa (sai lệch không tích lũy)
+ */
+public class CategoryAggregates {
+
+    /** Khóa của sản phẩm không có danh mục (ConcurrentHashMap không nhận null) */
+    private static final String UNCATEGORIZED = "\u0000";
+
+    /** Sai số tương đối chấp nhận được của tổng giá trị (cộng số thực theo thứ tự khác nhau) */
+    private static final double VALUE_TOLERANCE = 1e-9;
+
+    /** Bộ đếm của 1 danh mục */
+    private static final class Totals {
+        final LongAdder count = new LongAdder();
+        final LongAdder stock = new LongAdder();
+        final DoubleAdder value = new DoubleAdder();
+
+        void add(long count, long stock, double value) {
+            this.count.add(count);
+            this.stock.add(stock);
+            this.value.add(value);
+        }
+    }
+
+    /** 1 thay đổi ghi lại trong lúc reconcile */
+    private record Delta(String key, long count, long stock, double value) {}
+
+    /** Bộ đếm của mọi danh mục, được thay nguyên bộ khi reconcile */
+    private static final class Generation {
+        final Map<String, Totals> categories = new ConcurrentHashMap<>();
+        volatile Queue<Delta> journal;
+
+        void add(String key, long count, long stock, double value) {
+            categories.computeIfAbsent(key, k -> new Totals()).add(count, stock, value);
+        }
+    }
+
+    private volatile Generation current = new Generation();
+
+    /**
+     * Áp dụng 1 thay đổi: trừ trạng thái cũ (null khi tạo mới), cộng trạng thái mới (null khi xóa)
+     */
+    public void apply(ProductDTO previous, ProductDTO product) {
+        if (previous != null) {
+            add(previous, -1);
+        }
+        if (product != null) {
+            add(product, 1);
+        }
+    }
+
+    private void add(ProductDTO product, int sign) {
+        long quantity = product.getQuantity() != null ? product.getQuantity() : 0;
+        double price = product.getPrice() != null ? product.getPrice() : 0;
+        String key = product.getCategory() != null ? product.getCategory() : UNCATEGORIZED;
+        long stock = sign * quantity;
+        double value = sign * price * quantity;
+        Generation generation = current;
+        generation.add(key, sign, stock, value);
+        Queue<Delta> journal = generation.journal;
+        if (journal != null) {
+            journal.add(new Delta(key, sign, stock, value));
+        }
+    }
+
+    /**
+     * Thống kê hiện tại, sắp xếp theo tên danh mục (không có danh mục ở đầu); bỏ danh mục không còn sản phẩm
+     */
+    public List<CategoryStatsDTO> snapshot() {
+        return snapshot(current);
+    }
+
+    private static List<CategoryStatsDTO> snapshot(Generation generation) {
+        List<CategoryStatsDTO> result = new ArrayList<>(generation.categories.size());
+        generation.categories.forEach((key, totals) -> {
+            long count = totals.count.sum();
+            if (count > 0) {
+                result.add(new CategoryStatsDTO(UNCATEGORIZED.equals(key) ? null : key,
+                        count, totals.stock.sum(), totals.value.sum()));
+            }
+        });
+        result.sort(Comparator.comparing(CategoryStatsDTO::getCategory, Comparator.nullsFirst(Comparator.naturalOrder())));
+        return result;
+    }
+
+    /**
+     * Thay bộ đếm bằng kết quả tổng hợp từ database
+     * Chỉ 1 luồng được reconcile tại 1 thời điểm
+     *
+     * @param rollup thống kê theo danh mục tính từ database (GROUP BY)
+     * @return số danh mục có số liệu in-memory lệch với database trước khi thay
+     */
+    public synchronized int reconcile(Supplier<List<CategoryStatsDTO>> rollup) {
+        Generation previous = current;
+        Queue<Delta> journal = new ConcurrentLinkedQueue<>();
+        previous.journal = journal;
+        List<CategoryStatsDTO> rows;
+        try {
+            rows = rollup.get();
+        } finally {
+            previous.journal = null;
+        }
+
+        Generation next = new Generation();
+        for (CategoryStatsDTO row : rows) {
+            String key = row.getCategory() != null ? row.getCategory() : UNCATEGORIZED;
+            next.add(key, row.getProductCount(), row.getTotalStock(), row.getInventoryValue());
+        }
+        for (Delta delta : journal) {
+            next.add(delta.key(), delta.count(), delta.stock(), delta.value());
+        }
+        current = next;
+        return drift(snapshot(previous), snapshot(next));
+    }
+
+    /**
+     * Số danh mục khác nhau giữa 2 bản thống kê
+     */
+    private static int drift(List<CategoryStatsDTO> before, List<CategoryStatsDTO> after) {
+        Map<String, CategoryStatsDTO> expected = new HashMap<>();
+        for (CategoryStatsDTO row : after) {
+            expected.put(row.getCategory() != null ? row.getCategory() : UNCATEGORIZED, row);
+        }
+        int drift = 0;
+        for (CategoryStatsDTO row : before) {
+            CategoryStatsDTO other = expected.remove(row.getCategory() != null ? row.getCategory() : UNCATEGORIZED);
+            if (other == null || other.getProductCount() != row.getProductCount()
+                    || other.getTotalStock() != row.getTotalStock()
+                    || Math.abs(other.getInventoryValue() - row.getInventoryValue())
+                        > VALUE_TOLERANCE * Math.max(1, Math.abs(other.getInventoryValue()))) {
+                drift++;
+            }
+        }
+        return drift + expected.size();
+    }
+}
@@ -0,0 +1,126 @@
+package com.flogin.catalog;
+
+import com.flogin.dto.ProductDTO;
+import com.flogin.dto.ProductPage;
+import com.flogin.dto.ProductSearchCriteria;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    private static ProductDTO product(int id, String category, double price, int quantity) {
+        return ProductDTO.builder()
+                .id(id)
+                .name("Sản phẩm " + id)
+                .description(id % 2 == 0 ? "Mô tả " + id : null)
+                .category(category)
+                .price(price)
+                .quantity(quantity)
+                .version((long) id)
+                .updatedAt(Instant.ofEpochSecond(1_700_000_000L + id, 123_456_789))
+                .build();
+    }
+
+    /** Snapshot 1..count (nhiều chunk), danh mục xoay vòng theo id */
+    private static CatalogSnapshot snapshot(int count) {
+        CatalogSnapshot.Builder builder = CatalogSnapshot.builder();
+        for (int id = 1; id <= count; id++) {
+            builder.add(product(id, id % 3 == 0 ? null : "Danh mục " + (id % 3), id, id % 5));
+        }
+        return builder.build(7, Instant.ofEpochSecond(1_700_000_000L));
+    }
+
+    private static List<Integer> ids(ProductPage page) {
+        return page.getItems().stream().map(ProductDTO::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Snapshot: trang keyset qua ranh giới chunk, đọc lại đúng mọi cột")
+    void testPagingAndColumns() {
+        int count = CatalogSnapshot.CHUNK_SIZE * 2 + 10;
+        CatalogSnapshot snapshot = snapshot(count);
+        assertEquals(count, snapshot.size());
+        assertEquals(7, snapshot.getVersion());
+
+        ProductPage page = snapshot.getProducts(CatalogSnapshot.CHUNK_SIZE - 2, 4);
+        assertEquals(List.of(1023, 1024, 1025, 1026), ids(page));
+        assertEquals(1026, page.getNextCursor());
+        ProductPage last = snapshot.getProducts(count - 2, 50);
+        assertEquals(List.of(count - 1, count), ids(last));
+        assertNull(last.getNextCursor());
+
+        ProductDTO expected = product(1024, "Danh mục 1", 1024, 4);
+        ProductDTO actual = page.getItems().get(1);
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertNull(page.getItems().get(0).getDescription());
+        assertEquals(expected.getCategory(), actual.getCategory());
+        assertEquals(expected.getPrice(), actual.getPrice());
+        assertEquals(expected.getQuantity(), actual.getQuantity());
+        assertEquals(expected.getVersion(), actual.getVersion());
+        assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt());
+        assertTrue(snapshot.estimatedBytes() > 0);
+    }
+
+    @Test
+    @DisplayName("Snapshot: with() tạo snapshot mới, snapshot cũ không đổi")
+    void testCopyOnWrite() {
+        CatalogSnapshot before = snapshot(CatalogSnapshot.CHUNK_SIZE + 1);
+        ProductDTO renamed = product(5, "Danh mục mới", 99.0, 1);
+        renamed.setName("Đã sửa");
+        CatalogSnapshot after = before.with(
+                List.of(renamed, product(5000, null, 1.0, 1)), List.of(1, 2, 4242), 8, Instant.now());
+
+        assertEquals(CatalogSnapshot.CHUNK_SIZE + 1, before.size());
+        assertEquals("Sản phẩm 5", before.getProducts(4, 1).getItems().get(0).getName());
+        assertEquals(List.of(1, 2, 3), ids(before.getProducts(0, 3)));
+
+        assertEquals(8, after.getVersion());
+        assertEquals(CatalogSnapshot.CHUNK_SIZE, after.size());
+        assertEquals(List.of(3, 4, 5), ids(after.getProducts(0, 3)));
+        ProductDTO updated = after.getProducts(4, 1).getItems().get(0);
+        assertEquals("Đã sửa", updated.getName());
+        assertEquals("Danh mục mới", updated.getCategory());
+        assertEquals(List.of(CatalogSnapshot.CHUNK_SIZE + 1, 5000), ids(after.getProducts(CatalogSnapshot.CHUNK_SIZE, 10)));
+
+        CatalogSnapshot emptied = CatalogSnapshot.empty().with(List.of(product(3, "A", 1.0, 1)), List.of(), 1, null);
+        assertEquals(List.of(3), ids(emptied.getProducts(0, 10)));
+    }
+
+    @Test
+    @DisplayName("Snapshot: lọc theo tên, danh mục, khoảng giá, tồn kho như ProductSpecifications")
+    void testSearch() {
+        CatalogSnapshot snapshot = snapshot(100);
+        ProductPage page = snapshot.searchProducts(
+                new ProductSearchCriteria(null, " danh MỤC 1 ", 10.0, 40.0, true, 0, 50), 50);
+        // id % 3 == 1, 10 <= id <= 40, id % 5 != 0
+        assertEquals(List.of(13, 16, 19, 22, 28, 31, 34, 37), ids(page));
+
+        page = snapshot.searchProducts(new ProductSearchCriteria("sản phẩm 9", null, null, null, false, 0, 2), 2);
+        // Tiền tố "Sản phẩm 9": 9, 90..99; hết hàng: id % 5 == 0
+        assertEquals(List.of(90, 95), ids(page));
+        assertNull(page.getNextCursor());
+
+        // Khác hoa thường ở ký tự non-ASCII (so như String), chỉ ở ký tự ASCII (so trên byte)
+        assertEquals(List.of(9, 90), ids(snapshot.searchProducts(
+                new ProductSearchCriteria("SẢN PHẨM 9", null, null, null, null, 0, 2), 2)));
+        assertEquals(List.of(9, 90), ids(snapshot.searchProducts(
+                new ProductSearchCriteria("sản PHẩM 9", null, null, null, null, 0, 2), 2)));
+        assertTrue(snapshot.searchProducts(
+                new ProductSearchCriteria("Sản phẩm 1000", null, null, null, null, 0, 10), 10).getItems().isEmpty());
+        assertTrue(snapshot.searchProducts(
+                new ProductSearchCriteria("Sàn", null, null, null, null, 0, 10), 10).getItems().isEmpty());
+
+        page = snapshot.searchProducts(new ProductSearchCriteria(null, null, null, null, null, 50, 3), 3);
+        assertEquals(List.of(51, 52, 53), ids(page));
+        assertEquals(53, page.getNextCursor());
+
+        assertTrue(snapshot.searchProducts(
+                new ProductSearchCriteria(null, "Không có", null, null, null, 0, 10), 10).getItems().isEmpty());
+    }
+}
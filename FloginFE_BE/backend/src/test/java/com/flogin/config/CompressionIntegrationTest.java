@@ -0,0 +1,90 @@
+package com.flogin.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Nén response (server.compression.*): Tomcat gzip response lớn hơn ngưỡng khi client gửi Accept-Encoding,
+ * response nhỏ hơn ngưỡng trả nguyên
+ */
+@SpringBootTest(classes = com.flogin.FloginApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class CompressionIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @Test
+    @DisplayName("Compression - product list is gzipped as JSON and as CBOR")
+    void testGzipCompression() throws Exception {
+        List<Map<String, Object>> products = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            products.add(Map.of("name", "Nén " + i,
+                    "description", "Mô tả chi tiết khá dài cho sản phẩm dùng để kiểm tra nén gzip số " + i,
+                    "price", 10 + i, "quantity", 1));
+        }
+        HttpResponse<String> created = client.send(HttpRequest.newBuilder(uri("/api/products/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(products)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, created.statusCode());
+        List<Integer> ids = new ArrayList<>();
+        objectMapper.readTree(created.body()).get("items").forEach(item -> ids.add(item.get("id").asInt()));
+
+        try {
+            HttpResponse<byte[]> list = client.send(HttpRequest.newBuilder(uri("/api/products?limit=50&after=" + (ids.get(0) - 1)))
+                    .header("Accept-Encoding", "gzip")
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals(200, list.statusCode());
+            assertEquals("gzip", list.headers().firstValue("Content-Encoding").orElse(null));
+            assertTrue(list.headers().firstValue("ETag").orElseThrow().startsWith("W/"));
+            byte[] json;
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(list.body()))) {
+                json = in.readAllBytes();
+            }
+            assertEquals(50, objectMapper.readTree(json).size());
+            assertTrue(list.body().length < json.length);
+
+            HttpResponse<byte[]> cbor = client.send(HttpRequest.newBuilder(uri("/api/products?limit=50&after=" + (ids.get(0) - 1)))
+                    .header("Accept", "application/cbor")
+                    .header("Accept-Encoding", "gzip")
+                    .build(), HttpResponse.BodyHandlers.ofByteArray());
+            assertEquals("application/cbor", cbor.headers().firstValue("Content-Type").orElse(null));
+            assertEquals("gzip", cbor.headers().firstValue("Content-Encoding").orElse(null));
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(cbor.body()))) {
+                assertEquals(50, new CBORMapper().readTree(in.readAllBytes()).size());
+            }
+        } finally {
+            client.send(HttpRequest.newBuilder(uri("/api/products/batch"))
+                    .header("Content-Type", "application/json")
+                    .method("DELETE", HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(ids)))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,101 @@
+package com.flogin.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flogin.datasource.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Định tuyến đọc / ghi với 2 replica giả lập bằng H2:
+ * - replica-1 trỏ vào chính database in-memory của primary (giống replica không trễ)
+ * - replica-2 là địa chỉ không kết nối được (replica chết)
+ * Tắt snapshot danh mục để GET /api/products đọc database
+ */
+@SpringBootTest(classes = com.flogin.FloginApplication.class, properties = {
+        "app.datasource.replicas.urls=jdbc:h2:mem:testdb,jdbc:h2:tcp://127.0.0.1:1/down",
+        "app.datasource.replicas.connection-timeout=500ms",
+        "app.datasource.read-your-writes-window=500ms",
+        "app.products.snapshot.enabled=false"
+})
+@AutoConfigureMockMvc
+public class ReplicaRoutingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("Replica routing - reads go to a healthy replica, writes and reads right after a write go to the primary")
+    void testReadWriteRouting() throws Exception {
+        ReplicaRoutingDataSource routing = dataSource.unwrap(ReplicaRoutingDataSource.class);
+        assertEquals(Map.of("replica-1", true, "replica-2", false), routing.replicaStatus());
+
+        long replicaBefore = routing.replicaConnectionCount();
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk());
+        assertTrue(routing.replicaConnectionCount() > replicaBefore);
+
+        long primaryBefore = routing.primaryConnectionCount();
+        String response = mockMvc.perform(post("/api/products")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Replica\",\"price\":10,\"quantity\":1}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        int id = objectMapper.readTree(response).get("id").asInt();
+        assertTrue(routing.primaryConnectionCount() > primaryBefore);
+
+        try {
+            // Read-your-writes: client vừa ghi đọc từ primary
+            replicaBefore = routing.replicaConnectionCount();
+            mockMvc.perform(get("/api/products"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[?(@.id == " + id + ")]").exists());
+            assertEquals(replicaBefore, routing.replicaConnectionCount());
+
+            // Hết cửa sổ thì quay lại replica
+            Thread.sleep(600);
+            mockMvc.perform(get("/api/products"))
+                    .andExpect(status().isOk());
+            assertTrue(routing.replicaConnectionCount() > replicaBefore);
+        } finally {
+            mockMvc.perform(delete("/api/products/" + id))
+                    .andExpect(status().isNoContent());
+        }
+    }
+
+    @Test
+    @DisplayName("Replica routing - replica state is exposed in health and metrics")
+    void testReplicaHealthAndMetrics() throws Exception {
+        mockMvc.perform(get("/actuator/health"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+
+        ReplicaRoutingDataSource routing = dataSource.unwrap(ReplicaRoutingDataSource.class);
+        routing.checkReplicas();
+        assertEquals(Map.of("replica-1", true, "replica-2", false), routing.replicaStatus());
+        assertEquals(1.0, meterRegistry.get(DataSourcePoolMetrics.REPLICA_HEALTHY).tag("replica", "replica-1").gauge().value());
+        assertEquals(0.0, meterRegistry.get(DataSourcePoolMetrics.REPLICA_HEALTHY).tag("replica", "replica-2").gauge().value());
+        assertNotNull(meterRegistry.find(DataSourcePoolMetrics.SATURATION).tag("pool", "flogin-replica-1").gauge());
+    }
+}
@@ -0,0 +1,42 @@
+package com.flogin.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chế độ virtual thread (spring.threads.virtual.enabled=true, profile vthreads):
+ * Tomcat và executor của @Async đều chạy trên virtual thread
+ */
+@SpringBootTest(classes = com.flogin.FloginApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true")
+public class VirtualThreadsIntegrationTest {
+
+    @Autowired
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Test
+    @DisplayName("Virtual threads - @Async executor and Tomcat connector use virtual threads")
+    void testVirtualThreadMode() throws Exception {
+        Boolean virtual = applicationTaskExecutor.submit(() -> Thread.currentThread().isVirtual())
+                .get(5, TimeUnit.SECONDS);
+        assertTrue(virtual);
+
+        TomcatWebServer webServer = (TomcatWebServer) context.getWebServer();
+        Executor executor = webServer.getTomcat().getConnector().getProtocolHandler().getExecutor();
+        assertEquals("VirtualThreadExecutor", executor.getClass().getSimpleName());
+    }
+}
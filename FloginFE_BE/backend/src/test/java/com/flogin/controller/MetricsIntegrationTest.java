@@ -0,0 +1,59 @@
+package com.flogin.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Endpoint /actuator/prometheus: metrics theo endpoint, theo repository method, connection pool (kể cả độ bão hòa) và BCrypt
+ */
+@SpringBootTest(classes = com.flogin.FloginApplication.class)
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@Transactional
+public class MetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Metrics - Prometheus scrape exposes endpoint, repository, pool saturation and password timings")
+    void testPrometheusScrape() throws Exception {
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"nobody\",\"password\":\"Test123\"}"))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"metricsuser\",\"password\":\"Test123\"}"))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"metricsuser\",\"password\":\"Test123\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("uri=\"/api/products\"")))
+                .andExpect(content().string(containsString("spring_data_repository_invocations_seconds_bucket")))
+                .andExpect(content().string(containsString("repository=\"ProductRepository\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds_bucket")))
+                .andExpect(content().string(containsString("flogin_db_pool_saturation{")))
+                .andExpect(content().string(containsString("pool=\"flogin-pool\"")))
+                .andExpect(content().string(containsString("flogin_auth_password_verify_seconds_bucket")));
+    }
+}
@@ -1,6 +1,12 @@
 package com.flogin.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.flogin.service.ProductSnapshotService;
+import com.flogin.service.impl.CatalogVersionTracker;
+import com.flogin.service.ProductStatsService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,10 +14,26 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.hamcrest.Matchers.hasItem;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -26,6 +48,15 @@ public class ProductControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ProductStatsService productStatsService;
+
+    @Autowired
+    private ProductSnapshotService productSnapshotService;
+
+    @Autowired
+    private CatalogVersionTracker catalogVersionTracker;
+
     // 4.2.2a - Test POST /api/products (Create)
     @Test
     @DisplayName("4.2.2a - Create Product")
@@ -125,5 +156,883 @@ public class ProductControllerIntegrationTest {
         mockMvc.perform(delete("/api/products/" + id))
           .andExpect(status().isNoContent());
     }
-}
 
+    // Keyset pagination - GET /api/products?after=&limit=
+    @Test
+    @DisplayName("Get Products - keyset pagination with next cursor")
+    void testGetProductsKeysetPagination() throws Exception {
+        int[] ids = new int[3];
+        for (int i = 0; i < ids.length; i++) {
+            String productJson = "{" +
+              "\"name\":\"Paged " + i + "\"," +
+              "\"description\":\"Desc\"," +
+              "\"category\":\"Cat\"," +
+              "\"price\":99," +
+              "\"quantity\":5}";
+            String response = mockMvc.perform(post("/api/products")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(productJson))
+              .andExpect(status().isCreated())
+              .andReturn().getResponse().getContentAsString();
+            ids[i] = objectMapper.readTree(response).get("id").asInt();
+        }
+
+        mockMvc.perform(get("/api/products").param("after", String.valueOf(ids[0] - 1)).param("limit", "2"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.length()").value(2))
+          .andExpect(jsonPath("$[0].id").value(ids[0]))
+          .andExpect(jsonPath("$[1].id").value(ids[1]))
+          .andExpect(header().string("X-Next-Cursor", String.valueOf(ids[1])))
+          .andExpect(header().string("Link", org.hamcrest.Matchers.containsString("after=" + ids[1])));
+
+        mockMvc.perform(get("/api/products").param("after", String.valueOf(ids[1])).param("limit", "2"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.length()").value(1))
+          .andExpect(jsonPath("$[0].id").value(ids[2]))
+          .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    // Export NDJSON - GET /api/products/export
+    // Export chạy trên async thread với transaction riêng nên dữ liệu test phải được commit trước
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Export Products - streams NDJSON, one product per line")
+    void testExportProductsNdjson() throws Exception {
+        int[] ids = new int[2];
+        for (int i = 0; i < ids.length; i++) {
+            String productJson = "{" +
+              "\"name\":\"Export " + i + "\"," +
+              "\"description\":\"Desc\"," +
+              "\"category\":\"Cat\"," +
+              "\"price\":99," +
+              "\"quantity\":5}";
+            String response = mockMvc.perform(post("/api/products")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(productJson))
+              .andExpect(status().isCreated())
+              .andReturn().getResponse().getContentAsString();
+            ids[i] = objectMapper.readTree(response).get("id").asInt();
+        }
+        try {
+            MvcResult started = mockMvc.perform(get("/api/products/export"))
+              .andExpect(request().asyncStarted())
+              .andReturn();
+            String body = mockMvc.perform(asyncDispatch(started))
+              .andExpect(status().isOk())
+              .andExpect(content().contentType("application/x-ndjson"))
+              .andReturn().getResponse().getContentAsString();
+
+            String[] lines = body.split("\n");
+            List<Integer> exportedIds = new ArrayList<>();
+            for (String line : lines) {
+                exportedIds.add(objectMapper.readTree(line).get("id").asInt());
+            }
+            assertTrue(exportedIds.contains(ids[0]));
+            assertTrue(exportedIds.contains(ids[1]));
+            assertTrue(exportedIds.indexOf(ids[0]) < exportedIds.indexOf(ids[1]));
+        } finally {
+            for (int id : ids) {
+                mockMvc.perform(delete("/api/products/" + id));
+            }
+        }
+    }
+
+    // Batch API - POST / PUT / DELETE /api/products/batch
+    @Test
+    @DisplayName("Batch - create, update and delete with per-item results")
+    void testBatchCreateUpdateDelete() throws Exception {
+        String createJson = "[" +
+          "{\"name\":\"Batch A\",\"description\":\"Desc\",\"category\":\"Cat\",\"price\":10,\"quantity\":1}," +
+          "{\"name\":\"X\",\"price\":10,\"quantity\":1}," +
+          "{\"name\":\"Batch B\",\"category\":\"Cat\",\"price\":20}]";
+        String response = mockMvc.perform(post("/api/products/batch")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(createJson))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.succeeded").value(2))
+          .andExpect(jsonPath("$.failed").value(1))
+          .andExpect(jsonPath("$.items[0].status").value("CREATED"))
+          .andExpect(jsonPath("$.items[1].status").value("INVALID"))
+          .andExpect(jsonPath("$.items[2].status").value("CREATED"))
+          .andReturn().getResponse().getContentAsString();
+        int idA = objectMapper.readTree(response).get("items").get(0).get("id").asInt();
+        int idB = objectMapper.readTree(response).get("items").get(2).get("id").asInt();
+
+        mockMvc.perform(get("/api/products/" + idB))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.name").value("Batch B"))
+          .andExpect(jsonPath("$.quantity").value(0));
+
+        String updateJson = "[" +
+          "{\"id\":" + idA + ",\"name\":\"Batch A2\",\"category\":\"Cat\",\"price\":11,\"quantity\":2}," +
+          "{\"id\":999999,\"name\":\"Missing\",\"price\":11,\"quantity\":2}]";
+        mockMvc.perform(put("/api/products/batch")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(updateJson))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.items[0].status").value("UPDATED"))
+          .andExpect(jsonPath("$.items[1].status").value("NOT_FOUND"));
+
+        mockMvc.perform(get("/api/products/" + idA))
+          .andExpect(jsonPath("$.name").value("Batch A2"));
+
+        mockMvc.perform(delete("/api/products/batch")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content("[" + idA + "," + idB + ",999999]"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.succeeded").value(2))
+          .andExpect(jsonPath("$.items[2].status").value("NOT_FOUND"));
+
+        mockMvc.perform(get("/api/products/" + idA))
+          .andExpect(status().isNotFound());
+    }
+
+    // Read-through cache cho GET /api/products/{id}
+    // Cache chỉ được cập nhật sau khi commit nên test này không chạy trong transaction
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Cache - product detail is served from cache and evicted on delete")
+    void testProductCacheHitAndEviction() throws Exception {
+        String productJson = "{" +
+          "\"name\":\"Cached\"," +
+          "\"description\":\"Desc\"," +
+          "\"category\":\"Cat\"," +
+          "\"price\":99," +
+          "\"quantity\":5}";
+        String response = mockMvc.perform(post("/api/products")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(productJson))
+          .andExpect(status().isCreated())
+          .andReturn().getResponse().getContentAsString();
+        int id = objectMapper.readTree(response).get("id").asInt();
+
+        long hitsBefore = cacheHits();
+        mockMvc.perform(get("/api/products/" + id))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.name").value("Cached"));
+        assertTrue(cacheHits() > hitsBefore);
+
+        mockMvc.perform(delete("/api/products/" + id))
+          .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/products/" + id))
+          .andExpect(status().isNotFound());
+    }
+
+    private long cacheHits() throws Exception {
+        String stats = mockMvc.perform(get("/api/cache/products/stats"))
+          .andExpect(status().isOk())
+          .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(stats).get("hits").asLong();
+    }
+
+    // Search - GET /api/products/search
+    @Test
+    @DisplayName("Search Products - combines name prefix, category, price range and stock filters")
+    void testSearchProducts() throws Exception {
+        String[][] rows = {
+            {"Laptop Pro", "SearchCat", "1500", "3"},
+            {"Laptop Air", "SearchCat", "900", "0"},
+            {"Mouse", "SearchCat", "20", "10"},
+            {"Laptop Other", "OtherCat", "1000", "5"}
+        };
+        for (String[] row : rows) {
+            String productJson = "{" +
+              "\"name\":\"" + row[0] + "\"," +
+              "\"category\":\"" + row[1] + "\"," +
+              "\"price\":" + row[2] + "," +
+              "\"quantity\":" + row[3] + "}";
+            mockMvc.perform(post("/api/products")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(productJson))
+              .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(get("/api/products/search")
+            .param("name", "Laptop")
+            .param("category", "SearchCat"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.length()").value(2));
+
+        mockMvc.perform(get("/api/products/search")
+            .param("category", "SearchCat")
+            .param("minPrice", "100")
+            .param("maxPrice", "1000"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.length()").value(1))
+          .andExpect(jsonPath("$[0].name").value("Laptop Air"));
+
+        mockMvc.perform(get("/api/products/search")
+            .param("category", "SearchCat")
+            .param("inStock", "true")
+            .param("limit", "1"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.length()").value(1))
+          .andExpect(jsonPath("$[0].name").value("Laptop Pro"))
+          .andExpect(header().exists("X-Next-Cursor"));
+    }
+
+    // Full-text search - GET /api/products/search?q=
+    // Index chỉ được cập nhật sau khi commit nên test này không chạy trong transaction
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Full-text Search - ranks name matches first and follows updates and deletes")
+    void testFullTextSearch() throws Exception {
+        String[][] rows = {
+            {"Bàn phím cơ Zentrix", "Phụ kiện", "Switch đỏ, đèn nền"},
+            {"Chuột không dây", "Phụ kiện", "Kèm lót chuột Zentrix"}
+        };
+        List<Integer> ids = new ArrayList<>();
+        for (String[] row : rows) {
+            String productJson = "{" +
+              "\"name\":\"" + row[0] + "\"," +
+              "\"category\":\"" + row[1] + "\"," +
+              "\"description\":\"" + row[2] + "\"," +
+              "\"price\":10," +
+              "\"quantity\":1}";
+            String response = mockMvc.perform(post("/api/products")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(productJson))
+              .andExpect(status().isCreated())
+              .andReturn().getResponse().getContentAsString();
+            ids.add(objectMapper.readTree(response).get("id").asInt());
+        }
+
+        try {
+            // Khớp tiền tố, không phân biệt dấu và hoa thường; khớp ở name xếp trước khớp ở description
+            mockMvc.perform(get("/api/products/search").param("q", "zent"))
+              .andExpect(status().isOk())
+              .andExpect(header().string("X-Total-Count", "2"))
+              .andExpect(jsonPath("$[0].id").value(ids.get(0)))
+              .andExpect(jsonPath("$[1].id").value(ids.get(1)));
+
+            mockMvc.perform(get("/api/products/search").param("q", "ban phim zentrix"))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$.length()").value(1))
+              .andExpect(jsonPath("$[0].id").value(ids.get(0)));
+
+            mockMvc.perform(delete("/api/products/" + ids.get(0)))
+              .andExpect(status().isNoContent());
+            mockMvc.perform(get("/api/products/search").param("q", "zentrix"))
+              .andExpect(status().isOk())
+              .andExpect(header().string("X-Total-Count", "1"))
+              .andExpect(jsonPath("$[0].id").value(ids.get(1)));
+        } finally {
+            mockMvc.perform(delete("/api/products/batch")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(objectMapper.writeValueAsString(ids)));
+        }
+    }
+
+    // Optimistic locking + PATCH /api/products/{id}/stock
+    @Test
+    @DisplayName("Stock - atomic delta, insufficient stock and stale version are reported as 409")
+    void testAdjustStockAndStaleVersion() throws Exception {
+        String productJson = "{" +
+          "\"name\":\"Stock\"," +
+          "\"category\":\"Cat\"," +
+          "\"price\":10," +
+          "\"quantity\":5}";
+        String response = mockMvc.perform(post("/api/products")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(productJson))
+          .andExpect(status().isCreated())
+          .andExpect(jsonPath("$.version").value(0))
+          .andReturn().getResponse().getContentAsString();
+        int id = objectMapper.readTree(response).get("id").asInt();
+
+        mockMvc.perform(patch("/api/products/" + id + "/stock")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content("{\"delta\":-3}"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.quantity").value(2))
+          .andExpect(jsonPath("$.version").value(1));
+        mockMvc.perform(patch("/api/products/" + id + "/stock")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content("{\"delta\":-3}"))
+          .andExpect(status().isConflict());
+        mockMvc.perform(patch("/api/products/" + id + "/stock")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content("{}"))
+          .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/products/999999/stock")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content("{\"delta\":1}"))
+          .andExpect(status().isNotFound());
+
+        // PUT kèm version đã đọc trước lần điều chỉnh tồn kho bị từ chối
+        String stale = "{" +
+          "\"name\":\"Stock\"," +
+          "\"price\":10," +
+          "\"quantity\":5," +
+          "\"version\":0}";
+        mockMvc.perform(put("/api/products/" + id)
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(stale))
+          .andExpect(status().isConflict());
+        mockMvc.perform(put("/api/products/" + id)
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(stale.replace("\"version\":0", "\"version\":1")))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.quantity").value(5))
+          .andExpect(jsonPath("$.version").value(2));
+    }
+
+    // Nhiều request trừ kho đồng thời trên cùng sản phẩm: không mất cập nhật, tồn kho không âm
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Stock - concurrent decrements never oversell")
+    void testConcurrentStockAdjustments() throws Exception {
+        String productJson = "{" +
+          "\"name\":\"Hot SKU\"," +
+          "\"price\":10," +
+          "\"quantity\":10}";
+        String response = mockMvc.perform(post("/api/products")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(productJson))
+          .andExpect(status().isCreated())
+          .andReturn().getResponse().getContentAsString();
+        int id = objectMapper.readTree(response).get("id").asInt();
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                statuses.add(pool.submit(() -> mockMvc.perform(patch("/api/products/" + id + "/stock")
+                  .contentType(MediaType.APPLICATION_JSON)
+                  .content("{\"delta\":-1}"))
+                  .andReturn().getResponse().getStatus()));
+            }
+            int ok = 0;
+            int conflict = 0;
+            for (Future<Integer> status : statuses) {
+                int code = status.get(30, TimeUnit.SECONDS);
+                if (code == 200) {
+                    ok++;
+                } else if (code == 409) {
+                    conflict++;
+                }
+            }
+            assertEquals(10, ok);
+            assertEquals(10, conflict);
+            mockMvc.perform(get("/api/products/" + id))
+              .andExpect(status().isOk())
+              .andExpect(jsonPath("$.quantity").value(0))
+              .andExpect(jsonPath("$.version").value(10));
+        } finally {
+            pool.shutdownNow();
+            mockMvc.perform(delete("/api/products/" + id));
+        }
+    }
+
+    // Xóa và trừ kho đồng thời trên cùng sản phẩm: transaction ghi chỉ khóa dòng sản phẩm của nó
+    // (change sequence lấy từ AUTO_INCREMENT) nên không có deadlock / lỗi 500
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Stock - concurrent delete and stock adjustment never fail with 500")
+    void testConcurrentDeleteAndStockAdjustment() throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String response = mockMvc.perform(post("/api/products")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content("{\"name\":\"Delete race " + i + "\",\"price\":10,\"quantity\":100}"))
+              .andExpect(status().isCreated())
+              .andReturn().getResponse().getContentAsString();
+            ids.add(objectMapper.readTree(response).get("id").asInt());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> adjustments = new ArrayList<>();
+            List<Future<Integer>> deletes = new ArrayList<>();
+            for (int id : ids) {
+                for (int i = 0; i < 3; i++) {
+                    adjustments.add(pool.submit(() -> mockMvc.perform(patch("/api/products/" + id + "/stock")
+                      .contentType(MediaType.APPLICATION_JSON)
+                      .content("{\"delta\":-1}"))
+                      .andReturn().getResponse().getStatus()));
+                }
+                deletes.add(pool.submit(() -> mockMvc.perform(delete("/api/products/" + id))
+                  .andReturn().getResponse().getStatus()));
+            }
+            for (Future<Integer> status : adjustments) {
+                int code = status.get(30, TimeUnit.SECONDS);
+                assertTrue(code == 200 || code == 404 || code == 409, "unexpected status " + code);
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                int code = deletes.get(i).get(30, TimeUnit.SECONDS);
+                // 409: sản phẩm vừa được trừ kho sau khi request xóa đọc nó
+                assertTrue(code == 204 || code == 409, "unexpected status " + code);
+                if (code == 204) {
+                    mockMvc.perform(get("/api/products/" + ids.get(i)))
+                      .andExpect(status().isNotFound());
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+            for (int id : ids) {
+                mockMvc.perform(delete("/api/products/" + id));
+            }
+        }
+    }
+
+    // JSON Merge Patch - PATCH /api/products/{id}
+    @Test
+    @DisplayName("Patch Product - merge patch changes only supplied fields")
+    void testPatchProduct() throws Exception {
+        String productJson = "{" +
+          "\"name\":\"Patch me\"," +
+          "\"description\":\"Desc\"," +
+          "\"category\":\"Cat\"," +
+          "\"price\":10," +
+          "\"quantity\":5}";
+        String response = mockMvc.perform(post("/api/products")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(productJson))
+          .andExpect(status().isCreated())
+          .andReturn().getResponse().getContentAsString();
+        int id = objectMapper.readTree(response).get("id").asInt();
+
+        mockMvc.perform(patch("/api/products/" + id)
+          .contentType("application/merge-patch+json")
+          .content("{\"price\":12.5,\"description\":null}"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.price").value(12.5))
+          .andExpect(jsonPath("$.description").doesNotExist())
+          .andExpect(jsonPath("$.name").value("Patch me"))
+          .andExpect(jsonPath("$.quantity").value(5))
+          .andExpect(jsonPath("$.version").value(1));
+
+        // Vi phạm validation, field không tồn tại / không được sửa, body không phải object
+        mockMvc.perform(patch("/api/products/" + id)
+          .contentType("application/merge-patch+json")
+          .content("{\"name\":\"\"}"))
+          .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/products/" + id)
+          .contentType("application/merge-patch+json")
+          .content("{\"color\":\"red\"}"))
+          .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/products/" + id)
+          .contentType("application/merge-patch+json")
+          .content("{\"id\":1}"))
+          .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/products/" + id)
+          .contentType("application/merge-patch+json")
+          .content("[]"))
+          .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/products/" + id)
+          .contentType("application/merge-patch+json")
+          .content("{\"updatedAt\":\"2020-01-01T00:00:00Z\"}"))
+          .andExpect(status().isBadRequest());
+
+        // Xóa quantity (null) bị từ chối, không âm thầm đặt tồn kho về 0; gửi rõ 0 thì được
+        mockMvc.perform(patch("/api/products/" + id)
+          .contentType("application/merge-patch+json")
+          .content("{\"quantity\":null}"))
+          .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/products/" + id))
+          .andExpect(jsonPath("$.quantity").value(5));
+        mockMvc.perform(patch("/api/products/" + id)
+          .contentType("application/merge-patch+json")
+          .content("{\"quantity\":0}"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$.quantity").value(0))
+          .andExpect(jsonPath("$.version").value(2));
+
+        mockMvc.perform(patch("/api/products/" + id)
+          .contentType("application/merge-patch+json")
+          .content("{\"quantity\":1,\"version\":1}"))
+          .andExpect(status().isConflict());
+        mockMvc.perform(patch("/api/products/999999")
+          .contentType("application/merge-patch+json")
+          .content("{\"quantity\":1}"))
+          .andExpect(status().isNotFound());
+    }
+
+    // Conditional GET - ETag / Last-Modified cho chi tiết sản phẩm
+    @Test
+    @DisplayName("Conditional GET - product detail answers If-None-Match / If-Modified-Since with 304")
+    void testConditionalGetProduct() throws Exception {
+        String productJson = "{" +
+          "\"name\":\"Etag\"," +
+          "\"price\":10," +
+          "\"quantity\":5}";
+        String response = mockMvc.perform(post("/api/products")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content(productJson))
+          .andExpect(status().isCreated())
+          .andExpect(jsonPath("$.updatedAt").exists())
+          .andReturn().getResponse().getContentAsString();
+        int id = objectMapper.readTree(response).get("id").asInt();
+
+        MvcResult first = mockMvc.perform(get("/api/products/" + id))
+          .andExpect(status().isOk())
+          .andExpect(header().string("ETag", "W/\"" + id + ".0\""))
+          .andExpect(header().exists("Last-Modified"))
+          .andExpect(header().string("Cache-Control", "no-cache"))
+          .andExpect(header().stringValues("Vary", hasItem("Accept")))
+          .andReturn();
+        String lastModified = first.getResponse().getHeader("Last-Modified");
+
+        mockMvc.perform(get("/api/products/" + id).header("If-None-Match", "W/\"" + id + ".0\""))
+          .andExpect(status().isNotModified())
+          .andExpect(header().string("ETag", "W/\"" + id + ".0\""))
+          .andExpect(content().string(""));
+        mockMvc.perform(get("/api/products/" + id).header("If-Modified-Since", lastModified))
+          .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch("/api/products/" + id)
+          .contentType("application/merge-patch+json")
+          .content("{\"price\":11}"))
+          .andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/" + id).header("If-None-Match", "\"" + id + ".0\""))
+          .andExpect(status().isOk())
+          .andExpect(header().string("ETag", "W/\"" + id + ".1\""))
+          .andExpect(jsonPath("$.price").value(11));
+    }
+
+    // Conditional GET - ETag của danh sách theo phiên bản chung của danh mục
+    // Phiên bản chỉ tăng khi transaction commit nên test này không chạy trong transaction
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Conditional GET - product list ETag follows the catalog version, including deletes")
+    void testConditionalGetCatalog() throws Exception {
+        String eTag = mockMvc.perform(get("/api/products"))
+          .andExpect(status().isOk())
+          .andExpect(header().exists("ETag"))
+          .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/products").header("If-None-Match", eTag))
+          .andExpect(status().isNotModified());
+
+        String response = mockMvc.perform(post("/api/products")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content("{\"name\":\"Catalog\",\"price\":10,\"quantity\":1}"))
+          .andExpect(status().isCreated())
+          .andReturn().getResponse().getContentAsString();
+        int id = objectMapper.readTree(response).get("id").asInt();
+
+        String afterCreate = mockMvc.perform(get("/api/products").header("If-None-Match", eTag))
+          .andExpect(status().isOk())
+          .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(eTag, afterCreate);
+
+        mockMvc.perform(delete("/api/products/" + id))
+          .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/products").header("If-None-Match", afterCreate))
+          .andExpect(status().isOk());
+    }
+
+    // Thống kê theo danh mục - GET /api/products/stats
+    // Số liệu chỉ được cập nhật sau khi commit nên test không chạy trong transaction
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Stats - per-category aggregates follow creates, updates and deletes")
+    void testCategoryStats() throws Exception {
+        String category = "Stats " + System.nanoTime();
+        int[] ids = new int[2];
+        for (int i = 0; i < ids.length; i++) {
+            String response = mockMvc.perform(post("/api/products")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content("{\"name\":\"Stats " + i + "\",\"category\":\"" + category + "\",\"price\":2.5,\"quantity\":4}"))
+              .andExpect(status().isCreated())
+              .andReturn().getResponse().getContentAsString();
+            ids[i] = objectMapper.readTree(response).get("id").asInt();
+        }
+        JsonNode stats = categoryStats(category);
+        assertEquals(2, stats.get("productCount").asLong());
+        assertEquals(8, stats.get("totalStock").asLong());
+        assertEquals(20.0, stats.get("inventoryValue").asDouble(), 1e-9);
+
+        mockMvc.perform(patch("/api/products/" + ids[0] + "/stock")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content("{\"delta\":-3}"))
+          .andExpect(status().isOk());
+        mockMvc.perform(delete("/api/products/" + ids[1])).andExpect(status().isNoContent());
+        stats = categoryStats(category);
+        assertEquals(1, stats.get("productCount").asLong());
+        assertEquals(1, stats.get("totalStock").asLong());
+        assertEquals(2.5, stats.get("inventoryValue").asDouble(), 1e-9);
+
+        // Đối chiếu với GROUP BY không làm đổi số liệu đúng
+        productStatsService.reconcile();
+        assertEquals(1, categoryStats(category).get("totalStock").asLong());
+
+        mockMvc.perform(delete("/api/products/" + ids[0]));
+        assertEquals(null, categoryStats(category));
+    }
+
+    private JsonNode categoryStats(String category) throws Exception {
+        String body = mockMvc.perform(get("/api/products/stats"))
+          .andExpect(status().isOk())
+          .andReturn().getResponse().getContentAsString();
+        for (JsonNode stats : objectMapper.readTree(body)) {
+            if (category.equals(stats.get("category").asText())) {
+                return stats;
+            }
+        }
+        return null;
+    }
+
+    // Snapshot danh mục - GET /api/products và /search đọc từ snapshot in-memory
+    // Snapshot chỉ được cập nhật sau khi commit nên test không chạy trong transaction
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Snapshot - list and filter reads follow committed writes from the in-memory catalog snapshot")
+    void testCatalogSnapshotReads() throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (productSnapshotService.current() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertNotNull(productSnapshotService.current());
+
+        String category = "Snapshot " + System.nanoTime();
+        String response = mockMvc.perform(post("/api/products")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content("{\"name\":\"Snapshot A\",\"category\":\"" + category + "\",\"price\":7.5,\"quantity\":2}"))
+          .andExpect(status().isCreated())
+          .andReturn().getResponse().getContentAsString();
+        int id = objectMapper.readTree(response).get("id").asInt();
+
+        // Lần ghi không chờ snapshot: client vừa ghi đọc lại thấy ngay thay đổi của mình (từ database nếu cần)
+        mockMvc.perform(get("/api/products").param("after", String.valueOf(id - 1)).param("limit", "1"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$[0].id").value(id))
+          .andExpect(jsonPath("$[0].category").value(category));
+
+        // Snapshot theo kịp sau khi được đánh thức; ETag là version của snapshot
+        long written = catalogVersionTracker.currentVersion().getVersion();
+        deadline = System.currentTimeMillis() + 10_000;
+        while (productSnapshotService.current().getVersion() < written && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        MvcResult list = mockMvc.perform(get("/api/products").param("after", String.valueOf(id - 1)).param("limit", "1"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$[0].id").value(id))
+          .andReturn();
+        assertEquals(ConditionalRequests.eTag("catalog", productSnapshotService.current().getVersion()),
+                list.getResponse().getHeader("ETag"));
+
+        mockMvc.perform(patch("/api/products/" + id + "/stock")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content("{\"delta\":-2}"))
+          .andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/search").param("category", category).param("inStock", "false"))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$[0].id").value(id))
+          .andExpect(jsonPath("$[0].quantity").value(0));
+
+        mockMvc.perform(delete("/api/products/" + id)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/products/search").param("category", category))
+          .andExpect(status().isOk())
+          .andExpect(jsonPath("$").isEmpty());
+    }
+
+    // Đồng bộ thay đổi - GET /api/products/changes?since=
+    // Sequence được gán lúc commit nên test không chạy trong transaction
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Changes - returns only rows written since a sequence, tombstones for deletes")
+    void testChangesSince() throws Exception {
+        long since = syncAll(0);
+
+        int[] ids = new int[2];
+        for (int i = 0; i < ids.length; i++) {
+            String response = mockMvc.perform(post("/api/products")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content("{\"name\":\"Sync " + i + "\",\"category\":\"Cat\",\"price\":10,\"quantity\":1}"))
+              .andExpect(status().isCreated())
+              .andReturn().getResponse().getContentAsString();
+            ids[i] = objectMapper.readTree(response).get("id").asInt();
+        }
+        mockMvc.perform(put("/api/products/" + ids[0])
+          .contentType(MediaType.APPLICATION_JSON)
+          .content("{\"name\":\"Sync 0b\",\"category\":\"Cat\",\"price\":12,\"quantity\":1}"))
+          .andExpect(status().isOk());
+
+        // Mỗi sản phẩm xuất hiện 1 lần với trạng thái mới nhất, theo thứ tự ghi
+        JsonNode changes = changes(since, 500);
+        assertEquals(2, changes.get("items").size());
+        assertEquals(ids[1], changes.get("items").get(0).get("id").asInt());
+        assertEquals("Sync 0b", changes.get("items").get(1).get("name").asText());
+        assertEquals(0, changes.get("deleted").size());
+        assertTrue(!changes.get("hasMore").asBoolean());
+        long afterWrites = changes.get("since").asLong();
+
+        mockMvc.perform(delete("/api/products/" + ids[1])).andExpect(status().isNoContent());
+        changes = changes(afterWrites, 500);
+        assertEquals(0, changes.get("items").size());
+        assertEquals(ids[1], changes.get("deleted").get(0).asInt());
+        long afterDelete = changes.get("since").asLong();
+        assertTrue(afterDelete > afterWrites);
+
+        changes = changes(afterDelete, 500);
+        assertEquals(0, changes.get("items").size());
+        assertEquals(0, changes.get("deleted").size());
+        assertEquals(afterDelete, changes.get("since").asLong());
+
+        // Phân trang: limit=1 trả lần lượt sản phẩm đã sửa rồi tombstone
+        changes = changes(since, 1);
+        assertEquals(ids[0], changes.get("items").get(0).get("id").asInt());
+        assertTrue(changes.get("hasMore").asBoolean());
+        changes = changes(changes.get("since").asLong(), 1);
+        assertEquals(ids[1], changes.get("deleted").get(0).asInt());
+        assertEquals(afterDelete, changes.get("since").asLong());
+
+        mockMvc.perform(delete("/api/products/" + ids[0]));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Changes - rows written by one transaction are never split across pages")
+    void testChangesKeepTransactionTogether() throws Exception {
+        long since = syncAll(0);
+        String response = mockMvc.perform(post("/api/products/batch")
+          .contentType(MediaType.APPLICATION_JSON)
+          .content("[" +
+            "{\"name\":\"Group A\",\"price\":10,\"quantity\":1}," +
+            "{\"name\":\"Group B\",\"price\":10,\"quantity\":1}," +
+            "{\"name\":\"Group C\",\"price\":10,\"quantity\":1}]"))
+          .andExpect(status().isOk())
+          .andReturn().getResponse().getContentAsString();
+        List<Integer> ids = new ArrayList<>();
+        for (JsonNode item : objectMapper.readTree(response).get("items")) {
+            ids.add(item.get("id").asInt());
+        }
+        try {
+            JsonNode changes = changes(since, 2);
+            assertEquals(3, changes.get("items").size());
+            assertTrue(changes.get("hasMore").asBoolean());
+            JsonNode rest = changes(changes.get("since").asLong(), 2);
+            assertEquals(0, rest.get("items").size());
+            assertTrue(!rest.get("hasMore").asBoolean());
+        } finally {
+            mockMvc.perform(delete("/api/products/batch")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(ids.toString()));
+        }
+    }
+
+    private JsonNode changes(long since, int limit) throws Exception {
+        String body = mockMvc.perform(get("/api/products/changes")
+          .param("since", String.valueOf(since))
+          .param("limit", String.valueOf(limit)))
+          .andExpect(status().isOk())
+          .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    /**
+     * Đồng bộ hết các thay đổi hiện có, trả về since mới nhất
+     */
+    private long syncAll(long since) throws Exception {
+        JsonNode changes;
+        do {
+            changes = changes(since, 500);
+            since = changes.get("since").asLong();
+        } while (changes.get("hasMore").asBoolean());
+        return since;
+    }
+
+    // Stream SSE - GET /api/products/stream
+    // Event chỉ được phát sau khi transaction ghi commit nên test không chạy trong transaction
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @DisplayName("Stream - product changes are pushed as SSE and replayed after Last-Event-ID")
+    void testProductChangeStream() throws Exception {
+        MvcResult live = mockMvc.perform(get("/api/products/stream").accept(MediaType.TEXT_EVENT_STREAM))
+          .andExpect(request().asyncStarted())
+          .andReturn();
+        MvcResult resumed = null;
+        try {
+            String productJson = "{" +
+              "\"name\":\"Stream\"," +
+              "\"description\":\"Desc\"," +
+              "\"category\":\"Cat\"," +
+              "\"price\":99," +
+              "\"quantity\":5}";
+            String response = mockMvc.perform(post("/api/products")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(productJson))
+              .andExpect(status().isCreated())
+              .andReturn().getResponse().getContentAsString();
+            int id = objectMapper.readTree(response).get("id").asInt();
+
+            String createdId = null;
+            for (String event : awaitEvent(live, "\"productId\":" + id).split("\n\n")) {
+                if (event.contains("\"productId\":" + id)) {
+                    assertTrue(event.contains("event:created"));
+                    createdId = event.lines().filter(line -> line.startsWith("id:")).findFirst().orElseThrow().substring(3);
+                }
+            }
+
+            mockMvc.perform(delete("/api/products/" + id)).andExpect(status().isNoContent());
+            awaitEvent(live, "event:deleted");
+
+            // Kết nối lại sau event created: nhận lại event deleted đã lỡ
+            resumed = mockMvc.perform(get("/api/products/stream")
+              .accept(MediaType.TEXT_EVENT_STREAM)
+              .header("Last-Event-ID", createdId))
+              .andExpect(request().asyncStarted())
+              .andReturn();
+            String replayed = awaitEvent(resumed, "event:deleted");
+            assertTrue(replayed.contains("\"productId\":" + id));
+            assertTrue(!replayed.contains("event:created"));
+
+            // Id không hợp lệ (ví dụ của lần chạy trước): yêu cầu client tải lại
+            MvcResult stale = mockMvc.perform(get("/api/products/stream")
+              .accept(MediaType.TEXT_EVENT_STREAM)
+              .header("Last-Event-ID", "old-1"))
+              .andExpect(request().asyncStarted())
+              .andReturn();
+            awaitEvent(stale, "event:resync");
+            stale.getRequest().getAsyncContext().complete();
+        } finally {
+            live.getRequest().getAsyncContext().complete();
+            if (resumed != null) {
+                resumed.getRequest().getAsyncContext().complete();
+            }
+        }
+    }
+
+    /**
+     * Chờ (tối đa 5 giây) tới khi response SSE chứa text, trả về toàn bộ nội dung đã nhận
+     */
+    private static String awaitEvent(MvcResult result, String text) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        while (!body.contains(text) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        }
+        assertTrue(body.contains(text), "SSE response did not contain " + text + ": " + body);
+        return body;
+    }
+
+    // Định dạng nhị phân: CBOR / Smile theo content negotiation, JSON vẫn là mặc định
+    @Test
+    @DisplayName("Wire format - products round-trip as CBOR and Smile with the same fields as JSON")
+    void testBinaryWireFormats() throws Exception {
+        CBORMapper cbor = new CBORMapper();
+        byte[] body = cbor.writeValueAsBytes(objectMapper.readTree(
+          "{\"name\":\"Nhị phân\",\"description\":\"Mô tả rất dài cho sản phẩm nhị phân\",\"price\":12.5,\"quantity\":3}"));
+        byte[] created = mockMvc.perform(post("/api/products")
+          .contentType("application/cbor")
+          .accept("application/cbor")
+          .content(body))
+          .andExpect(status().isCreated())
+          .andExpect(content().contentType("application/cbor"))
+          .andReturn().getResponse().getContentAsByteArray();
+        JsonNode product = cbor.readTree(created);
+        int id = product.get("id").asInt();
+        assertEquals("Nhị phân", product.get("name").asText());
+
+        byte[] smile = mockMvc.perform(get("/api/products/" + id).accept("application/x-jackson-smile"))
+          .andExpect(status().isOk())
+          .andExpect(content().contentType("application/x-jackson-smile"))
+          .andReturn().getResponse().getContentAsByteArray();
+        String json = mockMvc.perform(get("/api/products/" + id))
+          .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+          .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertEquals(objectMapper.readTree(json), new SmileMapper().readTree(smile));
+        assertTrue(created.length < json.getBytes(StandardCharsets.UTF_8).length);
+    }
+}
@@ -0,0 +1,214 @@
+package com.flogin.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Product API trên stack reactive (profile reactive): WebFlux + R2DBC trên H2 riêng của test này
+ * Không có transaction bao quanh test như stack MVC, sản phẩm tạo ra được xóa sau mỗi test
+ */
+@SpringBootTest(classes = com.flogin.FloginApplication.class, properties = {
+    "spring.datasource.url=jdbc:h2:mem:reactivedb",
+    "app.r2dbc.url=r2dbc:h2:mem:///reactivedb",
+    "app.r2dbc.username=sa",
+    "app.r2dbc.password="
+})
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+public class ReactiveProductControllerIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Integer> created = new ArrayList<>();
+
+    @AfterEach
+    void deleteCreatedProducts() {
+        for (int id : created) {
+            webTestClient.delete().uri("/api/products/" + id).exchange();
+        }
+        created.clear();
+    }
+
+    private JsonNode createProduct(String name, int quantity) throws Exception {
+        String productJson = "{" +
+          "\"name\":\"" + name + "\"," +
+          "\"description\":\"Desc\"," +
+          "\"category\":\"Cat\"," +
+          "\"price\":99," +
+          "\"quantity\":" + quantity + "}";
+        byte[] response = webTestClient.post().uri("/api/products")
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue(productJson)
+          .exchange()
+          .expectStatus().isCreated()
+          .expectBody().returnResult().getResponseBody();
+        JsonNode product = objectMapper.readTree(response);
+        created.add(product.get("id").asInt());
+        return product;
+    }
+
+    @Test
+    @DisplayName("Reactive - create, read, update and delete a product")
+    void testCrud() throws Exception {
+        JsonNode product = createProduct("Reactive", 5);
+        int id = product.get("id").asInt();
+        assertEquals(0, product.get("version").asInt());
+
+        webTestClient.get().uri("/api/products/" + id)
+          .exchange()
+          .expectStatus().isOk()
+          .expectBody()
+          .jsonPath("$.name").isEqualTo("Reactive")
+          .jsonPath("$.quantity").isEqualTo(5);
+
+        webTestClient.put().uri("/api/products/" + id)
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue("{\"name\":\"Updated\",\"price\":100,\"quantity\":10,\"version\":0}")
+          .exchange()
+          .expectStatus().isOk()
+          .expectBody()
+          .jsonPath("$.name").isEqualTo("Updated")
+          .jsonPath("$.version").isEqualTo(1);
+
+        webTestClient.delete().uri("/api/products/" + id)
+          .exchange()
+          .expectStatus().isNoContent();
+        webTestClient.get().uri("/api/products/" + id)
+          .exchange()
+          .expectStatus().isNotFound();
+        webTestClient.delete().uri("/api/products/" + id)
+          .exchange()
+          .expectStatus().isNotFound();
+        created.remove(Integer.valueOf(id));
+    }
+
+    @Test
+    @DisplayName("Reactive - stale version and insufficient stock are reported as 409")
+    void testConflicts() throws Exception {
+        int id = createProduct("Stock", 5).get("id").asInt();
+
+        webTestClient.patch().uri("/api/products/" + id + "/stock")
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue("{\"delta\":-3}")
+          .exchange()
+          .expectStatus().isOk()
+          .expectBody()
+          .jsonPath("$.quantity").isEqualTo(2)
+          .jsonPath("$.version").isEqualTo(1);
+        webTestClient.patch().uri("/api/products/" + id + "/stock")
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue("{\"delta\":-3}")
+          .exchange()
+          .expectStatus().isEqualTo(409);
+        webTestClient.put().uri("/api/products/" + id)
+          .contentType(MediaType.APPLICATION_JSON)
+          .bodyValue("{\"name\":\"Stock\",\"price\":10,\"quantity\":5,\"version\":0}")
+          .exchange()
+          .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    @DisplayName("Reactive - keyset pagination and list ETag follow the catalog version")
+    void testPaginationAndCatalogETag() throws Exception {
+        int[] ids = new int[3];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = createProduct("Paged " + i, 5).get("id").asInt();
+        }
+
+        String eTag = webTestClient.get().uri("/api/products?after=" + (ids[0] - 1) + "&limit=2")
+          .exchange()
+          .expectStatus().isOk()
+          .expectHeader().valueEquals("X-Next-Cursor", String.valueOf(ids[1]))
+          .expectHeader().value("Link", link -> assertTrue(link.contains("after=" + ids[1])))
+          .expectBody()
+          .jsonPath("$.length()").isEqualTo(2)
+          .jsonPath("$[0].id").isEqualTo(ids[0])
+          .returnResult().getResponseHeaders().getETag();
+        webTestClient.get().uri("/api/products?after=" + ids[1] + "&limit=2")
+          .exchange()
+          .expectStatus().isOk()
+          .expectHeader().doesNotExist("X-Next-Cursor")
+          .expectBody()
+          .jsonPath("$.length()").isEqualTo(1);
+
+        webTestClient.get().uri("/api/products")
+          .header("If-None-Match", eTag)
+          .exchange()
+          .expectStatus().isNotModified();
+        webTestClient.delete().uri("/api/products/" + ids[2])
+          .exchange()
+          .expectStatus().isNoContent();
+        created.remove(Integer.valueOf(ids[2]));
+        String afterDelete = webTestClient.get().uri("/api/products")
+          .header("If-None-Match", eTag)
+          .exchange()
+          .expectStatus().isOk()
+          .expectBody().returnResult().getResponseHeaders().getETag();
+        assertNotEquals(eTag, afterDelete);
+    }
+
+    @Test
+    @DisplayName("Reactive - product detail answers If-None-Match with 304")
+    void testConditionalGetProduct() throws Exception {
+        int id = createProduct("Etag", 5).get("id").asInt();
+
+        webTestClient.get().uri("/api/products/" + id)
+          .exchange()
+          .expectStatus().isOk()
+          .expectHeader().valueEquals("ETag", "W/\"" + id + ".0\"")
+          .expectHeader().exists("Last-Modified");
+        webTestClient.get().uri("/api/products/" + id)
+          .header("If-None-Match", "W/\"" + id + ".0\"")
+          .exchange()
+          .expectStatus().isNotModified()
+          .expectBody().isEmpty();
+    }
+
+    @Test
+    @DisplayName("Reactive - export streams NDJSON in id order")
+    void testExportNdjson() throws Exception {
+        int first = createProduct("Export 0", 5).get("id").asInt();
+        int second = createProduct("Export 1", 5).get("id").asInt();
+
+        String body = webTestClient.get().uri("/api/products/export")
+          .exchange()
+          .expectStatus().isOk()
+          .expectHeader().contentTypeCompatibleWith("application/x-ndjson")
+          .expectBody(String.class).returnResult().getResponseBody();
+
+        List<Integer> exportedIds = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            exportedIds.add(objectMapper.readTree(line).get("id").asInt());
+        }
+        assertTrue(exportedIds.indexOf(first) >= 0);
+        assertTrue(exportedIds.indexOf(first) < exportedIds.indexOf(second));
+    }
+
+    @Test
+    @DisplayName("Reactive - only the product API is served")
+    void testOnlyProductApi() {
+        webTestClient.get().uri("/api/users")
+          .exchange()
+          .expectStatus().isNotFound();
+    }
+}
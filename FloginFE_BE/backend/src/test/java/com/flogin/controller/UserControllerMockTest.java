@@ -3,6 +3,7 @@ package com.flogin.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 // import com.flogin.controller.UserController; // Xóa vì không dùng
 import com.flogin.dto.UserDTO;
+import com.flogin.security.LoginRateLimiter;
 import com.flogin.service.UserService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -33,7 +34,7 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 
 @WebMvcTest(UserController.class)
-@Import(UserControllerMockTest.NoSecurityConfig.class)
+@Import({UserControllerMockTest.NoSecurityConfig.class, JsonMergePatch.class})
 @AutoConfigureMockMvc(addFilters = false)
 
 public class UserControllerMockTest {
@@ -58,6 +59,9 @@ public class UserControllerMockTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private LoginRateLimiter loginRateLimiter;
+
     // 5.1.2b - Test controller với mocked service
     @Test
     @DisplayName("5.1.2b - Test login with mocked service - Success")
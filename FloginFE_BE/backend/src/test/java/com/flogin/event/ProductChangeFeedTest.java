@@ -0,0 +1,191 @@
+package com.flogin.event;
+
+import com.flogin.dto.ProductDTO;
+import com.flogin.exception.ServiceBusyException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductChangeFeedTest {
+
+    /** Ghi lại những gì feed gửi xuống 1 kết nối */
+    private static class RecordingSink implements ProductChangeFeed.Sink {
+        final List<String> ids = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        int heartbeats;
+        boolean closed;
+        boolean failing;
+
+        @Override
+        public void send(String id, String name, String data) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            ids.add(id);
+            names.add(name);
+        }
+
+        @Override
+        public void heartbeat() {
+            heartbeats++;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+
+    /** Executor giữ tác vụ lại cho tới khi test gọi runAll (client chưa đọc) */
+    private static class PendingExecutor implements Executor {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    private static ProductChangeFeed feed(int replaySize, int bufferSize, int maxSubscribers, Executor writers) {
+        return new ProductChangeFeed(replaySize, bufferSize, maxSubscribers,
+                event -> "{\"productId\":" + event.getProductId() + "}", Runnable::run, writers);
+    }
+
+    private static ProductChangedEvent created(int id) {
+        return ProductChangedEvent.created(ProductDTO.builder().id(id).name("P" + id).price(1.0).quantity(1).build());
+    }
+
+    @Test
+    @DisplayName("Feed: subscriber nhận thay đổi theo thứ tự và tiếp tục được từ Last-Event-ID")
+    void testDeliveryAndReplay() {
+        try (ProductChangeFeed feed = feed(4, 8, 10, Runnable::run)) {
+            RecordingSink live = new RecordingSink();
+            feed.subscribe(live, null);
+            feed.publish(created(1));
+            ProductDTO product = ProductDTO.builder().id(1).build();
+            feed.publish(ProductChangedEvent.updated(product, product));
+            feed.publish(ProductChangedEvent.deleted(product));
+
+            assertEquals(List.of("created", "updated", "deleted"), live.names);
+            assertEquals(3, feed.publishedCount());
+
+            RecordingSink resumed = new RecordingSink();
+            feed.subscribe(resumed, live.ids.get(0));
+            assertEquals(live.ids.subList(1, 3), resumed.ids);
+
+            // Đã nhận hết thì không có gì để gửi lại
+            RecordingSink upToDate = new RecordingSink();
+            feed.subscribe(upToDate, live.ids.get(2));
+            assertTrue(upToDate.ids.isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Feed: id quá cũ, của lần chạy trước hoặc không hợp lệ thì nhận event resync")
+    void testResyncWhenReplayIsImpossible() {
+        try (ProductChangeFeed feed = feed(4, 8, 10, Runnable::run)) {
+            RecordingSink live = new RecordingSink();
+            feed.subscribe(live, null);
+            for (int id = 1; id <= 6; id++) {
+                feed.publish(created(id));
+            }
+
+            RecordingSink tooOld = new RecordingSink();
+            feed.subscribe(tooOld, live.ids.get(0));
+            assertEquals(List.of(ProductChangeFeed.RESYNC), tooOld.names);
+
+            RecordingSink foreign = new RecordingSink();
+            feed.subscribe(foreign, "previous-run-3");
+            assertEquals(List.of(ProductChangeFeed.RESYNC), foreign.names);
+
+            // Sau resync, subscriber tiếp tục nhận thay đổi mới
+            feed.publish(created(7));
+            assertEquals(List.of(ProductChangeFeed.RESYNC, "created"), foreign.names);
+        }
+    }
+
+    @Test
+    @DisplayName("Feed: client chậm làm đầy hàng đợi thì bị loại, không ảnh hưởng subscriber khác")
+    void testOverflowEvictsSlowSubscriber() {
+        PendingExecutor writers = new PendingExecutor();
+        try (ProductChangeFeed feed = feed(16, 2, 10, writers)) {
+            RecordingSink slow = new RecordingSink();
+            feed.subscribe(slow, null);
+            writers.runAll();
+
+            feed.publish(created(1));
+            feed.publish(created(2));
+            assertEquals(1, feed.subscriberCount());
+            feed.publish(created(3));
+            assertEquals(0, feed.subscriberCount());
+            assertEquals(1, feed.evictionCount(ProductChangeFeed.Eviction.OVERFLOW));
+
+            writers.runAll();
+            assertTrue(slow.closed);
+            assertTrue(slow.ids.isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Feed: heartbeat trước chưa ghi xong khi tới heartbeat sau thì subscriber bị loại")
+    void testStalledHeartbeatEvicts() {
+        PendingExecutor writers = new PendingExecutor();
+        try (ProductChangeFeed feed = feed(16, 4, 10, writers)) {
+            RecordingSink sink = new RecordingSink();
+            feed.subscribe(sink, null);
+            writers.runAll();
+
+            feed.heartbeat();
+            writers.runAll();
+            assertEquals(1, sink.heartbeats);
+
+            // Client ngừng đọc: heartbeat thứ 2 còn nằm trong hàng đợi khi tới heartbeat thứ 3
+            feed.heartbeat();
+            assertEquals(1, feed.subscriberCount());
+            feed.heartbeat();
+            assertEquals(0, feed.subscriberCount());
+            assertEquals(1, feed.evictionCount(ProductChangeFeed.Eviction.STALLED));
+
+            writers.runAll();
+            assertEquals(1, sink.heartbeats);
+            assertTrue(sink.closed);
+        }
+    }
+
+    @Test
+    @DisplayName("Feed: lỗi ghi loại subscriber, vượt số subscriber tối đa thì ServiceBusyException")
+    void testWriteErrorAndSubscriberLimit() {
+        try (ProductChangeFeed feed = feed(16, 4, 1, Runnable::run)) {
+            RecordingSink broken = new RecordingSink();
+            ProductChangeFeed.Subscription subscription = feed.subscribe(broken, null);
+            assertThrows(ServiceBusyException.class, () -> feed.subscribe(new RecordingSink(), null));
+
+            broken.failing = true;
+            feed.publish(created(1));
+            assertTrue(broken.closed);
+            assertEquals(1, feed.evictionCount(ProductChangeFeed.Eviction.ERROR));
+
+            // Chỗ trống được giải phóng; cancel lần nữa không ảnh hưởng gì
+            subscription.cancel();
+            RecordingSink next = new RecordingSink();
+            feed.subscribe(next, null);
+            feed.publish(created(2));
+            assertEquals(List.of("created"), next.names);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.flogin.search;
+
+import com.flogin.dto.ProductDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private static ProductDTO product(int id, String name, String category, String description) {
+        return ProductDTO.builder()
+                .id(id)
+                .name(name)
+                .category(category)
+                .description(description)
+                .price(10.0)
+                .quantity(1)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Index: tách từ bỏ dấu tiếng Việt và chữ hoa")
+    void testTokenizeStripsDiacritics() {
+        assertEquals(List.of("dien", "thoai", "iphone", "15"), ProductTextAnalyzer.tokenize("Điện thoại iPhone-15"));
+    }
+
+    @Test
+    @DisplayName("Index: mọi từ trong query phải khớp, name có trọng số cao hơn description")
+    void testAndQueryAndFieldWeights() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.upsert(product(1, "Tai nghe", "Âm thanh", "Chống ồn bluetooth"));
+        index.upsert(product(2, "Loa bluetooth", "Âm thanh", "Pin 10 giờ"));
+        index.upsert(product(3, "Sạc nhanh", "Phụ kiện", null));
+
+        SearchResult result = index.search("bluetooth", 0, 10);
+        assertEquals(2, result.getTotal());
+        assertEquals(List.of(2, 1), result.getProductIds());
+
+        assertEquals(List.of(2), index.search("am thanh loa", 0, 10).getProductIds());
+        assertEquals(0, index.search("loa sac", 0, 10).getTotal());
+    }
+
+    @Test
+    @DisplayName("Index: khớp tiền tố, phân trang bằng offset và cập nhật incremental")
+    void testPrefixPagingAndUpdates() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        for (int id = 1; id <= 5; id++) {
+            index.upsert(product(id, "Camera " + id, "Điện tử", null));
+        }
+        SearchResult page = index.search("cam", 2, 2);
+        assertEquals(5, page.getTotal());
+        assertEquals(List.of(3, 4), page.getProductIds());
+
+        index.upsert(product(3, "Máy ảnh", "Điện tử", null));
+        index.remove(4);
+        assertEquals(List.of(1, 2, 5), index.search("camera", 0, 10).getProductIds());
+        assertEquals(List.of(3), index.search("may anh", 0, 10).getProductIds());
+    }
+
+    @Test
+    @DisplayName("Index: tiền tố khớp quá nhiều term giữ các term phổ biến nhất và báo truncated")
+    void testPrefixExpansionKeepsFrequentTermsAndReportsTruncation() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        int terms = ProductSearchIndex.MAX_PREFIX_EXPANSIONS + 6;
+        for (int id = 1; id <= terms; id++) {
+            index.upsert(product(id, "Cam" + id, "Điện tử", null));
+        }
+        // "cam5" phổ biến hơn các term khác cùng tiền tố
+        for (int id = terms + 1; id <= terms + 10; id++) {
+            index.upsert(product(id, "Cam5", "Điện tử", null));
+        }
+
+        SearchResult result = index.search("cam", 0, 200);
+        assertTrue(result.isTruncated());
+        assertEquals(11 + ProductSearchIndex.MAX_PREFIX_EXPANSIONS - 1, result.getTotal());
+        assertEquals(result.getTotal(), result.getProductIds().size());
+        for (int id = terms + 1; id <= terms + 10; id++) {
+            assertTrue(result.getProductIds().contains(id));
+        }
+
+        // "cam5" và tiền tố của cam50..cam59: không vượt giới hạn
+        assertFalse(index.search("cam5", 0, 200).isTruncated());
+        assertEquals(21, index.search("cam5", 0, 200).getTotal());
+    }
+
+    @Test
+    @DisplayName("Index: thay đổi trong lúc rebuild không bị mất")
+    void testChangesDuringRebuildAreReplayed() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.rebuild(sink -> {
+            sink.accept(product(1, "Bàn làm việc", "Nội thất", null));
+            // Giả lập thay đổi được commit trong lúc đang quét
+            index.upsert(product(2, "Ghế làm việc", "Nội thất", null));
+            index.remove(1);
+        });
+        assertEquals(1, index.size());
+        assertEquals(List.of(2), index.search("lam viec", 0, 10).getProductIds());
+    }
+}
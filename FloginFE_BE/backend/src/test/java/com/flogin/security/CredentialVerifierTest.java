@@ -0,0 +1,90 @@
+package com.flogin.security;
+
+import com.flogin.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CredentialVerifierTest {
+
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+
+    @Test
+    @DisplayName("Verify: lần đăng nhập lặp lại dùng cache, không chạy lại BCrypt")
+    void testRepeatedLoginSkipsHashing() {
+        PasswordEncoder encoder = spy(bcrypt);
+        CredentialVerifier verifier = new CredentialVerifier(encoder, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(5), 2, Duration.ofSeconds(1));
+        String hash = bcrypt.encode("Test123");
+
+        assertTrue(verifier.matches("testuser", "Test123", hash));
+        assertTrue(verifier.matches("testuser", "Test123", hash));
+        verify(encoder, times(1)).matches(anyString(), anyString());
+        assertEquals(1, verifier.cacheStats().hitCount());
+    }
+
+    @Test
+    @DisplayName("Verify: sai mật khẩu không được cache, đổi mật khẩu làm entry cũ hết hiệu lực")
+    void testFailuresAndPasswordChangesAreNotCached() {
+        PasswordEncoder encoder = spy(bcrypt);
+        CredentialVerifier verifier = new CredentialVerifier(encoder, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(5), 2, Duration.ofSeconds(1));
+        String oldHash = bcrypt.encode("Test123");
+
+        assertFalse(verifier.matches("testuser", "Wrong123", oldHash));
+        assertFalse(verifier.matches("testuser", "Wrong123", oldHash));
+        assertTrue(verifier.matches("testuser", "Test123", oldHash));
+        assertFalse(verifier.matches("testuser", "Test123", bcrypt.encode("New123")));
+        verify(encoder, times(4)).matches(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Verify: username không tồn tại vẫn chạy đúng 1 lần BCrypt và luôn sai")
+    void testUnknownUserCostsOneHash() {
+        PasswordEncoder encoder = spy(bcrypt);
+        CredentialVerifier verifier = new CredentialVerifier(encoder, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(5), 2, Duration.ofSeconds(1));
+
+        assertFalse(verifier.matchesUnknownUser("Test123"));
+        assertFalse(verifier.matchesUnknownUser("Test123"));
+        // Hash giả được tạo 1 lần, mỗi lần thử tốn 1 lần matches như user thật (không cache)
+        verify(encoder, times(1)).encode(anyString());
+        verify(encoder, times(2)).matches(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Verify: quá giới hạn hash đồng thời thì ném ServiceBusyException")
+    void testHashingConcurrencyLimit() throws Exception {
+        CountDownLatch hashing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        when(slow.encode(anyString())).thenAnswer(invocation -> {
+            hashing.countDown();
+            release.await();
+            return "hash";
+        });
+        CredentialVerifier verifier = new CredentialVerifier(slow, new SimpleMeterRegistry(),
+                100, Duration.ofMinutes(5), 1, Duration.ofMillis(50));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> verifier.encode("Test123"));
+            hashing.await();
+            assertThrows(ServiceBusyException.class, () -> verifier.encode("Other123"));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+}
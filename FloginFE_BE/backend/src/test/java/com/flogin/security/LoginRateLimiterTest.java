@@ -0,0 +1,127 @@
+package com.flogin.security;
+
+import com.flogin.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginRateLimiterTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private LoginRateLimiter limiter(int usernameCapacity, int ipCapacity, int lockoutThreshold) {
+        return new LoginRateLimiter(meterRegistry,
+                new LoginRateLimiter.Limit(usernameCapacity, Duration.ofSeconds(10)),
+                new LoginRateLimiter.Limit(ipCapacity, Duration.ofSeconds(1)),
+                lockoutThreshold, Duration.ofSeconds(30), Duration.ofMinutes(2), 1000, clock);
+    }
+
+    @Test
+    @DisplayName("Rate limit: hết token theo username thì từ chối, token hồi lại theo thời gian")
+    void testUsernameBucketRefills() {
+        LoginRateLimiter limiter = limiter(3, 100, 100);
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("testuser", "10.0.0." + i);
+        }
+        // Đổi IP hay viết hoa username cũng không qua được bucket của username
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> limiter.acquire("TestUser", "10.0.0.9"));
+        assertEquals(10_000, ex.getRetryAfterMillis());
+        assertEquals("10", ex.getRetryAfterSeconds());
+        limiter.acquire("otheruser", "10.0.0.9");
+
+        clock.advance(Duration.ofSeconds(10));
+        limiter.acquire("testuser", "10.0.0.9");
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire("testuser", "10.0.0.9"));
+        assertEquals(2.0, meterRegistry.get("flogin.auth.login.attempts")
+                .tag("outcome", "rejected").tag("reason", "username").counter().count());
+    }
+
+    @Test
+    @DisplayName("Rate limit: 1 IP thử nhiều username bị chặn bởi bucket theo IP")
+    void testIpBucket() {
+        LoginRateLimiter limiter = limiter(100, 5, 100);
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire("user" + i, "10.0.0.1");
+        }
+        assertThrows(TooManyRequestsException.class, () -> limiter.acquire("user9", "10.0.0.1"));
+        limiter.acquire("user9", "10.0.0.2");
+
+        clock.advance(Duration.ofMillis(1500));
+        limiter.acquire("user9", "10.0.0.1");
+    }
+
+    @Test
+    @DisplayName("Lockout: sai liên tiếp thì khóa theo cặp (username, IP), thời gian khóa tăng gấp đôi")
+    void testExponentialLockout() {
+        LoginRateLimiter limiter = limiter(100, 100, 3);
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("testuser", "10.0.0.1");
+            limiter.recordFailure("testuser", "10.0.0.1");
+        }
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> limiter.acquire("testuser", "10.0.0.1"));
+        assertEquals(30_000, ex.getRetryAfterMillis());
+        // Người dùng thật ở IP khác không bị khóa
+        limiter.acquire("testuser", "10.0.0.2");
+
+        clock.advance(Duration.ofSeconds(30));
+        limiter.acquire("testuser", "10.0.0.1");
+        limiter.recordFailure("testuser", "10.0.0.1");
+        assertEquals(60_000, assertThrows(TooManyRequestsException.class,
+                () -> limiter.acquire("testuser", "10.0.0.1")).getRetryAfterMillis());
+
+        // Tối đa lockout.max
+        for (int i = 0; i < 5; i++) {
+            limiter.recordFailure("testuser", "10.0.0.1");
+        }
+        assertEquals(120_000, assertThrows(TooManyRequestsException.class,
+                () -> limiter.acquire("testuser", "10.0.0.1")).getRetryAfterMillis());
+        assertEquals(7.0, meterRegistry.get("flogin.auth.login.lockouts").counter().count());
+    }
+
+    @Test
+    @DisplayName("Lockout: đăng nhập đúng xóa bộ đếm sai")
+    void testSuccessResetsFailures() {
+        LoginRateLimiter limiter = limiter(100, 100, 3);
+        limiter.recordFailure("testuser", "10.0.0.1");
+        limiter.recordFailure("testuser", "10.0.0.1");
+        limiter.recordSuccess("testuser", "10.0.0.1");
+        limiter.recordFailure("testuser", "10.0.0.1");
+        limiter.recordFailure("testuser", "10.0.0.1");
+        limiter.acquire("testuser", "10.0.0.1");
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.flogin.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+    private TokenService tokenService(Instant now) {
+        return new TokenService("test-secret", Duration.ofHours(1), Duration.ofHours(3), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Token: phát hành rồi xác thực được, kể cả khi nằm sau tiền tố Bearer")
+    void testIssueAndVerify() {
+        IssuedToken issued = tokenService(NOW).issue(42);
+
+        AuthenticatedUser user = tokenService(NOW).verify("Bearer " + issued.getToken(), 7);
+        assertNotNull(user);
+        assertEquals(42, user.getId());
+        assertEquals(NOW.toEpochMilli(), user.getIssuedAt());
+        assertEquals(NOW.plus(Duration.ofHours(1)).getEpochSecond(), user.getExpiresAt());
+    }
+
+    @Test
+    @DisplayName("Token: sửa id, sai secret, sai định dạng hoặc hết hạn đều bị từ chối")
+    void testRejectsInvalidTokens() {
+        String token = tokenService(NOW).issue(42).getToken();
+
+        assertNull(tokenService(NOW).verify("43" + token.substring(2), 0));
+        assertNull(new TokenService("other-secret", Duration.ofHours(1), Duration.ofHours(3), Clock.fixed(NOW, ZoneOffset.UTC)).verify(token, 0));
+        assertNull(tokenService(NOW).verify(token.substring(0, token.length() - 1), 0));
+        assertNull(tokenService(NOW).verify("not-a-token", 0));
+        assertNull(tokenService(NOW.plus(Duration.ofHours(2))).verify(token, 0));
+    }
+
+    @Test
+    @DisplayName("Token: refresh giữ thời điểm đăng nhập, không kéo dài phiên quá max-session")
+    void testRefreshKeepsSessionStart() {
+        AuthenticatedUser user = tokenService(NOW).verify(tokenService(NOW).issue(42).getToken(), 0);
+
+        Instant later = NOW.plus(Duration.ofMinutes(150));
+        IssuedToken refreshed = tokenService(later).refresh(user);
+        assertNotNull(refreshed);
+        // Hạn bị cắt ở NOW + 3h thay vì later + 1h
+        assertEquals(NOW.plus(Duration.ofHours(3)).getEpochSecond(), refreshed.getExpiresAt());
+        AuthenticatedUser again = tokenService(later).verify(refreshed.getToken(), 0);
+        assertEquals(NOW.toEpochMilli(), again.getIssuedAt());
+
+        assertNull(tokenService(NOW.plus(Duration.ofHours(3))).refresh(again));
+    }
+}
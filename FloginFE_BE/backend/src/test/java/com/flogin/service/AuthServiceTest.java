@@ -1,18 +1,22 @@
 package com.flogin.service;
 
 import com.flogin.dto.UserDTO;
-import com.flogin.model.User;
 import com.flogin.repository.UserRepository;
+import com.flogin.security.CredentialVerifier;
+import com.flogin.security.FloginUserDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import com.flogin.service.impl.UserServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
-import java.util.Optional;
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,38 +27,43 @@ class AuthServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CustomUserDetailsService userDetailsService;
+
+    @Spy
+    private CredentialVerifier credentialVerifier = new CredentialVerifier(
+            new BCryptPasswordEncoder(4), new SimpleMeterRegistry(), 100, Duration.ofMinutes(5), 2, Duration.ofSeconds(1));
+
     @InjectMocks
     private UserServiceImpl userService;
 
     private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
-    private User sampleUser;
+    private FloginUserDetails sampleUser;
 
     @BeforeEach
     void setup() {
-        sampleUser = User.builder()
-                .id(1)
-                .username("testuser")
-                .password(passwordEncoder.encode("Test123"))
-                .fullName("Test User")
-                .email("test@example.com")
-                .build();
+        sampleUser = new FloginUserDetails(1, "testuser", passwordEncoder.encode("Test123"),
+                "Test User", "test@example.com");
     }
 
     @Test
     void testLoginSuccess() {
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(sampleUser));
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(sampleUser);
 
         UserDTO dto = userService.login("testuser", "Test123");
 
         assertNotNull(dto);
         assertEquals("testuser", dto.getUsername());
+        assertEquals("Test User", dto.getFullName());
+        assertEquals("test@example.com", dto.getEmail());
         assertNull(dto.getPassword());
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     void testLoginUserNotFound() {
-        when(userRepository.findByUsername("unknown")).thenReturn(Optional.empty());
+        when(userDetailsService.loadUserByUsername("unknown")).thenThrow(new UsernameNotFoundException("User not found"));
 
         RuntimeException ex = assertThrows(RuntimeException.class,
                 () -> userService.login("unknown", "Test123"));
@@ -64,7 +73,7 @@ class AuthServiceTest {
 
     @Test
     void testLoginWrongPassword() {
-        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(sampleUser));
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(sampleUser);
 
         RuntimeException ex = assertThrows(RuntimeException.class,
                 () -> userService.login("testuser", "WrongPass"));
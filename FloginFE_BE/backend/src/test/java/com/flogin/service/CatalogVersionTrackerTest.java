@@ -0,0 +1,130 @@
+package com.flogin.service;
+
+import com.flogin.dto.ProductChanges;
+import com.flogin.dto.ProductDTO;
+import com.flogin.service.impl.CatalogVersionTracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Change sequence cấp không khóa: transaction ghi commit không theo thứ tự sequence
+ * Không chạy trong transaction của test vì sequence chỉ được thấy sau khi commit
+ * (app.products.change-seq.commit-grace=1s trong application.properties của test)
+ */
+@SpringBootTest(classes = com.flogin.FloginApplication.class)
+class CatalogVersionTrackerTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CatalogVersionTracker catalogVersionTracker;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Change seq: sequence commit sau không được thấy trước 1 sequence nhỏ hơn chưa commit")
+    void testLaterSequenceWaitsForEarlierCommit() {
+        long since = syncAll(0);
+        List<Integer> ids = new ArrayList<>();
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                ids.add(create("Seq first"));
+                // Đăng ký sau CatalogVersionTracker: chạy khi transaction này đã lấy sequence nhưng chưa commit
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        ProductChanges changes = onOtherThread(other, () -> {
+                            ids.add(create("Seq second"));
+                            return productService.getChanges(since, 500);
+                        });
+                        assertTrue(changes.getItems().isEmpty());
+                        assertEquals(since, changes.getSince());
+                    }
+                });
+            });
+
+            ProductChanges changes = productService.getChanges(since, 500);
+            assertEquals(ids, changes.getItems().stream().map(ProductDTO::getId).toList());
+            assertEquals(catalogVersionTracker.currentVersion().getVersion(), changes.getSince());
+
+            // Lưu phiên bản và xóa dòng catalog_changes cũ không đổi phiên bản
+            catalogVersionTracker.compact();
+            catalogVersionTracker.compact();
+            assertEquals(changes.getSince(), catalogVersionTracker.currentVersion().getVersion());
+        } finally {
+            other.shutdownNow();
+            ids.forEach(productService::deleteProduct);
+        }
+    }
+
+    @Test
+    @DisplayName("Change seq: sequence của transaction rollback chỉ giữ phiên bản đứng yên trong commit-grace")
+    void testRolledBackSequenceIsSkippedAfterGrace() throws Exception {
+        long since = syncAll(0);
+        assertThrows(IllegalStateException.class, () ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    create("Seq rolled back");
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void beforeCommit(boolean readOnly) {
+                            throw new IllegalStateException("rollback after the sequence was taken");
+                        }
+                    });
+                }));
+        int id = create("Seq after gap");
+        try {
+            assertTrue(productService.getChanges(since, 500).getItems().isEmpty());
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            ProductChanges changes = productService.getChanges(since, 500);
+            while (changes.getItems().isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+                changes = productService.getChanges(since, 500);
+            }
+            assertEquals(List.of(id), changes.getItems().stream().map(ProductDTO::getId).toList());
+        } finally {
+            productService.deleteProduct(id);
+        }
+    }
+
+    private int create(String name) {
+        return productService.createProduct(ProductDTO.builder().name(name).price(10.0).quantity(1).build()).getId();
+    }
+
+    /**
+     * Đồng bộ hết các thay đổi hiện có, trả về since mới nhất
+     */
+    private long syncAll(long since) {
+        ProductChanges changes;
+        do {
+            changes = productService.getChanges(since, 500);
+            since = changes.getSince();
+        } while (changes.isHasMore());
+        return since;
+    }
+
+    private static <T> T onOtherThread(ExecutorService executor, java.util.concurrent.Callable<T> task) {
+        try {
+            return executor.submit(task).get(30, TimeUnit.SECONDS);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
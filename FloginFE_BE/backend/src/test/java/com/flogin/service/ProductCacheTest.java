@@ -0,0 +1,64 @@
+package com.flogin.service;
+
+import com.flogin.dto.ProductDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache chi tiết sản phẩm khi nhiều request ghi cùng 1 sản phẩm
+ * Không chạy trong transaction của test vì cache chỉ được ghi / xóa sau khi commit
+ */
+@SpringBootTest(classes = com.flogin.FloginApplication.class)
+class ProductCacheTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Product cache: cập nhật cache của PUT chạy sau lần trừ kho commit sau nó không giữ lại tồn kho cũ")
+    void testUpdateRacingStockAdjustmentLeavesNoStaleEntry() {
+        int id = productService.createProduct(ProductDTO.builder()
+                .name("Cache race").price(10.0).quantity(10).build()).getId();
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                // Đăng ký trước updateProduct nên chạy trước thao tác cache (sau commit) của updateProduct:
+                // lần trừ kho commit và cập nhật cache xong trong khoảng giữa
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        try {
+                            other.submit(() -> productService.adjustStock(id, -3)).get(30, TimeUnit.SECONDS);
+                        } catch (Exception ex) {
+                            throw new IllegalStateException(ex);
+                        }
+                    }
+                });
+                productService.updateProduct(id, ProductDTO.builder()
+                        .name("Cache race").price(12.0).quantity(10).build());
+            });
+
+            ProductDTO cached = productService.getProductById(id);
+            assertEquals(7, cached.getQuantity());
+            assertEquals(2L, cached.getVersion());
+        } finally {
+            other.shutdownNow();
+            productService.deleteProduct(id);
+        }
+    }
+}
@@ -10,11 +10,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,6 +26,9 @@ class ProductServiceMockTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
@@ -103,4 +109,18 @@ class ProductServiceMockTest {
 
         verify(productRepository, times(1)).findById(1);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Mock: getProductsByIds đọc cả trang bằng 1 lần findAllById, giữ thứ tự và bỏ id đã xóa")
+    void testGetProductsByIdsSingleQuery() {
+        Product first = Product.builder().id(7).name("Loa").price(10.0).quantity(1).category("Âm thanh").build();
+        Product second = Product.builder().id(3).name("Tai nghe").price(20.0).quantity(2).category("Âm thanh").build();
+        when(productRepository.findAllById(List.of(3, 9, 7))).thenReturn(List.of(first, second));
+
+        List<ProductDTO> result = productService.getProductsByIds(List.of(3, 9, 7));
+
+        assertEquals(List.of(3, 7), result.stream().map(ProductDTO::getId).toList());
+        verify(productRepository, times(1)).findAllById(List.of(3, 9, 7));
+        verify(productRepository, never()).findById(anyInt());
+    }
+}
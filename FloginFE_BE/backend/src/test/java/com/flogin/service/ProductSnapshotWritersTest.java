@@ -0,0 +1,83 @@
+package com.flogin.service;
+
+import com.flogin.dto.ProductDTO;
+import com.flogin.dto.ProductPage;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Snapshot danh mục khi số request ghi đồng thời lớn hơn pool connection
+ * Request ghi còn giữ connection trong afterCommit; nếu nó chờ snapshot thì thread refresh (cần connection khác
+ * từ cùng pool) không chạy được và mọi lần ghi chờ hết thời gian chờ
+ */
+@SpringBootTest(classes = com.flogin.FloginApplication.class, properties = {
+    "spring.datasource.hikari.maximum-pool-size=" + ProductSnapshotWritersTest.POOL_SIZE,
+    "spring.datasource.hikari.minimum-idle=" + ProductSnapshotWritersTest.POOL_SIZE
+})
+class ProductSnapshotWritersTest {
+
+    static final int POOL_SIZE = 2;
+
+    private static final int WRITERS = 8;
+    private static final int WRITES_PER_WRITER = 4;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSnapshotService productSnapshotService;
+
+    @Test
+    @DisplayName("Snapshot: nhiều request ghi hơn pool không chờ snapshot và vẫn đọc lại được thay đổi của mình")
+    void testWritersBeyondPoolSizeDoNotWaitForSnapshot() throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (productSnapshotService.current() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertNotNull(productSnapshotService.current());
+
+        Queue<Integer> ids = new ConcurrentLinkedQueue<>();
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < WRITES_PER_WRITER; i++) {
+                        int id = productService.createProduct(ProductDTO.builder()
+                                .name("Writer " + writer + "-" + i).price(10.0).quantity(1).build()).getId();
+                        ids.add(id);
+                        // Đọc lại ngay sau khi ghi: snapshot chưa chứa thay đổi thì đọc đi database
+                        ProductPage page = productService.getProducts(id - 1, 1);
+                        assertEquals(id, page.getItems().get(0).getId());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // Chờ snapshot trong afterCommit: khoảng WRITERS * WRITES_PER_WRITER / POOL_SIZE * 500ms = 8s
+            assertTrue(elapsedMillis < 4_000, "writes took " + elapsedMillis + " ms");
+        } finally {
+            pool.shutdownNow();
+            ids.forEach(productService::deleteProduct);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.flogin.service;
+
+import com.flogin.config.CacheConfig;
+import com.flogin.dto.UserDTO;
+import com.flogin.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Cache UserDetails của CustomUserDetailsService
+ * Không chạy trong transaction của test vì cache chỉ được ghi / xóa sau khi commit
+ */
+@SpringBootTest(classes = com.flogin.FloginApplication.class)
+class UserDetailsCacheTest {
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @SpyBean
+    private UserRepository userRepository;
+
+    @AfterEach
+    void cleanup() {
+        userRepository.findByUsername("cacheduser").ifPresent(userRepository::delete);
+        userRepository.findByUsername("renameduser").ifPresent(userRepository::delete);
+        cacheManager.getCache(CacheConfig.USER_DETAILS).clear();
+    }
+
+    @Test
+    @DisplayName("UserDetails: load lần 2 và đăng nhập lấy từ cache, sửa / xóa user làm mất entry cache")
+    void testUserDetailsCachedAndInvalidated() {
+        UserDTO created = userService.createUser(UserDTO.builder()
+                .username("cacheduser").password("Test123").fullName("Cached User").build());
+        clearInvocations(userRepository);
+
+        UserDetails first = userDetailsService.loadUserByUsername("cacheduser");
+        UserDetails second = userDetailsService.loadUserByUsername("cacheduser");
+        assertSame(first, second);
+        assertEquals("ROLE_USER", second.getAuthorities().iterator().next().getAuthority());
+        // Đăng nhập cũng đọc qua cache
+        assertEquals("Cached User", userService.login("cacheduser", "Test123").getFullName());
+        verify(userRepository, times(1)).findByUsername("cacheduser");
+
+        userService.updateUser(created.getId(), UserDTO.builder()
+                .username("renameduser").fullName("Renamed").build());
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("cacheduser"));
+        assertEquals("renameduser", userDetailsService.loadUserByUsername("renameduser").getUsername());
+
+        userService.deleteUser(created.getId());
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("renameduser"));
+    }
+}
@@ -0,0 +1,74 @@
+package com.flogin.stats;
+
+import com.flogin.dto.CategoryStatsDTO;
+import com.flogin.dto.ProductDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CategoryAggregatesTest {
+
+    private static ProductDTO product(int id, String category, double price, int quantity) {
+        return ProductDTO.builder()
+                .id(id)
+                .name("Sản phẩm " + id)
+                .category(category)
+                .price(price)
+                .quantity(quantity)
+                .build();
+    }
+
+    private static void assertStats(CategoryStatsDTO stats, String category, long count, long stock, double value) {
+        assertEquals(category, stats.getCategory());
+        assertEquals(count, stats.getProductCount());
+        assertEquals(stock, stats.getTotalStock());
+        assertEquals(value, stats.getInventoryValue(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Stats: tạo / sửa (đổi danh mục) / xóa cập nhật đúng danh mục")
+    void testIncrementalUpdates() {
+        CategoryAggregates aggregates = new CategoryAggregates();
+        ProductDTO phone = product(1, "Điện tử", 100.0, 3);
+        ProductDTO cable = product(2, "Phụ kiện", 5.0, 10);
+        aggregates.apply(null, phone);
+        aggregates.apply(null, cable);
+        aggregates.apply(null, product(3, null, 2.0, 1));
+
+        ProductDTO movedCable = product(2, "Điện tử", 6.0, 4);
+        aggregates.apply(cable, movedCable);
+
+        List<CategoryStatsDTO> stats = aggregates.snapshot();
+        assertEquals(2, stats.size());
+        assertStats(stats.get(0), null, 1, 1, 2.0);
+        assertStats(stats.get(1), "Điện tử", 2, 7, 324.0);
+
+        aggregates.apply(phone, null);
+        assertStats(aggregates.snapshot().get(1), "Điện tử", 1, 4, 24.0);
+    }
+
+    @Test
+    @DisplayName("Stats: reconcile thay số liệu lệch bằng kết quả database, giữ thay đổi đến trong lúc reconcile")
+    void testReconcileKeepsConcurrentChanges() {
+        CategoryAggregates aggregates = new CategoryAggregates();
+        aggregates.apply(null, product(1, "Sách", 10.0, 1));
+
+        ProductDTO during = product(2, "Sách", 20.0, 2);
+        int drift = aggregates.reconcile(() -> {
+            // Thay đổi commit sau khi câu GROUP BY đã đọc xong
+            aggregates.apply(null, during);
+            return List.of(new CategoryStatsDTO("Sách", 5, 50, 500.0), new CategoryStatsDTO("Đồ chơi", 1, 1, 9.0));
+        });
+
+        assertEquals(2, drift);
+        List<CategoryStatsDTO> stats = aggregates.snapshot();
+        assertStats(stats.get(0), "Sách", 6, 52, 540.0);
+        assertStats(stats.get(1), "Đồ chơi", 1, 1, 9.0);
+
+        assertEquals(0, aggregates.reconcile(() -> List.of(
+                new CategoryStatsDTO("Sách", 6, 52, 540.0), new CategoryStatsDTO("Đồ chơi", 1, 1, 9.0))));
+    }
+}
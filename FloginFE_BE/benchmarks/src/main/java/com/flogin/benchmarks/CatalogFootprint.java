@@ -0,0 +1,126 @@
+package com.flogin.benchmarks;
+
+import com.flogin.catalog.CatalogSnapshot;
+import com.flogin.dto.ProductDTO;
+import com.flogin.model.Product;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Heap giữ lại bởi danh mục N sản phẩm (mặc định 1M): danh sách entity Product so với CatalogSnapshot
+ * Chạy: java -Xmx4g -cp benchmarks/target/benchmarks.jar com.flogin.benchmarks.CatalogFootprint [products]
+ *
+ * Không phải JMH: đo kích thước giữ lại (heap đã dùng sau GC trước / sau khi dựng), không phải tốc độ
+ * - Entity: mỗi dòng có String riêng cho name, description, category (như khi đọc từ JDBC),
+ *   Double / Integer / Instant dạng object; chưa tính persistence context của Hibernate (bản sao trạng thái
+ *   để dirty-check), nên đây là cận dưới của danh sách entity được quản lý
+ * - Snapshot: dựng từ cùng dữ liệu, các ProductDTO đầu vào không được giữ lại
+ */
+public final class CatalogFootprint {
+
+    private static final String[] CATEGORIES = {
+        "Điện tử", "Phụ kiện", "Gia dụng", "Thời trang", "Sách", "Đồ chơi", "Thể thao", "Làm đẹp",
+        "Thực phẩm", "Văn phòng phẩm", "Nội thất", "Ô tô - Xe máy", "Mẹ và bé", "Sức khỏe", "Thú cưng",
+        "Âm nhạc", "Máy tính", "Điện thoại", "Máy ảnh", "Du lịch"
+    };
+
+    /** Giữ tham chiếu tới cấu trúc đang đo để GC không thu hồi */
+    private static Object retained;
+
+    private CatalogFootprint() {}
+
+    public static void main(String[] args) throws InterruptedException {
+        int products = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        // Đo snapshot trước: heap vừa giải phóng danh sách entity làm lệch số đo của cấu trúc đo sau
+        long snapshot = retainedBytes(() -> {
+            CatalogSnapshot.Builder builder = CatalogSnapshot.builder();
+            for (int i = 1; i <= products; i++) {
+                builder.add(dto(i));
+            }
+            return builder.build(1, Instant.now());
+        });
+        long estimated = ((CatalogSnapshot) retained).estimatedBytes();
+        long entities = retainedBytes(() -> {
+            List<Product> list = new ArrayList<>(products);
+            for (int i = 1; i <= products; i++) {
+                list.add(entity(i));
+            }
+            return list;
+        });
+
+        double perMillion = 1_000_000.0 / products;
+        System.out.printf("Products:            %,d%n", products);
+        System.out.printf("Entities (List):     %,.1f MB per 1M products, %.0f B/product%n",
+                entities * perMillion / (1 << 20), (double) entities / products);
+        System.out.printf("CatalogSnapshot:     %,.1f MB per 1M products, %.0f B/product (estimatedBytes %,.1f MB)%n",
+                snapshot * perMillion / (1 << 20), (double) snapshot / products, estimated * perMillion / (1 << 20));
+        System.out.printf("Entities / snapshot: %.1fx%n", (double) entities / snapshot);
+    }
+
+    private static Product entity(int i) {
+        Product product = Product.builder()
+                .id(i)
+                .name(name(i))
+                .description(description(i))
+                .price(price(i))
+                .quantity(i % 100)
+                .category(new String(CATEGORIES[i % CATEGORIES.length]))
+                .build();
+        product.setVersion(i % 7);
+        product.setUpdatedAt(updatedAt(i));
+        product.setChangeSeq(i);
+        return product;
+    }
+
+    private static ProductDTO dto(int i) {
+        return ProductDTO.builder()
+                .id(i)
+                .name(name(i))
+                .description(description(i))
+                .price(price(i))
+                .quantity(i % 100)
+                .category(new String(CATEGORIES[i % CATEGORIES.length]))
+                .version((long) (i % 7))
+                .updatedAt(updatedAt(i))
+                .build();
+    }
+
+    private static String name(int i) {
+        return "Sản phẩm " + i;
+    }
+
+    private static String description(int i) {
+        return "Mô tả ngắn cho sản phẩm số " + i;
+    }
+
+    private static double price(int i) {
+        return 1 + (i % 10_000) / 100.0;
+    }
+
+    private static Instant updatedAt(int i) {
+        return Instant.ofEpochSecond(1_700_000_000L + i, i % 1000 * 1_000_000);
+    }
+
+    /**
+     * Heap tăng thêm sau GC khi giữ kết quả của factory
+     */
+    private static long retainedBytes(Supplier<Object> factory) throws InterruptedException {
+        retained = null;
+        long before = usedAfterGc();
+        retained = factory.get();
+        return usedAfterGc() - before;
+    }
+
+    private static long usedAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,68 @@
+package com.flogin.benchmarks;
+
+import com.flogin.dto.UserDTO;
+import com.flogin.model.User;
+import com.flogin.repository.UserRepository;
+import com.flogin.security.CredentialVerifier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.flogin.service.impl.UserServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserServiceImpl.login với BCrypt ở nhiều cost khác nhau
+ * - loginUncached: cache verify tắt (TTL = 0), mỗi lần login đều chạy BCrypt
+ * - loginCached: đăng nhập lặp lại trúng cache verify, không chạy BCrypt
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoginBenchmark {
+
+    private static final String USERNAME = "benchuser";
+    private static final String PASSWORD = "Bench123";
+
+    @Param({"4", "8", "10", "12"})
+    public int cost;
+
+    private UserServiceImpl uncached;
+    private UserServiceImpl cached;
+
+    @Setup
+    public void setup() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        Optional<User> user = Optional.of(User.builder()
+                .id(1)
+                .username(USERNAME)
+                .password(encoder.encode(PASSWORD))
+                .fullName("Bench User")
+                .email("bench@example.com")
+                .build());
+        UserRepository repository = Stubs.repository(UserRepository.class, Map.of("findByUsername", args -> user));
+
+        int permits = Runtime.getRuntime().availableProcessors();
+        uncached = new UserServiceImpl(repository,
+                new CredentialVerifier(encoder, new SimpleMeterRegistry(), 10_000, Duration.ZERO, permits, Duration.ofMinutes(1)), null);
+        cached = new UserServiceImpl(repository,
+                new CredentialVerifier(encoder, new SimpleMeterRegistry(), 10_000, Duration.ofMinutes(5), permits, Duration.ofMinutes(1)), null);
+        cached.login(USERNAME, PASSWORD);
+    }
+
+    @Benchmark
+    public UserDTO loginUncached() {
+        return uncached.login(USERNAME, PASSWORD);
+    }
+
+    @Benchmark
+    public UserDTO loginCached() {
+        return cached.login(USERNAME, PASSWORD);
+    }
+}
@@ -0,0 +1,58 @@
+package com.flogin.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.flogin.dto.ProductDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialize List<ProductDTO> bằng Jackson (giống body của GET /api/products, /search)
+ * Ghi vào OutputStream rỗng để chỉ đo chi phí serialize, không đo chi phí cấp phát buffer đích
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductJsonBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<ProductDTO> products;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setup() {
+        products = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            products.add(ProductDTO.builder()
+                    .id(i)
+                    .name("Sản phẩm " + i)
+                    .description("Mô tả chi tiết cho sản phẩm số " + i)
+                    .price(10.0 + i % 1000)
+                    .quantity(i % 50)
+                    .category("Danh mục " + i % 20)
+                    .build());
+        }
+        writer = new ObjectMapper().writerFor(new TypeReference<List<ProductDTO>>() { });
+    }
+
+    @Benchmark
+    public void serializeList() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), products);
+    }
+
+    @Benchmark
+    public byte[] serializeListToBytes() throws IOException {
+        return writer.writeValueAsBytes(products);
+    }
+}
@@ -0,0 +1,84 @@
+package com.flogin.benchmarks;
+
+import com.flogin.dto.ProductDTO;
+import com.flogin.model.Product;
+import com.flogin.repository.CatalogVersionRepository;
+import com.flogin.repository.ProductRepository;
+import com.flogin.repository.ProductTombstoneRepository;
+import com.flogin.service.impl.ProductServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chi phí map Product <-> ProductDTO
+ * - productBuilder / productDtoBuilder: Builder thủ công của entity và DTO
+ * - repositoryLookup: chỉ gọi repository giả (baseline)
+ * - serviceGetProductById: ProductServiceImpl.getProductById = baseline + toDTO,
+ *   hiệu của 2 benchmark này là chi phí của toDTO (method private nên đo qua service)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductMappingBenchmark {
+
+    private Product product;
+    private ProductRepository repository;
+    private ProductServiceImpl productService;
+
+    @Setup
+    public void setup() {
+        product = Product.builder()
+                .id(42)
+                .name("Đồng hồ thông minh")
+                .description("Theo dõi sức khỏe với cảm biến nhịp tim")
+                .price(199.99)
+                .quantity(32)
+                .category("Điện tử")
+                .build();
+        Optional<Product> found = Optional.of(product);
+        repository = Stubs.repository(ProductRepository.class, Map.of("findById", args -> found));
+        productService = new ProductServiceImpl(repository, event -> { },
+                Stubs.repository(CatalogVersionRepository.class, Map.of()),
+                Stubs.repository(ProductTombstoneRepository.class, Map.of()), null);
+    }
+
+    @Benchmark
+    public Product productBuilder() {
+        return Product.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .quantity(product.getQuantity())
+                .category(product.getCategory())
+                .build();
+    }
+
+    @Benchmark
+    public ProductDTO productDtoBuilder() {
+        return ProductDTO.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .description(product.getDescription())
+                .price(product.getPrice())
+                .quantity(product.getQuantity())
+                .category(product.getCategory())
+                .build();
+    }
+
+    @Benchmark
+    public Optional<Product> repositoryLookup() {
+        return repository.findById(42);
+    }
+
+    @Benchmark
+    public ProductDTO serviceGetProductById() {
+        return productService.getProductById(42);
+    }
+}
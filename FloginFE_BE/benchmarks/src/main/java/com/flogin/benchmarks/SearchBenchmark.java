@@ -0,0 +1,100 @@
+package com.flogin.benchmarks;
+
+import com.flogin.dto.ProductDTO;
+import com.flogin.search.ProductSearchIndex;
+import com.flogin.search.SearchResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Độ trễ full-text search (ProductSearchIndex.search, trang đầu 50 kết quả) trên danh mục N sản phẩm (mặc định 1M)
+ * Mode.SampleTime: JMH in p50 / p90 / p99 / p99.9 của từng query
+ * Chạy: java -jar benchmarks/target/benchmarks.jar SearchBenchmark
+ *
+ * Dữ liệu sinh ngẫu nhiên (seed cố định): name = loại sản phẩm + thương hiệu + mã model,
+ * category lấy từ 20 danh mục, description 6 từ lấy lệch về các từ đầu của bộ từ vựng (từ phổ biến / hiếm)
+ * Query:
+ * - "dien thoai samsung": 3 từ phổ biến (AND)
+ * - "tai nghe": 2 từ phổ biến, nhiều kết quả
+ * - "sam": tiền tố, ít term khớp
+ * - "x12": tiền tố của hơn MAX_PREFIX_EXPANSIONS mã model (kết quả truncated)
+ * - "may tinh x4242": từ phổ biến giao với 1 từ hiếm
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    private static final String[] TYPES = {
+        "Điện thoại", "Tai nghe", "Máy tính bảng", "Máy tính xách tay", "Đồng hồ thông minh", "Loa bluetooth",
+        "Bàn phím cơ", "Chuột không dây", "Màn hình", "Sạc dự phòng", "Cáp sạc", "Ốp lưng", "Máy ảnh",
+        "Ống kính", "Tủ lạnh", "Máy giặt", "Nồi cơm điện", "Quạt điện", "Bàn làm việc", "Ghế công thái học",
+        "Áo thun", "Giày chạy bộ", "Balo", "Vali", "Bình giữ nhiệt", "Đèn bàn", "Máy lọc không khí",
+        "Robot hút bụi", "Bếp từ", "Lò vi sóng"
+    };
+
+    private static final String[] BRANDS = {
+        "Samsung", "Apple", "Xiaomi", "Sony", "LG", "Panasonic", "Asus", "Dell", "Lenovo", "Logitech",
+        "Anker", "Baseus", "Canon", "Nikon", "Philips", "Sharp", "Toshiba", "Sunhouse", "Kangaroo", "Nike",
+        "Adidas", "Casio", "Huawei", "Oppo", "Vivo", "Realme", "Acer", "HP", "JBL", "Marshall"
+    };
+
+    private static final String[] CATEGORIES = {
+        "Điện tử", "Phụ kiện", "Gia dụng", "Thời trang", "Sách", "Đồ chơi", "Thể thao", "Làm đẹp",
+        "Thực phẩm", "Văn phòng phẩm", "Nội thất", "Ô tô - Xe máy", "Mẹ và bé", "Sức khỏe", "Thú cưng",
+        "Âm nhạc", "Máy tính", "Điện thoại", "Máy ảnh", "Du lịch"
+    };
+
+    private static final String[] WORDS = {
+        "chính", "hãng", "bảo", "hành", "tháng", "cao", "cấp", "mới", "chống", "nước", "pin", "trâu",
+        "nhỏ", "gọn", "nhẹ", "bền", "đẹp", "màu", "đen", "trắng", "xanh", "đỏ", "bạc", "vàng", "hồng",
+        "sạc", "nhanh", "không", "dây", "kết", "nối", "wifi", "tiết", "kiệm", "điện", "năng", "thông",
+        "minh", "cảm", "biến", "âm", "thanh", "sống", "động", "hình", "ảnh", "sắc", "nét", "chất", "liệu",
+        "nhôm", "thép", "nhựa", "gỗ", "vải", "da", "thật", "giảm", "giá", "khuyến", "mãi", "quà", "tặng",
+        "miễn", "phí", "vận", "chuyển", "toàn", "quốc", "trả", "góp", "lãi", "suất", "đổi", "trả", "ngày"
+    };
+
+    @Param({"1000000"})
+    public int products;
+
+    @Param({"dien thoai samsung", "tai nghe", "sam", "x12", "may tinh x4242"})
+    public String query;
+
+    private ProductSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        index = new ProductSearchIndex();
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder description = new StringBuilder();
+        for (int i = 1; i <= products; i++) {
+            description.setLength(0);
+            for (int w = 0; w < 6; w++) {
+                // Bình phương của số ngẫu nhiên: các từ đầu bộ từ vựng xuất hiện nhiều hơn
+                double skew = random.nextDouble();
+                description.append(WORDS[(int) (skew * skew * WORDS.length)]).append(' ');
+            }
+            index.upsert(ProductDTO.builder()
+                    .id(i)
+                    .name(TYPES[random.nextInt(TYPES.length)] + " " + BRANDS[random.nextInt(BRANDS.length)]
+                            + " X" + random.nextInt(20_000))
+                    .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                    .description(description.toString())
+                    .price(1 + random.nextInt(10_000) / 100.0)
+                    .quantity(random.nextInt(100))
+                    .build());
+        }
+        SearchResult result = index.search(query, 0, 50);
+        System.out.printf("%nquery \"%s\": %,d results%s%n", query, result.getTotal(), result.isTruncated() ? " (truncated)" : "");
+    }
+
+    @Benchmark
+    public SearchResult search() {
+        return index.search(query, 0, 50);
+    }
+}
@@ -0,0 +1,33 @@
+package com.flogin.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Repository giả (in-memory) cho benchmark, không cần database hay Spring context
+ * Tạo bằng JDK Proxy: chỉ các method được khai báo trong handlers trả về dữ liệu,
+ * gọi method khác sẽ ném UnsupportedOperationException để benchmark không vô tình đo nhầm đường code
+ */
+final class Stubs {
+
+    private Stubs() {}
+
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> handlers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> handler = handlers.get(method.getName());
+            if (handler != null) {
+                return handler.apply(args);
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + " stub";
+                };
+            }
+            throw new UnsupportedOperationException(method.getName() + " is not stubbed");
+        });
+    }
+}
@@ -0,0 +1,42 @@
+package com.flogin.benchmarks;
+
+import com.flogin.security.AuthenticatedUser;
+import com.flogin.security.IssuedToken;
+import com.flogin.security.TokenService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phát hành / xác thực token đăng nhập
+ * AuthService.generateToken ủy quyền cho TokenService.issue nên được đo trực tiếp ở đây;
+ * verifyBearerHeader là đường xử lý của TokenAuthenticationFilter cho mỗi request đã xác thực
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenBenchmark {
+
+    private TokenService tokenService;
+    private String bearerHeader;
+
+    @Setup
+    public void setup() {
+        tokenService = new TokenService("benchmark-secret", Duration.ofHours(1), Duration.ofHours(12));
+        bearerHeader = "Bearer " + tokenService.issue(42).getToken();
+    }
+
+    @Benchmark
+    public IssuedToken issueToken() {
+        return tokenService.issue(42);
+    }
+
+    @Benchmark
+    public AuthenticatedUser verifyBearerHeader() {
+        return tokenService.verify(bearerHeader, 7);
+    }
+}
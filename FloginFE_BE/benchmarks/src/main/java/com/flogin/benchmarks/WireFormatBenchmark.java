@@ -0,0 +1,98 @@
+package com.flogin.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.flogin.dto.ProductDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * So sánh JSON / CBOR / Smile cho body List<ProductDTO> (GET /api/products, /search)
+ * - serialize / deserialize: chi phí CPU của từng định dạng
+ * - serializeGzip: chi phí khi Tomcat nén thêm gzip (server.compression)
+ * Kích thước payload (thô và sau gzip) được in ra 1 lần ở @Setup để đối chiếu băng thông
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WireFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"50", "1000"})
+    public int size;
+
+    private List<ProductDTO> products;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws IOException {
+        products = new ArrayList<>(size);
+        Instant now = Instant.now();
+        for (int i = 1; i <= size; i++) {
+            products.add(ProductDTO.builder()
+                    .id(i)
+                    .name("Sản phẩm " + i)
+                    .description("Mô tả chi tiết cho sản phẩm số " + i + ", chất liệu cao cấp, bảo hành 12 tháng")
+                    .price(10.0 + i % 1000)
+                    .quantity(i % 50)
+                    .category("Danh mục " + i % 20)
+                    .version((long) i % 3)
+                    .updatedAt(now)
+                    .build());
+        }
+        ObjectMapper mapper = switch (format) {
+            case "cbor" -> CBORMapper.builder().findAndAddModules().build();
+            case "smile" -> SmileMapper.builder().findAndAddModules().build();
+            default -> JsonMapper.builder().findAndAddModules().build();
+        };
+        TypeReference<List<ProductDTO>> type = new TypeReference<>() { };
+        writer = mapper.writerFor(type);
+        reader = mapper.readerFor(type);
+        payload = writer.writeValueAsBytes(products);
+        System.out.printf("%n[%s, size=%d] payload=%d bytes, gzip=%d bytes%n",
+                format, size, payload.length, gzip().length);
+    }
+
+    @Benchmark
+    public void serialize() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), products);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        return gzip();
+    }
+
+    @Benchmark
+    public List<ProductDTO> deserialize() throws IOException {
+        return reader.readValue(payload);
+    }
+
+    private byte[] gzip() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(payload != null ? payload.length : 8192);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            writer.writeValue(out, products);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -7,6 +7,9 @@ import axios from 'axios';
 // Base URL của Product API (backend chạy ở port 8080)
 const API_URL = 'http://localhost:8080/api/products';
 
+// Kích thước trang tối đa của GET /api/products (ProductService.MAX_PAGE_SIZE)
+const PAGE_SIZE = 500;
+
 /**
  * Product Service Object chứa các methods để tương tác với Product API
  * Tất cả methods đều là async và return Promise
@@ -14,14 +17,26 @@ const API_URL = 'http://localhost:8080/api/products';
 const productService = {
   /**
    * Lấy danh sách tất cả sản phẩm
-   * GET /api/products
+   * GET /api/products?after={cursor}&limit={n}
+   * 
+   * API trả theo trang (mặc định 50 sản phẩm), nên đọc lần lượt từng trang theo header
+   * X-Next-Cursor cho đến khi không còn header này
    * 
    * @returns {Promise<Array>} Promise resolve với mảng products
    * @throws {Error} Nếu API call thất bại
    */
   getAllProducts: async () => {
-    const response = await axios.get(API_URL);
-    return response.data;
+    const products = [];
+    let after = 0;
+    for (;;) {
+      const response = await axios.get(API_URL, { params: { after, limit: PAGE_SIZE } });
+      products.push(...response.data);
+      const nextCursor = response.headers?.['x-next-cursor'];
+      if (!nextCursor) {
+        return products;
+      }
+      after = Number(nextCursor);
+    }
   },
 
   /**
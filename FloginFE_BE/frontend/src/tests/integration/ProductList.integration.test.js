@@ -9,6 +9,15 @@ jest.mock('../../services/productService.js', () => ({
   },
 }));
 
+// axios giả lập để chạy productService thật (phân trang theo X-Next-Cursor)
+jest.mock('axios', () => ({
+  __esModule: true,
+  default: {
+    get: jest.fn(),
+  },
+}));
+
+import axios from 'axios';
 import productService from '../../services/productService.js';
 import ProductList from '../../components/ProductList.jsx'
 import { validateProduct } from '../../utils/validateProduct.js'
@@ -37,6 +46,36 @@ describe('ProductList Integration', () => {
     })
   })
 
+  test('Đọc hết các trang theo X-Next-Cursor', async () => {
+    const { default: realService } = jest.requireActual('../../services/productService.js')
+    productService.getAllProducts.mockImplementationOnce(realService.getAllProducts)
+    axios.get
+      .mockResolvedValueOnce({
+        data: [
+          { id: 1, name: 'Đồng hồ thông minh', desc: 'Đồng hồ thông minh đa năng', price: 999000, category: 'Điện tử', stock: 36 },
+          { id: 2, name: 'Giá đỡ laptop', desc: 'Giá đỡ laptop nhôm ergonomic', price: 399000, category: 'Phụ kiện', stock: 78 },
+        ],
+        headers: { 'x-next-cursor': '2' },
+      })
+      .mockResolvedValueOnce({
+        data: [
+          { id: 3, name: 'Chuột không dây', desc: 'Chuột không dây tiện lợi', price: 299000, category: 'Phụ kiện', stock: 20 },
+        ],
+        headers: {},
+      })
+
+    render(<ProductList />)
+
+    await waitFor(() => {
+      const items = screen.getAllByTestId('product-item')
+      expect(items).toHaveLength(3)
+      expect(items[2].textContent).toContain('Chuột không dây')
+    })
+    expect(axios.get).toHaveBeenCalledTimes(2)
+    expect(axios.get.mock.calls[0][1]).toEqual({ params: { after: 0, limit: 500 } })
+    expect(axios.get.mock.calls[1][1]).toEqual({ params: { after: 2, limit: 500 } })
+  })
+
   test('Hiển thị lỗi khi API lỗi', async () => {
     productService.getAllProducts.mockRejectedValueOnce(new Error('Server error'));
     render(<ProductList />)
@@ -32,6 +32,8 @@ describe('Product CRUD Mock Tests', () => {
       render(<ProductList />);
       const items = await screen.findAllByTestId('product-item');
       expect(items).toHaveLength(3);
+      // getAllProducts tự đọc hết các trang, ProductList chỉ gọi 1 lần
+      expect(productService.getAllProducts).toHaveBeenCalledTimes(1);
       mockProducts.forEach(p => {
         expect(validateProduct(p)).toBe(true);
       });
@@ -0,0 +1,11 @@
+-- Dữ liệu mẫu cho load test
+-- 1000 user loaduser1..loaduser1000, mật khẩu Test123 (BCrypt cost 10)
+INSERT INTO users (username, password, full_name, email)
+SELECT 'loaduser' || X, '$2a$10$Nao9xBNu1gMtvr1ZnoNBfeBibZIIpx4SKze4F50Qr7IOAwLgJTKau', 'Load User ' || X, 'loaduser' || X || '@example.com'
+FROM SYSTEM_RANGE(1, 1000);
+
+-- 10000 sản phẩm, id 1..10000
+INSERT INTO products (name, description, price, quantity, category, version, updated_at)
+SELECT 'Sản phẩm ' || X, 'Mô tả chi tiết cho sản phẩm số ' || X || ', chất liệu cao cấp, bảo hành 12 tháng',
+       10 + MOD(X, 1000), 1000 + MOD(X, 50), 'Danh mục ' || MOD(X, 20), 0, CURRENT_TIMESTAMP
+FROM SYSTEM_RANGE(1, 10000);
@@ -0,0 +1,53 @@
+package com.flogin.loadtests;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kiểm tra kết quả assertion của lần chạy Gatling gần nhất (phase verify)
+ *
+ * Gatling chạy với failOnError=false để backend luôn được dừng ở post-integration-test;
+ * class này đọc target/gatling/lastRun.txt và js/assertions.xml của lần chạy đó,
+ * in các ngân sách bị vượt và ném exception để build thất bại
+ */
+public final class BudgetCheck {
+
+    private BudgetCheck() {}
+
+    public static void main(String[] args) throws Exception {
+        Path results = Path.of(args.length > 0 ? args[0] : "target/gatling");
+        Path lastRun = results.resolve("lastRun.txt");
+        if (!Files.exists(lastRun)) {
+            throw new IllegalStateException("No Gatling run found in " + results);
+        }
+        List<String> failed = new ArrayList<>();
+        int total = 0;
+        for (String run : Files.readAllLines(lastRun)) {
+            if (run.isBlank()) {
+                continue;
+            }
+            Document report = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                    .parse(results.resolve(run.trim()).resolve("js/assertions.xml").toFile());
+            NodeList testcases = report.getElementsByTagName("testcase");
+            for (int i = 0; i < testcases.getLength(); i++) {
+                Element testcase = (Element) testcases.item(i);
+                total++;
+                if (!"true".equals(testcase.getAttribute("status"))) {
+                    failed.add(testcase.getAttribute("name"));
+                }
+            }
+        }
+        if (!failed.isEmpty()) {
+            failed.forEach(name -> System.out.println("[BUDGET EXCEEDED] " + name));
+            throw new IllegalStateException(failed.size() + " of " + total + " load-test budgets exceeded");
+        }
+        System.out.println("All " + total + " load-test budgets met");
+    }
+}
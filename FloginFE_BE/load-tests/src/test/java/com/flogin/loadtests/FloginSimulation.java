@@ -0,0 +1,50 @@
+package com.flogin.loadtests;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+
+/**
+ * Load test end-to-end cho REST API (auth, products, users)
+ *
+ * Tham số chung xem LoadSimulation; rate là số user mới mỗi giây của scenario browse,
+ * crud = rate / 4, users = rate / 10
+ *
+ * Báo cáo HTML (p50 / p95 / p99 / p99.9, throughput) nằm trong target/gatling;
+ * assertion theo budgets.properties làm build thất bại khi vượt ngân sách
+ */
+public class FloginSimulation extends LoadSimulation {
+
+    {
+        setUp(
+                Journeys.browse().injectOpen(injection(rate)),
+                Journeys.crud().injectOpen(injection(rate / 4)),
+                Journeys.users().injectOpen(injection(rate / 10))
+        ).protocols(protocol).assertions(budgets(Journeys.REQUESTS));
+    }
+
+    /**
+     * Gọi thử login / danh sách / chi tiết sản phẩm tuần tự trước khi bắt đầu đo
+     */
+    @Override
+    public void before() {
+        HttpClient client = HttpClient.newHttpClient();
+        try {
+            for (int i = 1; i <= warmup; i++) {
+                String login = "{\"username\":\"loaduser" + (i % Journeys.SEEDED_USERS + 1)
+                        + "\",\"password\":\"" + Journeys.PASSWORD + "\"}";
+                send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(login)));
+                send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/api/products?limit=50&after=" + i * 50)));
+                send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/" + i)));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Backend is not reachable at " + baseUrl, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.flogin.loadtests;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Các hành trình người dùng (scenario) của load test
+ * Mỗi scenario là 1 group trong báo cáo Gatling; ngân sách (budgets.properties) áp cho từng request trong group
+ *
+ * Dữ liệu mẫu của profile loadtest: user loaduser1..loaduser1000 (mật khẩu Test123), sản phẩm id 1..10000
+ */
+final class Journeys {
+
+    static final String BROWSE = "browse";
+    static final String CRUD = "crud";
+    static final String USERS = "users";
+    static final String CATALOG = "catalog";
+    static final String INVENTORY = "inventory";
+
+    /** Tên request của từng scenario, dùng để tạo assertion theo ngân sách */
+    static final Map<String, List<String>> REQUESTS = Map.of(
+            BROWSE, List.of("login", "list products", "next page", "get product"),
+            CRUD, List.of("login", "create product", "get product", "update product", "adjust stock", "delete product"),
+            USERS, List.of("list users", "get user", "register", "login"));
+
+    /** Scenario của ProductApiSimulation: chỉ product API, không đăng nhập (chạy được trên stack reactive) */
+    static final Map<String, List<String>> PRODUCT_API_REQUESTS = Map.of(
+            CATALOG, List.of("list products", "next page", "get product", "revalidate product"),
+            INVENTORY, List.of("create product", "get product", "update product", "adjust stock", "delete product"));
+
+    static final int SEEDED_USERS = 1000;
+    static final int SEEDED_PRODUCTS = 10000;
+    static final String PASSWORD = "Test123";
+
+    private static final AtomicLong REGISTERED = new AtomicLong();
+
+    private Journeys() {}
+
+    /**
+     * Đăng nhập rồi duyệt 3 trang danh sách và xem chi tiết vài sản phẩm
+     */
+    static ScenarioBuilder browse() {
+        return scenario(BROWSE).feed(seededUsers()).group(BROWSE).on(
+                login(),
+                exec(http("list products").get("/api/products?limit=50")
+                        .header("Authorization", "Bearer #{token}")
+                        .check(status().is(200), header("X-Next-Cursor").saveAs("after"))),
+                pause(1),
+                repeat(2).on(
+                        exec(http("next page").get("/api/products?limit=50&after=#{after}")
+                                .header("Authorization", "Bearer #{token}")
+                                .check(status().is(200), header("X-Next-Cursor").saveAs("after"))),
+                        pause(1)),
+                repeat(3).on(
+                        exec(session -> session.set("productId", randomInt(SEEDED_PRODUCTS))),
+                        exec(http("get product").get("/api/products/#{productId}")
+                                .header("Authorization", "Bearer #{token}")
+                                .check(status().is(200), jsonPath("$.id").exists())),
+                        pause(Duration.ofMillis(500))));
+    }
+
+    /**
+     * Vòng đời đầy đủ của 1 sản phẩm: tạo, đọc, sửa (kèm version), trừ tồn kho, xóa
+     */
+    static ScenarioBuilder crud() {
+        return scenario(CRUD).feed(seededUsers()).group(CRUD).on(
+                login(),
+                exec(http("create product").post("/api/products")
+                        .header("Authorization", "Bearer #{token}")
+                        .body(StringBody("{\"name\":\"Load #{username}\",\"description\":\"Sản phẩm tạo bởi load test\","
+                                + "\"price\":99.5,\"quantity\":100,\"category\":\"Load test\"}")).asJson()
+                        .check(status().is(201), jsonPath("$.id").saveAs("productId"))),
+                exec(http("get product").get("/api/products/#{productId}")
+                        .header("Authorization", "Bearer #{token}")
+                        .check(status().is(200), jsonPath("$.version").saveAs("version"))),
+                pause(1),
+                exec(http("update product").put("/api/products/#{productId}")
+                        .header("Authorization", "Bearer #{token}")
+                        .body(StringBody("{\"name\":\"Load #{username} v2\",\"description\":\"Đã cập nhật\","
+                                + "\"price\":89.5,\"quantity\":100,\"category\":\"Load test\",\"version\":#{version}}")).asJson()
+                        .check(status().is(200))),
+                exec(http("adjust stock").patch("/api/products/#{productId}/stock")
+                        .header("Authorization", "Bearer #{token}")
+                        .body(StringBody("{\"delta\":-1}")).asJson()
+                        .check(status().is(200), jsonPath("$.quantity").is("99"))),
+                pause(1),
+                exec(http("delete product").delete("/api/products/#{productId}")
+                        .header("Authorization", "Bearer #{token}")
+                        .check(status().is(204))));
+    }
+
+    /**
+     * Quản lý user: xem danh sách, xem 1 user, đăng ký tài khoản mới và đăng nhập bằng tài khoản đó
+     */
+    static ScenarioBuilder users() {
+        return scenario(USERS).group(USERS).on(
+                exec(http("list users").get("/api/users").check(status().is(200))),
+                exec(session -> session.set("userId", randomInt(SEEDED_USERS))),
+                exec(http("get user").get("/api/users/#{userId}").check(status().is(200))),
+                pause(1),
+                exec(session -> session.set("username", "newuser" + REGISTERED.incrementAndGet() + "-" + System.nanoTime())),
+                exec(http("register").post("/api/users")
+                        .body(StringBody("{\"username\":\"#{username}\",\"password\":\"" + PASSWORD + "\","
+                                + "\"fullName\":\"Load Test\",\"email\":\"#{username}@example.com\"}")).asJson()
+                        .check(status().is(201))),
+                login());
+    }
+
+    /**
+     * Duyệt 3 trang danh sách, xem chi tiết vài sản phẩm và kiểm tra lại 1 sản phẩm bằng ETag (304)
+     */
+    static ScenarioBuilder catalog() {
+        return scenario(CATALOG).group(CATALOG).on(
+                exec(http("list products").get("/api/products?limit=50")
+                        .check(status().is(200), header("X-Next-Cursor").saveAs("after"))),
+                pause(1),
+                repeat(2).on(
+                        exec(http("next page").get("/api/products?limit=50&after=#{after}")
+                                .check(status().is(200), header("X-Next-Cursor").saveAs("after"))),
+                        pause(1)),
+                repeat(3).on(
+                        exec(session -> session.set("productId", randomInt(SEEDED_PRODUCTS))),
+                        exec(http("get product").get("/api/products/#{productId}")
+                                .check(status().is(200), header("ETag").saveAs("eTag"))),
+                        pause(Duration.ofMillis(500))),
+                exec(http("revalidate product").get("/api/products/#{productId}")
+                        .header("If-None-Match", "#{eTag}")
+                        .check(status().is(304))));
+    }
+
+    /**
+     * Vòng đời của 1 sản phẩm như crud nhưng không đăng nhập
+     */
+    static ScenarioBuilder inventory() {
+        return scenario(INVENTORY).group(INVENTORY).on(
+                exec(session -> session.set("name", "Inventory " + REGISTERED.incrementAndGet())),
+                exec(http("create product").post("/api/products")
+                        .body(StringBody("{\"name\":\"#{name}\",\"description\":\"Sản phẩm tạo bởi load test\","
+                                + "\"price\":99.5,\"quantity\":100,\"category\":\"Load test\"}")).asJson()
+                        .check(status().is(201), jsonPath("$.id").saveAs("productId"))),
+                exec(http("get product").get("/api/products/#{productId}")
+                        .check(status().is(200), jsonPath("$.version").saveAs("version"))),
+                pause(1),
+                exec(http("update product").put("/api/products/#{productId}")
+                        .body(StringBody("{\"name\":\"#{name} v2\",\"description\":\"Đã cập nhật\","
+                                + "\"price\":89.5,\"quantity\":100,\"category\":\"Load test\",\"version\":#{version}}")).asJson()
+                        .check(status().is(200))),
+                exec(http("adjust stock").patch("/api/products/#{productId}/stock")
+                        .body(StringBody("{\"delta\":-1}")).asJson()
+                        .check(status().is(200), jsonPath("$.quantity").is("99"))),
+                pause(1),
+                exec(http("delete product").delete("/api/products/#{productId}")
+                        .check(status().is(204))));
+    }
+
+    private static ChainBuilder login() {
+        return exec(http("login").post("/api/auth/login")
+                .body(StringBody("{\"username\":\"#{username}\",\"password\":\"" + PASSWORD + "\"}")).asJson()
+                .check(status().is(200), jsonPath("$.token").saveAs("token")));
+    }
+
+    private static Iterator<Map<String, Object>> seededUsers() {
+        return Stream.generate(() -> Map.<String, Object>of("username", "loaduser" + randomInt(SEEDED_USERS)))
+                .iterator();
+    }
+
+    /** Số ngẫu nhiên trong [1, bound] */
+    private static int randomInt(int bound) {
+        return ThreadLocalRandom.current().nextInt(bound) + 1;
+    }
+}
@@ -0,0 +1,102 @@
+package com.flogin.loadtests;
+
+import io.gatling.javaapi.core.Assertion;
+import io.gatling.javaapi.core.OpenInjectionStep;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Phần chung của các simulation: tham số chạy, protocol HTTP, profile tải và ngân sách
+ *
+ * Tham số (system property):
+ * - baseUrl: địa chỉ backend (mặc định http://localhost:18080)
+ * - profile: smoke | load | stress (mặc định smoke)
+ *   - smoke: vài chục user mỗi scenario, kiểm tra nhanh harness và ngân sách
+ *   - load: tăng dần tới tải mục tiêu rồi giữ ổn định
+ *   - stress: tăng theo bậc để tìm điểm gãy
+ * - rate: số user mới mỗi giây ở tải mục tiêu của scenario chính (mặc định 20)
+ * - duration: thời gian giữ tải mục tiêu (giây, mặc định 120)
+ * - warmup: số vòng gọi thử trước khi đo (mặc định 50), để JIT của backend không rơi vào kết quả
+ */
+abstract class LoadSimulation extends Simulation {
+
+    protected final String baseUrl = System.getProperty("baseUrl", "http://localhost:18080");
+    protected final String profile = System.getProperty("profile", "smoke");
+    protected final double rate = Double.parseDouble(System.getProperty("rate", "20"));
+    protected final Duration duration = Duration.ofSeconds(Long.getLong("duration", 120));
+    protected final int warmup = Integer.getInteger("warmup", 50);
+
+    protected final HttpProtocolBuilder protocol = http
+            .baseUrl(baseUrl)
+            .acceptHeader("application/json")
+            .acceptEncodingHeader("gzip")
+            .contentTypeHeader("application/json")
+            .shareConnections();
+
+    protected static void send(HttpClient client, HttpRequest.Builder request) throws IOException, InterruptedException {
+        client.send(request.build(), HttpResponse.BodyHandlers.discarding());
+    }
+
+    protected List<OpenInjectionStep> injection(double usersPerSec) {
+        return switch (profile) {
+            case "smoke" -> List.of(
+                    atOnceUsers(1),
+                    rampUsers(Math.max(5, (int) usersPerSec)).during(Duration.ofSeconds(20)));
+            case "load" -> List.of(
+                    rampUsersPerSec(0.5).to(usersPerSec).during(Duration.ofSeconds(60)),
+                    constantUsersPerSec(usersPerSec).during(duration));
+            case "stress" -> List.of(
+                    incrementUsersPerSec(usersPerSec / 2)
+                            .times(6)
+                            .eachLevelLasting(Duration.ofSeconds(30))
+                            .separatedByRampsLasting(Duration.ofSeconds(10))
+                            .startingFrom(usersPerSec / 2));
+            default -> throw new IllegalArgumentException("Unknown load profile: " + profile);
+        };
+    }
+
+    /**
+     * Assertion cho từng request của từng scenario theo budgets.properties
+     * Khóa {scenario}.{request}.p95 (nếu có) ghi đè ngân sách chung {scenario}.p95 của scenario, tương tự cho p99
+     */
+    protected static List<Assertion> budgets(Map<String, List<String>> scenarios) {
+        Properties budgets = new Properties();
+        try (InputStream in = LoadSimulation.class.getResourceAsStream("/budgets.properties")) {
+            budgets.load(in);
+        } catch (IOException | NullPointerException ex) {
+            throw new IllegalStateException("budgets.properties not found on the test classpath", ex);
+        }
+        List<Assertion> assertions = new ArrayList<>();
+        scenarios.forEach((scenario, requests) -> {
+            double maxErrors = Double.parseDouble(budgets.getProperty(scenario + ".max-error-percent"));
+            for (String request : requests) {
+                int p95 = budget(budgets, scenario, request, "p95");
+                int p99 = budget(budgets, scenario, request, "p99");
+                assertions.add(details(scenario, request).responseTime().percentile(95.0).lt(p95));
+                assertions.add(details(scenario, request).responseTime().percentile(99.0).lt(p99));
+                assertions.add(details(scenario, request).failedRequests().percent().lte(maxErrors));
+            }
+        });
+        return assertions;
+    }
+
+    private static int budget(Properties budgets, String scenario, String request, String percentile) {
+        String value = budgets.getProperty(scenario + "." + request.replace(' ', '-') + "." + percentile,
+                budgets.getProperty(scenario + "." + percentile));
+        return Integer.parseInt(value);
+    }
+}
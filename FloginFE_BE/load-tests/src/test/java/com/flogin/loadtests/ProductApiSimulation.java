@@ -0,0 +1,41 @@
+package com.flogin.loadtests;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+
+/**
+ * Load test chỉ dùng product API, không đăng nhập: chạy được trên cả stack MVC mặc định
+ * và stack reactive (profile reactive), dùng để so sánh 2 stack với cùng kịch bản
+ *
+ * Tham số chung xem LoadSimulation; rate là số user mới mỗi giây của scenario catalog, inventory = rate / 4
+ */
+public class ProductApiSimulation extends LoadSimulation {
+
+    {
+        setUp(
+                Journeys.catalog().injectOpen(injection(rate)),
+                Journeys.inventory().injectOpen(injection(rate / 4))
+        ).protocols(protocol).assertions(budgets(Journeys.PRODUCT_API_REQUESTS));
+    }
+
+    /**
+     * Gọi thử danh sách / chi tiết sản phẩm tuần tự trước khi bắt đầu đo
+     */
+    @Override
+    public void before() {
+        HttpClient client = HttpClient.newHttpClient();
+        try {
+            for (int i = 1; i <= warmup; i++) {
+                send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/api/products?limit=50&after=" + i * 50)));
+                send(client, HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/" + i)));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Backend is not reachable at " + baseUrl, ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
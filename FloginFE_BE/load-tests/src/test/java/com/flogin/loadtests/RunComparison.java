@@ -0,0 +1,68 @@
+package com.flogin.loadtests;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In bảng so sánh p95 / p99 / throughput / tỉ lệ lỗi của nhiều lần chạy Gatling, theo từng request
+ *
+ * Tham số: label=thư mục báo cáo Gatling, ví dụ mvc=results/mvc reactive=results/reactive
+ * (dùng bởi performance-tests/reactive/compare.sh); số liệu đọc từ js/stats.json của mỗi báo cáo,
+ * percentiles2 / percentiles3 là p95 / p99 theo gatling.conf
+ */
+public final class RunComparison {
+
+    private RunComparison() {}
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Map<String, JsonNode>> runs = new LinkedHashMap<>();
+        List<String> requests = new ArrayList<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String label = arg.substring(0, separator);
+            JsonNode root = mapper.readTree(Files.readAllBytes(Path.of(arg.substring(separator + 1), "js", "stats.json")));
+            Map<String, JsonNode> stats = new LinkedHashMap<>();
+            collect(root, "", stats);
+            stats.keySet().stream().filter(name -> !requests.contains(name)).forEach(requests::add);
+            runs.put(label, stats);
+        }
+
+        System.out.printf("%-40s %-10s %8s %8s %10s %8s%n", "request", "run", "p95 ms", "p99 ms", "req/s", "errors");
+        for (String request : requests) {
+            for (Map.Entry<String, Map<String, JsonNode>> run : runs.entrySet()) {
+                JsonNode stats = run.getValue().get(request);
+                if (stats == null) {
+                    continue;
+                }
+                double total = stats.at("/numberOfRequests/total").asDouble();
+                double errors = total == 0 ? 0 : 100 * stats.at("/numberOfRequests/ko").asDouble() / total;
+                System.out.printf("%-40s %-10s %8d %8d %10.1f %7.2f%%%n", request, run.getKey(),
+                        stats.at("/percentiles2/total").asInt(), stats.at("/percentiles3/total").asInt(),
+                        stats.at("/meanNumberOfRequestsPerSecond/total").asDouble(), errors);
+            }
+        }
+    }
+
+    /**
+     * Duyệt cây group / request của stats.json, tên đầy đủ dạng "group / request"
+     */
+    private static void collect(JsonNode node, String prefix, Map<String, JsonNode> stats) {
+        String name = node.at("/stats/name").asText();
+        String path = prefix.isEmpty() ? name : prefix + " / " + name;
+        stats.put(path, node.get("stats"));
+        JsonNode contents = node.get("contents");
+        if (contents != null) {
+            String childPrefix = prefix.isEmpty() && "GROUP".equals(node.path("type").asText())
+                    && "All Requests".equals(name) ? "" : path;
+            contents.forEach(child -> collect(child, childPrefix, stats));
+        }
+    }
+}
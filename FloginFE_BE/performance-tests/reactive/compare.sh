@@ -0,0 +1,39 @@
+#!/usr/bin/env bash
+# So sánh product API trên stack MVC mặc định (Tomcat, JDBC) và stack reactive (WebFlux, R2DBC)
+# với cùng kịch bản Gatling (ProductApiSimulation), cùng H2 in-memory và dữ liệu mẫu của profile loadtest
+#
+# Yêu cầu: JDK 21, backend đã build: (cd FloginFE_BE && mvn -B -DskipTests install)
+# Cách chạy: performance-tests/reactive/compare.sh [smoke|load|stress] [rate] [duration-giây]
+# Kết quả: results/mvc/, results/reactive/ (báo cáo HTML của Gatling) và bảng p95 / p99 / req/s in ra cuối cùng
+set -euo pipefail
+
+PROFILE=${1:-load}
+RATE=${2:-40}
+DURATION=${3:-120}
+HERE=$(cd "$(dirname "$0")" && pwd)
+ROOT="$HERE/../.."
+OUT="$HERE/results"
+
+mkdir -p "$OUT"
+
+run_stack() {
+  local stack=$1 profiles=$2
+  echo "==> $stack (profiles: $profiles)"
+  # Vượt ngân sách không dừng việc so sánh: BudgetCheck vẫn in request vượt ngưỡng
+  (cd "$ROOT" && mvn -B -q verify -Pload-test -pl load-tests \
+    -Dloadtest.simulation=com.flogin.loadtests.ProductApiSimulation \
+    -Dloadtest.backend-profiles="$profiles" \
+    -Dloadtest.profile="$PROFILE" -Drate="$RATE" -Dduration="$DURATION") || true
+
+  local gatling="$ROOT/load-tests/target/gatling"
+  rm -rf "${OUT:?}/$stack"
+  cp -r "$gatling/$(head -n 1 "$gatling/lastRun.txt")" "$OUT/$stack"
+}
+
+run_stack mvc loadtest
+run_stack reactive reactive,loadtest
+
+echo
+(cd "$ROOT" && mvn -B -q -pl load-tests org.codehaus.mojo:exec-maven-plugin:3.6.4:java \
+  -Dexec.mainClass=com.flogin.loadtests.RunComparison -Dexec.classpathScope=test \
+  -Dexec.args="mvc=$OUT/mvc reactive=$OUT/reactive")
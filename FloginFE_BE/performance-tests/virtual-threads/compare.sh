@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+# So sánh throughput của backend ở chế độ platform thread và virtual thread (5000 kết nối đồng thời)
+#
+# Yêu cầu: JDK 21, JMeter 5.6+ trong PATH, MySQL đang chạy theo application.properties,
+#          backend đã build: (cd FloginFE_BE && mvn -B -DskipTests install)
+# Cách chạy: performance-tests/virtual-threads/compare.sh [threads] [duration-giây]
+# Kết quả: results/<mode>.jtl, results/<mode>-report/ và bảng tổng hợp in ra cuối cùng
+set -euo pipefail
+
+THREADS=${1:-5000}
+DURATION=${2:-120}
+HERE=$(cd "$(dirname "$0")" && pwd)
+JAR="$HERE/../../backend/target/flogin-backend-1.0.0-exec.jar"
+PLAN="$HERE/../test-plans/virtual-threads-5k.jmx"
+OUT="$HERE/results"
+BASE_URL=http://localhost:8080
+
+mkdir -p "$OUT"
+# JMeter cần nhiều file descriptor cho 5000 socket
+ulimit -n 65536 || true
+
+run_mode() {
+  local mode=$1 profiles=$2
+  echo "==> $mode (profiles: ${profiles:-default})"
+  # Profile perf: mọi kết nối đến từ localhost với cùng 1 user, nới giới hạn đăng nhập để đo thread, không đo rate limiter
+  java -Djdk.tracePinnedThreads=short -jar "$JAR" --spring.profiles.active="$profiles" \
+    > "$OUT/$mode-server.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' EXIT
+  until curl -sf "$BASE_URL/actuator/health" > /dev/null; do sleep 1; done
+
+  # Tài khoản dùng cho kịch bản đăng nhập (bỏ qua lỗi nếu đã tồn tại)
+  curl -s -o /dev/null -X POST "$BASE_URL/api/users" -H 'Content-Type: application/json' \
+    -d '{"username":"loadtest","password":"Load123","fullName":"Load Test"}' || true
+
+  rm -rf "$OUT/$mode.jtl" "$OUT/$mode-report"
+  jmeter -n -t "$PLAN" -Jthreads="$THREADS" -Jduration="$DURATION" \
+    -l "$OUT/$mode.jtl" -e -o "$OUT/$mode-report"
+
+  kill $pid; wait $pid 2>/dev/null || true
+  trap - EXIT
+  # Dòng "VirtualThread ... pinned" trong log nghĩa là có carrier thread bị pin khi đang block
+  grep -c "<== monitors" "$OUT/$mode-server.log" | xargs echo "    pinned stack traces:" || true
+}
+
+summary() {
+  local mode=$1
+  awk -F, -v mode="$mode" 'NR > 1 {
+      n++; if ($8 != "true") err++; if (min == "" || $1 < min) min = $1; if ($1 > max) max = $1
+    } END {
+      secs = (max - min) / 1000; if (secs <= 0) secs = 1
+      printf "%-10s %10d samples %10.1f req/s %8.2f%% errors\n", mode, n, n / secs, 100 * err / n
+    }' "$OUT/$mode.jtl"
+}
+
+run_mode platform perf
+run_mode virtual vthreads,perf
+
+echo
+summary platform
+summary virtual